@@ -1,7 +1,8 @@
 -- Crear tabla role
 CREATE TABLE IF NOT EXISTS role (
     id SERIAL PRIMARY KEY,
-    name VARCHAR(255) UNIQUE NOT NULL
+    name VARCHAR(255) UNIQUE NOT NULL,
+    epoch BIGINT NOT NULL DEFAULT 0  -- versión de permisos, se incrementa al modificarlos
 );
 
 -- Crear tabla permission
@@ -26,16 +27,55 @@ CREATE TABLE IF NOT EXISTS users (
     email VARCHAR(255) UNIQUE NOT NULL,
     password VARCHAR(255) NOT NULL,
     role_id INT,
+    -- Sello de seguridad: sube al cambiar el rol del usuario (claim ust de los access tokens)
+    security_stamp BIGINT,
+    security_stamp_changed_at TIMESTAMP WITH TIME ZONE,
     FOREIGN KEY (role_id) REFERENCES role(id)
 );
 
+CREATE INDEX IF NOT EXISTS idx_users_security_stamp_changed_at ON users (security_stamp_changed_at);
+
 -- Crear tabla product
 CREATE TABLE IF NOT EXISTS product (
     id SERIAL PRIMARY KEY,
     name VARCHAR(255) NOT NULL,
     description TEXT,
     price NUMERIC(19, 2) NOT NULL,
-    stock INT NOT NULL
+    stock INT NOT NULL,
+    version BIGINT NOT NULL DEFAULT 0,
+    sku VARCHAR(64) UNIQUE
+);
+
+-- Versión (bloqueo optimista): se incrementa en cada actualización y genera los ETag de producto
+ALTER TABLE product ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+-- Clave natural del proveedor: la importación masiva hace upsert por sku
+ALTER TABLE product ADD COLUMN IF NOT EXISTS sku VARCHAR(64) UNIQUE;
+
+-- Ids de Hibernate: secuencia de 50 en 50 (optimizador pooled) para poder agrupar los INSERT.
+-- Cada nextval reserva un bloque entero, así que los INSERT por SQL también pueden usarla.
+CREATE SEQUENCE IF NOT EXISTS product_seq INCREMENT BY 50;
+SELECT setval('product_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM product) + 50,
+                                      (SELECT last_value FROM product_seq)));
+ALTER TABLE product ALTER COLUMN id SET DEFAULT nextval('product_seq');
+
+-- Índices (clave, id) para la paginación por keyset de /api/products
+CREATE INDEX IF NOT EXISTS idx_product_name_id ON product (name, id);
+CREATE INDEX IF NOT EXISTS idx_product_price_id ON product (price, id);
+
+-- Último cambio de cada producto para /api/products/changes; deleted = lápida (se purga tras la retención)
+CREATE SEQUENCE IF NOT EXISTS product_change_seq;
+CREATE TABLE IF NOT EXISTS product_change (
+    seq BIGINT PRIMARY KEY,
+    product_id BIGINT NOT NULL UNIQUE,
+    deleted BOOLEAN NOT NULL,
+    changed_at TIMESTAMP NOT NULL
+);
+
+-- Fila única que los escritores del feed bloquean hasta confirmar: los seq siguen el orden de confirmación.
+-- La fila y los cambios iniciales de los productos existentes los crea ProductChangeBackfill al arrancar
+CREATE TABLE IF NOT EXISTS product_change_lock (
+    id BIGINT PRIMARY KEY
 );
 
 -- Crear tabla orders (cambiamos de "order" a "orders" para evitar palabra reservada)
@@ -46,13 +86,47 @@ CREATE TABLE IF NOT EXISTS orders (
     FOREIGN KEY (user_id) REFERENCES users(id)
 );
 
--- Crear tabla order_products
-CREATE TABLE IF NOT EXISTS order_products (
+-- Líneas de cada orden: cantidad, y nombre y precio del producto en el momento de la compra.
+-- Las lecturas de órdenes no hacen join con product; sin FK para que borrar un producto no altere el historial
+CREATE TABLE IF NOT EXISTS order_items (
     order_id INT NOT NULL,
-    product_id INT NOT NULL,
-    PRIMARY KEY (order_id, product_id),
-    FOREIGN KEY (order_id) REFERENCES orders(id) ON DELETE CASCADE,
-    FOREIGN KEY (product_id) REFERENCES product(id) ON DELETE CASCADE
+    product_id BIGINT NOT NULL,
+    product_name VARCHAR(255),
+    quantity INT NOT NULL,
+    unit_price NUMERIC(19, 2) NOT NULL,
+    FOREIGN KEY (order_id) REFERENCES orders(id) ON DELETE CASCADE
+);
+CREATE INDEX IF NOT EXISTS idx_order_items_order ON order_items (order_id);
+
+-- Listados de órdenes por keyset (id descendente), por usuario y por rango de fecha de creación
+CREATE INDEX IF NOT EXISTS idx_orders_user_id ON orders (user_id, id);
+CREATE INDEX IF NOT EXISTS idx_orders_created_at ON orders (created_at);
+
+-- Las bases existentes con la antigua tabla order_products las migra OrderItemsMigration al arrancar
+-- (este script solo se ejecuta sobre un volumen vacío)
+
+-- Outbox de eventos hacia Kafka: se escriben en la transacción de la orden y OutboxRelay los publica
+-- en lotes, en orden de id dentro de cada agregado. Las filas enviadas se borran tras outbox.retention-hours
+CREATE SEQUENCE IF NOT EXISTS outbox_event_seq;
+CREATE TABLE IF NOT EXISTS outbox_event (
+    id BIGINT PRIMARY KEY,
+    aggregate_type VARCHAR(50) NOT NULL,
+    aggregate_id BIGINT NOT NULL,
+    topic VARCHAR(100) NOT NULL,
+    payload VARCHAR(4000) NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    attempts INT NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL,
+    last_error VARCHAR(500),
+    sent_at TIMESTAMP
+);
+CREATE INDEX IF NOT EXISTS idx_outbox_event_aggregate ON outbox_event (aggregate_type, aggregate_id, id);
+CREATE INDEX IF NOT EXISTS idx_outbox_event_sent_at ON outbox_event (sent_at);
+
+-- Ids (jti) de refresh tokens ya rotados o revocados; se borran al caducar el token
+CREATE TABLE IF NOT EXISTS revoked_refresh_token (
+    jti VARCHAR(64) PRIMARY KEY,
+    expires_at TIMESTAMP NOT NULL
 );
 
 -- Insertar roles base
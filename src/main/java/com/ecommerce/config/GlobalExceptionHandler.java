@@ -1,7 +1,14 @@
 package com.ecommerce.config;
 
+import com.ecommerce.exception.AuthCapacityExceededException;
+import com.ecommerce.exception.ChangeTokenExpiredException;
+import com.ecommerce.exception.InsufficientStockException;
+import com.ecommerce.exception.InvalidCursorException;
+import com.ecommerce.exception.InvalidOrderException;
 import com.ecommerce.exception.ResourceNotFoundException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.*;
 
@@ -22,6 +29,40 @@ public class GlobalExceptionHandler {
     return ResponseEntity.status(404).body(Map.of("error", ex.getMessage()));
   }
 
+  @ExceptionHandler(InvalidCursorException.class)
+  public ResponseEntity<Map<String, String>> handleInvalidCursor(InvalidCursorException ex) {
+    return ResponseEntity.badRequest().body(Map.of("error", ex.getMessage()));
+  }
+
+  @ExceptionHandler(InvalidOrderException.class)
+  public ResponseEntity<Map<String, String>> handleInvalidOrder(InvalidOrderException ex) {
+    return ResponseEntity.badRequest().body(Map.of("error", ex.getMessage()));
+  }
+
+  @ExceptionHandler(ChangeTokenExpiredException.class)
+  public ResponseEntity<Map<String, String>> handleExpiredChangeToken(ChangeTokenExpiredException ex) {
+    return ResponseEntity.status(410).body(Map.of("error", ex.getMessage()));
+  }
+
+  // Dos escrituras concurrentes sobre la misma versión: la segunda pierde
+  @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+  public ResponseEntity<Map<String, String>> handleConcurrentUpdate(ObjectOptimisticLockingFailureException ex) {
+    return ResponseEntity.status(409).body(Map.of("error", "Concurrent update, retry the request"));
+  }
+
+  // La orden pide más unidades de las que quedan: no se ha reservado nada
+  @ExceptionHandler(InsufficientStockException.class)
+  public ResponseEntity<Map<String, String>> handleInsufficientStock(InsufficientStockException ex) {
+    return ResponseEntity.status(409).body(Map.of("error", ex.getMessage()));
+  }
+
+  @ExceptionHandler(AuthCapacityExceededException.class)
+  public ResponseEntity<Map<String, String>> handleAuthOverload(AuthCapacityExceededException ex) {
+    return ResponseEntity.status(503)
+        .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+        .body(Map.of("error", ex.getMessage()));
+  }
+
   @ExceptionHandler(Exception.class)
   public ResponseEntity<Map<String, String>> handleGeneral(Exception ex) {
     return ResponseEntity.internalServerError().body(Map.of("error", ex.getMessage()));
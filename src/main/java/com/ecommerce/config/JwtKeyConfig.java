@@ -0,0 +1,141 @@
+package com.ecommerce.config;
+
+import com.ecommerce.security.JwtKeyRing;
+import com.ecommerce.security.JwtUtil;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Loads the configured JWT key rings and installs them in {@link JwtUtil} at startup.
+ * Without configuration each process falls back to random keys, which is only acceptable
+ * for local development and tests: tokens then die on restart and do not validate on other replicas.
+ */
+@Configuration
+@EnableConfigurationProperties(JwtKeyProperties.class)
+public class JwtKeyConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(JwtKeyConfig.class);
+
+    private final JwtKeyProperties properties;
+
+    public JwtKeyConfig(JwtKeyProperties properties) {
+        this.properties = properties;
+    }
+
+    @PostConstruct
+    public void installKeyRings() {
+        JwtUtil.useKeyRings(
+            buildKeyRing("access", properties.getAccess()),
+            buildKeyRing("refresh", properties.getRefresh()));
+    }
+
+    static JwtKeyRing buildKeyRing(String name, JwtKeyProperties.KeyRing config) {
+        if (config.getKeys().isEmpty()) {
+            log.warn("No {} token keys configured (security.jwt.{}.keys): using an ephemeral key for this process", name, name);
+            return JwtKeyRing.ephemeral();
+        }
+
+        // La clave activa se decide antes de cargar nada: sin active-kid, la primera de la lista
+        String activeKid = config.getActiveKid() != null ? config.getActiveKid() : config.getKeys().get(0).getKid();
+        if (config.getKeys().stream().noneMatch(material -> activeKid.equals(material.getKid()))) {
+            throw new IllegalStateException("No " + name + " token key with the active kid '" + activeKid
+                + "' (security.jwt." + name + ".active-kid)");
+        }
+
+        Map<String, JwtKeyRing.VerificationKey> keys = new LinkedHashMap<>();
+        Key signingKey = null;
+        for (JwtKeyProperties.KeyMaterial material : config.getKeys()) {
+            SignatureAlgorithm algorithm = SignatureAlgorithm.forName(material.getAlgorithm());
+            Key verificationKey;
+            Key privateKey = null;
+            if (algorithm.isHmac()) {
+                verificationKey = Keys.hmacShaKeyFor(Base64.getDecoder().decode(read(material.getSecret(), material.getSecretFile())));
+                privateKey = verificationKey;
+            } else {
+                String family = algorithm.isEllipticCurve() ? "EC" : "RSA";
+                verificationKey = publicKey(family, read(material.getPublicKey(), material.getPublicKeyFile()));
+                String pem = readOptional(material.getPrivateKey(), material.getPrivateKeyFile());
+                if (pem != null) {
+                    privateKey = privateKey(family, pem);
+                }
+            }
+            keys.put(material.getKid(), new JwtKeyRing.VerificationKey(material.getKid(), algorithm, verificationKey));
+            if (material.getKid().equals(activeKid)) {
+                signingKey = privateKey;
+            }
+        }
+
+        // Mejor no arrancar que fallar en cada login: solo un nodo declarado de verificación puede no firmar
+        if (signingKey == null && !config.isVerificationOnly()) {
+            throw new IllegalStateException("The active " + name + " token key '" + activeKid + "' has no private key "
+                + "or secret; add it or set security.jwt." + name + ".verification-only: true");
+        }
+        JwtKeyRing ring = new JwtKeyRing(activeKid, keys, signingKey);
+        log.info("Loaded {} {} token key(s), active kid '{}'{}", keys.size(), name, activeKid,
+            ring.canSign() ? "" : " (verification only)");
+        return ring;
+    }
+
+    private static PublicKey publicKey(String family, String pem) {
+        try {
+            return KeyFactory.getInstance(family).generatePublic(new X509EncodedKeySpec(pemBody(pem)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Invalid " + family + " public key", e);
+        }
+    }
+
+    private static PrivateKey privateKey(String family, String pem) {
+        try {
+            return KeyFactory.getInstance(family).generatePrivate(new PKCS8EncodedKeySpec(pemBody(pem)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Invalid " + family + " private key", e);
+        }
+    }
+
+    private static byte[] pemBody(String pem) {
+        String body = pem.replaceAll("-----(BEGIN|END) [A-Z ]+-----", "").replaceAll("\\s", "");
+        return Base64.getDecoder().decode(body);
+    }
+
+    private static String read(String inline, String file) {
+        String value = readOptional(inline, file);
+        if (value == null) {
+            throw new IllegalStateException("JWT key material missing: set the inline value or the *-file property");
+        }
+        return value;
+    }
+
+    private static String readOptional(String inline, String file) {
+        if (inline != null && !inline.isBlank()) {
+            return inline.trim();
+        }
+        if (file != null && !file.isBlank()) {
+            try {
+                return Files.readString(Path.of(file)).trim();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot read JWT key file " + file, e);
+            }
+        }
+        return null;
+    }
+}
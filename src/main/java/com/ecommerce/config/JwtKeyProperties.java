@@ -0,0 +1,47 @@
+package com.ecommerce.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Signing keys for access and refresh tokens ({@code security.jwt.access.*} / {@code security.jwt.refresh.*}).
+ * Every replica must load the same key material so that a token issued by one pod validates on all of them.
+ */
+@Data
+@ConfigurationProperties(prefix = "security.jwt")
+public class JwtKeyProperties {
+
+    private KeyRing access = new KeyRing();
+    private KeyRing refresh = new KeyRing();
+
+    @Data
+    public static class KeyRing {
+        /**
+         * Key used to sign new tokens; defaults to the first key. The remaining keys only verify
+         * (previous keys during a rotation).
+         */
+        private String activeKid;
+        /** Node that only verifies tokens: the active key may come without private material. */
+        private boolean verificationOnly;
+        private List<KeyMaterial> keys = new ArrayList<>();
+    }
+
+    @Data
+    public static class KeyMaterial {
+        private String kid;
+        /** HS256/HS384/HS512, ES256/ES384/ES512 or RS256/RS384/RS512. */
+        private String algorithm = "HS256";
+        /** Base64-encoded HMAC secret, inline or in a file (e.g. a mounted Kubernetes secret). */
+        private String secret;
+        private String secretFile;
+        /** PKCS#8 PEM private key; leave empty on {@code verification-only} nodes. */
+        private String privateKey;
+        private String privateKeyFile;
+        /** X.509 PEM public key. */
+        private String publicKey;
+        private String publicKeyFile;
+    }
+}
@@ -0,0 +1,21 @@
+package com.ecommerce.config;
+
+import com.ecommerce.security.CustomPermissionEvaluator;
+import com.ecommerce.security.PermissionExpressionHandler;
+import com.ecommerce.security.PermissionIndex;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.access.expression.method.MethodSecurityExpressionHandler;
+
+@Configuration
+public class MethodSecurityConfig {
+
+    // Static para que el handler esté disponible antes de que se procesen los interceptores de @PreAuthorize
+    @Bean
+    static MethodSecurityExpressionHandler methodSecurityExpressionHandler(PermissionIndex permissionIndex,
+                                                                           CustomPermissionEvaluator permissionEvaluator) {
+        PermissionExpressionHandler handler = new PermissionExpressionHandler(permissionIndex);
+        handler.setPermissionEvaluator(permissionEvaluator);
+        return handler;
+    }
+}
@@ -0,0 +1,86 @@
+package com.ecommerce.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+
+/**
+ * One-off migration of the legacy {@code order_products} join table (one row per product, no
+ * quantity) into {@code order_items}: each row becomes a 1-unit line with the product's current
+ * name and price, the only ones still known, and the old table is dropped. init.sql only runs on
+ * an empty volume, so existing databases are migrated here, at startup and before the server
+ * takes requests. Once the table is gone this is a single metadata lookup.
+ *
+ * Copy and drop share a transaction. If two replicas start together on PostgreSQL, their DROPs
+ * deadlock and one of them rolls back its copy; that one then finds the table gone and carries on.
+ */
+@Component
+public class OrderItemsMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderItemsMigration.class);
+
+    static final String LEGACY_TABLE = "order_products";
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate tx;
+
+    // EntityManagerFactory: con ddl-auto, order_items ya existe cuando se ejecuta la migración
+    public OrderItemsMigration(JdbcTemplate jdbc, PlatformTransactionManager transactionManager,
+                               EntityManagerFactory entityManagerFactory) {
+        this.jdbc = jdbc;
+        this.tx = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    public void migrate() {
+        if (!legacyTableExists()) {
+            return;
+        }
+        try {
+            tx.executeWithoutResult(status -> copyAndDrop());
+        } catch (DataAccessException e) {
+            if (legacyTableExists()) {
+                throw e;
+            }
+            log.info("{} already migrated by another instance", LEGACY_TABLE);
+        }
+    }
+
+    private void copyAndDrop() {
+        Integer legacyRows = jdbc.queryForObject("SELECT COUNT(*) FROM " + LEGACY_TABLE, Integer.class);
+        int migrated = jdbc.update(
+            "INSERT INTO order_items (order_id, product_id, product_name, quantity, unit_price)"
+                + " SELECT op.order_id, op.product_id, p.name, 1, p.price"
+                + " FROM " + LEGACY_TABLE + " op JOIN product p ON p.id = op.product_id");
+        jdbc.execute("DROP TABLE " + LEGACY_TABLE);
+        if (legacyRows != null && migrated < legacyRows) {
+            // Sin el producto no hay nombre ni precio que conservar
+            log.warn("Migrated {} of {} {} rows to order_items; the rest referenced deleted products",
+                migrated, legacyRows, LEGACY_TABLE);
+        } else {
+            log.info("Migrated {} {} rows to order_items", migrated, LEGACY_TABLE);
+        }
+    }
+
+    private boolean legacyTableExists() {
+        return Boolean.TRUE.equals(jdbc.execute((ConnectionCallback<Boolean>) connection -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            String table = metaData.storesUpperCaseIdentifiers() ? LEGACY_TABLE.toUpperCase() : LEGACY_TABLE;
+            // "_" es comodín en los patrones de getTables
+            table = table.replace("_", metaData.getSearchStringEscape() + "_");
+            try (ResultSet tables = metaData.getTables(connection.getCatalog(), null, table, new String[] {"TABLE"})) {
+                return tables.next();
+            }
+        }));
+    }
+}
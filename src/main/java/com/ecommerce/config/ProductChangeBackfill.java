@@ -0,0 +1,73 @@
+package com.ecommerce.config;
+
+import com.ecommerce.model.ProductChangeLock;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Puts every product that has no row in {@code product_change} into the change feed, so a client
+ * syncing from an empty token gets the whole catalog. Products created before the feed existed,
+ * or loaded by SQL, would otherwise only show up after their next edit. init.sql only runs on an
+ * empty volume, so this runs at startup, before the server takes requests; once every product has
+ * a row it inserts nothing.
+ *
+ * Also creates the {@link ProductChangeLock} row. The backfill takes that lock like any other
+ * writer of the feed, so its rows get sequence numbers in commit order too.
+ */
+@Component
+public class ProductChangeBackfill {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductChangeBackfill.class);
+
+    static final String CHANGE_SEQUENCE = "product_change_seq";
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate tx;
+    private final Dialect dialect;
+
+    // EntityManagerFactory: con ddl-auto, product_change y su secuencia ya existen
+    public ProductChangeBackfill(JdbcTemplate jdbc, PlatformTransactionManager transactionManager,
+                                 EntityManagerFactory entityManagerFactory) {
+        this.jdbc = jdbc;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.dialect = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+    }
+
+    @PostConstruct
+    public void backfill() {
+        createLockRow();
+        Integer inserted = tx.execute(status -> {
+            jdbc.queryForObject("SELECT id FROM product_change_lock WHERE id = ? FOR UPDATE", Long.class,
+                ProductChangeLock.ID);
+            return jdbc.update(
+                "INSERT INTO product_change (seq, product_id, deleted, changed_at)"
+                    + " SELECT " + dialect.getSequenceSupport().getSelectSequenceNextValString(CHANGE_SEQUENCE)
+                    + ", p.id, FALSE, CURRENT_TIMESTAMP FROM product p"
+                    + " WHERE NOT EXISTS (SELECT 1 FROM product_change c WHERE c.product_id = p.id)");
+        });
+        if (inserted != null && inserted > 0) {
+            log.info("Added {} products without history to the change feed", inserted);
+        }
+    }
+
+    private void createLockRow() {
+        Integer rows = jdbc.queryForObject("SELECT COUNT(*) FROM product_change_lock", Integer.class);
+        if (rows != null && rows > 0) {
+            return;
+        }
+        try {
+            jdbc.update("INSERT INTO product_change_lock (id) VALUES (?)", ProductChangeLock.ID);
+        } catch (DuplicateKeyException e) {
+            // Otra réplica la creó a la vez
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.ecommerce.config;
+
+import com.ecommerce.model.Product;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Makes sure the {@code product_seq} sequence behind {@link Product} ids exists and is ahead of
+ * the ids already in the table. init.sql only runs on an empty volume, and on an existing
+ * database {@code ddl-auto: update} creates the sequence starting at 1, so the first inserts
+ * would collide with existing rows. Runs at startup, before the server takes requests.
+ *
+ * With the pooled optimizer a {@code nextval} of {@code v} hands out the ids
+ * {@code (v - allocationSize, v]}, so the sequence is safe once {@code v - allocationSize >= max(id)}.
+ * Checking costs one {@code nextval}, i.e. one skipped block per startup.
+ */
+@Component
+public class ProductSequenceMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductSequenceMigration.class);
+
+    private final JdbcTemplate jdbc;
+    private final Dialect dialect;
+
+    // EntityManagerFactory: con ddl-auto, la tabla y la secuencia ya están creadas (o actualizadas)
+    public ProductSequenceMigration(JdbcTemplate jdbc, EntityManagerFactory entityManagerFactory) {
+        this.jdbc = jdbc;
+        this.dialect = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+    }
+
+    @PostConstruct
+    public void migrate() {
+        long maxId = jdbc.queryForObject("SELECT COALESCE(MAX(id), 0) FROM product", Long.class);
+        long firstSafe = maxId + Product.ID_ALLOCATION_SIZE;
+        if (!sequenceExists()) {
+            jdbc.execute("CREATE SEQUENCE " + Product.ID_SEQUENCE + " START WITH " + firstSafe
+                + " INCREMENT BY " + Product.ID_ALLOCATION_SIZE);
+            log.info("Created {} starting at {}", Product.ID_SEQUENCE, firstSafe);
+            return;
+        }
+        long next = jdbc.queryForObject(
+            dialect.getSequenceSupport().getSequenceNextValString(Product.ID_SEQUENCE), Long.class);
+        if (next < firstSafe) {
+            // Equivale al setval de init.sql; ALTER SEQUENCE ... RESTART WITH vale también en H2
+            jdbc.execute("ALTER SEQUENCE " + Product.ID_SEQUENCE + " RESTART WITH " + firstSafe);
+            log.info("Moved {} from {} to {}, past the existing product ids", Product.ID_SEQUENCE, next, firstSafe);
+        }
+    }
+
+    private boolean sequenceExists() {
+        Integer count = jdbc.queryForObject(
+            "SELECT COUNT(*) FROM information_schema.sequences WHERE LOWER(sequence_name) = ?",
+            Integer.class, Product.ID_SEQUENCE);
+        return count != null && count > 0;
+    }
+}
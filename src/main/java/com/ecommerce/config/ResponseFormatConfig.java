@@ -0,0 +1,47 @@
+package com.ecommerce.config;
+
+import com.ecommerce.dto.OrderResponseDto;
+import com.ecommerce.dto.ProductSummary;
+import com.ecommerce.model.Product;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import java.util.List;
+
+/**
+ * Response encodings of the API: JSON by default, Smile or CBOR when the client asks for them in
+ * {@code Accept}, and {@code ?fields=} sparse fieldsets on the types that support them.
+ * Compression (gzip) is done by Tomcat, see {@code server.compression} in application.yml.
+ */
+@Configuration
+public class ResponseFormatConfig {
+
+    // Tipos que admiten ?fields=; el resto se serializa siempre completo
+    static final List<Class<?>> SPARSE_TYPES = List.of(Product.class, ProductSummary.class, OrderResponseDto.class);
+
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer sparseFieldsetCustomizer() {
+        return builder -> {
+            SPARSE_TYPES.forEach(type -> builder.mixIn(type, SparseFieldsets.Filtered.class));
+            builder.filters(SparseFieldsets.ALL_FIELDS);
+        };
+    }
+
+    // Los convertidores Smile/CBOR que Spring MVC crea por defecto no pasan por los customizers de Boot:
+    // se construyen con el mismo builder para compartir módulos, mix-ins y filtros con el JSON
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+}
@@ -1,6 +1,8 @@
 package com.ecommerce.config;
 
 import com.ecommerce.security.JwtFilter;
+import com.ecommerce.security.PasswordHashPolicy;
+import com.ecommerce.security.PermissionIndex;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -11,11 +13,12 @@ import org.springframework.security.config.annotation.method.configuration.Enabl
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.http.HttpMethod;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+import static com.ecommerce.security.PermissionAuthorizationManager.hasPermission;
+
 @Configuration
 @EnableMethodSecurity(prePostEnabled = true)
 @RequiredArgsConstructor
@@ -23,28 +26,37 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 public class SecurityConfig {
 
     private final JwtFilter jwtFilter;
+    private final PermissionIndex permissionIndex;
 
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
 
         http.csrf(cs -> cs.disable())
             .authorizeHttpRequests(auth -> auth
-                // Health check endpoints for Kubernetes probes - permit ALL actuator paths first
-                .requestMatchers("/actuator/**", "/actuator", "/health", "/health/**").permitAll()
+                // Health check endpoints for Kubernetes probes - solo health e info son publicos
+                .requestMatchers("/actuator/health", "/actuator/health/**", "/actuator/info", "/health", "/health/**").permitAll()
+                .requestMatchers("/actuator/metrics", "/actuator/metrics/**").access(hasPermission(permissionIndex, "READ_STATISTICS"))
+                .requestMatchers("/actuator", "/actuator/**").denyAll()
 
                 // Public endpoints
                 .requestMatchers("/auth/**").permitAll()
                 .requestMatchers("/admin/ping").permitAll()
+                .requestMatchers("/.well-known/jwks.json").permitAll()
                 .requestMatchers("/api/products").permitAll()
                 .requestMatchers("/api/products/search").permitAll()
+                .requestMatchers("/api/products/suggest").permitAll()
+                .requestMatchers("/api/products/changes").permitAll()
 
                 // Protected endpoints
-                .requestMatchers("/admin/users").hasAuthority("READ_USERS")
-                .requestMatchers("/api/products/{id}").hasAuthority("READ_PRODUCTS")
-                .requestMatchers("/api/products/{id}/stock").hasAuthority("READ_PRODUCT_STOCK")
-                .requestMatchers(HttpMethod.POST, "/api/products").hasAuthority("CREATE_PRODUCTS")
-                .requestMatchers(HttpMethod.PUT, "/api/products/**").hasAuthority("UPDATE_PRODUCTS")
-                .requestMatchers(HttpMethod.DELETE, "/api/products/**").hasAuthority("DELETE_PRODUCTS")
+                .requestMatchers("/admin/users").access(hasPermission(permissionIndex, "READ_USERS"))
+                .requestMatchers("/admin/roles/assign-user").access(hasPermission(permissionIndex, "MANAGE_PERMISSIONS"))
+                .requestMatchers("/api/products/export").access(hasPermission(permissionIndex, "READ_PRODUCTS"))
+                .requestMatchers(HttpMethod.POST, "/api/products/import").access(hasPermission(permissionIndex, "CREATE_PRODUCTS"))
+                .requestMatchers("/api/products/{id}").access(hasPermission(permissionIndex, "READ_PRODUCTS"))
+                .requestMatchers("/api/products/{id}/stock").access(hasPermission(permissionIndex, "READ_PRODUCT_STOCK"))
+                .requestMatchers(HttpMethod.POST, "/api/products").access(hasPermission(permissionIndex, "CREATE_PRODUCTS"))
+                .requestMatchers(HttpMethod.PUT, "/api/products/**").access(hasPermission(permissionIndex, "UPDATE_PRODUCTS"))
+                .requestMatchers(HttpMethod.DELETE, "/api/products/**").access(hasPermission(permissionIndex, "DELETE_PRODUCTS"))
 
                 // All other requests require authentication
                 .anyRequest().authenticated()
@@ -56,8 +68,8 @@ public class SecurityConfig {
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(PasswordHashPolicy passwordHashPolicy) {
+        return passwordHashPolicy.createEncoder();
     }
 
     @Bean
@@ -0,0 +1,35 @@
+package com.ecommerce.config;
+
+import com.ecommerce.controller.OrderController;
+import com.ecommerce.controller.ProductController;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.AbstractMappingJacksonResponseBodyAdvice;
+
+import java.util.SortedSet;
+
+/**
+ * Applies {@code ?fields=} to the bodies of the catalog and order endpoints, whichever Jackson
+ * format (JSON, Smile, CBOR) was negotiated.
+ */
+@RestControllerAdvice(assignableTypes = {ProductController.class, OrderController.class})
+public class SparseFieldsetAdvice extends AbstractMappingJacksonResponseBodyAdvice {
+
+    @Override
+    protected void beforeBodyWriteInternal(MappingJacksonValue bodyContainer, MediaType contentType,
+                                           MethodParameter returnType, ServerHttpRequest request,
+                                           ServerHttpResponse response) {
+        if (!(request instanceof ServletServerHttpRequest servletRequest)) {
+            return;
+        }
+        SortedSet<String> fields = SparseFieldsets.parse(servletRequest.getServletRequest().getParameter(SparseFieldsets.PARAM));
+        if (fields != null) {
+            bodyContainer.setFilters(SparseFieldsets.only(fields));
+        }
+    }
+}
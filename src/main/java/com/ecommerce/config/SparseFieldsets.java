@@ -0,0 +1,57 @@
+package com.ecommerce.config;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+
+import java.util.Collections;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * {@code ?fields=id,name,price}: the response objects only carry the listed properties. The
+ * choice is applied by a Jackson property filter while serializing, so no intermediate maps are
+ * built; it works the same for JSON, Smile and CBOR.
+ */
+public final class SparseFieldsets {
+
+    public static final String PARAM = "fields";
+
+    static final String FILTER_ID = "sparseFieldset";
+
+    /** Provider used when the request has no {@code fields}: every property is written. */
+    static final FilterProvider ALL_FIELDS = new SimpleFilterProvider()
+        .setDefaultFilter(SimpleBeanPropertyFilter.serializeAll());
+
+    private SparseFieldsets() {
+    }
+
+    /** Mix-in that attaches the filter to the types listed in {@link ResponseFormatConfig}. */
+    @JsonFilter(FILTER_ID)
+    interface Filtered {
+    }
+
+    /**
+     * Requested property names, sorted so that {@code name,id} and {@code id,name} are the same
+     * fieldset, and always including {@code id}. Null when the parameter is absent or blank.
+     */
+    public static SortedSet<String> parse(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return null;
+        }
+        SortedSet<String> names = new TreeSet<>();
+        names.add("id");
+        for (String name : fields.split(",")) {
+            String trimmed = name.trim();
+            if (!trimmed.isEmpty()) {
+                names.add(trimmed);
+            }
+        }
+        return Collections.unmodifiableSortedSet(names);
+    }
+
+    static FilterProvider only(SortedSet<String> fields) {
+        return new SimpleFilterProvider().addFilter(FILTER_ID, SimpleBeanPropertyFilter.filterOutAllExcept(fields));
+    }
+}
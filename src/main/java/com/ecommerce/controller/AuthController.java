@@ -3,14 +3,20 @@ package com.ecommerce.controller;
 import com.ecommerce.dto.UserLoginDto;
 import com.ecommerce.dto.RefreshTokenRequest;
 import com.ecommerce.dto.UserRegisterDto;
+import com.ecommerce.exception.AuthCapacityExceededException;
 import com.ecommerce.model.User;
 import com.ecommerce.repository.UserRepository;
 import com.ecommerce.security.JwtUtil;
+import com.ecommerce.security.LoginThrottle;
+import com.ecommerce.security.PasswordHashingExecutor;
+import com.ecommerce.security.RefreshTokenClaims;
+import com.ecommerce.security.RefreshTokenStore;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Map;
@@ -22,7 +28,9 @@ import java.util.Map;
 public class AuthController {
 
     private final UserRepository userRepo;
-    private final PasswordEncoder encoder;
+    private final PasswordHashingExecutor passwordHashing;
+    private final LoginThrottle loginThrottle;
+    private final RefreshTokenStore refreshTokens;
 
     @PostMapping("/register")
     public ResponseEntity<?> register(@Valid @RequestBody UserRegisterDto dto) {
@@ -36,7 +44,7 @@ public class AuthController {
         User user = new User();
         user.setUsername(dto.getUsername());
         user.setEmail(dto.getEmail());
-        user.setPassword(encoder.encode(dto.getPassword()));
+        user.setPassword(passwordHashing.encode(dto.getPassword()));
         userRepo.save(user);
 
         log.info("User registered successfully: {}", dto.getEmail());
@@ -44,9 +52,16 @@ public class AuthController {
     }
 
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody UserLoginDto dto) {
+    public ResponseEntity<?> login(@RequestBody UserLoginDto dto, HttpServletRequest request) {
         log.info("Login attempt for email: {}", dto.getEmail());
 
+        if (!loginThrottle.tryAcquire(dto.getEmail(), request.getRemoteAddr())) {
+            log.warn("Login throttled for email: {} from {}", dto.getEmail(), request.getRemoteAddr());
+            return ResponseEntity.status(429)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(loginThrottle.getRetryAfterSeconds()))
+                .body(Map.of("error", "Too many login attempts"));
+        }
+
         User user = userRepo.findByEmail(dto.getEmail()).orElse(null);
 
         if (user == null) {
@@ -54,7 +69,7 @@ public class AuthController {
             return ResponseEntity.status(401).body(Map.of("error", "Invalid credentials"));
         }
 
-        boolean matches = encoder.matches(dto.getPassword(), user.getPassword());
+        boolean matches = passwordHashing.matches(dto.getPassword(), user.getPassword());
         log.debug("Password match result: {}", matches);
 
         if (!matches) {
@@ -62,6 +77,8 @@ public class AuthController {
             return ResponseEntity.status(401).body(Map.of("error", "Invalid credentials"));
         }
 
+        upgradePasswordHash(user, dto.getPassword());
+
         String token = JwtUtil.generateToken(user);
         String refreshToken = JwtUtil.generateRefreshToken(user);
 
@@ -74,16 +91,42 @@ public class AuthController {
         ));
     }
 
+    // Rehash con los parámetros actuales; si el pool está saturado se deja para el siguiente login
+    private void upgradePasswordHash(User user, String rawPassword) {
+        if (!passwordHashing.upgradeEncoding(user.getPassword())) {
+            return;
+        }
+        try {
+            user.setPassword(passwordHashing.encode(rawPassword));
+            userRepo.save(user);
+            log.info("Password hash upgraded for user: {}", user.getEmail());
+        } catch (AuthCapacityExceededException e) {
+            log.debug("Skipping password hash upgrade for {}: {}", user.getEmail(), e.getMessage());
+        }
+    }
+
     @PostMapping("/refresh")
     public ResponseEntity<?> refreshToken(@RequestBody RefreshTokenRequest request) {
-        if (JwtUtil.validateRefreshToken(request.getRefreshToken())) {
-            String email = JwtUtil.extractEmailFromRefreshToken(request.getRefreshToken());
-            User user = userRepo.findByEmail(email).orElse(null);
+        RefreshTokenClaims claims = JwtUtil.parseRefreshToken(request.getRefreshToken()).orElse(null);
+        if (claims != null) {
+            // Rotación: cada refresh token sirve una sola vez y se sustituye por uno nuevo
+            if (!refreshTokens.consume(claims)) {
+                log.warn("Reused or revoked refresh token for user: {}", claims.subject());
+                return ResponseEntity.status(401).body(Map.of("error", "Invalid refresh token"));
+            }
+            User user = userRepo.findByEmail(claims.subject()).orElse(null);
             if (user != null) {
                 String newToken = JwtUtil.generateToken(user);
-                return ResponseEntity.ok(Map.of("token", newToken));
+                String newRefreshToken = JwtUtil.generateRefreshToken(user);
+                return ResponseEntity.ok(Map.of("token", newToken, "refreshToken", newRefreshToken));
             }
         }
         return ResponseEntity.status(401).body(Map.of("error", "Invalid refresh token"));
     }
+
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(@RequestBody RefreshTokenRequest request) {
+        JwtUtil.parseRefreshToken(request.getRefreshToken()).ifPresent(refreshTokens::revoke);
+        return ResponseEntity.noContent().build();
+    }
 }
@@ -0,0 +1,64 @@
+package com.ecommerce.controller;
+
+import com.ecommerce.security.JwtKeyRing;
+import com.ecommerce.security.JwtUtil;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.math.BigInteger;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPublicKey;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Publishes the asymmetric access-token verification keys as a JWKS document, so
+ * verification-only services can validate tokens without sharing any secret.
+ * HMAC keys are never published.
+ */
+@RestController
+public class JwksController {
+
+    @GetMapping("/.well-known/jwks.json")
+    public Map<String, List<Map<String, String>>> jwks() {
+        List<Map<String, String>> keys = JwtUtil.accessKeyRing().publicKeys().stream()
+            .map(JwksController::toJwk)
+            .toList();
+        return Map.of("keys", keys);
+    }
+
+    private static Map<String, String> toJwk(JwtKeyRing.VerificationKey key) {
+        Map<String, String> jwk = new LinkedHashMap<>();
+        jwk.put("kid", key.kid());
+        jwk.put("use", "sig");
+        jwk.put("alg", key.algorithm().getValue());
+        if (key.key() instanceof ECPublicKey ec) {
+            int size = (ec.getParams().getCurve().getField().getFieldSize() + 7) / 8;
+            jwk.put("kty", "EC");
+            jwk.put("crv", "P-" + ec.getParams().getCurve().getField().getFieldSize());
+            jwk.put("x", base64Url(ec.getW().getAffineX(), size));
+            jwk.put("y", base64Url(ec.getW().getAffineY(), size));
+        } else if (key.key() instanceof RSAPublicKey rsa) {
+            jwk.put("kty", "RSA");
+            jwk.put("n", base64Url(rsa.getModulus(), (rsa.getModulus().bitLength() + 7) / 8));
+            jwk.put("e", base64Url(rsa.getPublicExponent(), (rsa.getPublicExponent().bitLength() + 7) / 8));
+        }
+        return jwk;
+    }
+
+    // Big-endian sin signo y con longitud fija, como exige RFC 7518
+    private static String base64Url(BigInteger value, int length) {
+        byte[] bytes = value.toByteArray();
+        if (bytes.length > length) {
+            bytes = Arrays.copyOfRange(bytes, bytes.length - length, bytes.length);
+        } else if (bytes.length < length) {
+            byte[] padded = new byte[length];
+            System.arraycopy(bytes, 0, padded, length - bytes.length, bytes.length);
+            bytes = padded;
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
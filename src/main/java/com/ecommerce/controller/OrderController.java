@@ -1,16 +1,27 @@
 package com.ecommerce.controller;
 
+import com.ecommerce.dto.ExportFormat;
+import com.ecommerce.dto.OrderFilter;
+import com.ecommerce.dto.OrderPage;
 import com.ecommerce.dto.OrderRequestDto;
 import com.ecommerce.dto.OrderResponseDto;
 import com.ecommerce.model.User;
+import com.ecommerce.service.OrderExportService;
 import com.ecommerce.service.OrderService;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -19,6 +30,7 @@ import java.util.List;
 public class OrderController {
 
     private final OrderService orderService;
+    private final OrderExportService orderExportService;
 
     @PreAuthorize("hasAuthority('CREATE_ORDERS')")
     @PostMapping
@@ -34,10 +46,29 @@ public class OrderController {
         return orderService.getUserOrders(user);
     }
 
+    // Paginado por keyset, más recientes primero; la siguiente página va en X-Next-Cursor / Link.
+    // Filtros opcionales: status y rango de createdAt [from, to) en ISO-8601
     @PreAuthorize("hasAuthority('READ_ALL_ORDERS')")
     @GetMapping("/all")
-    public List<OrderResponseDto> getAllOrders() {
-        return orderService.getAllOrders();
+    public ResponseEntity<List<OrderResponseDto>> getAllOrders(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return page(orderService.listOrders(OrderFilter.all(status, from, to), cursor, limit));
+    }
+
+    // Todas las órdenes que cumplen los filtros en streaming (NDJSON o CSV), sin paginar
+    @PreAuthorize("hasAuthority('READ_ALL_ORDERS')")
+    @GetMapping("/all/export")
+    public void exportAllOrders(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            HttpServletResponse response) throws IOException {
+        export(OrderFilter.all(status, from, to), format, "orders", response);
     }
 
     @PreAuthorize("hasAuthority('UPDATE_ORDER_STATUS')")
@@ -50,7 +81,51 @@ public class OrderController {
 
     @PreAuthorize("hasAuthority('READ_USER_ORDERS')")
     @GetMapping("/user/{userId}")
-    public List<OrderResponseDto> getOrdersByUser(@PathVariable Long userId) {
-        return orderService.getOrdersByUserId(userId);
+    public ResponseEntity<List<OrderResponseDto>> getOrdersByUser(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return page(orderService.listOrders(OrderFilter.ofUser(userId, status, from, to), cursor, limit));
+    }
+
+    @PreAuthorize("hasAuthority('READ_USER_ORDERS')")
+    @GetMapping("/user/{userId}/export")
+    public void exportOrdersByUser(
+            @PathVariable Long userId,
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            HttpServletResponse response) throws IOException {
+        export(OrderFilter.ofUser(userId, status, from, to), format, "orders-user-" + userId, response);
+    }
+
+    private static ResponseEntity<List<OrderResponseDto>> page(OrderPage page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            // Mismos filtros y limit, solo cambia el cursor
+            String next = ServletUriComponentsBuilder.fromCurrentRequest()
+                .replaceQueryParam("cursor", page.nextCursor())
+                .toUriString();
+            response.header("X-Next-Cursor", page.nextCursor())
+                .header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+        }
+        return response.body(page.items());
+    }
+
+    private void export(OrderFilter filter, String format, String fileName, HttpServletResponse response) throws IOException {
+        ExportFormat exportFormat = ExportFormat.from(format);
+        if (exportFormat == null) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Unsupported export format: " + format);
+            return;
+        }
+        response.setContentType(exportFormat.contentType());
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+            "attachment; filename=\"" + fileName + "." + exportFormat.extension() + "\"");
+        orderExportService.export(filter, exportFormat, response.getOutputStream());
     }
 }
@@ -1,13 +1,29 @@
 package com.ecommerce.controller;
 
+import com.ecommerce.dto.ExportFormat;
+import com.ecommerce.dto.ProductChanges;
+import com.ecommerce.dto.ProductImportReport;
+import com.ecommerce.dto.ProductPage;
+import com.ecommerce.dto.ProductSummary;
+import com.ecommerce.dto.ProductSuggestion;
 import com.ecommerce.model.Product;
-import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.search.ProductSuggester;
+import com.ecommerce.service.ProductChangeFeed;
+import com.ecommerce.service.ProductExportService;
+import com.ecommerce.service.ProductImportService;
+import com.ecommerce.service.ProductService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 @RestController
@@ -15,61 +31,131 @@ import java.util.List;
 @RequiredArgsConstructor
 public class ProductController {
 
-    private final ProductRepository repo;
+    private final ProductService productService;
+    private final ProductExportService productExportService;
+    private final ProductSuggester productSuggester;
+    private final ProductChangeFeed productChangeFeed;
+    private final ProductImportService productImportService;
 
-    // Lectura pública de productos
+    // Lectura pública de productos, paginada: la siguiente página va en X-Next-Cursor / Link.
+    // Con If-None-Match y el mismo ETag se responde 304 sin serializar la página.
+    // ?fields= y el formato (Accept) se aplican al serializar, ver SparseFieldsetAdvice
     @GetMapping
-    public List<Product> getAllProducts() {
-        return repo.findAll();
+    public ResponseEntity<List<ProductSummary>> getAllProducts(@RequestParam(required = false) String cursor,
+                                                               @RequestParam(required = false) Integer limit,
+                                                               @RequestParam(defaultValue = "id") String sort,
+                                                               HttpServletRequest request) {
+        ProductPage page = productService.listProducts(cursor, limit, sort);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+            .eTag(ProductETags.of(page.items(), ProductETags.variant(request), page.nextCursor()))
+            .varyBy(HttpHeaders.ACCEPT);
+        if (page.nextCursor() != null) {
+            String next = ServletUriComponentsBuilder.fromCurrentRequest()
+                .replaceQueryParam("cursor", page.nextCursor())
+                .replaceQueryParam("sort")
+                .toUriString();
+            response.header("X-Next-Cursor", page.nextCursor())
+                .header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+        }
+        return response.body(page.items());
+    }
+
+    // Catálogo completo en streaming (NDJSON o CSV) para feeds e indexadores
+    @PreAuthorize("hasAuthority('READ_PRODUCTS')")
+    @GetMapping("/export")
+    public void exportProducts(@RequestParam(defaultValue = "ndjson") String format,
+                               HttpServletResponse response) throws IOException {
+        ExportFormat exportFormat = ExportFormat.from(format);
+        if (exportFormat == null) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Unsupported export format: " + format);
+            return;
+        }
+        response.setContentType(exportFormat.contentType());
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+            "attachment; filename=\"products." + exportFormat.extension() + "\"");
+        productExportService.export(exportFormat, response.getOutputStream());
+    }
+
+    // Carga masiva en streaming (JSONL o CSV), upsert por sku; responde con el informe de filas y errores
+    @PreAuthorize("hasAuthority('CREATE_PRODUCTS') and hasAuthority('UPDATE_PRODUCTS')")
+    @PostMapping("/import")
+    public ResponseEntity<ProductImportReport> importProducts(@RequestParam(defaultValue = "ndjson") String format,
+                                                              HttpServletRequest request) throws IOException {
+        ExportFormat importFormat = ExportFormat.from(format);
+        if (importFormat == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(productImportService.importProducts(importFormat, request.getInputStream()));
     }
 
     @PreAuthorize("hasAuthority('READ_PRODUCTS')")
     @GetMapping("/{id}")
-    public ResponseEntity<Product> getProduct(@PathVariable Long id) {
-        return repo.findById(id)
-            .map(ResponseEntity::ok)
+    public ResponseEntity<Product> getProduct(@PathVariable Long id, HttpServletRequest request) {
+        return productService.getProduct(id)
+            .map(product -> ResponseEntity.ok()
+                .eTag(ProductETags.of(product, ProductETags.variant(request)))
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(product))
             .orElse(ResponseEntity.notFound().build());
     }
 
     @PreAuthorize("hasAuthority('CREATE_PRODUCTS')")
     @PostMapping
     public ResponseEntity<Product> createProduct(@RequestBody Product product) {
-        Product savedProduct = repo.save(product);
+        Product savedProduct = productService.createProduct(product);
         return ResponseEntity.status(HttpStatus.CREATED).body(savedProduct);
     }
 
     @PreAuthorize("hasAuthority('UPDATE_PRODUCTS')")
     @PutMapping("/{id}")
     public ResponseEntity<Product> updateProduct(@PathVariable Long id, @RequestBody Product product) {
-        if (!repo.existsById(id)) {
-            return ResponseEntity.notFound().build();
-        }
-        product.setId(id);
-        Product updatedProduct = repo.save(product);
-        return ResponseEntity.ok(updatedProduct);
+        return productService.updateProduct(id, product)
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
     }
 
     @PreAuthorize("hasAuthority('DELETE_PRODUCTS')")
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteProduct(@PathVariable Long id) {
-        if (!repo.existsById(id)) {
+        if (!productService.deleteProduct(id)) {
             return ResponseEntity.notFound().build();
         }
-        repo.deleteById(id);
         return ResponseEntity.noContent().build();
     }
 
     @PreAuthorize("hasAuthority('READ_PRODUCT_STOCK')")
     @GetMapping("/{id}/stock")
     public ResponseEntity<Integer> getProductStock(@PathVariable Long id) {
-        return repo.findById(id)
+        return productService.getProduct(id)
             .map(product -> ResponseEntity.ok(product.getStock()))
             .orElse(ResponseEntity.notFound().build());
     }
 
+    // Autocompletado por prefijo del nombre, servido desde memoria (más stock primero)
+    @GetMapping("/suggest")
+    public List<ProductSuggestion> suggestProducts(@RequestParam String prefix,
+                                                   @RequestParam(required = false) Integer limit) {
+        return productSuggester.suggest(prefix, limit);
+    }
+
+    // Sincronización incremental: altas, ediciones y borrados desde el token de la llamada anterior
+    // (sin token, desde el principio). 410 si el token es más antiguo que la retención de borrados
+    @GetMapping("/changes")
+    public ProductChanges getProductChanges(@RequestParam(required = false) String since,
+                                            @RequestParam(required = false) Integer limit) {
+        return productChangeFeed.changesSince(since, limit);
+    }
+
+    // Búsqueda por nombre y descripción en el índice en memoria, ordenada por relevancia
     @GetMapping("/search")
-    public List<Product> searchProducts(@RequestParam String name) {
-        // Asegúrate de tener este método en tu repositorio
-        return repo.findByNameContainingIgnoreCase(name);
+    public ResponseEntity<List<ProductSummary>> searchProducts(@RequestParam String name,
+                                                               @RequestParam(required = false) Integer limit,
+                                                               HttpServletRequest request) {
+        List<ProductSummary> results = productService.searchProducts(name, limit);
+        return ResponseEntity.ok()
+            .eTag(ProductETags.of(results, ProductETags.variant(request)))
+            .varyBy(HttpHeaders.ACCEPT)
+            .body(results);
     }
 }
@@ -0,0 +1,89 @@
+package com.ecommerce.controller;
+
+import com.ecommerce.config.SparseFieldsets;
+import com.ecommerce.dto.ProductSummary;
+import com.ecommerce.model.Product;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpHeaders;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Locale;
+import java.util.SortedSet;
+
+/**
+ * Weak ETags for product responses, computed from ids and versions only, so a conditional GET
+ * that matches is answered with 304 before the body is serialized. A product's version changes
+ * on every update; a list's tag also covers its order, length and the given context (cursor,
+ * query...), so any change to what the list would contain yields a different tag. Both also
+ * cover the representation: another encoding or another {@code ?fields=} is another body.
+ * Weak because the gzipped and the identity body share the tag, and because Tomcat does not
+ * compress a response that carries a strong one; If-None-Match compares them weakly anyway.
+ */
+final class ProductETags {
+
+    private ProductETags() {
+    }
+
+    static String of(Product product, String variant) {
+        String tag = "p" + product.getId() + "v" + product.getVersion();
+        if (variant.isEmpty()) {
+            return "W/\"" + tag + "\"";
+        }
+        byte[] hash = sha256().digest(variant.getBytes(StandardCharsets.UTF_8));
+        return "W/\"" + tag + "-" + Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(hash, 6)) + "\"";
+    }
+
+    static String of(List<ProductSummary> products, String variant, String... context) {
+        MessageDigest digest = sha256();
+        digest.update(variant.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        for (String part : context) {
+            digest.update(String.valueOf(part).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+        }
+        ByteBuffer pair = ByteBuffer.allocate(2 * Long.BYTES);
+        for (ProductSummary product : products) {
+            pair.clear();
+            pair.putLong(product.id() != null ? product.id() : -1L).putLong(product.version());
+            digest.update(pair.array());
+        }
+        // 128 bits del SHA-256 bastan para que dos listas distintas no compartan ETag
+        byte[] hash = digest.digest();
+        return "W/\"l" + Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(hash, 16)) + "\"";
+    }
+
+    /**
+     * Identifies the representation the request will get: empty for the full JSON body. Unless
+     * {@code Accept} names a binary format the response is JSON whatever it says; otherwise the
+     * whole header takes part, so two requests only share a variant when they negotiate alike.
+     */
+    static String variant(HttpServletRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        String format = "";
+        if (accept != null) {
+            String normalized = accept.replace(" ", "").toLowerCase(Locale.ROOT);
+            if (normalized.contains("smile") || normalized.contains("cbor")) {
+                format = normalized;
+            }
+        }
+        SortedSet<String> fields = SparseFieldsets.parse(request.getParameter(SparseFieldsets.PARAM));
+        if (format.isEmpty() && fields == null) {
+            return "";
+        }
+        return format + ";" + (fields == null ? "" : String.join(",", fields));
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -1,11 +1,16 @@
 package com.ecommerce.controller;
 
 import com.ecommerce.dto.AssignPermissionDto;
+import com.ecommerce.dto.AssignRoleDto;
 import com.ecommerce.exception.ResourceNotFoundException;
 import com.ecommerce.model.Permission;  
 import com.ecommerce.model.Role;
+import com.ecommerce.model.User;
 import com.ecommerce.repository.PermissionRepository;
 import com.ecommerce.repository.RoleRepository;
+import com.ecommerce.repository.UserRepository;
+import com.ecommerce.security.RoleEpochs;
+import com.ecommerce.security.UserSecurityStamps;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -19,10 +24,17 @@ public class RoleAdminController {
 
   private final RoleRepository roleRepo;
   private final PermissionRepository permRepo;
+  private final RoleEpochs roleEpochs;
+  private final UserRepository userRepo;
+  private final UserSecurityStamps userStamps;
 
-  public RoleAdminController(RoleRepository roleRepo, PermissionRepository permRepo) {
+  public RoleAdminController(RoleRepository roleRepo, PermissionRepository permRepo, RoleEpochs roleEpochs,
+                             UserRepository userRepo, UserSecurityStamps userStamps) {
     this.roleRepo = roleRepo;
     this.permRepo = permRepo;
+    this.roleEpochs = roleEpochs;
+    this.userRepo = userRepo;
+    this.userStamps = userStamps;
   }
 
   @PostMapping("/assign")
@@ -32,7 +44,23 @@ public class RoleAdminController {
     Permission perm = permRepo.findByName(dto.getPermissionName())
             .orElseThrow(() -> new ResourceNotFoundException("Permission not found: " + dto.getPermissionName()));
     role.getPermissions().add(perm);
+    role.bumpEpoch();
     roleRepo.save(role);
+    roleEpochs.update(role.getName(), role.currentEpoch());
+    return ResponseEntity.ok().build();
+  }
+
+  // Cambia el rol de un usuario; el nuevo sello invalida los claims de sus tokens anteriores
+  @PostMapping("/assign-user")
+  public ResponseEntity<?> assignRole(@RequestBody AssignRoleDto dto) {
+    User user = userRepo.findByEmail(dto.getEmail())
+            .orElseThrow(() -> new ResourceNotFoundException("User not found: " + dto.getEmail()));
+    Role role = roleRepo.findByName(dto.getRoleName())
+            .orElseThrow(() -> new ResourceNotFoundException("Role not found: " + dto.getRoleName()));
+    user.setRole(role);
+    user.rotateSecurityStamp();
+    userRepo.save(user);
+    userStamps.update(user.getId(), user.currentSecurityStamp());
     return ResponseEntity.ok().build();
   }
 }
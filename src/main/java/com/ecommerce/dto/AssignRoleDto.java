@@ -0,0 +1,9 @@
+package com.ecommerce.dto;
+
+import lombok.Data;
+
+@Data
+public class AssignRoleDto {
+    private String email;
+    private String roleName;
+}
@@ -0,0 +1,38 @@
+package com.ecommerce.dto;
+
+import java.util.Locale;
+
+/**
+ * Body format of the streaming endpoints: product and order exports and the product import.
+ * Chosen with the {@code format} query parameter, by file extension.
+ */
+public enum ExportFormat {
+  NDJSON("application/x-ndjson", "ndjson"),
+  CSV("text/csv", "csv");
+
+  private final String contentType;
+  private final String extension;
+
+  ExportFormat(String contentType, String extension) {
+    this.contentType = contentType;
+    this.extension = extension;
+  }
+
+  public String contentType() {
+    return contentType;
+  }
+
+  public String extension() {
+    return extension;
+  }
+
+  /** Null when the format is not supported. */
+  public static ExportFormat from(String value) {
+    for (ExportFormat format : values()) {
+      if (format.extension.equals(value.toLowerCase(Locale.ROOT))) {
+        return format;
+      }
+    }
+    return null;
+  }
+}
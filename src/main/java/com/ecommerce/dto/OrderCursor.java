@@ -0,0 +1,32 @@
+package com.ecommerce.dto;
+
+import com.ecommerce.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position after the last order of a page. Orders are listed newest first by id (ids grow with
+ * creation), so the id alone is the keyset. Serialized as an opaque base64url token, like
+ * {@link ProductCursor}.
+ */
+public record OrderCursor(long id) {
+
+  public String encode() {
+    String raw = "O\n" + id;
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  public static OrderCursor decode(String token) {
+    try {
+      String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+      String[] parts = raw.split("\n", 2);
+      if (!parts[0].equals("O")) {
+        throw new IllegalArgumentException();
+      }
+      return new OrderCursor(Long.parseLong(parts[1]));
+    } catch (RuntimeException e) {
+      throw new InvalidCursorException("Invalid cursor");
+    }
+  }
+}
@@ -0,0 +1,22 @@
+package com.ecommerce.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Optional filters of the order listings and exports; a null field does not filter.
+ * {@code from} is inclusive and {@code to} exclusive, both on {@code createdAt}.
+ */
+public record OrderFilter(Long userId, String status, LocalDateTime from, LocalDateTime to) {
+
+  public OrderFilter {
+    status = status == null || status.isBlank() ? null : status.trim();
+  }
+
+  public static OrderFilter all(String status, LocalDateTime from, LocalDateTime to) {
+    return new OrderFilter(null, status, from, to);
+  }
+
+  public static OrderFilter ofUser(Long userId, String status, LocalDateTime from, LocalDateTime to) {
+    return new OrderFilter(userId, status, from, to);
+  }
+}
@@ -0,0 +1,7 @@
+package com.ecommerce.dto;
+
+import java.math.BigDecimal;
+
+/** Line of an order as returned by the API: name and unit price are the ones paid. */
+public record OrderItemDto(Long productId, String productName, int quantity, BigDecimal unitPrice) {
+}
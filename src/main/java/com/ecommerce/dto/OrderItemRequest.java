@@ -0,0 +1,8 @@
+package com.ecommerce.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+/** Units of one product in a new order ({@code items} of {@link OrderRequestDto}). */
+public record OrderItemRequest(@NotNull Long productId, @Positive int quantity) {
+}
@@ -0,0 +1,12 @@
+package com.ecommerce.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One line of an order joined with its order's columns, as read by the export cursor. An order
+ * without lines gives one row with null line fields. Rows of the same order are consecutive.
+ */
+public record OrderLineRow(Long orderId, Long userId, LocalDateTime createdAt, String status, Double total,
+                           Long productId, String productName, Integer quantity, BigDecimal unitPrice) {
+}
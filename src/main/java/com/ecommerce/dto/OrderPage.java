@@ -0,0 +1,7 @@
+package com.ecommerce.dto;
+
+import java.util.List;
+
+/** One keyset page of orders, newest first; {@code nextCursor} is {@code null} on the last page. */
+public record OrderPage(List<OrderResponseDto> items, String nextCursor) {
+}
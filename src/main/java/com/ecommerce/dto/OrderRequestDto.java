@@ -1,9 +1,13 @@
 package com.ecommerce.dto;
 
+import jakarta.validation.Valid;
 import java.util.List;
 import lombok.Data;
 
 @Data
 public class OrderRequestDto {
+  // Una línea por producto con su cantidad
+  private List<@Valid OrderItemRequest> items;
+  // Formato anterior, se sigue aceptando: cada aparición de un id es una unidad
   private List<Long> productIds;
 }
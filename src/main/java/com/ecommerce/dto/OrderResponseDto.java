@@ -8,7 +8,7 @@ import lombok.Data;
 public class OrderResponseDto {
     private Long id;
     private Long userId;
-    private List<ProductResponseDto> products;
+    private List<OrderItemDto> items;
     private LocalDateTime createdAt;
     private String status;  // ← Añade este campo
     private Double total;   // ← Añade este campo
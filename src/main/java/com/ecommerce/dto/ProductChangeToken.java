@@ -0,0 +1,30 @@
+package com.ecommerce.dto;
+
+import com.ecommerce.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Position in the product change feed: the last {@code seq} the client has applied, and the time
+ * from which it still needs tombstones (no change after {@code seq} is older than that).
+ * Serialized as an opaque base64url token, like {@link ProductCursor}.
+ */
+public record ProductChangeToken(long seq, Instant since) {
+
+  public String encode() {
+    String raw = seq + "\n" + since.toEpochMilli();
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  public static ProductChangeToken decode(String token) {
+    try {
+      String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+      String[] parts = raw.split("\n", 2);
+      return new ProductChangeToken(Long.parseLong(parts[0]), Instant.ofEpochMilli(Long.parseLong(parts[1])));
+    } catch (RuntimeException e) {
+      throw new InvalidCursorException("Invalid change token");
+    }
+  }
+}
@@ -0,0 +1,13 @@
+package com.ecommerce.dto;
+
+import com.ecommerce.model.Product;
+
+import java.util.List;
+
+/**
+ * One batch of the product change feed: current state of the products created or updated, ids of
+ * the deleted ones, and the token for the next call. With {@code hasMore} the client should call
+ * again right away instead of waiting for its next poll.
+ */
+public record ProductChanges(List<Product> updated, List<Long> deleted, String token, boolean hasMore) {
+}
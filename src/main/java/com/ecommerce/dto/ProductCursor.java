@@ -0,0 +1,67 @@
+package com.ecommerce.dto;
+
+import com.ecommerce.exception.InvalidCursorException;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Locale;
+
+/**
+ * Position after the last product of a page: the sort key and id of that product.
+ * Serialized as an opaque base64url token so clients cannot depend on its layout.
+ * Name and price are nullable: products without one sort after all the others, by id, and their
+ * cursor carries a null {@code key}.
+ */
+public record ProductCursor(Sort sort, String key, long id) {
+
+  public enum Sort {
+    ID, NAME, PRICE;
+
+    public static Sort from(String value) {
+      try {
+        return Sort.valueOf(value.trim().toUpperCase(Locale.ROOT));
+      } catch (IllegalArgumentException e) {
+        throw new InvalidCursorException("Unsupported sort: " + value);
+      }
+    }
+  }
+
+  public static ProductCursor after(Sort sort, ProductSummary last) {
+    String key = switch (sort) {
+      case ID -> "";
+      case NAME -> last.name();
+      case PRICE -> last.price() != null ? last.price().toPlainString() : null;
+    };
+    return new ProductCursor(sort, key, last.id());
+  }
+
+  public String encode() {
+    // Clave nula: el token no lleva tercera línea (distinto de la clave vacía)
+    String raw = sort.name() + "\n" + id + (key != null ? "\n" + key : "");
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  public static ProductCursor decode(String token) {
+    try {
+      String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+      String[] parts = raw.split("\n", 3);
+      Sort sort = Sort.valueOf(parts[0]);
+      if (parts.length < 3 && sort == Sort.ID) {
+        throw new InvalidCursorException("Invalid cursor");
+      }
+      ProductCursor cursor = new ProductCursor(sort, parts.length == 3 ? parts[2] : null, Long.parseLong(parts[1]));
+      if (sort == Sort.PRICE) {
+        cursor.price();
+      }
+      return cursor;
+    } catch (RuntimeException e) {
+      throw new InvalidCursorException("Invalid cursor");
+    }
+  }
+
+  /** Null when the last product of the page had no price. */
+  public BigDecimal price() {
+    return key != null ? new BigDecimal(key) : null;
+  }
+}
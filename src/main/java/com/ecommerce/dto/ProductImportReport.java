@@ -0,0 +1,17 @@
+package com.ecommerce.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk product import. {@code rows} counts every data row read; rows repeating a sku
+ * within one batch are merged (the last one wins), so {@code created + updated + failed} may be
+ * lower. Only the first {@code catalog.import.max-errors} errors are listed.
+ */
+public record ProductImportReport(long rows, long created, long updated, long failed,
+                                  List<RowError> errors, boolean errorsTruncated,
+                                  long elapsedMillis, long rowsPerSecond) {
+
+  /** {@code row} is 1-based and does not count the CSV header; {@code sku} may be null. */
+  public record RowError(long row, String sku, String message) {
+  }
+}
@@ -0,0 +1,7 @@
+package com.ecommerce.dto;
+
+import java.util.List;
+
+/** One keyset page of products; {@code nextCursor} is {@code null} on the last page. */
+public record ProductPage(List<ProductSummary> items, String nextCursor) {
+}
@@ -0,0 +1,4 @@
+package com.ecommerce.dto;
+
+public record ProductSuggestion(Long id, String name) {
+}
@@ -0,0 +1,14 @@
+package com.ecommerce.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.math.BigDecimal;
+
+/**
+ * Product as shown in lists and search results: no description, which is read only for the
+ * detail view. Built directly by constructor-expression queries, so those only select these
+ * columns. {@code version} feeds the ETag and is not serialized.
+ */
+public record ProductSummary(Long id, String sku, String name, BigDecimal price, int stock,
+                             @JsonIgnore long version) {
+}
@@ -0,0 +1,7 @@
+package com.ecommerce.dto;
+
+import java.time.Instant;
+
+/** A revoked refresh token id with its expiry, as streamed into memory at startup. */
+public record RevokedTokenId(String jti, Instant expiresAt) {
+}
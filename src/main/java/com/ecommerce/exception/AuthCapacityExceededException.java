@@ -0,0 +1,16 @@
+package com.ecommerce.exception;
+
+/** Thrown when the password hashing pool cannot accept more work; mapped to 503 with Retry-After. */
+public class AuthCapacityExceededException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public AuthCapacityExceededException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
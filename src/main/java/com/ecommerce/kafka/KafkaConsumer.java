@@ -18,7 +18,7 @@ public class KafkaConsumer {
         this.objectMapper = objectMapper;
     }
 
-    @KafkaListener(topics = "order.created", groupId = "ecommerce-group", autoStartup = "false")
+    @KafkaListener(topics = KafkaProducer.ORDER_CREATED_TOPIC, groupId = "ecommerce-group", autoStartup = "false")
     public void handleOrderCreated(String eventJson) {
         try {
             OrderCreatedEvent event = objectMapper.readValue(eventJson, OrderCreatedEvent.class);
@@ -1,24 +1,48 @@
 package com.ecommerce.kafka;
 
+import com.ecommerce.service.ProductCache;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
 import lombok.RequiredArgsConstructor;
 
+import java.util.concurrent.CompletableFuture;
+
 @Service
 @ConditionalOnProperty(value = "spring.kafka.producer.enabled", havingValue = "true", matchIfMissing = true)
 @RequiredArgsConstructor
 public class KafkaProducer {
 
+    public static final String ORDER_CREATED_TOPIC = "order.created";
+
     private final KafkaTemplate<String, String> kafkaTemplate;
     private final ObjectMapper objectMapper;
 
     public void publishOrderCreated(OrderCreatedEvent event) {
         try {
             String eventJson = objectMapper.writeValueAsString(event);
-            kafkaTemplate.send("order.created", eventJson);
+            kafkaTemplate.send(ORDER_CREATED_TOPIC, eventJson);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Error serializing event", e);
+        }
+    }
+
+    /**
+     * Sends an already serialized event; the future completes when the broker acknowledges it.
+     * Used by {@link OutboxRelay} for the events written to the outbox.
+     */
+    public CompletableFuture<SendResult<String, String>> send(String topic, String key, String payload) {
+        return kafkaTemplate.send(topic, key, payload);
+    }
+
+    // Clave = id del producto: los cambios de un mismo producto llegan en orden
+    public void publishProductInvalidated(ProductInvalidationEvent event) {
+        try {
+            String eventJson = objectMapper.writeValueAsString(event);
+            kafkaTemplate.send(ProductCache.INVALIDATION_TOPIC, String.valueOf(event.getProductId()), eventJson);
         } catch (JsonProcessingException e) {
             throw new RuntimeException("Error serializing event", e);
         }
@@ -0,0 +1,37 @@
+package com.ecommerce.kafka;
+
+import com.ecommerce.service.EventOutbox;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Drains the {@link EventOutbox} to Kafka: every poll interval it publishes batches until the
+ * outbox is empty or a send fails. Events are keyed by aggregate id, so the events of one order
+ * land in one partition in the order they were written.
+ */
+@Component
+@ConditionalOnProperty(value = "spring.kafka.producer.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxRelay {
+
+    private final EventOutbox outbox;
+    private final KafkaProducer kafkaProducer;
+
+    public OutboxRelay(EventOutbox outbox, KafkaProducer kafkaProducer) {
+        this.outbox = outbox;
+        this.kafkaProducer = kafkaProducer;
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.poll-interval-ms:500}")
+    public void drain() {
+        // Cada lote en su propia transacción: las filas se desbloquean en cuanto se confirman sus envíos
+        while (outbox.relayBatch(kafkaProducer::send)) {
+            // Lote lleno y sin fallos: puede haber más pendientes
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.cleanup-interval-ms:3600000}")
+    public void purgeSent() {
+        outbox.purgeSent();
+    }
+}
@@ -0,0 +1,11 @@
+package com.ecommerce.kafka;
+
+import lombok.Data;
+
+/** A product changed on the replica {@code origin}; the others must drop or reload it. */
+@Data
+public class ProductInvalidationEvent {
+    private Long productId;
+    private String origin;
+    private Long timestamp;
+}
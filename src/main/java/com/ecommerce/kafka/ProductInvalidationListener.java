@@ -0,0 +1,47 @@
+package com.ecommerce.kafka;
+
+import com.ecommerce.service.ProductCache;
+import com.ecommerce.service.ProductService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Applies product changes made on other replicas. Every instance consumes the topic with its own
+ * group id so each one sees every message, starting from the latest offset: a fresh instance has
+ * an empty cache and loads its in-memory views from the database anyway.
+ */
+@Component
+@ConditionalOnProperty(value = "spring.kafka.consumer.enabled", havingValue = "true", matchIfMissing = true)
+public class ProductInvalidationListener {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductInvalidationListener.class);
+
+    private final ObjectMapper objectMapper;
+    private final ProductCache productCache;
+    private final ProductService productService;
+
+    public ProductInvalidationListener(ObjectMapper objectMapper, ProductCache productCache, ProductService productService) {
+        this.objectMapper = objectMapper;
+        this.productCache = productCache;
+        this.productService = productService;
+    }
+
+    @KafkaListener(topics = ProductCache.INVALIDATION_TOPIC,
+                   groupId = "ecommerce-products-${random.uuid}",
+                   properties = "auto.offset.reset=latest")
+    public void handleProductInvalidated(String eventJson) {
+        try {
+            ProductInvalidationEvent event = objectMapper.readValue(eventJson, ProductInvalidationEvent.class);
+            if (productCache.instanceId().equals(event.getOrigin())) {
+                return;
+            }
+            productService.applyRemoteChange(event.getProductId());
+        } catch (Exception e) {
+            log.error("Error processing product invalidation: {}", eventJson, e);
+        }
+    }
+}
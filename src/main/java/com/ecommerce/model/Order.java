@@ -2,11 +2,17 @@ package com.ecommerce.model;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.BatchSize;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "orders")
+// Índices para los listados paginados (id descendente) por usuario y por rango de fechas
+@Table(name = "orders", indexes = {
+    @Index(name = "idx_orders_user_id", columnList = "user_id, id"),
+    @Index(name = "idx_orders_created_at", columnList = "created_at")
+})
 @Data
 public class Order {
     
@@ -14,17 +20,17 @@ public class Order {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @ManyToOne
+    // Lazy: las lecturas de órdenes solo usan el id del usuario, que ya está en orders.user_id
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     private User user;
 
-    @ManyToMany
-    @JoinTable(
-        name = "order_products",
-        joinColumns = @JoinColumn(name = "order_id"),
-        inverseJoinColumns = @JoinColumn(name = "product_id")
-    )
-    private List<Product> products;
+    // Líneas con cantidad y precio pagado; se insertan en un solo lote JDBC junto con la orden.
+    // Los listados las traen en la misma consulta (OrderRepository); si no, se cargan de 100 órdenes en 100
+    @ElementCollection
+    @BatchSize(size = 100)
+    @CollectionTable(name = "order_items", joinColumns = @JoinColumn(name = "order_id"))
+    private List<OrderItem> items = new ArrayList<>();
 
     @Column(name = "created_at")
     private LocalDateTime createdAt;
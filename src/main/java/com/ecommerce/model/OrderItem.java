@@ -0,0 +1,34 @@
+package com.ecommerce.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Line of an order: how many units of a product were bought, and its name and price at the time
+ * of the purchase. Order reads are built from these rows alone, without joining {@link Product},
+ * so the history keeps showing what was paid even after the product changes or is deleted.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Embeddable
+public class OrderItem {
+
+    // Sin FK a product: borrar un producto no toca las órdenes en las que aparece
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "product_name")
+    private String productName;
+
+    @Column(nullable = false)
+    private int quantity;
+
+    @Column(name = "unit_price", nullable = false, precision = 19, scale = 2)
+    private BigDecimal unitPrice;
+}
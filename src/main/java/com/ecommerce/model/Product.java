@@ -1,18 +1,52 @@
 package com.ecommerce.model;
 
 import java.math.BigDecimal;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.Basic;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.Data;
+import lombok.ToString;
 
 @Data
 @Entity
+// Índices (clave, id) para la paginación por keyset del listado
+@Table(indexes = {
+  @Index(name = "idx_product_name_id", columnList = "name, id"),
+  @Index(name = "idx_product_price_id", columnList = "price, id")
+})
 public class Product {
-  @Id @GeneratedValue
+  public static final String ID_SEQUENCE = "product_seq";
+  public static final int ID_ALLOCATION_SIZE = 50;
+
+  // Secuencia con optimizador pooled: un nextval reserva 50 ids y los INSERT pueden ir en lotes JDBC.
+  // En bases existentes ProductSequenceMigration la crea o la adelanta por encima de los ids actuales
+  @Id
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ID_SEQUENCE)
+  @SequenceGenerator(name = ID_SEQUENCE, sequenceName = ID_SEQUENCE, allocationSize = ID_ALLOCATION_SIZE)
   private Long id;
+  // Clave natural (referencia del proveedor); la importación masiva actualiza por sku
+  @Column(unique = true, length = 64)
+  private String sku;
   private String name;
+  // TEXT sin límite: solo se lee en la ficha (ver ProductRepository.findWithDescriptionById);
+  // los listados usan ProductSummary. Requiere el bytecode mejorado por hibernate-enhance-maven-plugin
+  @Basic(fetch = FetchType.LAZY)
+  @ToString.Exclude
   private String description;
   private BigDecimal price;
   private int stock;
+  // Bloqueo optimista; junto con el id identifica el contenido del producto (ETag).
+  // No se serializa: los clientes la ven a través del ETag
+  @JsonIgnore
+  @Version
+  private long version;
 }
@@ -0,0 +1,46 @@
+package com.ecommerce.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Latest change of a product, for the /api/products/changes feed: one row per product, replaced
+ * on every write so that its {@code seq} moves to the end of the feed. A {@code deleted} row is
+ * a tombstone, kept for {@code catalog.changes.retention-days}.
+ */
+@Data
+@NoArgsConstructor
+@Entity
+@Table(name = "product_change")
+public class ProductChange {
+
+    // allocationSize 1: con bloques por réplica los seq dejarían de seguir el orden de escritura
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_change_seq")
+    @SequenceGenerator(name = "product_change_seq", sequenceName = "product_change_seq", allocationSize = 1)
+    private Long seq;
+
+    @Column(name = "product_id", nullable = false, unique = true)
+    private Long productId;
+
+    @Column(nullable = false)
+    private boolean deleted;
+
+    @Column(name = "changed_at", nullable = false)
+    private Instant changedAt;
+
+    public ProductChange(Long productId, boolean deleted, Instant changedAt) {
+        this.productId = productId;
+        this.deleted = deleted;
+        this.changedAt = changedAt;
+    }
+}
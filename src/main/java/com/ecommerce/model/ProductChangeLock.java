@@ -0,0 +1,24 @@
+package com.ecommerce.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Single row locked by every transaction that writes to {@code product_change}, from just before
+ * it takes its {@code seq} numbers until it commits. Writers therefore commit in {@code seq} order
+ * and a reader of the feed never sees a later change while an earlier one is still in flight.
+ */
+@Data
+@NoArgsConstructor
+@Entity
+@Table(name = "product_change_lock")
+public class ProductChangeLock {
+
+    public static final long ID = 1L;
+
+    @Id
+    private Long id;
+}
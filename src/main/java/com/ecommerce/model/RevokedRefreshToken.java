@@ -0,0 +1,43 @@
+package com.ecommerce.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import java.time.Instant;
+
+/** Refresh token id that was already used (rotated) or explicitly revoked. */
+@Data
+@NoArgsConstructor
+@Entity
+@Table(name = "revoked_refresh_token")
+public class RevokedRefreshToken implements Persistable<String> {
+
+    // La clave primaria hace que consumir un jti sea atómico entre réplicas
+    @Id
+    @Column(length = 64)
+    private String jti;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    public RevokedRefreshToken(String jti, Instant expiresAt) {
+        this.jti = jti;
+        this.expiresAt = expiresAt;
+    }
+
+    @Override
+    public String getId() {
+        return jti;
+    }
+
+    // Siempre INSERT (nunca merge): un jti repetido debe fallar por la clave primaria
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+}
@@ -1,11 +1,20 @@
 package com.ecommerce.model;
 
+import com.ecommerce.security.RoleAuthoritiesListener;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
+import java.util.Collection;
+import java.util.List;
 import java.util.Set;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 
 @Data
 @Entity
+@EntityListeners(RoleAuthoritiesListener.class)
 public class Role {
   @Id @GeneratedValue
   private Long id;
@@ -13,8 +22,41 @@ public class Role {
   @Column(unique = true)
   private String name;
 
-  @ManyToMany(fetch = FetchType.EAGER)
+  // Lazy: los permisos se sirven desde RoleRegistry, cargar un usuario no hace join con permission
+  @ManyToMany(fetch = FetchType.LAZY)
+  @EqualsAndHashCode.Exclude
+  @ToString.Exclude
   private Set<Permission> permissions;
 
+  // Copiadas de RoleRegistry al cargar la entidad
+  @Transient
+  @JsonIgnore
+  @EqualsAndHashCode.Exclude
+  @ToString.Exclude
+  private List<GrantedAuthority> authorities;
+
+  // Se incrementa cada vez que cambian los permisos del rol; invalida los tokens emitidos antes
+  private Long epoch;
+
+  public long currentEpoch() {
+    return epoch != null ? epoch : 0L;
+  }
+
+  public void bumpEpoch() {
+    epoch = currentEpoch() + 1;
+  }
+
+  public Collection<GrantedAuthority> grantedAuthorities() {
+    if (authorities != null) {
+      return authorities;
+    }
+    if (permissions == null) {
+      return List.of();
+    }
+    return permissions.stream()
+      .<GrantedAuthority>map(p -> new SimpleGrantedAuthority(p.getName()))
+      .toList();
+  }
+
   // Getters and setters
 }
@@ -1,5 +1,7 @@
 package com.ecommerce.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
@@ -9,11 +11,15 @@ import org.springframework.security.core.userdetails.UserDetails;
 import java.util.Collection;  
 import java.util.Collections;
 import jakarta.persistence.ManyToOne; 
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
+import java.time.Instant;
 
 @Data
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = {
+  @Index(name = "idx_users_security_stamp_changed_at", columnList = "security_stamp_changed_at")
+})
 public class User implements UserDetails {
 
   @Id @GeneratedValue
@@ -26,15 +32,32 @@ public class User implements UserDetails {
   @ManyToOne
   private Role role;
 
+  // Se incrementa cuando cambia el rol del usuario; invalida sus tokens emitidos antes (claim ust)
+  @JsonIgnore
+  @Column(name = "security_stamp")
+  private Long securityStamp;
+
+  // Solo se recargan en memoria los sellos cambiados durante la vida de un access token
+  @JsonIgnore
+  @Column(name = "security_stamp_changed_at")
+  private Instant securityStampChangedAt;
+
+  public long currentSecurityStamp() {
+    return securityStamp != null ? securityStamp : 0L;
+  }
+
+  public void rotateSecurityStamp() {
+    securityStamp = currentSecurityStamp() + 1;
+    securityStampChangedAt = Instant.now();
+  }
+
   @Override
   public Collection<? extends GrantedAuthority> getAuthorities() {
-    if (role == null || role.getPermissions() == null) {
+    if (role == null) {
         return Collections.emptyList(); // Devuelve una lista vacía si no hay rol
     }
 
-    return role.getPermissions().stream()
-      .map(p -> (GrantedAuthority) p::getName)
-      .toList();
+    return role.grantedAuthorities();
   }
 
   @Override public boolean isAccountNonExpired() { return true; }
@@ -0,0 +1,31 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.dto.OrderFilter;
+import com.ecommerce.dto.OrderLineRow;
+import com.ecommerce.model.Order;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Filtered order reads for {@link OrderRepository}. Each filter of {@link OrderFilter} is
+ * optional, so the JPQL is assembled with only the conditions in use instead of declaring one
+ * {@code @Query} per combination.
+ */
+public interface OrderQueryRepository {
+
+    int EXPORT_FETCH_SIZE = 1000;
+
+    /**
+     * Up to {@code limit} orders matching {@code filter}, newest (highest id) first, starting
+     * after {@code beforeId} when it is not null. Their lines are not fetched by this query.
+     */
+    List<Order> findPage(OrderFilter filter, Long beforeId, int limit);
+
+    /**
+     * Every line of the orders matching {@code filter}, newest order first, read through a
+     * forward-only cursor {@link #EXPORT_FETCH_SIZE} rows at a time. Must be consumed inside a
+     * transaction and closed when done.
+     */
+    Stream<OrderLineRow> streamLines(OrderFilter filter);
+}
@@ -0,0 +1,73 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.dto.OrderFilter;
+import com.ecommerce.dto.OrderLineRow;
+import com.ecommerce.model.Order;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.jpa.HibernateHints;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+class OrderQueryRepositoryImpl implements OrderQueryRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Order> findPage(OrderFilter filter, Long beforeId, int limit) {
+        Map<String, Object> params = new HashMap<>();
+        StringBuilder jpql = new StringBuilder("select o from Order o where 1 = 1");
+        appendFilter(jpql, params, filter);
+        // Keyset: sin OFFSET, el índice se recorre desde el último id de la página anterior
+        if (beforeId != null) {
+            jpql.append(" and o.id < :beforeId");
+            params.put("beforeId", beforeId);
+        }
+        jpql.append(" order by o.id desc");
+        TypedQuery<Order> query = entityManager.createQuery(jpql.toString(), Order.class);
+        params.forEach(query::setParameter);
+        return query.setMaxResults(limit).getResultList();
+    }
+
+    @Override
+    public Stream<OrderLineRow> streamLines(OrderFilter filter) {
+        Map<String, Object> params = new HashMap<>();
+        // Filas planas (orden + línea) en vez de entidades: nada queda en el contexto de persistencia
+        StringBuilder jpql = new StringBuilder("""
+            select new com.ecommerce.dto.OrderLineRow(o.id, o.user.id, o.createdAt, o.status, o.total,
+                   i.productId, i.productName, i.quantity, i.unitPrice)
+              from Order o left join o.items i
+             where 1 = 1""");
+        appendFilter(jpql, params, filter);
+        jpql.append(" order by o.id desc");
+        TypedQuery<OrderLineRow> query = entityManager.createQuery(jpql.toString(), OrderLineRow.class)
+            .setHint(HibernateHints.HINT_FETCH_SIZE, EXPORT_FETCH_SIZE)
+            .setHint(HibernateHints.HINT_READ_ONLY, true);
+        params.forEach(query::setParameter);
+        return query.getResultStream();
+    }
+
+    private static void appendFilter(StringBuilder jpql, Map<String, Object> params, OrderFilter filter) {
+        if (filter.userId() != null) {
+            jpql.append(" and o.user.id = :userId");
+            params.put("userId", filter.userId());
+        }
+        if (filter.status() != null) {
+            jpql.append(" and o.status = :status");
+            params.put("status", filter.status());
+        }
+        if (filter.from() != null) {
+            jpql.append(" and o.createdAt >= :from");
+            params.put("from", filter.from());
+        }
+        if (filter.to() != null) {
+            jpql.append(" and o.createdAt < :to");
+            params.put("to", filter.to());
+        }
+    }
+}
@@ -1,9 +1,21 @@
 package com.ecommerce.repository;
 
 import com.ecommerce.model.Order;
-import org.springframework.data.jpa.repository.JpaRepository;   
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Collection;
 import java.util.List;
 
-public interface OrderRepository extends JpaRepository<Order, Long> {
-  List<Order> findByUserId(Long userId);
+public interface OrderRepository extends JpaRepository<Order, Long>, OrderQueryRepository {
+
+  // Órdenes con sus líneas en una sola consulta (join con order_items); el usuario no se carga
+  @EntityGraph(attributePaths = "items")
+  @Query("select o from Order o where o.user.id = :userId order by o.id")
+  List<Order> findWithItemsByUserId(Long userId);
+
+  // Carga las líneas de órdenes ya leídas (una página): una consulta para todas
+  @Query("select distinct o from Order o left join fetch o.items where o.id in :ids")
+  List<Order> fetchItems(Collection<Long> ids);
 }
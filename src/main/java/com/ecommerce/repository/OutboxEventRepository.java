@@ -0,0 +1,33 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.model.OutboxEvent;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // El primer evento pendiente de cada agregado, si ya le toca; los siguientes esperan a que salga.
+    // FOR UPDATE: el relay de otra réplica espera en vez de enviar el mismo lote
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("""
+        select e from OutboxEvent e
+         where e.sentAt is null and e.nextAttemptAt <= :now
+           and not exists (select 1 from OutboxEvent p
+                            where p.aggregateType = e.aggregateType and p.aggregateId = e.aggregateId
+                              and p.sentAt is null and p.id < e.id)
+         order by e.id
+         limit :limit""")
+    List<OutboxEvent> lockNextToSend(Instant now, int limit);
+
+    @Transactional
+    @Modifying
+    @Query("delete from OutboxEvent e where e.sentAt < :cutoff")
+    int deleteSentBefore(Instant cutoff);
+}
@@ -0,0 +1,17 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.model.ProductChangeLock;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Optional;
+
+public interface ProductChangeLockRepository extends JpaRepository<ProductChangeLock, Long> {
+
+    // SELECT ... FOR UPDATE sobre la fila única; se libera al confirmar o deshacer la transacción
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select l from ProductChangeLock l where l.id = " + ProductChangeLock.ID)
+    Optional<ProductChangeLock> lockFeed();
+}
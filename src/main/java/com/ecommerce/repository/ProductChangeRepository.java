@@ -0,0 +1,26 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.model.ProductChange;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+public interface ProductChangeRepository extends JpaRepository<ProductChange, Long> {
+
+    @Query("select c from ProductChange c where c.seq > :afterSeq order by c.seq limit :limit")
+    List<ProductChange> findAfter(long afterSeq, int limit);
+
+    @Modifying
+    @Query("delete from ProductChange c where c.productId in :productIds")
+    void deleteByProductIdIn(Collection<Long> productIds);
+
+    @Transactional
+    @Modifying
+    @Query("delete from ProductChange c where c.deleted = true and c.changedAt < :cutoff")
+    int deleteTombstonesBefore(Instant cutoff);
+}
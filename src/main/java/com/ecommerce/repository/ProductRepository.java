@@ -1,12 +1,83 @@
 package com.ecommerce.repository;
 
+import com.ecommerce.dto.ProductSummary;
 import com.ecommerce.model.Product;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductStockRepository {
+
+    int EXPORT_FETCH_SIZE = 1000;
+
+    String SUMMARY = "new com.ecommerce.dto.ProductSummary(p.id, p.sku, p.name, p.price, p.stock, p.version)";
+
+    // description es perezosa: las lecturas que devuelven el producto completo la piden en el grafo
+    @EntityGraph(attributePaths = "description")
+    @Query("select p from Product p where p.id = :id")
+    Optional<Product> findWithDescriptionById(Long id);
+
+    @EntityGraph(attributePaths = "description")
+    @Query("select p from Product p where p.id in :ids")
+    List<Product> findAllWithDescriptionByIdIn(Collection<Long> ids);
+
+    List<Product> findBySkuIn(Collection<String> skus);
+
+    // Paginación por keyset: sin OFFSET, el índice (clave, id) se recorre desde la última fila vista.
+    // Se usa "limit" en la consulta y no Pageable, que siempre añade "offset ? rows".
+    // Los listados solo leen las columnas de ProductSummary (sin description)
+    @Query("select " + SUMMARY + " from Product p order by p.id limit :limit")
+    List<ProductSummary> findFirstPageById(int limit);
+
+    // name y price admiten NULL: esos productos van al final (nulls last también en H2), por id
+    @Query("select " + SUMMARY + " from Product p order by p.name nulls last, p.id limit :limit")
+    List<ProductSummary> findFirstPageByName(int limit);
+
+    @Query("select " + SUMMARY + " from Product p order by p.price nulls last, p.id limit :limit")
+    List<ProductSummary> findFirstPageByPrice(int limit);
+
+    @Query("select " + SUMMARY + " from Product p where p.id > :afterId order by p.id limit :limit")
+    List<ProductSummary> findPageAfterId(Long afterId, int limit);
+
+    @Query("select " + SUMMARY + """
+         from Product p
+        where (p.name, p.id) > (:name, :afterId)
+        order by p.name, p.id
+        limit :limit
+        """)
+    List<ProductSummary> findPageAfterName(String name, Long afterId, int limit);
+
+    @Query("select " + SUMMARY + """
+         from Product p
+        where (p.price, p.id) > (:price, :afterId)
+        order by p.price, p.id
+        limit :limit
+        """)
+    List<ProductSummary> findPageAfterPrice(BigDecimal price, Long afterId, int limit);
+
+    // La comparación (clave, id) > (...) nunca devuelve filas con clave NULL: se recorren aparte, por id
+    @Query("select " + SUMMARY + " from Product p where p.name is null and p.id > :afterId order by p.id limit :limit")
+    List<ProductSummary> findPageWithoutNameAfter(Long afterId, int limit);
+
+    @Query("select " + SUMMARY + " from Product p where p.price is null and p.id > :afterId order by p.id limit :limit")
+    List<ProductSummary> findPageWithoutPriceAfter(Long afterId, int limit);
 
-public interface ProductRepository extends JpaRepository<Product, Long> {
-    
-    @EntityGraph(attributePaths = {"category"})  // Si tienes categoría
-    List<Product> findByNameContainingIgnoreCase(String name);
+    // Recorrido completo (exportación, carga del índice de búsqueda): cursor de solo avance leído de EXPORT_FETCH_SIZE en EXPORT_FETCH_SIZE filas.
+    // Debe consumirse dentro de una transacción y cerrarse al terminar.
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @EntityGraph(attributePaths = "description")
+    @Query("select p from Product p order by p.id")
+    Stream<Product> streamAllByOrderById();
 }
@@ -0,0 +1,19 @@
+package com.ecommerce.repository;
+
+import java.util.SortedMap;
+
+/**
+ * Stock reservation for {@link ProductRepository}: a conditional, set-based decrement that the
+ * derived/{@code @Query} methods cannot express because its size depends on the order.
+ */
+public interface ProductStockRepository {
+
+    /**
+     * Subtracts each quantity from the stock of its product in a single UPDATE, only on the rows
+     * whose stock covers it, and bumps their version. Returns how many rows were decremented:
+     * fewer than {@code quantities.size()} means some product is missing or short, and the caller
+     * must roll back. The rows are first locked in ascending id order ({@code SELECT ... FOR UPDATE}),
+     * so concurrent reservations over overlapping products cannot deadlock.
+     */
+    int reserveStock(SortedMap<Long, Integer> quantities);
+}
@@ -0,0 +1,58 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.model.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+
+import java.util.Map;
+import java.util.SortedMap;
+
+class ProductStockRepositoryImpl implements ProductStockRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public int reserveStock(SortedMap<Long, Integer> quantities) {
+        if (quantities.isEmpty()) {
+            return 0;
+        }
+        // Una sola sentencia por orden: "stock = stock - cantidad" solo donde stock >= cantidad.
+        // La comprobación y el descuento son atómicos por fila, sin leer antes el stock
+        StringBuilder quantity = new StringBuilder("case p.id");
+        for (int i = 0; i < quantities.size(); i++) {
+            quantity.append(" when :id").append(i).append(" then :qty").append(i);
+        }
+        quantity.append(" end");
+        // versioned: incrementa version, así cambian los ETag y la caché de los productos reservados
+        Query update = entityManager.createQuery(
+            "update versioned Product p set p.stock = p.stock - (" + quantity + ")"
+                + " where p.id in :ids and p.stock >= (" + quantity + ")");
+        int i = 0;
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            update.setParameter("id" + i, entry.getKey());
+            update.setParameter("qty" + i, entry.getValue());
+            i++;
+        }
+        update.setParameter("ids", quantities.keySet());
+        // Como @Modifying(flushAutomatically): el UPDATE ve los cambios pendientes de la transacción
+        entityManager.flush();
+        // Un UPDATE ... WHERE id IN (...) no garantiza el orden en que PostgreSQL bloquea las filas
+        // (depende del plan), así que primero se bloquean con SELECT ... ORDER BY id FOR UPDATE: dos órdenes
+        // con productos comunes toman los bloqueos en el mismo orden y no pueden caer en un deadlock
+        entityManager.createQuery("select p.id from Product p where p.id in :ids order by p.id", Long.class)
+            .setParameter("ids", quantities.keySet())
+            .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+            .getResultList();
+        int updated = update.executeUpdate();
+        // Solo se desvinculan los productos reservados (el UPDATE no pasa por el contexto de persistencia),
+        // así las lecturas siguientes ven el stock nuevo; el resto de entidades de la transacción del
+        // llamante (usuario, orden) siguen gestionadas
+        for (Long id : quantities.keySet()) {
+            entityManager.detach(entityManager.getReference(Product.class, id));
+        }
+        return updated;
+    }
+}
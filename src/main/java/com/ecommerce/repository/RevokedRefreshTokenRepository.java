@@ -0,0 +1,30 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.dto.RevokedTokenId;
+import com.ecommerce.model.RevokedRefreshToken;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.stream.Stream;
+
+public interface RevokedRefreshTokenRepository extends JpaRepository<RevokedRefreshToken, String> {
+
+  int LOAD_FETCH_SIZE = 1000;
+
+  // Solo jti y caducidad, sin entidades: cursor de solo avance leído de LOAD_FETCH_SIZE en LOAD_FETCH_SIZE filas.
+  // Debe consumirse dentro de una transacción y cerrarse al terminar.
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + LOAD_FETCH_SIZE))
+  @Query("select new com.ecommerce.dto.RevokedTokenId(t.jti, t.expiresAt) from RevokedRefreshToken t where t.expiresAt > :now")
+  Stream<RevokedTokenId> streamIdsExpiringAfter(Instant now);
+
+  @Transactional
+  @Modifying
+  @Query("delete from RevokedRefreshToken t where t.expiresAt <= :now")
+  int deleteExpired(Instant now);
+}
@@ -1,10 +1,26 @@
 package com.ecommerce.repository;
 
 import com.ecommerce.model.Role;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
+import java.util.List;
 import java.util.Optional;
   
 public interface RoleRepository extends JpaRepository<Role, Long> {
+  // Solo para modificar el rol; las lecturas de permisos van por RoleRegistry
+  @EntityGraph(attributePaths = "permissions")
   Optional<Role> findByName(String name);
+
+  @Query("select distinct r from Role r left join fetch r.permissions")
+  List<Role> findAllWithPermissions();
+
+  @Query("select r.name as name, r.epoch as epoch from Role r")
+  List<RoleEpochView> findAllEpochs();
+
+  interface RoleEpochView {
+    String getName();
+    Long getEpoch();
+  }
 }
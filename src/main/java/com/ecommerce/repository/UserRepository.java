@@ -4,10 +4,43 @@ import com.ecommerce.model.User;
 
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
 
   @EntityGraph(attributePaths = {"role"})
   Optional<User> findByEmail(String email);
+
+  // Versión = prefijo del hash hasta el coste ({bcrypt}$2a$12$ o el legado $2a$10$), sin sal ni digest
+  @Query("""
+      select v.version as version, count(*) as users
+      from (
+        select case
+                 when u.password like '{bcrypt}$%' then substring(u.password, 1, 15)
+                 when u.password like '$2%' then substring(u.password, 1, 7)
+                 else 'other'
+               end as version
+        from User u
+      ) v
+      group by v.version
+      """)
+  List<HashVersionCount> countByHashVersion();
+
+  // Solo los usuarios cuyo sello cambió después de :since; el resto conserva el de sus tokens
+  @Query("select u.id as id, u.securityStamp as stamp from User u where u.securityStampChangedAt > :since")
+  List<SecurityStampView> findSecurityStampsChangedSince(Instant since);
+
+  interface SecurityStampView {
+    Long getId();
+    Long getStamp();
+  }
+
+  interface HashVersionCount {
+    String getVersion();
+    Long getUsers();
+  }
 }
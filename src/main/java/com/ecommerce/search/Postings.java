@@ -0,0 +1,64 @@
+package com.ecommerce.search;
+
+import java.util.Arrays;
+
+/**
+ * Sorted list of document ids with a weight per document, stored in two parallel int arrays.
+ * Documents are mostly appended (new ids are the highest), so inserts rarely shift anything.
+ * Not thread-safe: {@link ProductSearchIndex} guards every instance with its lock.
+ */
+final class Postings {
+
+    private int[] docs = new int[2];
+    private int[] weights = new int[2];
+    private int size;
+
+    int size() {
+        return size;
+    }
+
+    int doc(int i) {
+        return docs[i];
+    }
+
+    int weight(int i) {
+        return weights[i];
+    }
+
+    void put(int doc, int weight) {
+        int pos = Arrays.binarySearch(docs, 0, size, doc);
+        if (pos >= 0) {
+            weights[pos] = weight;
+            return;
+        }
+        pos = -pos - 1;
+        if (size == docs.length) {
+            docs = Arrays.copyOf(docs, size * 2);
+            weights = Arrays.copyOf(weights, size * 2);
+        }
+        System.arraycopy(docs, pos, docs, pos + 1, size - pos);
+        System.arraycopy(weights, pos, weights, pos + 1, size - pos);
+        docs[pos] = doc;
+        weights[pos] = weight;
+        size++;
+    }
+
+    void remove(int doc) {
+        int pos = Arrays.binarySearch(docs, 0, size, doc);
+        if (pos < 0) {
+            return;
+        }
+        System.arraycopy(docs, pos + 1, docs, pos, size - pos - 1);
+        System.arraycopy(weights, pos + 1, weights, pos, size - pos - 1);
+        size--;
+    }
+
+    boolean contains(int doc) {
+        return Arrays.binarySearch(docs, 0, size, doc) >= 0;
+    }
+
+    /** Copy of the document ids, for use as the seed of an intersection. */
+    int[] docIds() {
+        return Arrays.copyOf(docs, size);
+    }
+}
@@ -0,0 +1,359 @@
+package com.ecommerce.search;
+
+import com.ecommerce.model.Product;
+import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.service.ProductChangedEvent;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * In-memory inverted index over product name and description, used by /api/products/search
+ * instead of a LIKE '%term%' scan. Built from a streamed read of the catalog at startup and kept
+ * current through {@link ProductChangedEvent}s; queries only return product ids.
+ *
+ * Every normalized token (see {@link TextNormalizer}) has a postings list of documents with a
+ * weight: name occurrences count {@value #NAME_WEIGHT}, description ones {@value #DESCRIPTION_WEIGHT}.
+ * Token trigrams have their own postings and find documents whose tokens merely contain a query
+ * fragment ("mes" → "mesa"); those candidates are checked against the document's tokens and
+ * score less than whole-token matches. All query terms must match (AND); the score is the sum
+ * over terms of weight × idf, ties broken by product id.
+ */
+@Component
+public class ProductSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductSearchIndex.class);
+
+    static final int NAME_WEIGHT = 3;
+    static final int DESCRIPTION_WEIGHT = 1;
+    private static final double PARTIAL_MATCH_FACTOR = 0.5;
+
+    private final ProductRepository productRepo;
+    private final EntityManager entityManager;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, Postings> terms = new HashMap<>();
+    private final Map<String, Postings> grams = new HashMap<>();
+    private final Map<Long, Integer> docByProduct = new HashMap<>();
+    // docId → tokens del documento y su peso; null en huecos reutilizables
+    private Doc[] docs = new Doc[1024];
+    private int docCount;
+    private final Deque<Integer> freeDocs = new ArrayDeque<>();
+
+    private record Doc(long productId, String[] tokens, int[] weights) {
+    }
+
+    private record Hit(long productId, double score) {
+    }
+
+    public ProductSearchIndex(ProductRepository productRepo, EntityManager entityManager) {
+        this.productRepo = productRepo;
+        this.entityManager = entityManager;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void load() {
+        long started = System.nanoTime();
+        // Con el lock de escritura durante toda la carga no se pierde ningún cambio concurrente
+        lock.writeLock().lock();
+        try (Stream<Product> products = productRepo.streamAllByOrderById()) {
+            clear();
+            products.forEach(product -> {
+                index(product);
+                entityManager.detach(product);
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Product search index loaded: {} products, {} terms in {} ms",
+            size(), terms.size(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    // Después del commit, para no indexar cambios que luego se deshacen con un rollback
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.deleted()) {
+            remove(event.productId());
+        } else {
+            put(event.product());
+        }
+    }
+
+    /** Adds or replaces a product. */
+    public void put(Product product) {
+        lock.writeLock().lock();
+        try {
+            index(product);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            unindex(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docByProduct.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Ids of the best {@code limit} products matching every term of {@code query}, best first. */
+    public List<Long> search(String query, int limit) {
+        Set<String> queryTerms = new LinkedHashSet<>(TextNormalizer.tokens(query));
+        if (queryTerms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            Map<Integer, Double> scores = null;
+            for (String term : queryTerms) {
+                Map<Integer, Double> matches = match(term);
+                if (scores == null) {
+                    scores = matches;
+                } else {
+                    scores.keySet().retainAll(matches.keySet());
+                    scores.replaceAll((doc, score) -> score + matches.get(doc));
+                }
+                if (scores.isEmpty()) {
+                    return List.of();
+                }
+            }
+            return top(scores, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Documentos que contienen el término entero o, con menos puntuación, como fragmento
+    private Map<Integer, Double> match(String term) {
+        Map<Integer, Double> matches = new HashMap<>();
+        Postings exact = terms.get(term);
+        if (exact != null) {
+            double idf = idf(exact.size());
+            for (int i = 0; i < exact.size(); i++) {
+                matches.put(exact.doc(i), exact.weight(i) * idf);
+            }
+        }
+        int[] candidates = gramCandidates(term);
+        if (candidates.length > 0) {
+            double idf = idf(candidates.length) * PARTIAL_MATCH_FACTOR;
+            for (int doc : candidates) {
+                if (!matches.containsKey(doc)) {
+                    int weight = partialWeight(docs[doc], term);
+                    if (weight > 0) {
+                        matches.put(doc, weight * idf);
+                    }
+                }
+            }
+        }
+        return matches;
+    }
+
+    // Intersección de las postings de los trigramas, empezando por la más corta
+    private int[] gramCandidates(String term) {
+        Set<String> queryGrams = TextNormalizer.queryGrams(term);
+        if (queryGrams.isEmpty()) {
+            return new int[0];
+        }
+        List<Postings> lists = new ArrayList<>(queryGrams.size());
+        for (String gram : queryGrams) {
+            Postings postings = grams.get(gram);
+            if (postings == null) {
+                return new int[0];
+            }
+            lists.add(postings);
+        }
+        lists.sort(Comparator.comparingInt(Postings::size));
+        int[] result = lists.get(0).docIds();
+        int size = result.length;
+        for (int l = 1; l < lists.size() && size > 0; l++) {
+            Postings postings = lists.get(l);
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                if (postings.contains(result[i])) {
+                    result[kept++] = result[i];
+                }
+            }
+            size = kept;
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    private static int partialWeight(Doc doc, String fragment) {
+        int weight = 0;
+        for (int i = 0; i < doc.tokens().length; i++) {
+            if (TextNormalizer.partialMatch(doc.tokens()[i], fragment)) {
+                weight = Math.max(weight, doc.weights()[i]);
+            }
+        }
+        return weight;
+    }
+
+    private double idf(int documentFrequency) {
+        return Math.log(1 + (double) docByProduct.size() / documentFrequency);
+    }
+
+    private List<Long> top(Map<Integer, Double> scores, int limit) {
+        Comparator<Hit> ranking = Comparator.comparingDouble(Hit::score)
+            .thenComparing(Comparator.comparingLong(Hit::productId).reversed());
+        PriorityQueue<Hit> best = new PriorityQueue<>(Math.min(limit, scores.size()) + 1, ranking);
+        scores.forEach((doc, score) -> {
+            best.add(new Hit(docs[doc].productId(), score));
+            if (best.size() > limit) {
+                best.poll();
+            }
+        });
+        List<Hit> hits = new ArrayList<>(best);
+        hits.sort(ranking.reversed());
+        return hits.stream().map(Hit::productId).toList();
+    }
+
+    private void index(Product product) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String token : TextNormalizer.tokens(product.getName())) {
+            weights.merge(token, NAME_WEIGHT, Integer::sum);
+        }
+        for (String token : TextNormalizer.tokens(product.getDescription())) {
+            weights.merge(token, DESCRIPTION_WEIGHT, Integer::sum);
+        }
+        String[] tokens = weights.keySet().toArray(String[]::new);
+        int[] tokenWeights = weights.values().stream().mapToInt(Integer::intValue).toArray();
+
+        Integer current = docByProduct.get(product.getId());
+        if (current != null) {
+            reindex(current, tokens, tokenWeights);
+            return;
+        }
+        int doc = allocateDoc();
+        docs[doc] = new Doc(product.getId(), tokens, tokenWeights);
+        docByProduct.put(product.getId(), doc);
+        for (int i = 0; i < tokens.length; i++) {
+            terms.computeIfAbsent(tokens[i], t -> new Postings()).put(doc, tokenWeights[i]);
+        }
+        for (String gram : gramsOf(tokens)) {
+            grams.computeIfAbsent(gram, g -> new Postings()).put(doc, 0);
+        }
+    }
+
+    // Mismo docId y solo las postings de los tokens que cambian: quitar un doc de una lista larga
+    // desplaza todo el array, y una edición de precio o stock no cambia ningún token
+    private void reindex(int doc, String[] tokens, int[] tokenWeights) {
+        Doc old = docs[doc];
+        Map<String, Integer> oldWeights = new HashMap<>();
+        for (int i = 0; i < old.tokens().length; i++) {
+            oldWeights.put(old.tokens()[i], old.weights()[i]);
+        }
+        Set<String> newTokens = new HashSet<>(Arrays.asList(tokens));
+        for (String token : old.tokens()) {
+            if (!newTokens.contains(token)) {
+                removePosting(terms, token, doc);
+            }
+        }
+        for (int i = 0; i < tokens.length; i++) {
+            Integer oldWeight = oldWeights.get(tokens[i]);
+            if (oldWeight == null || oldWeight != tokenWeights[i]) {
+                terms.computeIfAbsent(tokens[i], t -> new Postings()).put(doc, tokenWeights[i]);
+            }
+        }
+        Set<String> oldGrams = gramsOf(old.tokens());
+        Set<String> newGrams = gramsOf(tokens);
+        for (String gram : oldGrams) {
+            if (!newGrams.contains(gram)) {
+                removePosting(grams, gram, doc);
+            }
+        }
+        for (String gram : newGrams) {
+            if (!oldGrams.contains(gram)) {
+                grams.computeIfAbsent(gram, g -> new Postings()).put(doc, 0);
+            }
+        }
+        docs[doc] = new Doc(old.productId(), tokens, tokenWeights);
+    }
+
+    private void unindex(Long productId) {
+        Integer doc = docByProduct.remove(productId);
+        if (doc == null) {
+            return;
+        }
+        String[] tokens = docs[doc].tokens();
+        for (String token : tokens) {
+            removePosting(terms, token, doc);
+        }
+        for (String gram : gramsOf(tokens)) {
+            removePosting(grams, gram, doc);
+        }
+        docs[doc] = null;
+        freeDocs.push(doc);
+    }
+
+    private static void removePosting(Map<String, Postings> index, String key, int doc) {
+        Postings postings = index.get(key);
+        if (postings != null) {
+            postings.remove(doc);
+            if (postings.size() == 0) {
+                index.remove(key);
+            }
+        }
+    }
+
+    private static Set<String> gramsOf(String[] tokens) {
+        Set<String> result = new HashSet<>();
+        for (String token : tokens) {
+            result.addAll(TextNormalizer.indexGrams(token));
+        }
+        return result;
+    }
+
+    private int allocateDoc() {
+        if (!freeDocs.isEmpty()) {
+            return freeDocs.pop();
+        }
+        if (docCount == docs.length) {
+            docs = Arrays.copyOf(docs, docCount * 2);
+        }
+        return docCount++;
+    }
+
+    private void clear() {
+        terms.clear();
+        grams.clear();
+        docByProduct.clear();
+        Arrays.fill(docs, null);
+        docCount = 0;
+        freeDocs.clear();
+    }
+}
@@ -0,0 +1,175 @@
+package com.ecommerce.search;
+
+import com.ecommerce.dto.ProductSuggestion;
+import com.ecommerce.model.Product;
+import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.search.SuggestionTable.Entry;
+import com.ecommerce.service.ProductChangedEvent;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Type-ahead suggestions for /api/products/suggest: products whose normalized name starts with
+ * the typed prefix, heaviest stock first. Served entirely from memory, without locks on reads.
+ *
+ * The bulk of the catalog lives in an immutable {@link SuggestionTable}. Product changes go to a
+ * small overlay map that is merged into every lookup and folded into a new table by
+ * {@link #compact()}, so a mutation never pays for re-sorting the whole catalog.
+ */
+@Component
+public class ProductSuggester {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductSuggester.class);
+
+    // Más peso primero; a igual peso, clave y id
+    private static final Comparator<Entry> RANKING = (a, b) -> {
+        int cmp = Integer.compare(b.weight(), a.weight());
+        if (cmp == 0) {
+            cmp = a.key().compareTo(b.key());
+        }
+        return cmp != 0 ? cmp : Long.compare(a.productId(), b.productId());
+    };
+    private static final Comparator<Entry> WORST_FIRST = RANKING.reversed();
+
+    // live recibe los cambios; frozen es el overlay que se está compactando en ese momento
+    private record State(SuggestionTable table, Map<Long, Entry> frozen, Map<Long, Entry> live) {
+    }
+
+    private final ProductRepository productRepo;
+    private final EntityManager entityManager;
+    private final int defaultLimit;
+    private final int maxLimit;
+    private volatile State state = new State(SuggestionTable.EMPTY, Map.of(), new ConcurrentHashMap<>());
+
+    public ProductSuggester(ProductRepository productRepo,
+                            EntityManager entityManager,
+                            @Value("${catalog.suggest.default-limit:10}") int defaultLimit,
+                            @Value("${catalog.suggest.max-limit:50}") int maxLimit) {
+        this.productRepo = productRepo;
+        this.entityManager = entityManager;
+        this.maxLimit = Math.max(1, maxLimit);
+        this.defaultLimit = Math.min(Math.max(1, defaultLimit), this.maxLimit);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public synchronized void load() {
+        long started = System.nanoTime();
+        List<Entry> entries = new ArrayList<>();
+        try (Stream<Product> products = productRepo.streamAllByOrderById()) {
+            products.forEach(product -> {
+                Entry entry = entryOf(product);
+                if (!entry.key().isEmpty()) {
+                    entries.add(entry);
+                }
+                entityManager.detach(product);
+            });
+        }
+        SuggestionTable table = SuggestionTable.build(entries);
+        state = new State(table, Map.of(), new ConcurrentHashMap<>());
+        log.info("Product suggestions loaded: {} names, ~{} KB in {} ms",
+            table.size(), table.memoryBytes() / 1024, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    // Después del commit, para no indexar cambios que luego se deshacen con un rollback
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public synchronized void onProductChanged(ProductChangedEvent event) {
+        Entry entry = event.deleted()
+            ? new Entry(event.productId(), "", null, 0)
+            : entryOf(event.product());
+        state.live().put(event.productId(), entry);
+    }
+
+    /** Folds pending changes into a new table; lookups keep using the overlay meanwhile. */
+    @Scheduled(fixedDelayString = "${catalog.suggest.compact-interval-ms:60000}")
+    public void compact() {
+        State frozen;
+        synchronized (this) {
+            State current = state;
+            if (current.live().isEmpty()) {
+                return;
+            }
+            frozen = new State(current.table(), current.live(), new ConcurrentHashMap<>());
+            state = frozen;
+        }
+        List<Entry> entries = new ArrayList<>(frozen.table().size() + frozen.frozen().size());
+        for (int row = 0; row < frozen.table().size(); row++) {
+            if (!frozen.frozen().containsKey(frozen.table().productId(row))) {
+                entries.add(frozen.table().entry(row));
+            }
+        }
+        for (Entry entry : frozen.frozen().values()) {
+            if (!entry.deleted() && !entry.key().isEmpty()) {
+                entries.add(entry);
+            }
+        }
+        SuggestionTable table = SuggestionTable.build(entries);
+        synchronized (this) {
+            state = new State(table, Map.of(), state.live());
+        }
+    }
+
+    public List<ProductSuggestion> suggest(String prefix, Integer limit) {
+        int size = limit == null ? defaultLimit : Math.min(Math.max(1, limit), maxLimit);
+        String key = TextNormalizer.key(prefix);
+        if (key.isEmpty()) {
+            return List.of();
+        }
+        State current = state;
+        Map<Long, Entry> live = current.live();
+        Map<Long, Entry> frozen = current.frozen();
+
+        // Del overlay solo se guardan los mejores size: un montículo acotado, no una ordenación completa
+        PriorityQueue<Entry> pending = new PriorityQueue<>(size + 1, WORST_FIRST);
+        for (Entry entry : frozen.values()) {
+            if (!live.containsKey(entry.productId())) {
+                offer(pending, entry, key, size);
+            }
+        }
+        for (Entry entry : live.values()) {
+            offer(pending, entry, key, size);
+        }
+        List<Entry> candidates = current.table().top(key, size,
+            productId -> !live.containsKey(productId) && !frozen.containsKey(productId));
+        candidates.addAll(pending);
+        return candidates.stream()
+            .sorted(RANKING)
+            .limit(size)
+            .map(entry -> new ProductSuggestion(entry.productId(), entry.name()))
+            .toList();
+    }
+
+    private static void offer(PriorityQueue<Entry> best, Entry entry, String key, int size) {
+        if (entry.deleted() || !entry.key().startsWith(key)) {
+            return;
+        }
+        if (best.size() < size) {
+            best.add(entry);
+        } else if (RANKING.compare(entry, best.peek()) < 0) {
+            best.poll();
+            best.add(entry);
+        }
+    }
+
+    private static Entry entryOf(Product product) {
+        String name = product.getName() != null ? product.getName() : "";
+        return new Entry(product.getId(), TextNormalizer.key(name), name, Math.max(0, product.getStock()));
+    }
+}
@@ -0,0 +1,214 @@
+package com.ecommerce.search;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.LongPredicate;
+
+/**
+ * Immutable, array-packed table of suggestions sorted by normalized key. All keys share one UTF-8
+ * byte array (and the display names another), so a million names cost a few bytes of overhead
+ * each instead of two String objects. The rows starting with a prefix form a contiguous range
+ * found by binary search; a segment tree over the weights returns that range's heaviest rows
+ * best-first in O(k log n), however many rows share the prefix.
+ */
+final class SuggestionTable {
+
+    /** One suggestion; {@code name == null} marks a deleted product in the pending overlay. */
+    record Entry(long productId, String key, String name, int weight) {
+
+        boolean deleted() {
+            return name == null;
+        }
+    }
+
+    static final SuggestionTable EMPTY = build(List.of());
+
+    private final byte[] keys;
+    private final int[] keyOffsets;
+    private final byte[] names;
+    private final int[] nameOffsets;
+    private final long[] productIds;
+    private final int[] weights;
+    // Árbol de segmentos: cada nodo guarda la fila de mayor peso de su intervalo
+    private final int[] maxTree;
+    private final int leaves;
+
+    private SuggestionTable(byte[] keys, int[] keyOffsets, byte[] names, int[] nameOffsets,
+                            long[] productIds, int[] weights) {
+        this.keys = keys;
+        this.keyOffsets = keyOffsets;
+        this.names = names;
+        this.nameOffsets = nameOffsets;
+        this.productIds = productIds;
+        this.weights = weights;
+        int n = productIds.length;
+        int size = 1;
+        while (size < n) {
+            size <<= 1;
+        }
+        this.leaves = size;
+        this.maxTree = new int[2 * size];
+        Arrays.fill(maxTree, -1);
+        for (int i = 0; i < n; i++) {
+            maxTree[size + i] = i;
+        }
+        for (int node = size - 1; node > 0; node--) {
+            maxTree[node] = better(maxTree[2 * node], maxTree[2 * node + 1]);
+        }
+    }
+
+    static SuggestionTable build(List<Entry> entries) {
+        int n = entries.size();
+        byte[][] keyBytes = new byte[n][];
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            keyBytes[i] = entries.get(i).key().getBytes(StandardCharsets.UTF_8);
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.<Integer, byte[]>comparing(i -> keyBytes[i], Arrays::compareUnsigned)
+            .thenComparingLong(i -> entries.get(i).productId()));
+
+        byte[][] nameBytes = new byte[n][];
+        int keyLength = 0;
+        int nameLength = 0;
+        for (int i = 0; i < n; i++) {
+            nameBytes[i] = entries.get(i).name().getBytes(StandardCharsets.UTF_8);
+            keyLength += keyBytes[i].length;
+            nameLength += nameBytes[i].length;
+        }
+        byte[] keys = new byte[keyLength];
+        byte[] names = new byte[nameLength];
+        int[] keyOffsets = new int[n + 1];
+        int[] nameOffsets = new int[n + 1];
+        long[] productIds = new long[n];
+        int[] weights = new int[n];
+        for (int row = 0; row < n; row++) {
+            int i = order[row];
+            System.arraycopy(keyBytes[i], 0, keys, keyOffsets[row], keyBytes[i].length);
+            keyOffsets[row + 1] = keyOffsets[row] + keyBytes[i].length;
+            System.arraycopy(nameBytes[i], 0, names, nameOffsets[row], nameBytes[i].length);
+            nameOffsets[row + 1] = nameOffsets[row] + nameBytes[i].length;
+            productIds[row] = entries.get(i).productId();
+            weights[row] = entries.get(i).weight();
+        }
+        return new SuggestionTable(keys, keyOffsets, names, nameOffsets, productIds, weights);
+    }
+
+    int size() {
+        return productIds.length;
+    }
+
+    long productId(int row) {
+        return productIds[row];
+    }
+
+    Entry entry(int row) {
+        return new Entry(productIds[row],
+            new String(keys, keyOffsets[row], keyOffsets[row + 1] - keyOffsets[row], StandardCharsets.UTF_8),
+            new String(names, nameOffsets[row], nameOffsets[row + 1] - nameOffsets[row], StandardCharsets.UTF_8),
+            weights[row]);
+    }
+
+    /** Approximate heap used by the arrays of this table. */
+    long memoryBytes() {
+        return keys.length + names.length + 4L * (keyOffsets.length + nameOffsets.length)
+            + 8L * productIds.length + 4L * weights.length + 4L * maxTree.length;
+    }
+
+    /**
+     * Up to {@code limit} rows whose key starts with {@code prefix}, heaviest first (ties in key
+     * order), skipping products rejected by {@code accept}.
+     */
+    List<Entry> top(String prefix, int limit, LongPredicate accept) {
+        byte[] p = prefix.getBytes(StandardCharsets.UTF_8);
+        int lo = lowerBound(p);
+        int hi = upperBound(p, lo);
+        List<Entry> result = new ArrayList<>(Math.min(limit, hi - lo));
+        if (lo >= hi || limit <= 0) {
+            return result;
+        }
+        // Cola de intervalos por el peso de su máximo: se extrae el máximo y se parte el intervalo
+        PriorityQueue<int[]> ranges = new PriorityQueue<>((a, b) -> compareRows(a[2], b[2]));
+        ranges.add(new int[] {lo, hi, argMax(lo, hi)});
+        while (!ranges.isEmpty() && result.size() < limit) {
+            int[] range = ranges.poll();
+            int row = range[2];
+            if (accept.test(productIds[row])) {
+                result.add(entry(row));
+            }
+            if (range[0] < row) {
+                ranges.add(new int[] {range[0], row, argMax(range[0], row)});
+            }
+            if (row + 1 < range[1]) {
+                ranges.add(new int[] {row + 1, range[1], argMax(row + 1, range[1])});
+            }
+        }
+        return result;
+    }
+
+    // Primera fila con clave >= prefijo
+    private int lowerBound(byte[] prefix) {
+        int lo = 0;
+        int hi = size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            int cmp = Arrays.compareUnsigned(keys, keyOffsets[mid], keyOffsets[mid + 1], prefix, 0, prefix.length);
+            if (cmp < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    // Primera fila a partir de lo cuya clave ya no empieza por el prefijo
+    private int upperBound(byte[] prefix, int lo) {
+        int hi = size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            int end = Math.min(keyOffsets[mid + 1], keyOffsets[mid] + prefix.length);
+            int cmp = Arrays.compareUnsigned(keys, keyOffsets[mid], end, prefix, 0, prefix.length);
+            if (cmp <= 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    // Fila de mayor peso en [from, to)
+    private int argMax(int from, int to) {
+        int best = -1;
+        for (int l = from + leaves, r = to + leaves; l < r; l >>= 1, r >>= 1) {
+            if ((l & 1) == 1) {
+                best = better(best, maxTree[l++]);
+            }
+            if ((r & 1) == 1) {
+                best = better(best, maxTree[--r]);
+            }
+        }
+        return best;
+    }
+
+    private int better(int a, int b) {
+        if (a < 0) {
+            return b;
+        }
+        if (b < 0) {
+            return a;
+        }
+        return compareRows(a, b) <= 0 ? a : b;
+    }
+
+    // Negativo si la fila a va antes: más peso, o mismo peso y clave menor
+    private int compareRows(int a, int b) {
+        int cmp = Integer.compare(weights[b], weights[a]);
+        return cmp != 0 ? cmp : Integer.compare(a, b);
+    }
+}
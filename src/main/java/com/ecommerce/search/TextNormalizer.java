@@ -0,0 +1,76 @@
+package com.ecommerce.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Normalization shared by indexing and querying, so "Canapé" in a product and "CANAPE" in the
+ * search box produce the same token. NFKD + dropping combining marks strips accents (ñ → n),
+ * then everything is lower-cased and split on anything that is not a letter or digit.
+ */
+final class TextNormalizer {
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+
+    private TextNormalizer() {
+    }
+
+    static List<String> tokens(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String folded = COMBINING_MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFKD))
+            .replaceAll("")
+            .toLowerCase(Locale.ROOT);
+        List<String> tokens = new ArrayList<>();
+        for (String token : SEPARATORS.split(folded)) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    /** Normalized tokens joined by single spaces: the key autocomplete prefixes are matched on. */
+    static String key(String text) {
+        return String.join(" ", tokens(text));
+    }
+
+    /**
+     * Trigrams of an indexed token, padded with a space at both ends: "mesa" → " me", "mes",
+     * "esa", "sa ". The padding lets two-letter queries match as prefixes (" me").
+     */
+    static Set<String> indexGrams(String token) {
+        return grams(" " + token + " ");
+    }
+
+    /**
+     * Trigrams every token containing {@code fragment} must have: its inner trigrams, or the
+     * leading padded one for two-letter fragments (prefix match). Empty for single letters.
+     */
+    static Set<String> queryGrams(String fragment) {
+        if (fragment.length() < 2) {
+            return Set.of();
+        }
+        return fragment.length() == 2 ? Set.of(" " + fragment) : grams(fragment);
+    }
+
+    /** Whether an indexed token matches a query fragment that is not the whole token. */
+    static boolean partialMatch(String token, String fragment) {
+        return fragment.length() == 2 ? token.startsWith(fragment) : token.contains(fragment);
+    }
+
+    private static Set<String> grams(String text) {
+        Set<String> grams = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            grams.add(text.substring(i, i + 3));
+        }
+        return grams;
+    }
+}
@@ -10,11 +10,17 @@ import java.io.Serializable;
 @Component
 public class CustomPermissionEvaluator implements PermissionEvaluator {
 
+  private final PermissionIndex permissionIndex;
+
+  public CustomPermissionEvaluator(PermissionIndex permissionIndex) {
+    this.permissionIndex = permissionIndex;
+  }
+
   @Override
   public boolean hasPermission(Authentication auth, Object targetDomainObject, Object permission) {
     if (auth.getPrincipal() instanceof User user) {
-      return user.getAuthorities().stream()
-          .anyMatch(a -> a.getAuthority().equals(permission.toString()));
+      // Bit test sobre la máscara del rol en lugar de recorrer las authorities
+      return permissionIndex.userHas(user, permission.toString());
     }
     return false;
   }
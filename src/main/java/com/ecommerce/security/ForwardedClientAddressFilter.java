@@ -0,0 +1,154 @@
+package com.ecommerce.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Makes {@link HttpServletRequest#getRemoteAddr()} return the real client address behind the
+ * Ingress, so the per-IP login throttle limits each client instead of the proxy. Like Tomcat's
+ * RemoteIpValve, {@code X-Forwarded-For} is only honoured when the connection comes from a trusted
+ * proxy, and it is read from the right: the first address that is not a trusted proxy is the
+ * client. Whatever a client writes at the left of the header is never used.
+ * {@code server.forward-headers-strategy} is left at {@code none}: {@code framework} takes the
+ * leftmost value from any peer, and {@code native} trusts every private address by default.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ForwardedClientAddressFilter extends OncePerRequestFilter {
+
+    static final String FORWARDED_FOR = "X-Forwarded-For";
+
+    // Solo literales IP: InetAddress.getByName resolvería por DNS cualquier otro texto
+    private static final Pattern IP_LITERAL = Pattern.compile("\\d{1,3}(\\.\\d{1,3}){3}|[0-9a-fA-F:.]*:[0-9a-fA-F:.]*");
+
+    private final List<Cidr> trustedProxies = new ArrayList<>();
+
+    public ForwardedClientAddressFilter(
+            @Value("${security.trusted-proxies:127.0.0.0/8,::1/128,10.0.0.0/8,172.16.0.0/12,192.168.0.0/16}")
+            List<String> trustedProxies) {
+        for (String cidr : trustedProxies) {
+            if (!cidr.isBlank()) {
+                this.trustedProxies.add(Cidr.parse(cidr.trim()));
+            }
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String client = clientAddress(request.getRemoteAddr(), request.getHeader(FORWARDED_FOR));
+        if (client.equals(request.getRemoteAddr())) {
+            chain.doFilter(request, response);
+            return;
+        }
+        chain.doFilter(new HttpServletRequestWrapper(request) {
+            @Override
+            public String getRemoteAddr() {
+                return client;
+            }
+
+            @Override
+            public String getRemoteHost() {
+                return client;
+            }
+        }, response);
+    }
+
+    String clientAddress(String remoteAddr, String forwardedFor) {
+        if (forwardedFor == null || forwardedFor.isBlank() || !isTrusted(remoteAddr)) {
+            return remoteAddr;
+        }
+        String client = remoteAddr;
+        String[] hops = forwardedFor.split(",");
+        for (int i = hops.length - 1; i >= 0; i--) {
+            String hop = hops[i].trim();
+            InetAddress address = parse(hop);
+            // Un valor que no es una IP no se puede atribuir: se queda el último salto de confianza
+            if (address == null) {
+                return client;
+            }
+            client = hop;
+            if (!isTrusted(address)) {
+                return client;
+            }
+        }
+        return client;
+    }
+
+    private boolean isTrusted(String address) {
+        InetAddress parsed = parse(address);
+        return parsed != null && isTrusted(parsed);
+    }
+
+    private boolean isTrusted(InetAddress address) {
+        for (Cidr cidr : trustedProxies) {
+            if (cidr.contains(address)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static InetAddress parse(String value) {
+        if (value == null || !IP_LITERAL.matcher(value).matches()) {
+            return null;
+        }
+        try {
+            return InetAddress.getByName(value);
+        } catch (UnknownHostException e) {
+            return null;
+        }
+    }
+
+    private record Cidr(byte[] network, int prefix) {
+
+        static Cidr parse(String value) {
+            int slash = value.indexOf('/');
+            String host = slash < 0 ? value : value.substring(0, slash);
+            InetAddress address = ForwardedClientAddressFilter.parse(host);
+            if (address == null) {
+                throw new IllegalArgumentException("Invalid trusted proxy: " + value);
+            }
+            byte[] network = address.getAddress();
+            int prefix = slash < 0 ? network.length * 8 : Integer.parseInt(value.substring(slash + 1));
+            if (prefix < 0 || prefix > network.length * 8) {
+                throw new IllegalArgumentException("Invalid trusted proxy: " + value);
+            }
+            return new Cidr(network, prefix);
+        }
+
+        boolean contains(InetAddress address) {
+            byte[] bytes = address.getAddress();
+            if (bytes.length != network.length) {
+                return false;
+            }
+            int fullBytes = prefix / 8;
+            for (int i = 0; i < fullBytes; i++) {
+                if (bytes[i] != network[i]) {
+                    return false;
+                }
+            }
+            int rest = prefix % 8;
+            if (rest == 0) {
+                return true;
+            }
+            int mask = 0xFF << (8 - rest);
+            return (bytes[fullBytes] & mask) == (network[fullBytes] & mask);
+        }
+    }
+}
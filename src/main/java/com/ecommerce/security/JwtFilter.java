@@ -1,13 +1,15 @@
 package com.ecommerce.security;
 
+import com.ecommerce.model.Permission;
+import com.ecommerce.model.Role;
 import com.ecommerce.model.User;
 import com.ecommerce.repository.UserRepository;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.RequiredArgsConstructor;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
@@ -17,14 +19,32 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 
 import java.io.IOException;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Component
-@RequiredArgsConstructor
 @Profile("!ci")
 public class JwtFilter extends OncePerRequestFilter {
 
     private final UserRepository userRepo;
-    
+    private final VerifiedTokenCache tokenCache;
+    private final RoleEpochs roleEpochs;
+    private final UserSecurityStamps userStamps;
+    private final boolean statelessPrincipal;
+
+    public JwtFilter(
+            UserRepository userRepo,
+            VerifiedTokenCache tokenCache,
+            RoleEpochs roleEpochs,
+            UserSecurityStamps userStamps,
+            @Value("${security.jwt.stateless-principal:false}") boolean statelessPrincipal) {
+        this.userRepo = userRepo;
+        this.tokenCache = tokenCache;
+        this.roleEpochs = roleEpochs;
+        this.userStamps = userStamps;
+        this.statelessPrincipal = statelessPrincipal;
+    }
+
     @Override
     protected void doFilterInternal(
             HttpServletRequest request,
@@ -32,9 +52,10 @@ public class JwtFilter extends OncePerRequestFilter {
             FilterChain filterChain
     ) throws ServletException, IOException {
 
-        // Allow actuator endpoints to pass through without JWT validation
+        // Allow public actuator endpoints (health, info) to pass through without JWT validation;
+        // /actuator/metrics necesita el usuario autenticado para comprobar READ_STATISTICS
         String requestURI = request.getRequestURI();
-        if (requestURI.startsWith("/actuator/")) {
+        if (requestURI.startsWith("/actuator/health") || requestURI.equals("/actuator/info")) {
             filterChain.doFilter(request, response);
             return;
         }
@@ -45,14 +66,19 @@ public class JwtFilter extends OncePerRequestFilter {
 
             String token = authHeader.substring(7);
 
-            if (JwtUtil.validateToken(token)) {
+            TokenClaims claims = tokenCache.get(token);
+            if (claims == null) {
+                claims = JwtUtil.parseToken(token).orElse(null);
+                if (claims != null) {
+                    tokenCache.put(token, claims);
+                }
+            }
 
-                String email = JwtUtil.extractEmail(token);
-                String role = JwtUtil.extractRole(token);
+            if (claims != null) {
 
-                User user = userRepo.findByEmail(email).orElse(null);
+                User user = resolvePrincipal(claims);
 
-                if (user != null && role.equals(user.getRole().getName())) {
+                if (user != null) {
 
                     UsernamePasswordAuthenticationToken auth =
                             new UsernamePasswordAuthenticationToken(
@@ -67,4 +93,46 @@ public class JwtFilter extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
+
+    /**
+     * In stateless mode the principal is rebuilt from the token alone, as long as both the role
+     * epoch and the user's security stamp in the token are still current. Otherwise (mode disabled,
+     * old token without {@code uid}, permissions of the role changed or the user was given another
+     * role since issue) the user is loaded and the role re-checked in the database.
+     */
+    private User resolvePrincipal(TokenClaims claims) {
+        if (statelessPrincipal && claims.userId() != null
+                && roleEpochs.isCurrent(claims.role(), claims.roleEpoch())
+                && userStamps.isCurrent(claims.userId(), claims.securityStamp())) {
+            return principalFromClaims(claims);
+        }
+
+        User user = userRepo.findByEmail(claims.subject()).orElse(null);
+        if (user != null && claims.role() != null && user.getRole() != null
+                && claims.role().equals(user.getRole().getName())) {
+            return user;
+        }
+        return null;
+    }
+
+    private static User principalFromClaims(TokenClaims claims) {
+        Set<Permission> permissions = claims.authorities().stream()
+            .map(name -> {
+                Permission permission = new Permission();
+                permission.setName(name);
+                return permission;
+            })
+            .collect(Collectors.toSet());
+
+        Role role = new Role();
+        role.setName(claims.role());
+        role.setEpoch(claims.roleEpoch());
+        role.setPermissions(permissions);
+
+        User user = new User();
+        user.setId(claims.userId());
+        user.setEmail(claims.subject());
+        user.setRole(role);
+        return user;
+    }
 }
@@ -0,0 +1,106 @@
+package com.ecommerce.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+
+import java.security.Key;
+import java.security.PublicKey;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Set of keys for one token type: the active key (identified by {@code kid}) signs new tokens,
+ * and every key in the ring verifies tokens carrying its {@code kid}, so tokens signed with a
+ * previous key keep validating during a rotation. The parser is built once per ring.
+ */
+public final class JwtKeyRing {
+
+    private final String activeKid;
+    private final Map<String, VerificationKey> keys;
+    private final Key signingKey;
+    private final SignatureAlgorithm signingAlgorithm;
+    private final JwtParser parser;
+
+    /**
+     * @param activeKid  kid of the key used for signing
+     * @param keys       verification keys by kid, including the active one
+     * @param signingKey private or secret key for {@code activeKid}; {@code null} on verification-only nodes
+     */
+    public JwtKeyRing(String activeKid, Map<String, VerificationKey> keys, Key signingKey) {
+        if (!keys.containsKey(activeKid)) {
+            throw new IllegalArgumentException("Active key '" + activeKid + "' is not part of the key ring");
+        }
+        this.activeKid = activeKid;
+        this.keys = Map.copyOf(keys);
+        this.signingKey = signingKey;
+        this.signingAlgorithm = keys.get(activeKid).algorithm();
+        this.parser = Jwts.parserBuilder()
+            .setSigningKeyResolver(new KidResolver())
+            .build();
+    }
+
+    /** Random HS256 ring, valid only for the lifetime of this process. */
+    public static JwtKeyRing ephemeral() {
+        Key key = Keys.secretKeyFor(SignatureAlgorithm.HS256);
+        String kid = "ephemeral-" + UUID.randomUUID();
+        Map<String, VerificationKey> keys = new LinkedHashMap<>();
+        keys.put(kid, new VerificationKey(kid, SignatureAlgorithm.HS256, key));
+        return new JwtKeyRing(kid, keys, key);
+    }
+
+    public String activeKid() {
+        return activeKid;
+    }
+
+    public boolean canSign() {
+        return signingKey != null;
+    }
+
+    public Key signingKey() {
+        if (signingKey == null) {
+            throw new IllegalStateException("No signing key configured for kid '" + activeKid + "' (verification-only node)");
+        }
+        return signingKey;
+    }
+
+    public SignatureAlgorithm signingAlgorithm() {
+        return signingAlgorithm;
+    }
+
+    public JwtParser parser() {
+        return parser;
+    }
+
+    /** Asymmetric verification keys, safe to publish (e.g. as a JWKS document). */
+    public List<VerificationKey> publicKeys() {
+        return keys.values().stream()
+            .filter(k -> k.key() instanceof PublicKey)
+            .toList();
+    }
+
+    public record VerificationKey(String kid, SignatureAlgorithm algorithm, Key key) {
+    }
+
+    private final class KidResolver extends SigningKeyResolverAdapter {
+
+        @Override
+        @SuppressWarnings("rawtypes")
+        public Key resolveSigningKey(JwsHeader header, Claims claims) {
+            // Tokens emitidos antes de introducir "kid" se verifican con la clave activa
+            String kid = header.getKeyId() != null ? header.getKeyId() : activeKid;
+            VerificationKey key = keys.get(kid);
+            if (key == null || !key.algorithm().getValue().equals(header.getAlgorithm())) {
+                throw new SignatureException("Unknown signing key: " + kid);
+            }
+            return key.key();
+        }
+    }
+}
@@ -1,94 +1,150 @@
 package com.ecommerce.security;
 
 import com.ecommerce.model.User;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
-import io.jsonwebtoken.security.Keys;
 
-import java.security.Key;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.Date;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
 
 import org.springframework.stereotype.Service;
 
 @Service
 public class JwtUtil {
 
-    private static final Key jwtKey = Keys.secretKeyFor(SignatureAlgorithm.HS256);
-    private static final Key refreshTokenKey = Keys.secretKeyFor(SignatureAlgorithm.HS256);
-    
+    // Claves efímeras hasta que JwtKeyConfig instala las configuradas (compartidas entre réplicas)
+    private static volatile JwtKeyRing accessKeys = JwtKeyRing.ephemeral();
+    private static volatile JwtKeyRing refreshKeys = JwtKeyRing.ephemeral();
+
+    private static final String TOKEN_TYPE = "typ";
+    private static final String REFRESH_TYPE = "refresh";
+
     public static final long JWT_EXPIRATION = 1000 * 60 * 60 * 24; // 24 horas
     public static final long REFRESH_EXPIRATION = 1000 * 60 * 60 * 24 * 7; // 7 días
 
+    public static void useKeyRings(JwtKeyRing access, JwtKeyRing refresh) {
+        accessKeys = access;
+        refreshKeys = refresh;
+    }
+
+    public static JwtKeyRing accessKeyRing() {
+        return accessKeys;
+    }
+
     public static String generateToken(User user) {
+        JwtKeyRing keys = accessKeys;
         return Jwts.builder()
+            .setHeaderParam(JwsHeader.KEY_ID, keys.activeKid())
             .setSubject(user.getEmail())
+            .claim("uid", user.getId())
             .claim("role", user.getRole() != null ? user.getRole().getName() : "USER")
+            .claim("rev", user.getRole() != null ? user.getRole().currentEpoch() : 0L)
+            .claim("ust", user.currentSecurityStamp())
             .claim("authorities", user.getAuthorities().stream()
                 .map(auth -> auth.getAuthority())
                 .toArray(String[]::new))
             .setIssuedAt(new Date())
             .setExpiration(new Date(System.currentTimeMillis() + JWT_EXPIRATION))
-            .signWith(jwtKey)
+            .signWith(keys.signingKey(), keys.signingAlgorithm())
             .compact();
     }
 
     public static String generateRefreshToken(User user) {
+        JwtKeyRing keys = refreshKeys;
         return Jwts.builder()
+            .setHeaderParam(JwsHeader.KEY_ID, keys.activeKid())
+            .setId(UUID.randomUUID().toString())
             .setSubject(user.getEmail())
+            .claim(TOKEN_TYPE, REFRESH_TYPE)
             .setIssuedAt(new Date())
             .setExpiration(new Date(System.currentTimeMillis() + REFRESH_EXPIRATION))
-            .signWith(refreshTokenKey)
+            .signWith(keys.signingKey(), keys.signingAlgorithm())
             .compact();
     }
 
+    /**
+     * Verifies the signature and expiry of an access token exactly once and returns its claims.
+     * This is the path used on every authenticated request; prefer it over calling
+     * {@link #validateToken}, {@link #extractEmail} and {@link #extractRole} separately,
+     * each of which re-verifies the token.
+     */
+    public static Optional<TokenClaims> parseToken(String token) {
+        try {
+            Claims claims = accessKeys.parser().parseClaimsJws(token).getBody();
+            if (REFRESH_TYPE.equals(claims.get(TOKEN_TYPE))) {
+                return Optional.empty();
+            }
+            return Optional.of(toTokenClaims(claims));
+        } catch (Exception e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Verifies a refresh token and returns its subject, id and expiry. Tokens issued before ids
+     * were added have no {@code jti}; they are identified by a digest of the token itself so they
+     * can still be used only once.
+     */
+    public static Optional<RefreshTokenClaims> parseRefreshToken(String refreshToken) {
+        try {
+            Claims claims = parseRefreshClaims(refreshToken);
+            String tokenId = claims.getId() != null ? claims.getId() : legacyTokenId(refreshToken);
+            Instant expiresAt = claims.getExpiration() != null ? claims.getExpiration().toInstant() : null;
+            return Optional.of(new RefreshTokenClaims(claims.getSubject(), tokenId, expiresAt));
+        } catch (Exception e) {
+            return Optional.empty();
+        }
+    }
+
     public static String extractEmail(String token) {
-        return Jwts.parserBuilder()
-            .setSigningKey(jwtKey)
-            .build()
-            .parseClaimsJws(token)
-            .getBody()
-            .getSubject();
+        return accessKeys.parser().parseClaimsJws(token).getBody().getSubject();
     }
 
     public static String extractEmailFromRefreshToken(String refreshToken) {
-        return Jwts.parserBuilder()
-            .setSigningKey(refreshTokenKey)
-            .build()
-            .parseClaimsJws(refreshToken)
-            .getBody()
-            .getSubject();
+        return parseRefreshClaims(refreshToken).getSubject();
     }
 
     public static String extractRole(String token) {
-        return Jwts.parserBuilder()
-            .setSigningKey(jwtKey)
-            .build()
-            .parseClaimsJws(token)
-            .getBody()
-            .get("role", String.class);
+        return accessKeys.parser().parseClaimsJws(token).getBody().get("role", String.class);
     }
 
     public static boolean validateToken(String token) {
+        return parseToken(token).isPresent();
+    }
+
+    public static boolean validateRefreshToken(String refreshToken) {
         try {
-            Jwts.parserBuilder()
-                .setSigningKey(jwtKey)
-                .build()
-                .parseClaimsJws(token);
+            parseRefreshClaims(refreshToken);
             return true;
         } catch (Exception e) {
             return false;
         }
     }
 
-    public static boolean validateRefreshToken(String refreshToken) {
+    private static Claims parseRefreshClaims(String refreshToken) {
+        Claims claims = refreshKeys.parser().parseClaimsJws(refreshToken).getBody();
+        if (!REFRESH_TYPE.equals(claims.get(TOKEN_TYPE))) {
+            throw new JwtException("Not a refresh token");
+        }
+        return claims;
+    }
+
+    private static String legacyTokenId(String token) {
         try {
-            Jwts.parserBuilder()
-                .setSigningKey(refreshTokenKey)
-                .build()
-                .parseClaimsJws(refreshToken);
-            return true;
-        } catch (Exception e) {
-            return false;
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return "legacy-" + HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
         }
     }
 
@@ -96,4 +152,24 @@ public class JwtUtil {
     public static long getExpirationTime() {
         return JWT_EXPIRATION;
     }
+
+    private static TokenClaims toTokenClaims(Claims claims) {
+        Object rawAuthorities = claims.get("authorities");
+        List<String> authorities = rawAuthorities instanceof Collection<?> values
+            ? values.stream().map(String::valueOf).toList()
+            : List.of();
+        Date expiration = claims.getExpiration();
+        Object userId = claims.get("uid");
+        Object roleEpoch = claims.get("rev");
+        Object securityStamp = claims.get("ust");
+        return new TokenClaims(
+            claims.getSubject(),
+            userId instanceof Number id ? id.longValue() : null,
+            claims.get("role", String.class),
+            roleEpoch instanceof Number epoch ? epoch.longValue() : 0L,
+            securityStamp instanceof Number stamp ? stamp.longValue() : 0L,
+            authorities,
+            expiration != null ? expiration.toInstant() : null
+        );
+    }
 }
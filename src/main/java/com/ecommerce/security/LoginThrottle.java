@@ -0,0 +1,72 @@
+package com.ecommerce.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-account and per-client-address rate limit for {@code /auth/login}, checked before the user
+ * lookup and the password verification. Both limits are token buckets in fixed-size
+ * {@link TokenBucketTable}s, so the throttle has constant memory and no locks.
+ * Rejections are counted as {@code auth.login.throttled{key=email|ip}}.
+ */
+@Component
+public class LoginThrottle {
+
+    private final boolean enabled;
+    private final long retryAfterSeconds;
+    private final TokenBucketTable byEmail;
+    private final TokenBucketTable byAddress;
+    private final Counter emailRejections;
+    private final Counter addressRejections;
+
+    @Autowired
+    public LoginThrottle(
+            @Value("${security.login-throttle.enabled:true}") boolean enabled,
+            @Value("${security.login-throttle.table-size:65536}") int tableSize,
+            @Value("${security.login-throttle.per-email.capacity:5}") int emailCapacity,
+            @Value("${security.login-throttle.per-email.refill-per-minute:5}") int emailRefillPerMinute,
+            @Value("${security.login-throttle.per-ip.capacity:50}") int addressCapacity,
+            @Value("${security.login-throttle.per-ip.refill-per-minute:50}") int addressRefillPerMinute,
+            MeterRegistry meterRegistry) {
+        this(enabled, tableSize, emailCapacity, emailRefillPerMinute, addressCapacity, addressRefillPerMinute,
+            meterRegistry, System::nanoTime);
+    }
+
+    LoginThrottle(boolean enabled, int tableSize, int emailCapacity, int emailRefillPerMinute,
+                  int addressCapacity, int addressRefillPerMinute, MeterRegistry meterRegistry, LongSupplier nanoClock) {
+        this.enabled = enabled;
+        this.byEmail = new TokenBucketTable(tableSize, emailCapacity, emailRefillPerMinute, nanoClock);
+        this.byAddress = new TokenBucketTable(tableSize, addressCapacity, addressRefillPerMinute, nanoClock);
+        // Tiempo hasta recuperar un intento en el límite más lento
+        int slowestRefill = Math.max(1, Math.min(emailRefillPerMinute, addressRefillPerMinute));
+        this.retryAfterSeconds = Math.max(1, (60 + slowestRefill - 1) / slowestRefill);
+        this.emailRejections = Counter.builder("auth.login.throttled").tag("key", "email").register(meterRegistry);
+        this.addressRejections = Counter.builder("auth.login.throttled").tag("key", "ip").register(meterRegistry);
+    }
+
+    /** Consumes one attempt for the address and the account; {@code false} if either is over its limit. */
+    public boolean tryAcquire(String email, String clientAddress) {
+        if (!enabled) {
+            return true;
+        }
+        if (clientAddress != null && !byAddress.tryAcquire(clientAddress)) {
+            addressRejections.increment();
+            return false;
+        }
+        if (email != null && !byEmail.tryAcquire(email.trim().toLowerCase(Locale.ROOT))) {
+            emailRejections.increment();
+            return false;
+        }
+        return true;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
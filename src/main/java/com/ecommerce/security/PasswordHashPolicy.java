@@ -0,0 +1,82 @@
+package com.ecommerce.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Builds the application's {@link PasswordEncoder}: a {@link DelegatingPasswordEncoder} that writes
+ * {@code {bcrypt}} hashes with a cost chosen for this environment and still verifies the legacy
+ * unprefixed BCrypt hashes. Hashes with another id or a lower cost report
+ * {@code upgradeEncoding == true} and are re-hashed on the next successful login.
+ *
+ * With {@code security.password.cost: 0} the cost is calibrated at startup: the highest cost whose
+ * verification stays within {@code target-verify-ms}, bounded by {@code min-cost}/{@code max-cost}.
+ */
+@Component
+public class PasswordHashPolicy {
+
+    static final String ENCODING_ID = "bcrypt";
+
+    private static final Logger log = LoggerFactory.getLogger(PasswordHashPolicy.class);
+
+    private final int fixedCost;
+    private final long targetVerifyMillis;
+    private final int minCost;
+    private final int maxCost;
+
+    public PasswordHashPolicy(
+            @Value("${security.password.cost:0}") int fixedCost,
+            @Value("${security.password.target-verify-ms:250}") long targetVerifyMillis,
+            @Value("${security.password.min-cost:10}") int minCost,
+            @Value("${security.password.max-cost:16}") int maxCost) {
+        this.fixedCost = fixedCost;
+        this.targetVerifyMillis = targetVerifyMillis;
+        this.minCost = minCost;
+        this.maxCost = Math.max(minCost, maxCost);
+    }
+
+    public PasswordEncoder createEncoder() {
+        int cost = fixedCost > 0 ? fixedCost : calibrate();
+        return createEncoder(cost);
+    }
+
+    static PasswordEncoder createEncoder(int cost) {
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(cost);
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(ENCODING_ID, Map.of(ENCODING_ID, bcrypt));
+        // Los hashes guardados antes de este cambio no llevan prefijo {bcrypt}
+        encoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        return encoder;
+    }
+
+    int calibrate() {
+        // Calentamiento para que la primera medición no incluya la carga de clases
+        measureVerifyMillis(4);
+
+        int chosen = minCost;
+        for (int cost = minCost; cost <= maxCost; cost++) {
+            long millis = measureVerifyMillis(cost);
+            log.info("BCrypt cost {} verifies in {} ms", cost, millis);
+            if (millis > targetVerifyMillis) {
+                break;
+            }
+            chosen = cost;
+        }
+        log.info("Password hash cost calibrated to {} (target {} ms)", chosen, targetVerifyMillis);
+        return chosen;
+    }
+
+    static long measureVerifyMillis(int cost) {
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(cost);
+        String hash = bcrypt.encode("calibration");
+        long start = System.nanoTime();
+        bcrypt.matches("calibration", hash);
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+}
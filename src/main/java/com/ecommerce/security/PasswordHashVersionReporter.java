@@ -0,0 +1,55 @@
+package com.ecommerce.security;
+
+import com.ecommerce.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.Tags;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Publishes how many users are on each stored hash version (e.g. {@code {bcrypt}$2a$12$} or the
+ * legacy {@code $2a$10$}) as {@code auth.password.hash.versions{version}}, so the progress of
+ * login-time re-hashing after a cost change can be followed.
+ */
+@Component
+public class PasswordHashVersionReporter {
+
+    private static final Logger log = LoggerFactory.getLogger(PasswordHashVersionReporter.class);
+
+    private final UserRepository userRepo;
+    private final MultiGauge versions;
+    private volatile Map<String, Long> distribution = Map.of();
+
+    public PasswordHashVersionReporter(UserRepository userRepo, MeterRegistry meterRegistry) {
+        this.userRepo = userRepo;
+        this.versions = MultiGauge.builder("auth.password.hash.versions").register(meterRegistry);
+    }
+
+    @Scheduled(initialDelayString = "${security.password.report-initial-delay-ms:60000}",
+               fixedDelayString = "${security.password.report-interval-ms:600000}")
+    public void refresh() {
+        try {
+            Map<String, Long> counts = new TreeMap<>();
+            for (UserRepository.HashVersionCount row : userRepo.countByHashVersion()) {
+                counts.merge(row.getVersion(), row.getUsers(), Long::sum);
+            }
+            distribution = Map.copyOf(counts);
+            versions.register(counts.entrySet().stream()
+                .<MultiGauge.Row<?>>map(e -> MultiGauge.Row.of(Tags.of("version", e.getKey()), e.getValue()))
+                .toList(), true);
+            log.info("Password hash versions: {}", counts);
+        } catch (RuntimeException e) {
+            log.warn("Could not refresh password hash versions: {}", e.getMessage());
+        }
+    }
+
+    public Map<String, Long> distribution() {
+        return distribution;
+    }
+}
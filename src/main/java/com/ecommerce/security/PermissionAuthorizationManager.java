@@ -0,0 +1,44 @@
+package com.ecommerce.security;
+
+import com.ecommerce.model.User;
+import org.springframework.security.authorization.AuthorityAuthorizationManager;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.core.Authentication;
+
+import java.util.function.Supplier;
+
+/**
+ * URL-level equivalent of {@code hasAuthority(...)} backed by {@link PermissionIndex}. Principals
+ * that are not our {@link User} (e.g. test doubles) fall back to the regular authority check.
+ */
+public final class PermissionAuthorizationManager<T> implements AuthorizationManager<T> {
+
+    private final PermissionIndex permissionIndex;
+    private final String permission;
+    private final AuthorityAuthorizationManager<T> fallback;
+
+    private PermissionAuthorizationManager(PermissionIndex permissionIndex, String permission) {
+        this.permissionIndex = permissionIndex;
+        this.permission = permission;
+        this.fallback = AuthorityAuthorizationManager.hasAuthority(permission);
+    }
+
+    public static <T> PermissionAuthorizationManager<T> hasPermission(PermissionIndex permissionIndex, String permission) {
+        return new PermissionAuthorizationManager<>(permissionIndex, permission);
+    }
+
+    @Override
+    public AuthorizationDecision check(Supplier<Authentication> authentication, T object) {
+        Authentication auth = authentication.get();
+        if (auth != null && auth.isAuthenticated() && auth.getPrincipal() instanceof User user) {
+            return new AuthorizationDecision(permissionIndex.userHas(user, permission));
+        }
+        return fallback.check(authentication, object);
+    }
+
+    @Override
+    public String toString() {
+        return "PermissionAuthorizationManager[permission=" + permission + "]";
+    }
+}
@@ -0,0 +1,30 @@
+package com.ecommerce.security;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+import org.springframework.security.access.expression.method.DefaultMethodSecurityExpressionHandler;
+import org.springframework.security.access.expression.method.MethodSecurityExpressionOperations;
+import org.springframework.security.core.Authentication;
+
+import java.util.function.Supplier;
+
+/** Method security expression handler whose root resolves authorities through {@link PermissionIndex}. */
+public class PermissionExpressionHandler extends DefaultMethodSecurityExpressionHandler {
+
+    private final PermissionIndex permissionIndex;
+
+    public PermissionExpressionHandler(PermissionIndex permissionIndex) {
+        this.permissionIndex = permissionIndex;
+    }
+
+    @Override
+    public EvaluationContext createEvaluationContext(Supplier<Authentication> authentication, MethodInvocation mi) {
+        EvaluationContext context = super.createEvaluationContext(authentication, mi);
+        if (context instanceof StandardEvaluationContext standard
+                && standard.getRootObject().getValue() instanceof MethodSecurityExpressionOperations root) {
+            standard.setRootObject(new PermissionExpressionRoot(root, permissionIndex));
+        }
+        return context;
+    }
+}
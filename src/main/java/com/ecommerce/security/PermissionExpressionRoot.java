@@ -0,0 +1,122 @@
+package com.ecommerce.security;
+
+import com.ecommerce.model.User;
+import org.springframework.security.access.expression.method.MethodSecurityExpressionOperations;
+import org.springframework.security.core.Authentication;
+
+/**
+ * Root object for {@code @PreAuthorize} expressions that answers {@code hasAuthority} and
+ * {@code hasAnyAuthority} with bit tests on the role mask. Everything else is delegated to the
+ * standard root, which keeps its own final implementations of those methods.
+ */
+class PermissionExpressionRoot implements MethodSecurityExpressionOperations {
+
+    private final MethodSecurityExpressionOperations delegate;
+    private final PermissionIndex permissionIndex;
+
+    PermissionExpressionRoot(MethodSecurityExpressionOperations delegate, PermissionIndex permissionIndex) {
+        this.delegate = delegate;
+        this.permissionIndex = permissionIndex;
+    }
+
+    @Override
+    public boolean hasAuthority(String authority) {
+        if (getAuthentication().getPrincipal() instanceof User user) {
+            return permissionIndex.userHas(user, authority);
+        }
+        return delegate.hasAuthority(authority);
+    }
+
+    @Override
+    public boolean hasAnyAuthority(String... authorities) {
+        if (getAuthentication().getPrincipal() instanceof User user) {
+            for (String authority : authorities) {
+                if (permissionIndex.userHas(user, authority)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        return delegate.hasAnyAuthority(authorities);
+    }
+
+    @Override
+    public Authentication getAuthentication() {
+        return delegate.getAuthentication();
+    }
+
+    @Override
+    public boolean hasRole(String role) {
+        return delegate.hasRole(role);
+    }
+
+    @Override
+    public boolean hasAnyRole(String... roles) {
+        return delegate.hasAnyRole(roles);
+    }
+
+    @Override
+    public boolean permitAll() {
+        return delegate.permitAll();
+    }
+
+    @Override
+    public boolean denyAll() {
+        return delegate.denyAll();
+    }
+
+    @Override
+    public boolean isAnonymous() {
+        return delegate.isAnonymous();
+    }
+
+    @Override
+    public boolean isAuthenticated() {
+        return delegate.isAuthenticated();
+    }
+
+    @Override
+    public boolean isRememberMe() {
+        return delegate.isRememberMe();
+    }
+
+    @Override
+    public boolean isFullyAuthenticated() {
+        return delegate.isFullyAuthenticated();
+    }
+
+    @Override
+    public boolean hasPermission(Object target, Object permission) {
+        return delegate.hasPermission(target, permission);
+    }
+
+    @Override
+    public boolean hasPermission(Object targetId, String targetType, Object permission) {
+        return delegate.hasPermission(targetId, targetType, permission);
+    }
+
+    @Override
+    public void setFilterObject(Object filterObject) {
+        delegate.setFilterObject(filterObject);
+    }
+
+    @Override
+    public Object getFilterObject() {
+        return delegate.getFilterObject();
+    }
+
+    @Override
+    public void setReturnObject(Object returnObject) {
+        delegate.setReturnObject(returnObject);
+    }
+
+    @Override
+    public Object getReturnObject() {
+        return delegate.getReturnObject();
+    }
+
+    @Override
+    public Object getThis() {
+        return delegate.getThis();
+    }
+}
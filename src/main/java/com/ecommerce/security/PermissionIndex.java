@@ -0,0 +1,73 @@
+package com.ecommerce.security;
+
+import com.ecommerce.model.Permission;
+import com.ecommerce.model.Role;
+import com.ecommerce.model.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Interns every permission name into a dense integer id and precomputes each role's permission
+ * set as a bit mask, so an authorization check is one map lookup plus one bit test instead of
+ * streaming the principal's authorities and comparing strings.
+ *
+ * The index is an immutable snapshot swapped atomically; {@link RoleRegistry} rebuilds it every
+ * time it reloads roles and permissions.
+ */
+@Component
+public class PermissionIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(PermissionIndex.class);
+
+    private volatile Snapshot snapshot = new Snapshot(Map.of(), Map.of());
+
+    public void rebuild(List<Permission> permissions, List<Role> roles) {
+        Map<String, Integer> ids = new HashMap<>();
+        permissions.stream()
+            .sorted(Comparator.comparing(Permission::getId, Comparator.nullsLast(Comparator.naturalOrder())))
+            .forEach(p -> ids.putIfAbsent(p.getName(), ids.size()));
+
+        Map<String, long[]> masks = new HashMap<>();
+        for (Role role : roles) {
+            long[] mask = new long[(ids.size() + 63) >>> 6];
+            Collection<Permission> rolePermissions = role.getPermissions() != null ? role.getPermissions() : List.of();
+            for (Permission permission : rolePermissions) {
+                Integer id = ids.get(permission.getName());
+                if (id != null) {
+                    mask[id >>> 6] |= 1L << id;
+                }
+            }
+            masks.put(role.getName(), mask);
+        }
+
+        snapshot = new Snapshot(Map.copyOf(ids), Map.copyOf(masks));
+        log.info("Permission index built: {} permissions, {} roles", ids.size(), masks.size());
+    }
+
+    /** Dense id of a permission, or -1 if the permission is unknown. */
+    public int idOf(String permission) {
+        Integer id = snapshot.ids().get(permission);
+        return id != null ? id : -1;
+    }
+
+    public boolean roleHas(String roleName, String permission) {
+        Snapshot current = snapshot;
+        Integer id = current.ids().get(permission);
+        long[] mask = roleName != null ? current.masks().get(roleName) : null;
+        return id != null && mask != null && (mask[id >>> 6] & (1L << id)) != 0;
+    }
+
+    public boolean userHas(User user, String permission) {
+        return user.getRole() != null && roleHas(user.getRole().getName(), permission);
+    }
+
+    private record Snapshot(Map<String, Integer> ids, Map<String, long[]> masks) {
+    }
+}
@@ -0,0 +1,7 @@
+package com.ecommerce.security;
+
+import java.time.Instant;
+
+/** Verified claims of a refresh token; {@code tokenId} is the {@code jti} used for rotation. */
+public record RefreshTokenClaims(String subject, String tokenId, Instant expiresAt) {
+}
@@ -0,0 +1,91 @@
+package com.ecommerce.security;
+
+import com.ecommerce.dto.RevokedTokenId;
+import com.ecommerce.model.RevokedRefreshToken;
+import com.ecommerce.repository.RevokedRefreshTokenRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Single-use bookkeeping for refresh tokens. Every {@code jti} that has been rotated or revoked is
+ * held in memory in a {@link RevokedIdSet} (fast rejection, bounded by token lifetime) and
+ * persisted in {@code revoked_refresh_token}, which is streamed back (ids and expiry only) at startup. Consuming an id is an
+ * insert keyed by the {@code jti}, so the same token cannot be rotated twice even on two replicas.
+ */
+@Component
+public class RefreshTokenStore {
+
+    private static final Logger log = LoggerFactory.getLogger(RefreshTokenStore.class);
+
+    private final RevokedRefreshTokenRepository repository;
+    private final RevokedIdSet revoked = new RevokedIdSet();
+
+    public RefreshTokenStore(RevokedRefreshTokenRepository repository, MeterRegistry meterRegistry) {
+        this.repository = repository;
+        Gauge.builder("auth.refresh.revoked.ids", revoked, RevokedIdSet::size).register(meterRegistry);
+    }
+
+    // Transacción de solo lectura: el stream es un cursor abierto mientras se recorre
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void load() {
+        int loaded = 0;
+        try (Stream<RevokedTokenId> ids = repository.streamIdsExpiringAfter(Instant.now())) {
+            for (Iterator<RevokedTokenId> it = ids.iterator(); it.hasNext(); ) {
+                RevokedTokenId id = it.next();
+                revoked.add(id.jti(), id.expiresAt());
+                loaded++;
+            }
+        }
+        log.info("Loaded {} revoked refresh token ids", loaded);
+    }
+
+    public boolean isRevoked(RefreshTokenClaims claims) {
+        return revoked.contains(claims.tokenId(), claims.expiresAt());
+    }
+
+    /**
+     * Marks the token as used. Returns {@code false} if it had already been used or revoked,
+     * here or on another replica, in which case the caller must reject it.
+     */
+    public boolean consume(RefreshTokenClaims claims) {
+        if (claims.expiresAt() == null || isRevoked(claims)) {
+            return false;
+        }
+        try {
+            repository.save(new RevokedRefreshToken(claims.tokenId(), claims.expiresAt()));
+        } catch (DataIntegrityViolationException e) {
+            // Otra réplica (o una petición concurrente) ya lo consumió
+            revoked.add(claims.tokenId(), claims.expiresAt());
+            return false;
+        }
+        return revoked.add(claims.tokenId(), claims.expiresAt());
+    }
+
+    /** Revokes the token (logout); idempotent. */
+    public void revoke(RefreshTokenClaims claims) {
+        consume(claims);
+    }
+
+    @Scheduled(fixedDelayString = "${security.jwt.refresh-revocation-cleanup-ms:3600000}")
+    public void evictExpired() {
+        Instant now = Instant.now();
+        revoked.evictExpired(now);
+        int deleted = repository.deleteExpired(now);
+        if (deleted > 0) {
+            log.info("Deleted {} expired refresh token ids", deleted);
+        }
+    }
+}
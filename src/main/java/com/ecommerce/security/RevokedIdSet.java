@@ -0,0 +1,149 @@
+package com.ecommerce.security;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Set of token ids bucketed by the hour in which the token expires. Ids are kept as 128-bit
+ * values in open-addressing {@code long[]} tables (16 bytes per slot, load factor 3/4, no object
+ * per entry), and a whole bucket is dropped once its hour has passed, so memory only tracks ids
+ * whose tokens could still be presented.
+ *
+ * A lookup hashes into the single bucket of the token's expiry hour: one map get plus a short
+ * probe over primitive arrays.
+ */
+final class RevokedIdSet {
+
+    private static final long BUCKET_SECONDS = Duration.ofHours(1).toSeconds();
+
+    private final ConcurrentMap<Long, Bucket> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong size = new AtomicLong();
+
+    /** Adds the id; {@code false} if it was already present. */
+    boolean add(String tokenId, Instant expiresAt) {
+        long[] key = key(tokenId);
+        Bucket bucket = buckets.computeIfAbsent(bucketOf(expiresAt), b -> new Bucket());
+        boolean added = bucket.add(key[0], key[1]);
+        if (added) {
+            size.incrementAndGet();
+        }
+        return added;
+    }
+
+    boolean contains(String tokenId, Instant expiresAt) {
+        Bucket bucket = buckets.get(bucketOf(expiresAt));
+        if (bucket == null) {
+            return false;
+        }
+        long[] key = key(tokenId);
+        return bucket.contains(key[0], key[1]);
+    }
+
+    /** Drops every bucket whose tokens have all expired at {@code now}. */
+    void evictExpired(Instant now) {
+        long current = bucketOf(now);
+        buckets.entrySet().removeIf(entry -> {
+            if (entry.getKey() < current) {
+                size.addAndGet(-entry.getValue().size());
+                return true;
+            }
+            return false;
+        });
+    }
+
+    long size() {
+        return size.get();
+    }
+
+    private static long bucketOf(Instant expiresAt) {
+        return Math.floorDiv(expiresAt.getEpochSecond(), BUCKET_SECONDS);
+    }
+
+    // UUID → sus 128 bits; cualquier otro id → hash de 128 bits (dos FNV-1a con semillas distintas)
+    private static long[] key(String tokenId) {
+        try {
+            UUID uuid = UUID.fromString(tokenId);
+            return new long[]{uuid.getMostSignificantBits(), uuid.getLeastSignificantBits()};
+        } catch (IllegalArgumentException e) {
+            byte[] bytes = tokenId.getBytes(StandardCharsets.UTF_8);
+            return new long[]{fnv(bytes, 0xcbf29ce484222325L), fnv(bytes, 0x84222325cbf29ce4L)};
+        }
+    }
+
+    private static long fnv(byte[] bytes, long seed) {
+        long hash = seed;
+        for (byte b : bytes) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /** Open-addressing set of (hi, lo) pairs; (0, 0) marks an empty slot. */
+    private static final class Bucket {
+
+        private long[] table = new long[2 * 64];
+        private int count;
+
+        synchronized boolean add(long hi, long lo) {
+            if (hi == 0 && lo == 0) {
+                lo = 1;
+            }
+            if ((count + 1) * 4 > (table.length / 2) * 3) {
+                resize();
+            }
+            int slot = find(table, hi, lo);
+            if (table[slot] != 0 || table[slot + 1] != 0) {
+                return false;
+            }
+            table[slot] = hi;
+            table[slot + 1] = lo;
+            count++;
+            return true;
+        }
+
+        synchronized boolean contains(long hi, long lo) {
+            if (hi == 0 && lo == 0) {
+                lo = 1;
+            }
+            int slot = find(table, hi, lo);
+            return table[slot] != 0 || table[slot + 1] != 0;
+        }
+
+        synchronized int size() {
+            return count;
+        }
+
+        private void resize() {
+            long[] old = table;
+            table = new long[old.length * 2];
+            for (int i = 0; i < old.length; i += 2) {
+                if (old[i] != 0 || old[i + 1] != 0) {
+                    int slot = find(table, old[i], old[i + 1]);
+                    table[slot] = old[i];
+                    table[slot + 1] = old[i + 1];
+                }
+            }
+        }
+
+        // Devuelve el slot con la clave o el primer hueco libre de su secuencia de sondeo
+        private static int find(long[] table, long hi, long lo) {
+            int capacity = table.length / 2;
+            int index = (int) ((hi ^ (lo * 0x9E3779B97F4A7C15L)) >>> 33) & (capacity - 1);
+            while (true) {
+                int slot = index * 2;
+                long h = table[slot];
+                long l = table[slot + 1];
+                if ((h == 0 && l == 0) || (h == hi && l == lo)) {
+                    return slot;
+                }
+                index = (index + 1) & (capacity - 1);
+            }
+        }
+    }
+}
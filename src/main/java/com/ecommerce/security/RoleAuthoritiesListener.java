@@ -0,0 +1,28 @@
+package com.ecommerce.security;
+
+import com.ecommerce.model.Role;
+import jakarta.persistence.PostLoad;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * JPA listener on {@link Role}: copies the role's authorities from {@link RoleRegistry} so that
+ * {@code User.getAuthorities()} never initializes the lazy permission collection.
+ * Instantiated by Hibernate through Spring's bean container while the EntityManagerFactory is
+ * being built, hence the provider: the registry itself depends on the repositories.
+ */
+public class RoleAuthoritiesListener {
+
+    private final ObjectProvider<RoleRegistry> roleRegistry;
+
+    public RoleAuthoritiesListener(ObjectProvider<RoleRegistry> roleRegistry) {
+        this.roleRegistry = roleRegistry;
+    }
+
+    @PostLoad
+    public void attachAuthorities(Role role) {
+        RoleRegistry registry = roleRegistry.getIfAvailable();
+        if (registry != null) {
+            role.setAuthorities(registry.authoritiesOf(role.getName()));
+        }
+    }
+}
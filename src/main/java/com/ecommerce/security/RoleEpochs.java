@@ -0,0 +1,62 @@
+package com.ecommerce.security;
+
+import com.ecommerce.repository.RoleRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory table of the current permission epoch of every role.
+ * Access tokens carry the epoch of their role at issue time ({@code rev} claim); a token whose
+ * epoch no longer matches must not be trusted for its embedded authorities.
+ *
+ * Local changes are applied immediately through {@link #update}; changes made on other replicas
+ * are picked up by the periodic {@link #refresh}, which reads one narrow row per role.
+ */
+@Component
+public class RoleEpochs {
+
+    private static final Logger log = LoggerFactory.getLogger(RoleEpochs.class);
+
+    private final RoleRepository roleRepo;
+    private final ApplicationEventPublisher events;
+    private final Map<String, Long> epochs = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+
+    public RoleEpochs(RoleRepository roleRepo, ApplicationEventPublisher events) {
+        this.roleRepo = roleRepo;
+        this.events = events;
+    }
+
+    @Scheduled(fixedDelayString = "${security.jwt.role-epoch-refresh-ms:30000}")
+    public void refresh() {
+        try {
+            boolean initialLoad = !loaded;
+            for (RoleRepository.RoleEpochView role : roleRepo.findAllEpochs()) {
+                long epoch = role.getEpoch() != null ? role.getEpoch() : 0L;
+                Long previous = epochs.put(role.getName(), epoch);
+                if (!initialLoad && (previous == null || previous != epoch)) {
+                    events.publishEvent(new RolePermissionsChangedEvent(role.getName(), epoch));
+                }
+            }
+            loaded = true;
+        } catch (RuntimeException e) {
+            log.warn("Could not refresh role epochs: {}", e.getMessage());
+        }
+    }
+
+    public void update(String roleName, long epoch) {
+        epochs.merge(roleName, epoch, Math::max);
+        events.publishEvent(new RolePermissionsChangedEvent(roleName, epoch));
+    }
+
+    /** {@code false} until the table has been loaded at least once, so claims are never trusted blindly. */
+    public boolean isCurrent(String roleName, long epoch) {
+        return loaded && roleName != null && epochs.getOrDefault(roleName, 0L) == epoch;
+    }
+}
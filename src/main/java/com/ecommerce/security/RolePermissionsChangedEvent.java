@@ -0,0 +1,5 @@
+package com.ecommerce.security;
+
+/** Published when the permission epoch of a role advances, locally or on another replica. */
+public record RolePermissionsChangedEvent(String roleName, long epoch) {
+}
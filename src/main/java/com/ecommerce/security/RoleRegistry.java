@@ -0,0 +1,83 @@
+package com.ecommerce.security;
+
+import com.ecommerce.model.Permission;
+import com.ecommerce.model.Role;
+import com.ecommerce.repository.PermissionRepository;
+import com.ecommerce.repository.RoleRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory view of every role and its permissions. Loaded with a single fetch-join query at
+ * startup and again whenever {@link RoleEpochs} reports a role change; readers always see a
+ * complete immutable snapshot (copy-on-write), so lookups take no locks and no queries.
+ *
+ * {@code Role.permissions} is lazy; {@link RoleAuthoritiesListener} attaches the authorities from
+ * this registry to every loaded {@link Role}, so loading a user never touches the permission tables.
+ * Each refresh also rebuilds the {@link PermissionIndex} bit masks.
+ */
+@Component
+public class RoleRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(RoleRegistry.class);
+
+    private final RoleRepository roleRepo;
+    private final PermissionRepository permRepo;
+    private final PermissionIndex permissionIndex;
+    private volatile Map<String, RoleEntry> roles = Map.of();
+
+    public RoleRegistry(RoleRepository roleRepo, PermissionRepository permRepo, PermissionIndex permissionIndex) {
+        this.roleRepo = roleRepo;
+        this.permRepo = permRepo;
+        this.permissionIndex = permissionIndex;
+    }
+
+    @EventListener({ApplicationReadyEvent.class, RolePermissionsChangedEvent.class})
+    public void refresh() {
+        List<Role> loadedRoles = roleRepo.findAllWithPermissions();
+        List<Permission> permissions = permRepo.findAll();
+
+        Map<String, RoleEntry> next = new HashMap<>();
+        for (Role role : loadedRoles) {
+            Collection<Permission> rolePermissions = role.getPermissions() != null ? role.getPermissions() : List.of();
+            Set<String> names = rolePermissions.stream()
+                .map(Permission::getName)
+                .collect(Collectors.toUnmodifiableSet());
+            List<GrantedAuthority> authorities = names.stream()
+                .sorted()
+                .<GrantedAuthority>map(SimpleGrantedAuthority::new)
+                .toList();
+            next.put(role.getName(), new RoleEntry(role.getName(), role.currentEpoch(), names, authorities));
+        }
+
+        roles = Map.copyOf(next);
+        permissionIndex.rebuild(permissions, loadedRoles);
+        log.info("Role registry loaded: {} roles", next.size());
+    }
+
+    public Optional<RoleEntry> find(String roleName) {
+        return roleName != null ? Optional.ofNullable(roles.get(roleName)) : Optional.empty();
+    }
+
+    /** Authorities of the role, or {@code null} if the role is not in the current snapshot. */
+    public List<GrantedAuthority> authoritiesOf(String roleName) {
+        RoleEntry entry = roleName != null ? roles.get(roleName) : null;
+        return entry != null ? entry.authorities() : null;
+    }
+
+    public record RoleEntry(String name, long epoch, Set<String> permissions, List<GrantedAuthority> authorities) {
+    }
+}
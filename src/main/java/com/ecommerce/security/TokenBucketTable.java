@@ -0,0 +1,69 @@
+package com.ecommerce.security;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Fixed-size, lock-free table of token buckets. Each slot is a single {@code long} updated with CAS:
+ * <pre>
+ *   [ tokens:32 (1/256 token units) | last update:32 (100 ms ticks since start) ]
+ * </pre>
+ * Keys hash straight to a slot and there is no per-key allocation, so memory is constant.
+ * Eviction is implicit: an idle slot refills to a full bucket, which is the same as a fresh one.
+ * Keys that collide share a bucket, which can only make the throttle stricter, never looser.
+ */
+final class TokenBucketTable {
+
+    private static final long TICK_NANOS = 100_000_000L;
+    private static final long TOKEN_SCALE = 256;
+
+    private final AtomicLongArray slots;
+    private final int mask;
+    private final long full;
+    private final double refillPerTick;
+    private final LongSupplier nanoClock;
+    private final long origin;
+
+    TokenBucketTable(int size, int capacity, int refillPerMinute, LongSupplier nanoClock) {
+        int tableSize = Integer.highestOneBit(Math.max(2, size - 1)) << 1;
+        this.slots = new AtomicLongArray(tableSize);
+        this.mask = tableSize - 1;
+        this.full = Math.max(1, capacity) * TOKEN_SCALE;
+        this.refillPerTick = refillPerMinute * TOKEN_SCALE / 600.0;
+        this.nanoClock = nanoClock;
+        this.origin = nanoClock.getAsLong();
+    }
+
+    /** Consumes one token for {@code key}; {@code false} when its bucket is empty. */
+    boolean tryAcquire(String key) {
+        int index = spread(key.hashCode()) & mask;
+        while (true) {
+            long current = slots.get(index);
+            long now = tick();
+            long tokens = full;
+            if (current != 0) {
+                long elapsed = Math.max(0, now - (current & 0xFFFFFFFFL));
+                tokens = Math.min(full, (current >>> 32) + (long) (elapsed * refillPerTick));
+            }
+            if (tokens < TOKEN_SCALE) {
+                return false;
+            }
+            long next = ((tokens - TOKEN_SCALE) << 32) | (now & 0xFFFFFFFFL);
+            if (slots.compareAndSet(index, current, next)) {
+                return true;
+            }
+        }
+    }
+
+    // Empieza en 1 para que un slot usado nunca valga 0, que marca un slot vacío
+    private long tick() {
+        return (nanoClock.getAsLong() - origin) / TICK_NANOS + 1;
+    }
+
+    private static int spread(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        return h;
+    }
+}
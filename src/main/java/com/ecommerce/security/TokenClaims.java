@@ -0,0 +1,26 @@
+package com.ecommerce.security;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Immutable view of a verified access token. Produced by {@link JwtUtil#parseToken(String)}
+ * after a single signature check, so callers never need to re-parse the token.
+ */
+public record TokenClaims(
+        String subject,
+        Long userId,
+        String role,
+        long roleEpoch,
+        long securityStamp,
+        List<String> authorities,
+        Instant expiresAt) {
+
+    public TokenClaims {
+        authorities = authorities == null ? List.of() : List.copyOf(authorities);
+    }
+
+    public boolean isExpired(Instant now) {
+        return expiresAt != null && !expiresAt.isAfter(now);
+    }
+}
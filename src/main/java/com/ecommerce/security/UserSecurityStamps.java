@@ -0,0 +1,66 @@
+package com.ecommerce.security;
+
+import com.ecommerce.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory table of the security stamp of every user whose stamp changed (role reassigned)
+ * within the lifetime of an access token. Access tokens carry the stamp of their user at issue
+ * time ({@code ust} claim); a token whose stamp no longer matches must not be trusted for its
+ * embedded role and authorities.
+ *
+ * A user missing from the table has not changed in the last {@link JwtUtil#JWT_EXPIRATION}, so
+ * every unexpired token of that user was issued with the current stamp. Local changes are applied
+ * immediately through {@link #update}; changes made on other replicas are picked up by the
+ * periodic {@link #refresh}, which only reads the recently changed rows.
+ */
+@Component
+public class UserSecurityStamps {
+
+    private static final Logger log = LoggerFactory.getLogger(UserSecurityStamps.class);
+
+    private final UserRepository userRepo;
+    private volatile Map<Long, Long> recent = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+
+    public UserSecurityStamps(UserRepository userRepo) {
+        this.userRepo = userRepo;
+    }
+
+    @Scheduled(fixedDelayString = "${security.jwt.user-stamp-refresh-ms:30000}")
+    public void refresh() {
+        try {
+            Instant since = Instant.now().minusMillis(JwtUtil.JWT_EXPIRATION);
+            Map<Long, Long> stamps = new ConcurrentHashMap<>();
+            for (UserRepository.SecurityStampView user : userRepo.findSecurityStampsChangedSince(since)) {
+                stamps.put(user.getId(), user.getStamp() != null ? user.getStamp() : 0L);
+            }
+            // Los cambios locales hechos durante la lectura no se pierden
+            recent.forEach((userId, stamp) -> stamps.merge(userId, stamp, Math::max));
+            recent = stamps;
+            loaded = true;
+        } catch (RuntimeException e) {
+            log.warn("Could not refresh user security stamps: {}", e.getMessage());
+        }
+    }
+
+    public void update(Long userId, long stamp) {
+        recent.merge(userId, stamp, Math::max);
+    }
+
+    /** {@code false} until the table has been loaded at least once, so claims are never trusted blindly. */
+    public boolean isCurrent(Long userId, long stamp) {
+        if (!loaded || userId == null) {
+            return false;
+        }
+        Long current = recent.get(userId);
+        return current == null || current == stamp;
+    }
+}
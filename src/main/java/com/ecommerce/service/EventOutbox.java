@@ -0,0 +1,194 @@
+package com.ecommerce.service;
+
+import com.ecommerce.model.OutboxEvent;
+import com.ecommerce.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Transactional outbox for the events published to Kafka. {@link #append} stores the event in the
+ * transaction of the change that produced it, so the event exists exactly when the change commits
+ * and the request never waits for the broker. {@link com.ecommerce.kafka.OutboxRelay} then calls
+ * {@link #relayBatch} to publish the pending events.
+ *
+ * A batch takes the oldest pending event of each aggregate, sends them all at once and waits for
+ * the acknowledgements: the sent ones are marked, the failed ones are retried after an exponential
+ * backoff (from {@code initial-backoff-ms} up to {@code max-backoff-ms}), and until then the later
+ * events of the same aggregate wait behind them. Sent rows are deleted after {@code retention-hours}.
+ */
+@Component
+public class EventOutbox {
+
+    private static final Logger log = LoggerFactory.getLogger(EventOutbox.class);
+
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    /** Sends one event; the future completes when the broker has acknowledged it. */
+    @FunctionalInterface
+    public interface Publisher {
+        CompletableFuture<?> publish(String topic, String key, String payload);
+    }
+
+    private final OutboxEventRepository outboxRepo;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final int batchSize;
+    private final Duration sendTimeout;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final Duration retention;
+    private final Clock clock;
+
+    @Autowired
+    public EventOutbox(OutboxEventRepository outboxRepo,
+                       ObjectMapper objectMapper,
+                       @Value("${spring.kafka.producer.enabled:true}") boolean enabled,
+                       @Value("${outbox.batch-size:500}") int batchSize,
+                       @Value("${outbox.send-timeout-ms:10000}") long sendTimeoutMs,
+                       @Value("${outbox.initial-backoff-ms:1000}") long initialBackoffMs,
+                       @Value("${outbox.max-backoff-ms:300000}") long maxBackoffMs,
+                       @Value("${outbox.retention-hours:24}") int retentionHours) {
+        this(outboxRepo, objectMapper, enabled, batchSize, Duration.ofMillis(sendTimeoutMs),
+            Duration.ofMillis(initialBackoffMs), Duration.ofMillis(maxBackoffMs), Duration.ofHours(retentionHours),
+            Clock.systemUTC());
+    }
+
+    EventOutbox(OutboxEventRepository outboxRepo, ObjectMapper objectMapper, boolean enabled, int batchSize,
+                Duration sendTimeout, Duration initialBackoff, Duration maxBackoff, Duration retention, Clock clock) {
+        this.outboxRepo = outboxRepo;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.batchSize = Math.max(1, batchSize);
+        this.sendTimeout = sendTimeout;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.retention = retention;
+        this.clock = clock;
+    }
+
+    /**
+     * Stores {@code payload} as JSON for {@code topic}, keyed by {@code aggregateId}. Must run
+     * inside the caller's transaction: the event is only published if that transaction commits.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(String aggregateType, Long aggregateId, String topic, Object payload) {
+        // Sin Kafka no hay relay que vacíe la tabla: no se guarda nada (antes el evento tampoco se enviaba)
+        if (!enabled) {
+            return;
+        }
+        try {
+            outboxRepo.save(new OutboxEvent(aggregateType, aggregateId, topic,
+                objectMapper.writeValueAsString(payload), clock.instant()));
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Error serializing event", e);
+        }
+    }
+
+    /**
+     * Publishes one batch of pending events and returns {@code true} if it was full and every
+     * send succeeded, i.e. there may be more to send right away. The rows stay locked until the
+     * acknowledgements are in, so the relay of another replica cannot send them twice.
+     */
+    @Transactional
+    public boolean relayBatch(Publisher publisher) {
+        List<OutboxEvent> batch = outboxRepo.lockNextToSend(clock.instant(), batchSize);
+        if (batch.isEmpty()) {
+            return false;
+        }
+        // Todo el lote sale a la vez; se espera una sola vez por todos los acuses
+        CompletableFuture<?>[] sends = new CompletableFuture<?>[batch.size()];
+        for (int i = 0; i < sends.length; i++) {
+            sends[i] = publish(publisher, batch.get(i));
+        }
+        awaitAll(sends);
+
+        Instant now = clock.instant();
+        int sent = 0;
+        for (int i = 0; i < sends.length; i++) {
+            OutboxEvent event = batch.get(i);
+            Throwable failure = failure(sends[i]);
+            if (failure == null) {
+                event.setSentAt(now);
+                sent++;
+            } else {
+                scheduleRetry(event, failure, now);
+            }
+        }
+        // Los cambios se vuelcan al hacer commit, como un único lote JDBC de UPDATE
+        return sent == batchSize;
+    }
+
+    @Transactional
+    public int purgeSent() {
+        int purged = outboxRepo.deleteSentBefore(clock.instant().minus(retention));
+        if (purged > 0) {
+            log.info("Purged {} outbox events sent more than {} hours ago", purged, retention.toHours());
+        }
+        return purged;
+    }
+
+    private static CompletableFuture<?> publish(Publisher publisher, OutboxEvent event) {
+        try {
+            return publisher.publish(event.getTopic(), String.valueOf(event.getAggregateId()), event.getPayload());
+        } catch (RuntimeException e) {
+            // El productor puede fallar antes de devolver el future (metadatos, buffer lleno)
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private void awaitAll(CompletableFuture<?>[] sends) {
+        try {
+            CompletableFuture.allOf(sends).get(sendTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException | TimeoutException e) {
+            // Cada envío se revisa por separado: los que no han terminado cuentan como fallidos
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Throwable failure(CompletableFuture<?> send) {
+        if (!send.isDone()) {
+            return new TimeoutException("No acknowledgement from the broker in time");
+        }
+        try {
+            send.join();
+            return null;
+        } catch (CompletionException e) {
+            return e.getCause() != null ? e.getCause() : e;
+        } catch (RuntimeException e) {
+            return e;
+        }
+    }
+
+    private void scheduleRetry(OutboxEvent event, Throwable failure, Instant now) {
+        int attempts = event.getAttempts() + 1;
+        Duration backoff = initialBackoff.multipliedBy(1L << Math.min(attempts - 1, 20));
+        if (backoff.compareTo(maxBackoff) > 0) {
+            backoff = maxBackoff;
+        }
+        String error = String.valueOf(failure.getMessage());
+        event.setAttempts(attempts);
+        event.setNextAttemptAt(now.plus(backoff));
+        event.setLastError(error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error);
+        log.warn("Could not publish outbox event {} ({} {}) to {}, attempt {}; retrying in {} ms: {}",
+            event.getId(), event.getAggregateType(), event.getAggregateId(), event.getTopic(), attempts,
+            backoff.toMillis(), error);
+    }
+}
@@ -0,0 +1,146 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.ExportFormat;
+import com.ecommerce.dto.OrderFilter;
+import com.ecommerce.dto.OrderItemDto;
+import com.ecommerce.dto.OrderLineRow;
+import com.ecommerce.dto.OrderResponseDto;
+import com.ecommerce.repository.OrderRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes the orders matching a filter to an output stream without materializing them: one query
+ * reads order lines through a forward-only cursor ({@link OrderRepository#streamLines}) as flat
+ * rows, so nothing accumulates in the persistence context. NDJSON groups the consecutive rows of
+ * an order into one object (only that order is held in memory); CSV writes one line per item.
+ */
+@Service
+public class OrderExportService {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    static final String CSV_HEADER = "order_id,user_id,created_at,status,total,product_id,product_name,quantity,unit_price\n";
+
+    private final OrderRepository orderRepo;
+    private final ObjectWriter orderWriter;
+
+    public OrderExportService(OrderRepository orderRepo, ObjectMapper objectMapper) {
+        this.orderRepo = orderRepo;
+        // Mismo formato que GET /api/orders/all; sin flush por fila
+        this.orderWriter = objectMapper.writerFor(OrderResponseDto.class)
+            .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /**
+     * Streams the matching orders, newest first, and returns the number of orders written. The
+     * read-only transaction keeps the JDBC cursor open (PostgreSQL only honours the fetch size
+     * with autocommit off) and ends when the last row has been written.
+     */
+    @Transactional(readOnly = true)
+    public long export(OrderFilter filter, ExportFormat format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        long orders;
+        try (Stream<OrderLineRow> lines = orderRepo.streamLines(filter)) {
+            Iterator<OrderLineRow> it = lines.iterator();
+            orders = format == ExportFormat.NDJSON ? writeNdjson(it, writer) : writeCsv(it, writer);
+        }
+        writer.flush();
+        return orders;
+    }
+
+    private long writeNdjson(Iterator<OrderLineRow> it, Writer writer) throws IOException {
+        JsonGenerator generator = orderWriter.createGenerator(writer);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.setRootValueSeparator(null);
+        long orders = 0;
+        OrderResponseDto current = null;
+        while (it.hasNext()) {
+            OrderLineRow row = it.next();
+            // Las filas de una orden llegan seguidas: al cambiar de id la anterior está completa
+            if (current == null || !current.getId().equals(row.orderId())) {
+                if (current != null) {
+                    writeOrder(generator, current);
+                    orders++;
+                }
+                current = newOrder(row);
+            }
+            if (row.productId() != null) {
+                current.getItems().add(new OrderItemDto(row.productId(), row.productName(), row.quantity(), row.unitPrice()));
+            }
+        }
+        if (current != null) {
+            writeOrder(generator, current);
+            orders++;
+        }
+        generator.close();
+        return orders;
+    }
+
+    private void writeOrder(JsonGenerator generator, OrderResponseDto order) throws IOException {
+        orderWriter.writeValue(generator, order);
+        generator.writeRaw('\n');
+    }
+
+    private static OrderResponseDto newOrder(OrderLineRow row) {
+        OrderResponseDto order = new OrderResponseDto();
+        order.setId(row.orderId());
+        order.setUserId(row.userId());
+        order.setCreatedAt(row.createdAt());
+        order.setStatus(row.status());
+        order.setTotal(row.total());
+        order.setItems(new ArrayList<>());
+        return order;
+    }
+
+    private static long writeCsv(Iterator<OrderLineRow> it, Writer writer) throws IOException {
+        writer.write(CSV_HEADER);
+        long orders = 0;
+        Long lastOrderId = null;
+        while (it.hasNext()) {
+            OrderLineRow row = it.next();
+            if (!row.orderId().equals(lastOrderId)) {
+                lastOrderId = row.orderId();
+                orders++;
+            }
+            writeCsvRow(writer, row);
+        }
+        return orders;
+    }
+
+    // Una fila por línea con los datos de la orden repetidos; una orden sin líneas deja vacías sus columnas
+    private static void writeCsvRow(Writer writer, OrderLineRow row) throws IOException {
+        writer.write(String.valueOf(row.orderId()));
+        writer.write(',');
+        writer.write(row.userId() != null ? row.userId().toString() : "");
+        writer.write(',');
+        writer.write(row.createdAt() != null ? row.createdAt().toString() : "");
+        writer.write(',');
+        ProductExportService.writeCsvField(writer, row.status());
+        writer.write(',');
+        writer.write(row.total() != null ? row.total().toString() : "");
+        writer.write(',');
+        writer.write(row.productId() != null ? row.productId().toString() : "");
+        writer.write(',');
+        ProductExportService.writeCsvField(writer, row.productName());
+        writer.write(',');
+        writer.write(row.quantity() != null ? row.quantity().toString() : "");
+        writer.write(',');
+        writer.write(row.unitPrice() != null ? row.unitPrice().toPlainString() : "");
+        writer.write('\n');
+    }
+}
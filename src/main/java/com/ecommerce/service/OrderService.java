@@ -1,88 +1,152 @@
 package com.ecommerce.service;
 
+import com.ecommerce.dto.OrderCursor;
+import com.ecommerce.dto.OrderFilter;
+import com.ecommerce.dto.OrderItemDto;
+import com.ecommerce.dto.OrderItemRequest;
+import com.ecommerce.dto.OrderPage;
 import com.ecommerce.dto.OrderRequestDto;
 import com.ecommerce.dto.OrderResponseDto;
-import com.ecommerce.dto.ProductResponseDto;
+import com.ecommerce.exception.InvalidOrderException;
 import com.ecommerce.kafka.KafkaProducer;
 import com.ecommerce.kafka.OrderCreatedEvent;
 import com.ecommerce.model.Order;
+import com.ecommerce.model.OrderItem;
 import com.ecommerce.model.Product;
 import com.ecommerce.model.User;
 import com.ecommerce.repository.OrderRepository;
-import com.ecommerce.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Optional;
+import java.util.SortedMap;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
 @Service
 public class OrderService {
 
-    private final OrderRepository orderRepo;
-    private final ProductRepository productRepo;
-    private final Optional<KafkaProducer> kafkaProducer;
+    static final String ORDER_AGGREGATE = "order";
 
-    public OrderService(OrderRepository orderRepo, ProductRepository productRepo, Optional<KafkaProducer> kafkaProducer) {
+    private final OrderRepository orderRepo;
+    private final ProductService productService;
+    private final EventOutbox outbox;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+
+    public OrderService(OrderRepository orderRepo,
+                        ProductService productService,
+                        EventOutbox outbox,
+                        @Value("${orders.pagination.default-page-size:20}") int defaultPageSize,
+                        @Value("${orders.pagination.max-page-size:100}") int maxPageSize) {
         this.orderRepo = orderRepo;
-        this.productRepo = productRepo;
-        this.kafkaProducer = kafkaProducer;
+        this.productService = productService;
+        this.outbox = outbox;
+        this.maxPageSize = Math.max(1, maxPageSize);
+        this.defaultPageSize = Math.min(Math.max(1, defaultPageSize), this.maxPageSize);
     }
 
+    /**
+     * Reserves the stock of the ordered products and saves the order in one transaction: a
+     * product that is missing or short (404 / 409) leaves both stock and orders untouched.
+     * Quantities come from {@code items}; each id in the older {@code productIds} adds one unit.
+     * The {@link OrderCreatedEvent} goes to the {@link EventOutbox} in the same transaction.
+     *
+     * @throws InvalidOrderException if the order has no items, a quantity is not positive or the units
+     *         of one product add up to more than {@link Integer#MAX_VALUE}
+     */
+    @Transactional
     public OrderResponseDto createOrder(User user, OrderRequestDto dto) {
-        // Validar que los productos existan
-        List<Product> products = productRepo.findAllById(dto.getProductIds());
-        
-        if (products.size() != dto.getProductIds().size()) {
-            throw new RuntimeException("Some products not found");
+        // Unidades por producto, por id ascendente (orden de bloqueo determinista)
+        SortedMap<Long, Integer> quantities = new TreeMap<>();
+        if (dto.getItems() != null) {
+            for (OrderItemRequest item : dto.getItems()) {
+                // Se valida aquí: sin proveedor de Bean Validation las anotaciones del DTO no se aplican
+                if (item.productId() == null || item.quantity() <= 0) {
+                    throw new InvalidOrderException("Every item needs a productId and a positive quantity");
+                }
+                addUnits(quantities, item.productId(), item.quantity());
+            }
         }
-
-        // Validar stock
-        for (Product product : products) {
-            if (product.getStock() <= 0) {
-                throw new RuntimeException("Product " + product.getName() + " is out of stock");
+        if (dto.getProductIds() != null) {
+            for (Long productId : dto.getProductIds()) {
+                addUnits(quantities, productId, 1);
             }
         }
 
-        // Crear la orden
+        if (quantities.isEmpty()) {
+            throw new InvalidOrderException("Order has no items");
+        }
+
+        // Descuento condicional en una sola sentencia; devuelve los productos ya reservados
+        List<Product> products = productService.reserveStock(quantities);
+
+        // Crear la orden: nombre y precio se copian en cada línea tal como se cobran ahora
         Order order = new Order();
         order.setUser(user);
-        order.setProducts(products);
+        for (Product product : products) {
+            order.getItems().add(new OrderItem(product.getId(), product.getName(), quantities.get(product.getId()),
+                product.getPrice()));
+        }
         order.setCreatedAt(LocalDateTime.now());
-        order.setTotal(calculateTotal(products));
+        order.setTotal(calculateTotal(order.getItems()));
         order.setStatus("PENDING");
 
         // Guardar la orden
         Order saved = orderRepo.save(order);
 
-        // Enviar evento completo a Kafka (si está disponible)
-        kafkaProducer.ifPresent(producer -> {
-            OrderCreatedEvent event = new OrderCreatedEvent();
-            event.setOrderId(saved.getId());
-            event.setUserId(user.getId());
-            event.setTotal(saved.getTotal());
-            event.setTimestamp(System.currentTimeMillis());
-            event.setStatus(saved.getStatus());
-
-            producer.publishOrderCreated(event);
-        });
+        // Evento completo al outbox, en esta misma transacción: OutboxRelay lo publica en Kafka después
+        OrderCreatedEvent event = new OrderCreatedEvent();
+        event.setOrderId(saved.getId());
+        event.setUserId(user.getId());
+        event.setTotal(saved.getTotal());
+        event.setTimestamp(System.currentTimeMillis());
+        event.setStatus(saved.getStatus());
+        outbox.append(ORDER_AGGREGATE, saved.getId(), KafkaProducer.ORDER_CREATED_TOPIC, event);
 
         return mapToDto(saved);
     }
 
+    // Líneas repetidas del mismo producto se suman; una suma que no cabe en un int es un pedido inválido (400)
+    private static void addUnits(SortedMap<Long, Integer> quantities, Long productId, int units) {
+        long total = (long) quantities.getOrDefault(productId, 0) + units;
+        if (total > Integer.MAX_VALUE) {
+            throw new InvalidOrderException("Quantity of product " + productId + " is too large");
+        }
+        quantities.put(productId, (int) total);
+    }
+
+    @Transactional(readOnly = true)
     public List<OrderResponseDto> getUserOrders(User user) {
-        return orderRepo.findByUserId(user.getId()).stream()
+        return orderRepo.findWithItemsByUserId(user.getId()).stream()
             .map(this::mapToDto)
             .collect(Collectors.toList());
     }
 
-    public List<OrderResponseDto> getAllOrders() {
-        return orderRepo.findAll().stream()
-            .map(this::mapToDto)
-            .collect(Collectors.toList());
+    /**
+     * One page of the orders matching {@code filter}, newest first. A page costs two queries
+     * whatever its size: the orders, then the lines of all of them.
+     */
+    @Transactional(readOnly = true)
+    public OrderPage listOrders(OrderFilter filter, String cursor, Integer limit) {
+        Long beforeId = cursor != null && !cursor.isBlank() ? OrderCursor.decode(cursor).id() : null;
+        int size = limit == null ? defaultPageSize : Math.min(Math.max(1, limit), maxPageSize);
+
+        // Una fila de más para saber si hay página siguiente sin hacer COUNT
+        List<Order> rows = orderRepo.findPage(filter, beforeId, size + 1);
+        List<Order> page = rows.size() > size ? rows.subList(0, size) : rows;
+        if (!page.isEmpty()) {
+            orderRepo.fetchItems(page.stream().map(Order::getId).toList());
+        }
+        List<OrderResponseDto> items = page.stream().map(this::mapToDto).collect(Collectors.toList());
+        String next = rows.size() > size ? new OrderCursor(page.get(size - 1).getId()).encode() : null;
+        return new OrderPage(items, next);
     }
 
+    @Transactional
     public OrderResponseDto updateOrderStatus(Long orderId, String status) {
         Order order = orderRepo.findById(orderId)
             .orElseThrow(() -> new RuntimeException("Order not found"));
@@ -93,33 +157,24 @@ public class OrderService {
         return mapToDto(updated);
     }
 
-    public List<OrderResponseDto> getOrdersByUserId(Long userId) {
-        return orderRepo.findByUserId(userId).stream()
-            .map(this::mapToDto)
-            .collect(Collectors.toList());
-    }
-
-    private Double calculateTotal(List<Product> products) {
-        return products.stream()
-            .mapToDouble(product -> product.getPrice().doubleValue())  // ← BigDecimal a double
-            .sum();
+    private Double calculateTotal(List<OrderItem> items) {
+        // Suma exacta en BigDecimal; solo el resultado pasa a double
+        return items.stream()
+            .map(item -> item.getUnitPrice().multiply(BigDecimal.valueOf(item.getQuantity())))
+            .reduce(BigDecimal.ZERO, BigDecimal::add)
+            .doubleValue();
     }
 
+    // Solo con las líneas de la orden: ni un acceso a product
     private OrderResponseDto mapToDto(Order order) {
-        List<ProductResponseDto> products = order.getProducts().stream().map(p -> {
-            ProductResponseDto dto = new ProductResponseDto();
-            dto.setId(p.getId());
-            dto.setName(p.getName());
-            dto.setDescription(p.getDescription());
-            dto.setPrice(p.getPrice());
-            dto.setStock(p.getStock());
-            return dto;
-        }).collect(Collectors.toList());
+        List<OrderItemDto> items = order.getItems().stream()
+            .map(item -> new OrderItemDto(item.getProductId(), item.getProductName(), item.getQuantity(), item.getUnitPrice()))
+            .collect(Collectors.toList());
 
         OrderResponseDto responseDto = new OrderResponseDto();
         responseDto.setId(order.getId());
         responseDto.setUserId(order.getUser().getId());
-        responseDto.setProducts(products);
+        responseDto.setItems(items);
         responseDto.setCreatedAt(order.getCreatedAt());
         responseDto.setStatus(order.getStatus());
         responseDto.setTotal(order.getTotal());
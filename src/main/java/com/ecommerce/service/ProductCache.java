@@ -0,0 +1,170 @@
+package com.ecommerce.service;
+
+import com.ecommerce.kafka.KafkaProducer;
+import com.ecommerce.kafka.ProductInvalidationEvent;
+import com.ecommerce.model.Product;
+import com.ecommerce.repository.ProductRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Bounded read cache of products by id, used for product reads and order creation. Caffeine's
+ * W-TinyLFU admission keeps the hot products under {@code catalog.cache.max-size}; entries also
+ * expire after {@code ttl-seconds}, which bounds staleness if an invalidation is ever lost.
+ *
+ * Write-through: every {@link ProductChangedEvent} replaces or drops the entry once its transaction
+ * commits, so a rolled-back change never reaches the cache. Local changes are then published on the
+ * {@code product.invalidated} Kafka topic, tagged with this instance's id, so the other replicas
+ * reload that product (see {@code ProductInvalidationListener}).
+ * Loads only fill absent entries, so a slow read never overwrites a newer write-through value.
+ * Callers always get a copy, never the cached instance.
+ * Hit, miss and eviction counters are published as {@code cache.*{cache=products}}.
+ */
+@Component
+public class ProductCache {
+
+    public static final String INVALIDATION_TOPIC = "product.invalidated";
+
+    private final ProductRepository productRepo;
+    private final Optional<KafkaProducer> kafkaProducer;
+    private final Cache<Long, Product> cache;
+    private final String instanceId = UUID.randomUUID().toString();
+    private final Counter remoteInvalidations;
+
+    public ProductCache(ProductRepository productRepo,
+                        Optional<KafkaProducer> kafkaProducer,
+                        @Value("${catalog.cache.enabled:true}") boolean enabled,
+                        @Value("${catalog.cache.max-size:10000}") long maxSize,
+                        @Value("${catalog.cache.ttl-seconds:300}") long ttlSeconds,
+                        MeterRegistry meterRegistry) {
+        this.productRepo = productRepo;
+        this.kafkaProducer = kafkaProducer;
+        this.remoteInvalidations = Counter.builder("catalog.product.cache.remote.invalidations")
+            .description("Product changes received from other replicas")
+            .register(meterRegistry);
+        if (!enabled) {
+            this.cache = null;
+            return;
+        }
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "products");
+        Gauge.builder("cache.hit.ratio", cache, c -> c.stats().hitRate())
+            .tag("cache", "products")
+            .register(meterRegistry);
+    }
+
+    /** Id attached to the invalidations this instance publishes, to ignore them on the way back. */
+    public String instanceId() {
+        return instanceId;
+    }
+
+    public Optional<Product> findById(Long id) {
+        if (cache == null) {
+            return productRepo.findWithDescriptionById(id);
+        }
+        Product cached = cache.getIfPresent(id);
+        if (cached == null) {
+            Optional<Product> loaded = productRepo.findWithDescriptionById(id);
+            loaded.ifPresent(product -> cache.asMap().putIfAbsent(id, copy(product)));
+            return loaded;
+        }
+        return Optional.of(copy(cached));
+    }
+
+    /**
+     * Products with the given ids, in the order of {@code ids} and without duplicates; ids that
+     * do not exist are skipped. Only the misses go to the database, in a single query.
+     */
+    public List<Product> findAllById(Collection<Long> ids) {
+        if (cache == null) {
+            return productRepo.findAllWithDescriptionByIdIn(ids);
+        }
+        Map<Long, Product> found = new LinkedHashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long id : ids) {
+            if (found.containsKey(id)) {
+                continue;
+            }
+            Product cached = cache.getIfPresent(id);
+            found.put(id, cached != null ? copy(cached) : null);
+            if (cached == null) {
+                missing.add(id);
+            }
+        }
+        if (!missing.isEmpty()) {
+            for (Product product : productRepo.findAllWithDescriptionByIdIn(missing)) {
+                cache.asMap().putIfAbsent(product.getId(), copy(product));
+                found.put(product.getId(), product);
+            }
+        }
+        List<Product> result = new ArrayList<>(found.size());
+        for (Product product : found.values()) {
+            if (product != null) {
+                result.add(product);
+            }
+        }
+        return result;
+    }
+
+    // Después del commit: ni un rollback deja valores sin confirmar en la caché ni las otras réplicas
+    // recargan el producto antes de que el cambio sea visible en la base de datos
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (cache != null) {
+            if (event.deleted()) {
+                cache.invalidate(event.productId());
+            } else {
+                cache.put(event.productId(), copy(event.product()));
+            }
+        }
+        if (event.remote()) {
+            remoteInvalidations.increment();
+            return;
+        }
+        kafkaProducer.ifPresent(producer -> {
+            ProductInvalidationEvent invalidation = new ProductInvalidationEvent();
+            invalidation.setProductId(event.productId());
+            invalidation.setOrigin(instanceId);
+            invalidation.setTimestamp(System.currentTimeMillis());
+            producer.publishProductInvalidated(invalidation);
+        });
+    }
+
+    public CacheStats stats() {
+        return cache != null ? cache.stats() : CacheStats.empty();
+    }
+
+    private static Product copy(Product product) {
+        Product copy = new Product();
+        copy.setId(product.getId());
+        copy.setSku(product.getSku());
+        copy.setName(product.getName());
+        copy.setDescription(product.getDescription());
+        copy.setPrice(product.getPrice());
+        copy.setStock(product.getStock());
+        copy.setVersion(product.getVersion());
+        return copy;
+    }
+}
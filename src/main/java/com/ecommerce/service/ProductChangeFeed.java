@@ -0,0 +1,186 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.ProductChangeToken;
+import com.ecommerce.dto.ProductChanges;
+import com.ecommerce.exception.ChangeTokenExpiredException;
+import com.ecommerce.model.Product;
+import com.ecommerce.model.ProductChange;
+import com.ecommerce.model.ProductChangeLock;
+import com.ecommerce.repository.ProductChangeLockRepository;
+import com.ecommerce.repository.ProductChangeRepository;
+import com.ecommerce.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Change feed behind /api/products/changes, so clients holding a copy of the catalog can fetch
+ * only what changed since their last sync. Every local {@link ProductChangedEvent} replaces the
+ * product's row in {@code product_change} with a new sequence number, inside the transaction of
+ * the write; a client asks for the rows after the {@code seq} in its token. The changes of a
+ * transaction are buffered and written together just before it commits, so a bulk import costs
+ * one delete and one batched insert per transaction rather than per product.
+ *
+ * Sequence numbers follow commit order: a writer locks the {@link ProductChangeLock} row before
+ * taking its numbers and holds it until it commits, so a reader never sees a change while one
+ * with a lower {@code seq} is still in flight, and a token can never move past a change that has
+ * not committed yet. Writers of the feed only wait for each other during that final step.
+ *
+ * Deletions stay as tombstones for {@code retention-days}. A token records the time from which
+ * its client still needs tombstones; older tokens get {@link ChangeTokenExpiredException} and the
+ * client has to download the full catalog again. That time is moved back by {@code clock-skew-ms}
+ * because {@code changed_at} comes from the clock of whichever replica made the change.
+ */
+@Component
+public class ProductChangeFeed {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductChangeFeed.class);
+
+    private final ProductChangeRepository changeRepo;
+    private final ProductChangeLockRepository lockRepo;
+    private final ProductRepository productRepo;
+    private final int defaultLimit;
+    private final int maxLimit;
+    private final Duration retention;
+    private final Duration clockSkew;
+    private final Clock clock;
+
+    @Autowired
+    public ProductChangeFeed(ProductChangeRepository changeRepo,
+                             ProductChangeLockRepository lockRepo,
+                             ProductRepository productRepo,
+                             @Value("${catalog.changes.default-limit:500}") int defaultLimit,
+                             @Value("${catalog.changes.max-limit:1000}") int maxLimit,
+                             @Value("${catalog.changes.retention-days:30}") int retentionDays,
+                             @Value("${catalog.changes.clock-skew-ms:2000}") long clockSkewMs) {
+        this(changeRepo, lockRepo, productRepo, defaultLimit, maxLimit, Duration.ofDays(retentionDays),
+            Duration.ofMillis(clockSkewMs), Clock.systemUTC());
+    }
+
+    ProductChangeFeed(ProductChangeRepository changeRepo, ProductChangeLockRepository lockRepo,
+                      ProductRepository productRepo, int defaultLimit, int maxLimit, Duration retention,
+                      Duration clockSkew, Clock clock) {
+        this.changeRepo = changeRepo;
+        this.lockRepo = lockRepo;
+        this.productRepo = productRepo;
+        this.maxLimit = Math.max(1, maxLimit);
+        this.defaultLimit = Math.min(Math.max(1, defaultLimit), this.maxLimit);
+        this.retention = retention;
+        this.clockSkew = clockSkew;
+        this.clock = clock;
+    }
+
+    // Los eventos remotos ya los registró la réplica donde se hizo el cambio
+    @EventListener
+    @Transactional
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.remote()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            record(Map.of(event.productId(), event.deleted()));
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        Map<Long, Boolean> pending = (Map<Long, Boolean>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Map<Long, Boolean> changes = new LinkedHashMap<>();
+            TransactionSynchronizationManager.bindResource(this, changes);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    record(changes);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResource(ProductChangeFeed.this);
+                }
+            });
+            pending = changes;
+        }
+        // Se reinserta para que el orden de los seq sea el de la última escritura de cada producto
+        pending.remove(event.productId());
+        pending.put(event.productId(), event.deleted());
+    }
+
+    private void record(Map<Long, Boolean> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        // Primero se envía lo pendiente: con el turno tomado ya no se espera por filas de otros escritores
+        changeRepo.flush();
+        lockRepo.lockFeed().orElseThrow(() -> new IllegalStateException("product_change_lock row is missing"));
+        Instant now = clock.instant();
+        List<ProductChange> rows = new ArrayList<>(changes.size());
+        changes.forEach((productId, deleted) -> rows.add(new ProductChange(productId, deleted, now)));
+        changeRepo.deleteByProductIdIn(changes.keySet());
+        changeRepo.saveAll(rows);
+    }
+
+    @Transactional(readOnly = true)
+    public ProductChanges changesSince(String token, Integer limit) {
+        Instant now = clock.instant();
+        ProductChangeToken from = token != null && !token.isBlank() ? ProductChangeToken.decode(token) : null;
+        if (from != null && from.since().isBefore(now.minus(retention))) {
+            throw new ChangeTokenExpiredException("Change token is older than the deletion history, reload the catalog");
+        }
+        long afterSeq = from != null ? from.seq() : 0;
+        int size = limit == null ? defaultLimit : Math.min(Math.max(1, limit), maxLimit);
+
+        // Los seq siguen el orden de confirmación: lo visible es siempre un prefijo del feed
+        List<ProductChange> rows = changeRepo.findAfter(afterSeq, size + 1);
+        List<ProductChange> batch = rows.size() > size ? rows.subList(0, size) : rows;
+        ProductChange next = rows.size() > size ? rows.get(size) : null;
+
+        long lastSeq = batch.isEmpty() ? afterSeq : batch.get(batch.size() - 1).getSeq();
+        // Ningún cambio posterior a lastSeq es anterior a esta marca: desde ella hacen falta las lápidas
+        Instant firstPending = next != null && next.getChangedAt().isBefore(now) ? next.getChangedAt() : now;
+        Instant tokenSince = firstPending.minus(clockSkew);
+        boolean hasMore = next != null;
+
+        List<Long> updatedIds = new ArrayList<>();
+        List<Long> deleted = new ArrayList<>();
+        for (ProductChange change : batch) {
+            (change.isDeleted() ? deleted : updatedIds).add(change.getProductId());
+        }
+        Map<Long, Product> products = updatedIds.isEmpty() ? Map.of()
+            : productRepo.findAllWithDescriptionByIdIn(updatedIds).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        List<Product> updated = new ArrayList<>(products.size());
+        for (Long id : updatedIds) {
+            // Si falta, se borró después de leer el cambio: su lápida llega en la siguiente llamada
+            Product product = products.get(id);
+            if (product != null) {
+                updated.add(product);
+            }
+        }
+        return new ProductChanges(updated, deleted, new ProductChangeToken(lastSeq, tokenSince).encode(), hasMore);
+    }
+
+    @Scheduled(fixedDelayString = "${catalog.changes.cleanup-interval-ms:3600000}")
+    public void purgeTombstones() {
+        // Un token vigente tiene since >= ahora - retención, y ninguna lápida que necesite es anterior
+        int purged = changeRepo.deleteTombstonesBefore(clock.instant().minus(retention));
+        if (purged > 0) {
+            log.info("Purged {} product tombstones older than {} days", purged, retention.toDays());
+        }
+    }
+}
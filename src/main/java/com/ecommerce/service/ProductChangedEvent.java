@@ -0,0 +1,30 @@
+package com.ecommerce.service;
+
+import com.ecommerce.model.Product;
+
+/**
+ * Published by {@link ProductService} after a product has been saved or deleted, so in-memory
+ * views of the catalog (search index, cache, ...) can update just that product; they listen after
+ * commit, so a change that is rolled back never reaches them. {@code product}
+ * is the saved state, or null when the product was deleted. {@code remote} events replay a
+ * change made on another replica and must not be propagated again.
+ */
+public record ProductChangedEvent(Long productId, Product product, boolean remote) {
+
+    public static ProductChangedEvent saved(Product product) {
+        return new ProductChangedEvent(product.getId(), product, false);
+    }
+
+    public static ProductChangedEvent deleted(Long productId) {
+        return new ProductChangedEvent(productId, null, false);
+    }
+
+    /** Change made on another replica; {@code product} is its current state, null if deleted. */
+    public static ProductChangedEvent remote(Long productId, Product product) {
+        return new ProductChangedEvent(productId, product, true);
+    }
+
+    public boolean deleted() {
+        return product == null;
+    }
+}
@@ -0,0 +1,118 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.ExportFormat;
+import com.ecommerce.model.Product;
+import com.ecommerce.repository.ProductRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes the whole catalog to an output stream without materializing it: rows come from a
+ * forward-only cursor ({@link ProductRepository#streamAllByOrderById()}) and each product is
+ * detached once written, so memory stays constant whatever the catalog size.
+ */
+@Service
+public class ProductExportService {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final ProductRepository productRepo;
+    private final EntityManager entityManager;
+    private final ObjectWriter productWriter;
+
+    public ProductExportService(ProductRepository productRepo, EntityManager entityManager, ObjectMapper objectMapper) {
+        this.productRepo = productRepo;
+        this.entityManager = entityManager;
+        // Sin flush por fila: el buffer se vuelca al cliente cada BUFFER_SIZE bytes
+        this.productWriter = objectMapper.writerFor(Product.class)
+            .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /**
+     * Streams every product in id order and returns the number of rows written. The read-only
+     * transaction keeps the JDBC cursor open (PostgreSQL only honours the fetch size with
+     * autocommit off) and ends when the last row has been written.
+     */
+    @Transactional(readOnly = true)
+    public long export(ExportFormat format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        long rows = 0;
+        try (Stream<Product> products = productRepo.streamAllByOrderById()) {
+            Iterator<Product> it = products.iterator();
+            if (format == ExportFormat.NDJSON) {
+                JsonGenerator generator = productWriter.createGenerator(writer);
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                generator.setRootValueSeparator(null);
+                while (it.hasNext()) {
+                    Product product = it.next();
+                    productWriter.writeValue(generator, product);
+                    generator.writeRaw('\n');
+                    entityManager.detach(product);
+                    rows++;
+                }
+                generator.close();
+            } else {
+                // Mismas columnas que lee ProductImportService: un export se puede volver a importar tal cual
+                writer.write("id,sku,name,description,price,stock\n");
+                while (it.hasNext()) {
+                    Product product = it.next();
+                    writeCsvRow(writer, product);
+                    entityManager.detach(product);
+                    rows++;
+                }
+            }
+        }
+        writer.flush();
+        return rows;
+    }
+
+    private static void writeCsvRow(Writer writer, Product product) throws IOException {
+        writer.write(String.valueOf(product.getId()));
+        writer.write(',');
+        writeCsvField(writer, product.getSku());
+        writer.write(',');
+        writeCsvField(writer, product.getName());
+        writer.write(',');
+        writeCsvField(writer, product.getDescription());
+        writer.write(',');
+        if (product.getPrice() != null) {
+            writer.write(product.getPrice().toPlainString());
+        }
+        writer.write(',');
+        writer.write(Integer.toString(product.getStock()));
+        writer.write('\n');
+    }
+
+    // RFC 4180: entre comillas solo si hace falta, comillas internas duplicadas (también para OrderExportService)
+    static void writeCsvField(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
@@ -0,0 +1,261 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.ExportFormat;
+import com.ecommerce.dto.ProductImportReport;
+import com.ecommerce.dto.ProductImportReport.RowError;
+import com.ecommerce.model.Product;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Bulk load of supplier catalogs: reads a JSONL or CSV body as a stream, validates each row on its
+ * own and upserts the valid ones by {@code sku} through {@link ProductService#upsertBySku}, one
+ * transaction per {@code catalog.import.batch-size} rows. Only the current batch is held in
+ * memory. A bad row, or a batch the database rejects, is reported and the load goes on.
+ *
+ * CSV needs a header row; columns are matched by name (sku, name, description, price, stock) and
+ * any other column, such as the id of an export, is ignored.
+ */
+@Service
+public class ProductImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductImportService.class);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_SKU_LENGTH = 64;
+    private static final int MAX_NAME_LENGTH = 255;
+
+    private final ProductService productService;
+    private final ObjectReader productReader;
+    private final int batchSize;
+    private final int maxErrors;
+
+    public ProductImportService(ProductService productService,
+                                ObjectMapper objectMapper,
+                                @Value("${catalog.import.batch-size:500}") int batchSize,
+                                @Value("${catalog.import.max-errors:1000}") int maxErrors) {
+        this.productService = productService;
+        this.productReader = objectMapper.readerFor(Product.class);
+        this.batchSize = Math.max(1, batchSize);
+        this.maxErrors = Math.max(0, maxErrors);
+    }
+
+    public ProductImportReport importProducts(ExportFormat format, InputStream in) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), BUFFER_SIZE);
+        Run run = new Run();
+        if (format == ExportFormat.NDJSON) {
+            readJsonLines(reader, run);
+        } else {
+            readCsv(reader, run);
+        }
+        run.flush();
+        long elapsedNanos = Math.max(1, System.nanoTime() - run.started);
+        long rowsPerSecond = run.rows * 1_000_000_000L / elapsedNanos;
+        log.info("Product import: {} rows ({} created, {} updated, {} failed) in {} ms, {} rows/s",
+            run.rows, run.created, run.updated, run.failed, elapsedNanos / 1_000_000, rowsPerSecond);
+        return new ProductImportReport(run.rows, run.created, run.updated, run.failed, run.errors,
+            run.failed > run.errors.size(), elapsedNanos / 1_000_000, rowsPerSecond);
+    }
+
+    private void readJsonLines(BufferedReader reader, Run run) throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            long row = ++run.rows;
+            Product product;
+            try {
+                product = productReader.readValue(line);
+            } catch (JsonProcessingException e) {
+                run.fail(row, null, "Invalid JSON: " + e.getOriginalMessage());
+                continue;
+            }
+            run.accept(row, product);
+        }
+    }
+
+    private void readCsv(BufferedReader reader, Run run) throws IOException {
+        List<String> header = readCsvRecord(reader);
+        if (header == null) {
+            return;
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.putIfAbsent(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        for (String required : List.of("sku", "name", "price")) {
+            if (!columns.containsKey(required)) {
+                run.fail(0, null, "CSV header has no '" + required + "' column");
+                return;
+            }
+        }
+        List<String> fields;
+        while ((fields = readCsvRecord(reader)) != null) {
+            if (fields.size() == 1 && fields.get(0).isEmpty()) {
+                continue;
+            }
+            long row = ++run.rows;
+            String sku = field(fields, columns, "sku");
+            if (fields.size() != header.size()) {
+                run.fail(row, sku, "Expected " + header.size() + " fields, found " + fields.size());
+                continue;
+            }
+            Product product = new Product();
+            product.setSku(sku);
+            product.setName(field(fields, columns, "name"));
+            product.setDescription(field(fields, columns, "description"));
+            try {
+                String price = field(fields, columns, "price");
+                product.setPrice(price != null ? new BigDecimal(price.trim()) : null);
+                String stock = field(fields, columns, "stock");
+                product.setStock(stock != null ? Integer.parseInt(stock.trim()) : 0);
+            } catch (NumberFormatException e) {
+                run.fail(row, sku, "Invalid number in price or stock");
+                continue;
+            }
+            run.accept(row, product);
+        }
+    }
+
+    // Campo vacío = ausente
+    private static String field(List<String> fields, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= fields.size() || fields.get(index).isEmpty()) {
+            return null;
+        }
+        return fields.get(index);
+    }
+
+    /** Next RFC 4180 record (quoted fields may span lines), or null at end of input. */
+    static List<String> readCsvRecord(BufferedReader reader) throws IOException {
+        int c = reader.read();
+        if (c == -1) {
+            return null;
+        }
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    break;
+                }
+                if (c == '"') {
+                    reader.mark(1);
+                    if (reader.read() == '"') {
+                        field.append('"');
+                    } else {
+                        reader.reset();
+                        quoted = false;
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n' || c == -1) {
+                break;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+            c = reader.read();
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static String validate(Product product) {
+        if (product.getSku() == null || product.getSku().isBlank()) {
+            return "sku is required";
+        }
+        if (product.getSku().length() > MAX_SKU_LENGTH) {
+            return "sku is longer than " + MAX_SKU_LENGTH + " characters";
+        }
+        if (product.getName() == null || product.getName().isBlank()) {
+            return "name is required";
+        }
+        if (product.getName().length() > MAX_NAME_LENGTH) {
+            return "name is longer than " + MAX_NAME_LENGTH + " characters";
+        }
+        if (product.getPrice() == null || product.getPrice().signum() < 0) {
+            return "price is required and must not be negative";
+        }
+        if (product.getStock() < 0) {
+            return "stock must not be negative";
+        }
+        return null;
+    }
+
+    // Estado de una importación: lote en curso, contadores y errores
+    private final class Run {
+        private final long started = System.nanoTime();
+        private final Map<String, Product> batch = new LinkedHashMap<>();
+        private final Map<String, Long> batchRows = new LinkedHashMap<>();
+        private final List<RowError> errors = new ArrayList<>();
+        private long rows;
+        private long created;
+        private long updated;
+        private long failed;
+
+        void accept(long row, Product product) {
+            String error = validate(product);
+            if (error != null) {
+                fail(row, product.getSku(), error);
+                return;
+            }
+            product.setId(null);
+            batch.put(product.getSku(), product);
+            batchRows.put(product.getSku(), row);
+            if (batch.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        void fail(long row, String sku, String message) {
+            failed++;
+            if (errors.size() < maxErrors) {
+                errors.add(new RowError(row, sku, message));
+            }
+        }
+
+        void flush() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            try {
+                int inserted = productService.upsertBySku(batch.values());
+                created += inserted;
+                updated += batch.size() - inserted;
+            } catch (DataAccessException e) {
+                // El lote entero se deshace: se informa cada fila y se sigue con el siguiente
+                String message = "Batch rejected by the database: " + e.getMostSpecificCause().getMessage();
+                batchRows.forEach((sku, row) -> fail(row, sku, message));
+            }
+            batch.clear();
+            batchRows.clear();
+        }
+    }
+}
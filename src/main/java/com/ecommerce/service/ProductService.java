@@ -0,0 +1,234 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.ProductCursor;
+import com.ecommerce.dto.ProductPage;
+import com.ecommerce.dto.ProductSummary;
+import com.ecommerce.exception.InsufficientStockException;
+import com.ecommerce.exception.ResourceNotFoundException;
+import com.ecommerce.model.Product;
+import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.search.ProductSearchIndex;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SortedMap;
+
+@Service
+public class ProductService {
+
+    private final ProductRepository productRepo;
+    private final ProductCache productCache;
+    private final ProductSearchIndex searchIndex;
+    private final ApplicationEventPublisher events;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+    private final int defaultSearchLimit;
+    private final int maxSearchLimit;
+
+    public ProductService(ProductRepository productRepo,
+                          ProductCache productCache,
+                          ProductSearchIndex searchIndex,
+                          ApplicationEventPublisher events,
+                          @Value("${catalog.pagination.default-page-size:20}") int defaultPageSize,
+                          @Value("${catalog.pagination.max-page-size:100}") int maxPageSize,
+                          @Value("${catalog.search.default-limit:20}") int defaultSearchLimit,
+                          @Value("${catalog.search.max-limit:100}") int maxSearchLimit) {
+        this.productRepo = productRepo;
+        this.productCache = productCache;
+        this.searchIndex = searchIndex;
+        this.events = events;
+        this.maxPageSize = Math.max(1, maxPageSize);
+        this.defaultPageSize = Math.min(Math.max(1, defaultPageSize), this.maxPageSize);
+        this.maxSearchLimit = Math.max(1, maxSearchLimit);
+        this.defaultSearchLimit = Math.min(Math.max(1, defaultSearchLimit), this.maxSearchLimit);
+    }
+
+    public Optional<Product> getProduct(Long id) {
+        return productCache.findById(id);
+    }
+
+    // Las escrituras son transaccionales para que el cambio quede en product_change (ProductChangeFeed)
+    // junto con el producto
+    @Transactional
+    public Product createProduct(Product product) {
+        Product saved = productRepo.save(product);
+        events.publishEvent(ProductChangedEvent.saved(saved));
+        return saved;
+    }
+
+    /** Empty if there is no product with that id. */
+    @Transactional
+    public Optional<Product> updateProduct(Long id, Product product) {
+        Optional<Product> current = productRepo.findById(id);
+        if (current.isEmpty()) {
+            return Optional.empty();
+        }
+        // Se copian los campos sobre la fila leída: la versión del cuerpo de la petición no cuenta
+        Product existing = current.get();
+        existing.setName(product.getName());
+        existing.setDescription(product.getDescription());
+        existing.setPrice(product.getPrice());
+        existing.setStock(product.getStock());
+        // flush: el evento debe llevar ya la versión incrementada (ETag de la caché)
+        Product saved = productRepo.saveAndFlush(existing);
+        events.publishEvent(ProductChangedEvent.saved(saved));
+        return Optional.of(saved);
+    }
+
+    /** False if there is no product with that id. */
+    @Transactional
+    public boolean deleteProduct(Long id) {
+        if (!productRepo.existsById(id)) {
+            return false;
+        }
+        productRepo.deleteById(id);
+        events.publishEvent(ProductChangedEvent.deleted(id));
+        return true;
+    }
+
+    /**
+     * Creates or updates the given products by {@code sku} in one transaction and returns how many
+     * were new. Existing rows are read with a single IN query; inserts and updates are flushed
+     * together, so Hibernate sends them as JDBC batches.
+     */
+    @Transactional
+    public int upsertBySku(Collection<Product> products) {
+        Map<String, Product> existing = new HashMap<>();
+        List<String> skus = products.stream().map(Product::getSku).toList();
+        for (Product product : productRepo.findBySkuIn(skus)) {
+            existing.put(product.getSku(), product);
+        }
+        List<Product> saved = new ArrayList<>(products.size());
+        int created = 0;
+        for (Product product : products) {
+            Product current = existing.get(product.getSku());
+            if (current == null) {
+                product.setId(null);
+                saved.add(productRepo.save(product));
+                created++;
+            } else {
+                current.setName(product.getName());
+                current.setDescription(product.getDescription());
+                current.setPrice(product.getPrice());
+                current.setStock(product.getStock());
+                saved.add(current);
+            }
+        }
+        // flush: los eventos deben llevar ya las versiones incrementadas
+        productRepo.flush();
+        for (Product product : saved) {
+            events.publishEvent(ProductChangedEvent.saved(product));
+        }
+        return created;
+    }
+
+    /**
+     * Takes {@code quantities} (product id → units) out of stock with one conditional UPDATE and
+     * returns the products as they are after the reservation, in id order. All or nothing: if any
+     * product is missing or short, the exception rolls the whole transaction back, including the
+     * caller's when there is one.
+     *
+     * @throws ResourceNotFoundException if some product does not exist
+     * @throws InsufficientStockException if some product has less stock than requested
+     */
+    @Transactional
+    public List<Product> reserveStock(SortedMap<Long, Integer> quantities) {
+        if (quantities.isEmpty()) {
+            return List.of();
+        }
+        int reserved = productRepo.reserveStock(quantities);
+        List<Product> products = new ArrayList<>(productRepo.findAllWithDescriptionByIdIn(quantities.keySet()));
+        if (products.size() != quantities.size()) {
+            throw new ResourceNotFoundException("Some products not found");
+        }
+        if (reserved != quantities.size()) {
+            throw new InsufficientStockException("Not enough stock for the requested quantities");
+        }
+        products.sort(Comparator.comparing(Product::getId));
+        // Como cualquier otra escritura: caché, índices y feed de cambios reciben el stock y la versión nuevos
+        for (Product product : products) {
+            events.publishEvent(ProductChangedEvent.saved(product));
+        }
+        return products;
+    }
+
+    /**
+     * Replays a change made on another replica: reloads the product and publishes it as a remote
+     * {@link ProductChangedEvent}, so the cache and the in-memory indexes of this instance follow.
+     */
+    public void applyRemoteChange(Long id) {
+        Product current = productRepo.findWithDescriptionById(id).orElse(null);
+        events.publishEvent(ProductChangedEvent.remote(id, current));
+    }
+
+    /**
+     * Ranked full-text search served by the in-memory {@link ProductSearchIndex}; the top hits
+     * come from the {@link ProductCache}, so the database only sees the ones not cached.
+     */
+    public List<ProductSummary> searchProducts(String query, Integer limit) {
+        int size = limit == null ? defaultSearchLimit : Math.min(Math.max(1, limit), maxSearchLimit);
+        List<Long> ids = searchIndex.search(query, size);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        // En el orden del ranking; los borrados entre el índice y la carga se omiten
+        return productCache.findAllById(ids).stream().map(ProductService::summary).toList();
+    }
+
+    public ProductPage listProducts(String cursor, Integer limit, String sort) {
+        ProductCursor after = cursor != null && !cursor.isBlank() ? ProductCursor.decode(cursor) : null;
+        ProductCursor.Sort order = after != null ? after.sort() : ProductCursor.Sort.from(sort);
+        int size = limit == null ? defaultPageSize : Math.min(Math.max(1, limit), maxPageSize);
+
+        // Una fila de más para saber si hay página siguiente sin hacer COUNT
+        int rowsToFetch = size + 1;
+        List<ProductSummary> rows;
+        if (after == null) {
+            rows = switch (order) {
+                case ID -> productRepo.findFirstPageById(rowsToFetch);
+                case NAME -> productRepo.findFirstPageByName(rowsToFetch);
+                case PRICE -> productRepo.findFirstPageByPrice(rowsToFetch);
+            };
+        } else if (order == ProductCursor.Sort.ID) {
+            rows = productRepo.findPageAfterId(after.id(), rowsToFetch);
+        } else if (after.key() == null) {
+            rows = pageWithoutKeyAfter(order, after.id(), rowsToFetch);
+        } else {
+            rows = order == ProductCursor.Sort.NAME
+                ? productRepo.findPageAfterName(after.key(), after.id(), rowsToFetch)
+                : productRepo.findPageAfterPrice(after.price(), after.id(), rowsToFetch);
+            // Se acabaron las claves no nulas: la página sigue con los productos sin clave
+            if (rows.size() < rowsToFetch) {
+                List<ProductSummary> withKey = rows;
+                rows = new ArrayList<>(withKey);
+                rows.addAll(pageWithoutKeyAfter(order, 0L, rowsToFetch - withKey.size()));
+            }
+        }
+
+        if (rows.size() <= size) {
+            return new ProductPage(rows, null);
+        }
+        List<ProductSummary> page = rows.subList(0, size);
+        return new ProductPage(page, ProductCursor.after(order, page.get(size - 1)).encode());
+    }
+
+    private List<ProductSummary> pageWithoutKeyAfter(ProductCursor.Sort order, Long afterId, int limit) {
+        return order == ProductCursor.Sort.NAME
+            ? productRepo.findPageWithoutNameAfter(afterId, limit)
+            : productRepo.findPageWithoutPriceAfter(afterId, limit);
+    }
+
+    private static ProductSummary summary(Product product) {
+        return new ProductSummary(product.getId(), product.getSku(), product.getName(), product.getPrice(),
+            product.getStock(), product.getVersion());
+    }
+}
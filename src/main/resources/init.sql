@@ -37,3 +37,14 @@ FROM role r, permission p
 WHERE r.name = 'ADMIN';
 
 -- USER sin permisos por defecto
+
+-- Ids de product: secuencia de 50 en 50 (optimizador pooled de Hibernate), por encima de los ids existentes
+CREATE SEQUENCE IF NOT EXISTS product_seq INCREMENT BY 50;
+DO $$
+BEGIN
+    IF to_regclass('product') IS NOT NULL THEN
+        PERFORM setval('product_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM product) + 50,
+                                               (SELECT last_value FROM product_seq)));
+        ALTER TABLE product ALTER COLUMN id SET DEFAULT nextval('product_seq');
+    END IF;
+END $$;
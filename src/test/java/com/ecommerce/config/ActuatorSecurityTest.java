@@ -0,0 +1,115 @@
+package com.ecommerce.config;
+
+import com.ecommerce.repository.UserRepository;
+import com.ecommerce.security.JwtFilter;
+import com.ecommerce.security.PasswordHashPolicy;
+import com.ecommerce.security.PermissionIndex;
+import com.ecommerce.security.RoleEpochs;
+import com.ecommerce.security.UserSecurityStamps;
+import com.ecommerce.security.VerifiedTokenCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.test.context.junit.jupiter.web.SpringJUnitWebConfig;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+
+import static org.mockito.Mockito.mock;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Runs the production {@link SecurityConfig} filter chain against stub actuator endpoints: only
+ * health and info are public, metrics needs READ_STATISTICS and anything else under /actuator is closed.
+ */
+@SpringJUnitWebConfig(ActuatorSecurityTest.TestConfig.class)
+class ActuatorSecurityTest {
+
+    @Autowired
+    private WebApplicationContext context;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).apply(springSecurity()).build();
+    }
+
+    @Test
+    void shouldKeepHealthAndInfoPublic() throws Exception {
+        mockMvc.perform(get("/actuator/health")).andExpect(status().isOk());
+        mockMvc.perform(get("/actuator/health/liveness")).andExpect(status().isOk());
+        mockMvc.perform(get("/actuator/info")).andExpect(status().isOk());
+    }
+
+    @Test
+    void shouldRejectAnonymousMetricsRequests() throws Exception {
+        mockMvc.perform(get("/actuator/metrics")).andExpect(status().isForbidden());
+        mockMvc.perform(get("/actuator/metrics/cache.gets")).andExpect(status().isForbidden());
+    }
+
+    @Test
+    void shouldRejectMetricsForUsersWithoutReadStatistics() throws Exception {
+        mockMvc.perform(get("/actuator/metrics").with(user("user").authorities(() -> "READ_PRODUCTS")))
+            .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void shouldServeMetricsToUsersWithReadStatistics() throws Exception {
+        mockMvc.perform(get("/actuator/metrics/cache.gets").with(user("admin").authorities(() -> "READ_STATISTICS")))
+            .andExpect(status().isOk());
+    }
+
+    @Test
+    void shouldCloseEveryOtherActuatorEndpoint() throws Exception {
+        mockMvc.perform(get("/actuator/env").with(user("admin").authorities(() -> "READ_STATISTICS")))
+            .andExpect(status().isForbidden());
+    }
+
+    @Configuration
+    @EnableWebMvc
+    @EnableWebSecurity
+    @Import(SecurityConfig.class)
+    static class TestConfig {
+
+        @Bean
+        JwtFilter jwtFilter() {
+            return new JwtFilter(mock(UserRepository.class), mock(VerifiedTokenCache.class), mock(RoleEpochs.class), mock(UserSecurityStamps.class), false);
+        }
+
+        @Bean
+        PermissionIndex permissionIndex() {
+            return mock(PermissionIndex.class);
+        }
+
+        @Bean
+        PasswordHashPolicy passwordHashPolicy() {
+            return mock(PasswordHashPolicy.class);
+        }
+
+        @Bean
+        ActuatorStub actuatorStub() {
+            return new ActuatorStub();
+        }
+    }
+
+    @RestController
+    static class ActuatorStub {
+
+        @GetMapping({"/actuator/health", "/actuator/health/liveness", "/actuator/info",
+            "/actuator/metrics", "/actuator/metrics/cache.gets", "/actuator/env"})
+        String ok() {
+            return "ok";
+        }
+    }
+}
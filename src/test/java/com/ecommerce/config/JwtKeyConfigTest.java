@@ -0,0 +1,153 @@
+package com.ecommerce.config;
+
+import com.ecommerce.model.User;
+import com.ecommerce.security.JwtKeyRing;
+import com.ecommerce.security.JwtUtil;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.security.KeyPair;
+import java.util.Base64;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JwtKeyConfigTest {
+
+    @AfterEach
+    void restoreEphemeralKeys() {
+        JwtUtil.useKeyRings(JwtKeyRing.ephemeral(), JwtKeyRing.ephemeral());
+    }
+
+    @Test
+    void shouldFallBackToEphemeralKeyWhenNothingConfigured() {
+        JwtKeyRing ring = JwtKeyConfig.buildKeyRing("access", new JwtKeyProperties.KeyRing());
+
+        assertThat(ring.canSign()).isTrue();
+        assertThat(ring.activeKid()).startsWith("ephemeral-");
+    }
+
+    @Test
+    void shouldValidateTokensFromAnotherReplicaWithSameSecret() {
+        JwtKeyProperties.KeyRing config = ring("k1", hmac("k1", randomSecret()));
+
+        JwtUtil.useKeyRings(JwtKeyConfig.buildKeyRing("access", config), JwtKeyRing.ephemeral());
+        String token = JwtUtil.generateToken(user());
+
+        // "Otra réplica": mismo material de clave, ring construido de nuevo
+        JwtUtil.useKeyRings(JwtKeyConfig.buildKeyRing("access", config), JwtKeyRing.ephemeral());
+
+        assertThat(JwtUtil.parseToken(token)).isPresent();
+    }
+
+    @Test
+    void shouldKeepVerifyingPreviousKeyDuringRotation() {
+        String oldSecret = randomSecret();
+        JwtUtil.useKeyRings(JwtKeyConfig.buildKeyRing("access", ring("k1", hmac("k1", oldSecret))), JwtKeyRing.ephemeral());
+        String oldToken = JwtUtil.generateToken(user());
+
+        JwtKeyProperties.KeyRing rotated = ring("k2", hmac("k2", randomSecret()), hmac("k1", oldSecret));
+        JwtUtil.useKeyRings(JwtKeyConfig.buildKeyRing("access", rotated), JwtKeyRing.ephemeral());
+        String newToken = JwtUtil.generateToken(user());
+
+        assertThat(JwtUtil.parseToken(oldToken)).isPresent();
+        assertThat(JwtUtil.parseToken(newToken)).isPresent();
+
+        // Retirada la clave antigua, sus tokens dejan de validar
+        JwtUtil.useKeyRings(JwtKeyConfig.buildKeyRing("access", ring("k2", rotated.getKeys().get(0))), JwtKeyRing.ephemeral());
+        assertThat(JwtUtil.parseToken(oldToken)).isEmpty();
+        assertThat(JwtUtil.parseToken(newToken)).isPresent();
+    }
+
+    @Test
+    void shouldSignWithEcKeyAndVerifyOnVerificationOnlyNode() {
+        KeyPair pair = Keys.keyPairFor(SignatureAlgorithm.ES256);
+        JwtKeyProperties.KeyMaterial signer = new JwtKeyProperties.KeyMaterial();
+        signer.setKid("ec1");
+        signer.setAlgorithm("ES256");
+        signer.setPrivateKey(pem("PRIVATE KEY", pair.getPrivate().getEncoded()));
+        signer.setPublicKey(pem("PUBLIC KEY", pair.getPublic().getEncoded()));
+
+        JwtUtil.useKeyRings(JwtKeyConfig.buildKeyRing("access", ring("ec1", signer)), JwtKeyRing.ephemeral());
+        String token = JwtUtil.generateToken(user());
+
+        JwtKeyProperties.KeyMaterial verifier = new JwtKeyProperties.KeyMaterial();
+        verifier.setKid("ec1");
+        verifier.setAlgorithm("ES256");
+        verifier.setPublicKey(signer.getPublicKey());
+        JwtKeyProperties.KeyRing verifierRing = ring("ec1", verifier);
+        verifierRing.setVerificationOnly(true);
+        JwtKeyRing verificationOnly = JwtKeyConfig.buildKeyRing("access", verifierRing);
+        JwtUtil.useKeyRings(verificationOnly, JwtKeyRing.ephemeral());
+
+        assertThat(verificationOnly.canSign()).isFalse();
+        assertThat(verificationOnly.publicKeys()).hasSize(1);
+        assertThat(JwtUtil.parseToken(token)).isPresent();
+        assertThatThrownBy(() -> JwtUtil.generateToken(user())).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void shouldSignWithTheFirstKeyWhenNoActiveKidIsConfigured() {
+        String secret = randomSecret();
+        JwtKeyProperties.KeyRing config = ring(null, hmac("k2", secret), hmac("k1", randomSecret()));
+
+        JwtKeyRing keyRing = JwtKeyConfig.buildKeyRing("access", config);
+        JwtUtil.useKeyRings(keyRing, JwtKeyRing.ephemeral());
+        String token = JwtUtil.generateToken(user());
+
+        assertThat(keyRing.activeKid()).isEqualTo("k2");
+        assertThat(keyRing.canSign()).isTrue();
+        // Firmado con k2: valida en un ring que solo tiene k2
+        JwtUtil.useKeyRings(JwtKeyConfig.buildKeyRing("access", ring("k2", hmac("k2", secret))), JwtKeyRing.ephemeral());
+        assertThat(JwtUtil.parseToken(token)).isPresent();
+    }
+
+    @Test
+    void shouldFailAtStartupWhenTheActiveKeyCannotSign() {
+        JwtKeyProperties.KeyMaterial publicOnly = new JwtKeyProperties.KeyMaterial();
+        publicOnly.setKid("ec1");
+        publicOnly.setAlgorithm("ES256");
+        publicOnly.setPublicKey(pem("PUBLIC KEY", Keys.keyPairFor(SignatureAlgorithm.ES256).getPublic().getEncoded()));
+
+        assertThatThrownBy(() -> JwtKeyConfig.buildKeyRing("access", ring(null, publicOnly)))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("verification-only");
+        assertThatThrownBy(() -> JwtKeyConfig.buildKeyRing("access", ring("k9", hmac("k1", randomSecret()))))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("'k9'");
+    }
+
+    private static User user() {
+        User user = new User();
+        user.setId(1L);
+        user.setEmail("test@example.com");
+        return user;
+    }
+
+    private static String randomSecret() {
+        return Base64.getEncoder().encodeToString(Keys.secretKeyFor(SignatureAlgorithm.HS256).getEncoded());
+    }
+
+    private static JwtKeyProperties.KeyMaterial hmac(String kid, String secret) {
+        JwtKeyProperties.KeyMaterial material = new JwtKeyProperties.KeyMaterial();
+        material.setKid(kid);
+        material.setSecret(secret);
+        return material;
+    }
+
+    private static JwtKeyProperties.KeyRing ring(String activeKid, JwtKeyProperties.KeyMaterial... keys) {
+        JwtKeyProperties.KeyRing ring = new JwtKeyProperties.KeyRing();
+        ring.setActiveKid(activeKid);
+        ring.setKeys(List.of(keys));
+        return ring;
+    }
+
+    private static String pem(String type, byte[] der) {
+        return "-----BEGIN " + type + "-----\n"
+            + Base64.getMimeEncoder().encodeToString(der)
+            + "\n-----END " + type + "-----\n";
+    }
+}
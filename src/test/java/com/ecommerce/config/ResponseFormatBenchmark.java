@@ -0,0 +1,99 @@
+package com.ecommerce.config;
+
+import com.ecommerce.dto.ProductSummary;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Random;
+import java.util.SortedSet;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serialization of a 1,000-item product page in each response encoding, with and without
+ * {@code ?fields=name,price} and with and without gzip (the JDK default level, which Tomcat's
+ * compression also uses). Setup prints the bytes each combination puts on the wire.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseFormatBenchmark {
+
+    @Param({"json", "smile", "cbor"})
+    public String format;
+
+    @Param({"", "name,price"})
+    public String fields;
+
+    @Param({"false", "true"})
+    public boolean gzip;
+
+    private List<ProductSummary> page;
+    private ObjectWriter writer;
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(256 * 1024);
+
+    @Setup
+    public void setUp() throws IOException {
+        Random random = new Random(42);
+        page = IntStream.range(0, 1000)
+            .mapToObj(i -> new ProductSummary(100_000L + i, "SKU-" + (100_000 + i), "Mesa de roble " + random.nextInt(100_000),
+                BigDecimal.valueOf(random.nextInt(100_000), 2), random.nextInt(500), random.nextInt(10)))
+            .toList();
+        writer = writer(format, fields);
+        System.out.printf("%n%s fields=[%s] gzip=%s: %d bytes%n", format, fields, gzip, write().size());
+    }
+
+    @Benchmark
+    public ByteArrayOutputStream serialize() throws IOException {
+        return write();
+    }
+
+    private ByteArrayOutputStream write() throws IOException {
+        buffer.reset();
+        if (gzip) {
+            try (OutputStream out = new GZIPOutputStream(buffer, 8192)) {
+                writer.writeValue(out, page);
+            }
+        } else {
+            writer.writeValue(buffer, page);
+        }
+        return buffer;
+    }
+
+    // El mismo mapper que los convertidores HTTP: mix-ins y filtro de ResponseFormatConfig
+    private static ObjectWriter writer(String format, String fields) {
+        JsonFactory factory = switch (format) {
+            case "smile" -> new SmileFactory();
+            case "cbor" -> new CBORFactory();
+            default -> new JsonFactory();
+        };
+        Jackson2ObjectMapperBuilder builder = new Jackson2ObjectMapperBuilder().factory(factory);
+        new ResponseFormatConfig().sparseFieldsetCustomizer().customize(builder);
+        ObjectWriter writer = builder.build().writer();
+        SortedSet<String> requested = SparseFieldsets.parse(fields);
+        return requested == null ? writer : writer.with(SparseFieldsets.only(requested));
+    }
+}
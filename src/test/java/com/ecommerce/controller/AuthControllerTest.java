@@ -5,24 +5,38 @@ import com.ecommerce.dto.UserLoginDto;
 import com.ecommerce.dto.UserRegisterDto;
 import com.ecommerce.model.Role;
 import com.ecommerce.model.User;
+import com.ecommerce.repository.RevokedRefreshTokenRepository;
 import com.ecommerce.repository.UserRepository;
+import com.ecommerce.security.ForwardedClientAddressFilter;
 import com.ecommerce.security.JwtUtil;
+import com.ecommerce.security.LoginThrottle;
+import com.ecommerce.security.PasswordHashingExecutor;
+import com.ecommerce.security.RefreshTokenStore;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.http.MediaType;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.anyString;
 import static org.mockito.Mockito.matches;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -41,7 +55,10 @@ class AuthControllerTest {
         userRepo = Mockito.mock(UserRepository.class);
         encoder = Mockito.mock(PasswordEncoder.class);
         objectMapper = new ObjectMapper();
-        authController = new AuthController(userRepo, encoder);
+        authController = new AuthController(userRepo,
+            new PasswordHashingExecutor(encoder, 2, 8, 1, new SimpleMeterRegistry()),
+            new LoginThrottle(true, 1024, 5, 5, 50, 50, new SimpleMeterRegistry()),
+            new RefreshTokenStore(Mockito.mock(RevokedRefreshTokenRepository.class), new SimpleMeterRegistry()));
         mockMvc = MockMvcBuilders.standaloneSetup(authController).build();
 
         Role role = new Role();
@@ -106,6 +123,43 @@ class AuthControllerTest {
                 .andExpect(jsonPath("$.refreshToken").exists());
     }
 
+    @Test
+    void shouldRehashPasswordOnLoginWhenEncodingIsOutdated() throws Exception {
+        when(userRepo.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
+        when(encoder.matches("password", "encodedPassword")).thenReturn(true);
+        when(encoder.upgradeEncoding("encodedPassword")).thenReturn(true);
+        when(encoder.encode("password")).thenReturn("{bcrypt}newHash");
+
+        UserLoginDto dto = new UserLoginDto();
+        dto.setEmail("test@example.com");
+        dto.setPassword("password");
+
+        mockMvc.perform(post("/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(dto)))
+                .andExpect(status().isOk());
+
+        verify(userRepo).save(testUser);
+        assertThat(testUser.getPassword()).isEqualTo("{bcrypt}newHash");
+    }
+
+    @Test
+    void shouldNotRehashPasswordWhenEncodingIsCurrent() throws Exception {
+        when(userRepo.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
+        when(encoder.matches("password", "encodedPassword")).thenReturn(true);
+
+        UserLoginDto dto = new UserLoginDto();
+        dto.setEmail("test@example.com");
+        dto.setPassword("password");
+
+        mockMvc.perform(post("/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(dto)))
+                .andExpect(status().isOk());
+
+        verify(userRepo, never()).save(any());
+    }
+
     @Test
     void shouldReturnUnauthorizedWhenLoginFails() throws Exception {
         when(userRepo.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
@@ -137,6 +191,64 @@ class AuthControllerTest {
                 .andExpect(jsonPath("$.error").exists());
     }
 
+    @Test
+    void shouldThrottleLoginBeforeTouchingRepositoryOrEncoder() throws Exception {
+        when(userRepo.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
+
+        UserLoginDto dto = new UserLoginDto();
+        dto.setEmail("test@example.com");
+        dto.setPassword("wrongpassword");
+        String body = objectMapper.writeValueAsString(dto);
+
+        for (int i = 0; i < 5; i++) {
+            mockMvc.perform(post("/auth/login").contentType(MediaType.APPLICATION_JSON).content(body))
+                    .andExpect(status().isUnauthorized());
+        }
+
+        mockMvc.perform(post("/auth/login").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "12"));
+
+        verify(userRepo, times(5)).findByEmail("test@example.com");
+        verify(encoder, times(5)).matches(anyString(), anyString());
+    }
+
+    @Test
+    void shouldThrottleEachClientBehindTheIngressByItsForwardedAddress() throws Exception {
+        when(userRepo.findByEmail(anyString())).thenReturn(Optional.empty());
+        // 2 intentos por IP; todas las conexiones llegan desde el Ingress (10.0.0.5)
+        MockMvc behindIngress = MockMvcBuilders.standaloneSetup(new AuthController(userRepo,
+                new PasswordHashingExecutor(encoder, 2, 8, 1, new SimpleMeterRegistry()),
+                new LoginThrottle(true, 1024, 5, 5, 2, 2, new SimpleMeterRegistry()),
+                new RefreshTokenStore(Mockito.mock(RevokedRefreshTokenRepository.class), new SimpleMeterRegistry())))
+            .addFilters(new ForwardedClientAddressFilter(List.of("10.0.0.0/8")))
+            .build();
+
+        for (int i = 0; i < 2; i++) {
+            behindIngress.perform(login("user" + i + "@example.com", "203.0.113.7"))
+                .andExpect(status().isUnauthorized());
+        }
+        // Lo que el cliente ponga a la izquierda de X-Forwarded-For no le da una IP nueva
+        behindIngress.perform(login("user9@example.com", "198.51.100.1, 203.0.113.7"))
+            .andExpect(status().isTooManyRequests());
+        behindIngress.perform(login("user0@example.com", "198.51.100.9"))
+            .andExpect(status().isUnauthorized());
+    }
+
+    private MockHttpServletRequestBuilder login(String email, String forwardedFor) throws Exception {
+        UserLoginDto dto = new UserLoginDto();
+        dto.setEmail(email);
+        dto.setPassword("wrongpassword");
+        return post("/auth/login")
+            .with(request -> {
+                request.setRemoteAddr("10.0.0.5");
+                return request;
+            })
+            .header("X-Forwarded-For", forwardedFor)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(dto));
+    }
+
     @Test
     void shouldRefreshTokenSuccessfully() throws Exception {
         when(userRepo.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
@@ -149,7 +261,37 @@ class AuthControllerTest {
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(request)))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.token").exists());
+                .andExpect(jsonPath("$.token").exists())
+                .andExpect(jsonPath("$.refreshToken").exists());
+    }
+
+    @Test
+    void shouldRejectRefreshTokenReuseAfterRotation() throws Exception {
+        when(userRepo.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
+        RefreshTokenRequest request = new RefreshTokenRequest();
+        request.setRefreshToken(JwtUtil.generateRefreshToken(testUser));
+        String body = objectMapper.writeValueAsString(request);
+
+        mockMvc.perform(post("/auth/refresh").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(post("/auth/refresh").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isUnauthorized())
+                .andExpect(jsonPath("$.error").exists());
+    }
+
+    @Test
+    void shouldRejectRefreshTokenAfterLogout() throws Exception {
+        RefreshTokenRequest request = new RefreshTokenRequest();
+        request.setRefreshToken(JwtUtil.generateRefreshToken(testUser));
+        String body = objectMapper.writeValueAsString(request);
+
+        mockMvc.perform(post("/auth/logout").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(post("/auth/refresh").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isUnauthorized());
+        verify(userRepo, never()).findByEmail(anyString());
     }
 
     @Test
@@ -0,0 +1,52 @@
+package com.ecommerce.controller;
+
+import com.ecommerce.security.JwtKeyRing;
+import com.ecommerce.security.JwtUtil;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.security.KeyPair;
+import java.util.Map;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class JwksControllerTest {
+
+    private final MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new JwksController()).build();
+
+    @AfterEach
+    void restoreEphemeralKeys() {
+        JwtUtil.useKeyRings(JwtKeyRing.ephemeral(), JwtKeyRing.ephemeral());
+    }
+
+    @Test
+    void shouldNotPublishHmacKeys() throws Exception {
+        mockMvc.perform(get("/.well-known/jwks.json"))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.keys").isEmpty());
+    }
+
+    @Test
+    void shouldPublishEcPublicKeys() throws Exception {
+        KeyPair pair = Keys.keyPairFor(SignatureAlgorithm.ES256);
+        JwtKeyRing ring = new JwtKeyRing("ec1",
+            Map.of("ec1", new JwtKeyRing.VerificationKey("ec1", SignatureAlgorithm.ES256, pair.getPublic())),
+            pair.getPrivate());
+        JwtUtil.useKeyRings(ring, JwtKeyRing.ephemeral());
+
+        mockMvc.perform(get("/.well-known/jwks.json"))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.keys[0].kid").value("ec1"))
+               .andExpect(jsonPath("$.keys[0].kty").value("EC"))
+               .andExpect(jsonPath("$.keys[0].crv").value("P-256"))
+               .andExpect(jsonPath("$.keys[0].alg").value("ES256"))
+               .andExpect(jsonPath("$.keys[0].x").exists())
+               .andExpect(jsonPath("$.keys[0].y").exists());
+    }
+}
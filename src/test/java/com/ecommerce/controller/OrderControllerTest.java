@@ -1,22 +1,37 @@
 package com.ecommerce.controller;
 
+import com.ecommerce.config.SparseFieldsetAdvice;
+import com.ecommerce.dto.ExportFormat;
+import com.ecommerce.dto.OrderCursor;
+import com.ecommerce.dto.OrderFilter;
+import com.ecommerce.dto.OrderItemRequest;
+import com.ecommerce.dto.OrderPage;
 import com.ecommerce.dto.OrderRequestDto;
 import com.ecommerce.dto.OrderResponseDto;
 import com.ecommerce.model.User;
+import com.ecommerce.service.OrderExportService;
 import com.ecommerce.service.OrderService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 class OrderControllerTest {
@@ -24,12 +39,17 @@ class OrderControllerTest {
     private MockMvc mockMvc;
     private OrderController orderController;
     private OrderService orderService;
+    private OrderExportService orderExportService;
 
     @BeforeEach
     void setUp() {
         orderService = Mockito.mock(OrderService.class);
-        orderController = new OrderController(orderService);
-        mockMvc = MockMvcBuilders.standaloneSetup(orderController).build();
+        orderExportService = Mockito.mock(OrderExportService.class);
+        orderController = new OrderController(orderService, orderExportService);
+        mockMvc = MockMvcBuilders.standaloneSetup(orderController)
+                .setControllerAdvice(new SparseFieldsetAdvice())
+                .setMessageConverters(ResponseConverters.all())
+                .build();
     }
 
     @Test
@@ -44,6 +64,21 @@ class OrderControllerTest {
                 .andExpect(status().isCreated());
     }
 
+    @Test
+    @WithMockUser(roles = "USER")
+    void shouldCreateOrderFromItemsWithQuantities() throws Exception {
+        when(orderService.createOrder(any(), any(OrderRequestDto.class))).thenReturn(new OrderResponseDto());
+
+        mockMvc.perform(post("/api/orders")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"items\":[{\"productId\":1,\"quantity\":10}]}"))
+                .andExpect(status().isCreated());
+
+        ArgumentCaptor<OrderRequestDto> request = ArgumentCaptor.forClass(OrderRequestDto.class);
+        verify(orderService).createOrder(any(), request.capture());
+        assertThat(request.getValue().getItems()).containsExactly(new OrderItemRequest(1L, 10));
+    }
+
     @Test
     @WithMockUser(roles = "USER")
     void shouldGetUserOrders() throws Exception {
@@ -56,10 +91,43 @@ class OrderControllerTest {
     @Test
     @WithMockUser(roles = "ADMIN")
     void shouldGetAllOrders() throws Exception {
-        when(orderService.getAllOrders()).thenReturn(List.of(new OrderResponseDto()));
+        when(orderService.listOrders(OrderFilter.all(null, null, null), null, null))
+            .thenReturn(new OrderPage(List.of(new OrderResponseDto()), null));
 
         mockMvc.perform(get("/api/orders/all"))
-               .andExpect(status().isOk());
+               .andExpect(status().isOk())
+               .andExpect(header().doesNotExist("X-Next-Cursor"));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void shouldFilterOrdersAndLinkTheNextPage() throws Exception {
+        OrderFilter filter = OrderFilter.all("PENDING", LocalDateTime.of(2026, 1, 1, 0, 0), LocalDateTime.of(2026, 2, 1, 0, 0));
+        String cursor = new OrderCursor(40L).encode();
+        when(orderService.listOrders(filter, null, 1))
+            .thenReturn(new OrderPage(List.of(new OrderResponseDto()), cursor));
+
+        // En la URL: el Link se construye a partir de la query string de la petición
+        mockMvc.perform(get("/api/orders/all?status=PENDING&from=2026-01-01T00:00:00&to=2026-02-01T00:00:00&limit=1"))
+               .andExpect(status().isOk())
+               .andExpect(header().string("X-Next-Cursor", cursor))
+               .andExpect(header().string("Link", "<http://localhost/api/orders/all?status=PENDING"
+                   + "&from=2026-01-01T00:00:00&to=2026-02-01T00:00:00&limit=1&cursor=" + cursor + ">; rel=\"next\""));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void shouldOnlyWriteTheRequestedOrderFields() throws Exception {
+        OrderResponseDto order = new OrderResponseDto();
+        order.setId(4L);
+        order.setStatus("PENDING");
+        order.setTotal(12.5);
+        order.setItems(List.of());
+        when(orderService.listOrders(any(), any(), any())).thenReturn(new OrderPage(List.of(order), null));
+
+        mockMvc.perform(get("/api/orders/all").param("fields", "status,total"))
+               .andExpect(status().isOk())
+               .andExpect(content().json("[{\"id\":4,\"status\":\"PENDING\",\"total\":12.5}]", true));
     }
 
     @Test
@@ -76,9 +144,31 @@ class OrderControllerTest {
     @Test
     @WithMockUser(roles = "ADMIN")
     void shouldGetOrdersByUser() throws Exception {
-        when(orderService.getOrdersByUserId(1L)).thenReturn(List.of(new OrderResponseDto()));
+        when(orderService.listOrders(OrderFilter.ofUser(1L, null, null, null), null, null))
+            .thenReturn(new OrderPage(List.of(new OrderResponseDto()), null));
 
         mockMvc.perform(get("/api/orders/user/1"))
                .andExpect(status().isOk());
     }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void shouldExportTheOrdersOfAUserAsCsv() throws Exception {
+        mockMvc.perform(get("/api/orders/user/1/export").param("format", "csv").param("status", "SHIPPED"))
+               .andExpect(status().isOk())
+               .andExpect(header().string("Content-Disposition", "attachment; filename=\"orders-user-1.csv\""))
+               .andExpect(content().contentTypeCompatibleWith("text/csv"));
+
+        verify(orderExportService).export(eq(OrderFilter.ofUser(1L, "SHIPPED", null, null)),
+            eq(ExportFormat.CSV), any());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void shouldRejectUnknownExportFormat() throws Exception {
+        mockMvc.perform(get("/api/orders/all/export").param("format", "xml"))
+               .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(orderExportService);
+    }
 }
@@ -1,17 +1,44 @@
 package com.ecommerce.controller;
 
+import com.ecommerce.config.GlobalExceptionHandler;
+import com.ecommerce.config.SparseFieldsetAdvice;
+import com.ecommerce.dto.ProductCursor;
+import com.ecommerce.dto.ProductSummary;
 import com.ecommerce.model.Product;
+import com.ecommerce.dto.ProductChangeToken;
+import com.ecommerce.repository.ProductChangeLockRepository;
+import com.ecommerce.repository.ProductChangeRepository;
 import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.search.ProductSearchIndex;
+import com.ecommerce.search.ProductSuggester;
+import com.ecommerce.service.ProductCache;
+import com.ecommerce.service.ProductChangeFeed;
+import com.ecommerce.service.ProductChangedEvent;
+import com.ecommerce.service.ProductExportService;
+import com.ecommerce.service.ProductImportService;
+import com.ecommerce.service.ProductService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.not;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -21,37 +48,174 @@ class ProductControllerTest {
     private MockMvc mockMvc;
     private ProductController productController;
     private ProductRepository productRepository;
+    private ProductSearchIndex searchIndex;
+    private ProductSuggester suggester;
 
     @BeforeEach
     void setUp() {
         productRepository = Mockito.mock(ProductRepository.class);
-        productController = new ProductController(productRepository);
-        mockMvc = MockMvcBuilders.standaloneSetup(productController).build();
+        searchIndex = new ProductSearchIndex(productRepository, Mockito.mock(EntityManager.class));
+        suggester = new ProductSuggester(productRepository, Mockito.mock(EntityManager.class), 10, 50);
+        ProductCache productCache = new ProductCache(productRepository, Optional.empty(), true, 100, 60, new SimpleMeterRegistry());
+        ApplicationEventPublisher events = event -> {
+            productCache.onProductChanged((ProductChangedEvent) event);
+            searchIndex.onProductChanged((ProductChangedEvent) event);
+            suggester.onProductChanged((ProductChangedEvent) event);
+        };
+        ProductService productService = new ProductService(productRepository, productCache, searchIndex, events, 2, 100, 20, 100);
+        productController = new ProductController(
+                productService,
+                new ProductExportService(productRepository, Mockito.mock(EntityManager.class), new ObjectMapper()),
+                suggester,
+                new ProductChangeFeed(Mockito.mock(ProductChangeRepository.class),
+                    Mockito.mock(ProductChangeLockRepository.class), productRepository, 500, 1000, 30, 2000),
+                new ProductImportService(productService, new ObjectMapper(), 2, 10));
+        mockMvc = MockMvcBuilders.standaloneSetup(productController)
+                .setControllerAdvice(new GlobalExceptionHandler(), new SparseFieldsetAdvice())
+                .setMessageConverters(ResponseConverters.all())
+                .build();
     }
 
     @Test
     void shouldListProducts() throws Exception {
-        Product p1 = new Product(); p1.setId(1L);
-        Product p2 = new Product(); p2.setId(2L);
-        when(productRepository.findAll()).thenReturn(List.of(p1, p2));
+        when(productRepository.findFirstPageById(3)).thenReturn(List.of(summary(1L, "A", 0), summary(2L, "B", 0)));
 
         mockMvc.perform(get("/api/products"))
                .andExpect(status().isOk())
-               .andExpect(content().json("[{},{}]")); // Solo comprueba que hay 2 elementos
+               .andExpect(content().json("[{},{}]")) // Solo comprueba que hay 2 elementos
+               .andExpect(header().doesNotExist("X-Next-Cursor"));
+    }
+
+    @Test
+    void shouldReturnCursorWhenMoreProductsExist() throws Exception {
+        when(productRepository.findFirstPageById(3))
+            .thenReturn(List.of(summary(1L, "A", 0), summary(2L, "B", 0), summary(3L, "C", 0)));
+        String cursor = new ProductCursor(ProductCursor.Sort.ID, "", 2L).encode();
+
+        mockMvc.perform(get("/api/products"))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.length()").value(2))
+               .andExpect(header().string("X-Next-Cursor", cursor))
+               .andExpect(header().string("Link", "<http://localhost/api/products?cursor=" + cursor + ">; rel=\"next\""));
+    }
+
+    @Test
+    void shouldContinueFromCursor() throws Exception {
+        when(productRepository.findPageAfterId(2L, 3)).thenReturn(List.of(summary(3L, "C", 0)));
+
+        mockMvc.perform(get("/api/products")
+                .param("cursor", new ProductCursor(ProductCursor.Sort.ID, "", 2L).encode()))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$[0].id").value(3))
+               .andExpect(jsonPath("$[0].version").doesNotExist())
+               .andExpect(header().doesNotExist("X-Next-Cursor"));
+    }
+
+    @Test
+    void shouldExportCatalogAsCsv() throws Exception {
+        Product p1 = new Product(); p1.setId(1L); p1.setName("Mesa, roble"); p1.setPrice(new java.math.BigDecimal("10.50")); p1.setStock(3);
+        when(productRepository.streamAllByOrderById()).thenReturn(Stream.of(p1));
+
+        mockMvc.perform(get("/api/products/export").param("format", "csv"))
+               .andExpect(status().isOk())
+               .andExpect(header().string("Content-Disposition", "attachment; filename=\"products.csv\""))
+               .andExpect(content().contentTypeCompatibleWith("text/csv"))
+               .andExpect(content().string("id,sku,name,description,price,stock\n1,,\"Mesa, roble\",,10.50,3\n"));
+    }
+
+    @Test
+    void shouldRejectUnknownExportFormat() throws Exception {
+        mockMvc.perform(get("/api/products/export").param("format", "xml"))
+               .andExpect(status().isBadRequest());
+
+        verify(productRepository, never()).streamAllByOrderById();
+    }
+
+    @Test
+    void shouldImportProductsAndReturnTheReport() throws Exception {
+        when(productRepository.findBySkuIn(any())).thenReturn(List.of());
+        when(productRepository.save(any(Product.class))).thenAnswer(invocation -> {
+            Product saved = invocation.getArgument(0);
+            saved.setId(1L);
+            return saved;
+        });
+
+        mockMvc.perform(post("/api/products/import")
+                .param("format", "csv")
+                .contentType("text/csv")
+                .content("sku,name,price,stock\nA-1,Mesa,120,3\nA-2,,10,1\n"))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.rows").value(2))
+               .andExpect(jsonPath("$.created").value(1))
+               .andExpect(jsonPath("$.failed").value(1))
+               .andExpect(jsonPath("$.errors[0].row").value(2))
+               .andExpect(jsonPath("$.errors[0].message").value("name is required"));
+        mockMvc.perform(post("/api/products/import").param("format", "xml").content("<a/>"))
+               .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void shouldRejectInvalidCursor() throws Exception {
+        mockMvc.perform(get("/api/products").param("cursor", "not-a-cursor"))
+               .andExpect(status().isBadRequest());
     }
 
     @Test
     void shouldGetProductById() throws Exception {
         Product p = new Product(); p.setId(1L);
-        when(productRepository.findById(1L)).thenReturn(Optional.of(p));
+        when(productRepository.findWithDescriptionById(1L)).thenReturn(Optional.of(p));
 
         mockMvc.perform(get("/api/products/1"))
                .andExpect(status().isOk());
     }
 
+    @Test
+    void shouldAnswerNotModifiedWhenProductVersionMatches() throws Exception {
+        Product p = new Product(); p.setId(1L); p.setVersion(3);
+        when(productRepository.findWithDescriptionById(1L)).thenReturn(Optional.of(p));
+
+        mockMvc.perform(get("/api/products/1"))
+               .andExpect(status().isOk())
+               .andExpect(header().string("ETag", "W/\"p1v3\""));
+        mockMvc.perform(get("/api/products/1").header("If-None-Match", "\"p1v3\""))
+               .andExpect(status().isNotModified())
+               .andExpect(content().string(""));
+        mockMvc.perform(get("/api/products/1").header("If-None-Match", "\"p1v2\""))
+               .andExpect(status().isOk());
+    }
+
+    @Test
+    void shouldChangeListETagWhenAProductVersionChanges() throws Exception {
+        ProductSummary a = summary(1L, "A", 0);
+        ProductSummary b = summary(2L, "B", 0);
+        // La tercera lectura ve B en su versión 1
+        when(productRepository.findFirstPageById(3))
+            .thenReturn(List.of(a, b), List.of(a, b), List.of(a, summary(2L, "B", 1)));
+
+        String etag = mockMvc.perform(get("/api/products"))
+               .andExpect(status().isOk())
+               .andReturn().getResponse().getHeader("ETag");
+        mockMvc.perform(get("/api/products").header("If-None-Match", etag))
+               .andExpect(status().isNotModified());
+
+        mockMvc.perform(get("/api/products").header("If-None-Match", etag))
+               .andExpect(status().isOk())
+               .andExpect(header().string("ETag", not(etag)));
+    }
+
+    @Test
+    void shouldRejectChangeTokensOlderThanTombstoneRetention() throws Exception {
+        String stale = new ProductChangeToken(10, Instant.now().minus(Duration.ofDays(31))).encode();
+
+        mockMvc.perform(get("/api/products/changes").param("since", stale))
+               .andExpect(status().isGone());
+        mockMvc.perform(get("/api/products/changes").param("since", "%%%"))
+               .andExpect(status().isBadRequest());
+    }
+
     @Test
     void shouldReturnNotFoundForMissingProduct() throws Exception {
-        when(productRepository.findById(1L)).thenReturn(Optional.empty());
+        when(productRepository.findWithDescriptionById(1L)).thenReturn(Optional.empty());
 
         mockMvc.perform(get("/api/products/1"))
                .andExpect(status().isNotFound());
@@ -71,8 +235,8 @@ class ProductControllerTest {
     @Test
     void shouldUpdateProduct() throws Exception {
         Product p = new Product(); p.setId(1L);
-        when(productRepository.existsById(1L)).thenReturn(true);
-        when(productRepository.save(any(Product.class))).thenReturn(p);
+        when(productRepository.findById(1L)).thenReturn(Optional.of(p));
+        when(productRepository.saveAndFlush(any(Product.class))).thenReturn(p);
 
         mockMvc.perform(put("/api/products/1")
                 .contentType(MediaType.APPLICATION_JSON)
@@ -89,6 +253,26 @@ class ProductControllerTest {
                .andExpect(status().isNoContent());
     }
 
+    @Test
+    void shouldServeUpdatedProductFromCacheWithoutQuery() throws Exception {
+        Product p = new Product(); p.setId(1L); p.setName("Updated"); p.setStock(4);
+        when(productRepository.findById(1L)).thenReturn(Optional.of(new Product()));
+        when(productRepository.saveAndFlush(any(Product.class))).thenReturn(p);
+
+        mockMvc.perform(put("/api/products/1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"Updated\"}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/products/1"))
+               .andExpect(jsonPath("$.name").value("Updated"));
+        mockMvc.perform(get("/api/products/1/stock"))
+               .andExpect(content().string("4"));
+
+        // Solo la lectura de la propia actualización
+        verify(productRepository, times(1)).findById(1L);
+        verify(productRepository, never()).findWithDescriptionById(1L);
+    }
+
     @Test
     void shouldReturnNotFoundWhenDeletingMissingProduct() throws Exception {
         when(productRepository.existsById(1L)).thenReturn(false);
@@ -100,7 +284,7 @@ class ProductControllerTest {
     @Test
     void shouldReturnProductStock() throws Exception {
         Product p = new Product(); p.setId(1L); p.setStock(10);
-        when(productRepository.findById(1L)).thenReturn(Optional.of(p));
+        when(productRepository.findWithDescriptionById(1L)).thenReturn(Optional.of(p));
 
         mockMvc.perform(get("/api/products/1/stock"))
                .andExpect(status().isOk())
@@ -108,12 +292,118 @@ class ProductControllerTest {
     }
 
     @Test
-    void shouldSearchProductsByName() throws Exception {
-        Product p = new Product(); p.setId(1L);
-        when(productRepository.findByNameContainingIgnoreCase("test")).thenReturn(List.of(p));
+    void shouldSearchProductsByNameWithoutTheirDescriptions() throws Exception {
+        Product p = new Product(); p.setId(1L); p.setName("Test product"); p.setDescription("Una descripción larga");
+        searchIndex.put(p);
+        when(productRepository.findAllWithDescriptionByIdIn(List.of(1L))).thenReturn(List.of(p));
 
         mockMvc.perform(get("/api/products/search")
                 .param("name", "test"))
-                .andExpect(status().isOk());
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andExpect(jsonPath("$[0].id").value(1))
+                .andExpect(jsonPath("$[0].name").value("Test product"))
+                .andExpect(jsonPath("$[0].description").doesNotExist());
+    }
+
+    @Test
+    void shouldKeepSearchIndexInSyncWithMutations() throws Exception {
+        Product saved = new Product(); saved.setId(7L); saved.setName("Lámpara de pie");
+        when(productRepository.save(any(Product.class))).thenReturn(saved);
+        when(productRepository.existsById(7L)).thenReturn(true);
+
+        mockMvc.perform(post("/api/products")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"Lámpara de pie\"}"))
+                .andExpect(status().isCreated());
+        assertThat(searchIndex.search("lampara", 10)).containsExactly(7L);
+
+        mockMvc.perform(delete("/api/products/7"))
+                .andExpect(status().isNoContent());
+        assertThat(searchIndex.search("lampara", 10)).isEmpty();
+    }
+
+    @Test
+    void shouldSuggestProductsByNamePrefix() throws Exception {
+        Product p = new Product(); p.setId(4L); p.setName("Escritorio"); p.setStock(2);
+        when(productRepository.save(any(Product.class))).thenReturn(p);
+
+        mockMvc.perform(post("/api/products")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"Escritorio\"}"))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(get("/api/products/suggest").param("prefix", "escri"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("[{\"id\":4,\"name\":\"Escritorio\"}]"));
+        verify(productRepository, never()).findAllWithDescriptionByIdIn(any());
+    }
+
+    @Test
+    void shouldOnlyWriteTheRequestedFields() throws Exception {
+        when(productRepository.findFirstPageById(3)).thenReturn(List.of(summary(1L, "A", 0), summary(2L, "B", 0)));
+        Product p = new Product(); p.setId(5L); p.setName("Mesa"); p.setDescription("Roble"); p.setStock(2);
+        when(productRepository.findWithDescriptionById(5L)).thenReturn(Optional.of(p));
+
+        mockMvc.perform(get("/api/products").param("fields", "name, stock"))
+               .andExpect(status().isOk())
+               .andExpect(content().json("[{\"id\":1,\"name\":\"A\",\"stock\":0},{\"id\":2,\"name\":\"B\",\"stock\":0}]", true));
+        mockMvc.perform(get("/api/products/5").param("fields", "description"))
+               .andExpect(content().json("{\"id\":5,\"description\":\"Roble\"}", true));
+        mockMvc.perform(get("/api/products/5"))
+               .andExpect(jsonPath("$.name").value("Mesa"))
+               .andExpect(jsonPath("$.price").hasJsonPath());
+    }
+
+    @Test
+    void shouldNegotiateSmileAndCborWithTheSameFields() throws Exception {
+        when(productRepository.findFirstPageById(3)).thenReturn(List.of(summary(1L, "A", 0)));
+
+        byte[] smile = mockMvc.perform(get("/api/products").param("fields", "name")
+                .accept("application/x-jackson-smile"))
+               .andExpect(status().isOk())
+               .andExpect(content().contentType("application/x-jackson-smile"))
+               .andReturn().getResponse().getContentAsByteArray();
+        byte[] cbor = mockMvc.perform(get("/api/products").param("fields", "name")
+                .accept("application/cbor"))
+               .andExpect(status().isOk())
+               .andExpect(content().contentType("application/cbor"))
+               .andReturn().getResponse().getContentAsByteArray();
+
+        JsonNode expected = new ObjectMapper().readTree("[{\"id\":1,\"name\":\"A\"}]");
+        assertThat(new ObjectMapper(new SmileFactory()).readTree(smile)).isEqualTo(expected);
+        assertThat(new ObjectMapper(new CBORFactory()).readTree(cbor)).isEqualTo(expected);
+    }
+
+    @Test
+    void shouldVaryETagsByFieldsAndEncoding() throws Exception {
+        Product p = new Product(); p.setId(1L); p.setVersion(3);
+        when(productRepository.findWithDescriptionById(1L)).thenReturn(Optional.of(p));
+        when(productRepository.findFirstPageById(3)).thenReturn(List.of(summary(1L, "A", 0)));
+
+        String full = mockMvc.perform(get("/api/products/1"))
+               .andExpect(header().string("ETag", "W/\"p1v3\""))
+               .andExpect(header().string("Vary", "Accept"))
+               .andReturn().getResponse().getHeader("ETag");
+        String sparse = mockMvc.perform(get("/api/products/1").param("fields", "stock,name"))
+               .andReturn().getResponse().getHeader("ETag");
+        String smile = mockMvc.perform(get("/api/products/1").accept("application/x-jackson-smile"))
+               .andReturn().getResponse().getHeader("ETag");
+        assertThat(List.of(full, sparse, smile)).doesNotHaveDuplicates();
+        // El mismo fieldset en otro orden es la misma representación
+        mockMvc.perform(get("/api/products/1").param("fields", "name,stock").header("If-None-Match", sparse))
+               .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/products/1").header("If-None-Match", sparse))
+               .andExpect(status().isOk());
+
+        String list = mockMvc.perform(get("/api/products"))
+               .andReturn().getResponse().getHeader("ETag");
+        mockMvc.perform(get("/api/products").param("fields", "name").header("If-None-Match", list))
+               .andExpect(status().isOk())
+               .andExpect(header().string("ETag", not(list)));
+    }
+
+    private static ProductSummary summary(Long id, String name, long version) {
+        return new ProductSummary(id, null, name, java.math.BigDecimal.ONE, 0, version);
     }
 }
@@ -0,0 +1,34 @@
+package com.ecommerce.controller;
+
+import com.ecommerce.config.ResponseFormatConfig;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.StringHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+/**
+ * The message converters the application registers (JSON, Smile and CBOR with sparse fieldset
+ * support), for standalone MockMvc setups.
+ */
+final class ResponseConverters {
+
+    private ResponseConverters() {
+    }
+
+    static HttpMessageConverter<?>[] all() {
+        ResponseFormatConfig config = new ResponseFormatConfig();
+        return new HttpMessageConverter<?>[] {
+            new StringHttpMessageConverter(),
+            new MappingJackson2HttpMessageConverter(builder(config).build()),
+            config.smileHttpMessageConverter(builder(config)),
+            config.cborHttpMessageConverter(builder(config))
+        };
+    }
+
+    // Como el builder prototipo de Boot: uno nuevo por convertidor, con los customizers aplicados
+    private static Jackson2ObjectMapperBuilder builder(ResponseFormatConfig config) {
+        Jackson2ObjectMapperBuilder builder = new Jackson2ObjectMapperBuilder();
+        config.sparseFieldsetCustomizer().customize(builder);
+        return builder;
+    }
+}
@@ -2,10 +2,15 @@ package com.ecommerce.controller;
 
 import com.ecommerce.config.GlobalExceptionHandler;
 import com.ecommerce.dto.AssignPermissionDto;
+import com.ecommerce.dto.AssignRoleDto;
 import com.ecommerce.model.Permission;
 import com.ecommerce.model.Role;
+import com.ecommerce.model.User;
 import com.ecommerce.repository.PermissionRepository;
 import com.ecommerce.repository.RoleRepository;
+import com.ecommerce.repository.UserRepository;
+import com.ecommerce.security.RoleEpochs;
+import com.ecommerce.security.UserSecurityStamps;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -15,8 +20,10 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -28,6 +35,9 @@ class RoleAdminControllerTest {
     private RoleAdminController roleAdminController;
     private RoleRepository roleRepo;
     private PermissionRepository permRepo;
+    private RoleEpochs roleEpochs;
+    private UserRepository userRepo;
+    private UserSecurityStamps userStamps;
     private ObjectMapper objectMapper;
 
     @BeforeEach
@@ -35,7 +45,10 @@ class RoleAdminControllerTest {
         roleRepo = Mockito.mock(RoleRepository.class);
         permRepo = Mockito.mock(PermissionRepository.class);
         objectMapper = new ObjectMapper();
-        roleAdminController = new RoleAdminController(roleRepo, permRepo);
+        roleEpochs = new RoleEpochs(roleRepo, event -> { });
+        userRepo = Mockito.mock(UserRepository.class);
+        userStamps = new UserSecurityStamps(userRepo);
+        roleAdminController = new RoleAdminController(roleRepo, permRepo, roleEpochs, userRepo, userStamps);
         mockMvc = MockMvcBuilders.standaloneSetup(roleAdminController)
                 .setControllerAdvice(new GlobalExceptionHandler())
                 .build();
@@ -64,6 +77,9 @@ class RoleAdminControllerTest {
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(dto)))
                 .andExpect(status().isOk());
+
+        assertThat(role.getPermissions()).contains(perm);
+        assertThat(role.currentEpoch()).isEqualTo(1L);
     }
 
     @Test
@@ -98,4 +114,48 @@ class RoleAdminControllerTest {
                 .content(objectMapper.writeValueAsString(dto)))
                 .andExpect(status().isNotFound());
     }
+
+    @Test
+    void shouldAssignRoleToUserAndRotateItsSecurityStamp() throws Exception {
+        Role role = new Role();
+        role.setId(2L);
+        role.setName("ADMIN");
+        User user = new User();
+        user.setId(7L);
+        user.setEmail("user@example.com");
+
+        when(userRepo.findSecurityStampsChangedSince(any())).thenReturn(List.of());
+        userStamps.refresh();
+        when(userRepo.findByEmail("user@example.com")).thenReturn(Optional.of(user));
+        when(roleRepo.findByName("ADMIN")).thenReturn(Optional.of(role));
+
+        AssignRoleDto dto = new AssignRoleDto();
+        dto.setEmail("user@example.com");
+        dto.setRoleName("ADMIN");
+
+        mockMvc.perform(post("/admin/roles/assign-user")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(dto)))
+                .andExpect(status().isOk());
+
+        assertThat(user.getRole()).isSameAs(role);
+        assertThat(user.currentSecurityStamp()).isEqualTo(1L);
+        // Los tokens emitidos antes del cambio dejan de valer sin consultar la base de datos
+        assertThat(userStamps.isCurrent(7L, 0L)).isFalse();
+        assertThat(userStamps.isCurrent(7L, 1L)).isTrue();
+    }
+
+    @Test
+    void shouldReturnNotFoundWhenUserDoesNotExist() throws Exception {
+        when(userRepo.findByEmail("nobody@example.com")).thenReturn(Optional.empty());
+
+        AssignRoleDto dto = new AssignRoleDto();
+        dto.setEmail("nobody@example.com");
+        dto.setRoleName("ADMIN");
+
+        mockMvc.perform(post("/admin/roles/assign-user")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(dto)))
+                .andExpect(status().isNotFound());
+    }
 }
@@ -0,0 +1,105 @@
+package com.ecommerce.integration;
+
+import com.ecommerce.config.OrderItemsMigration;
+import com.ecommerce.model.Order;
+import com.ecommerce.model.OrderItem;
+import com.ecommerce.model.Product;
+import com.ecommerce.model.User;
+import com.ecommerce.repository.OrderRepository;
+import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A database that still has the legacy order_products table: the startup migration turns its
+ * rows into order_items lines and drops it, and does nothing once the table is gone.
+ */
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:orderitemsmigration;DB_CLOSE_DELAY=-1",
+    "spring.jpa.show-sql=false",
+    "logging.level.com.ecommerce=WARN"
+})
+@ActiveProfiles("ci")
+class OrderItemsMigrationTest {
+
+    @Autowired
+    private OrderItemsMigration migration;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private OrderRepository orderRepo;
+
+    @Autowired
+    private ProductRepository productRepo;
+
+    @Autowired
+    private UserRepository userRepo;
+
+    @Test
+    void shouldMoveLegacyOrderProductsIntoOrderItems() {
+        User buyer = new User();
+        buyer.setUsername("legacy-buyer");
+        buyer.setEmail("buyer@legacy.test");
+        buyer.setPassword("x");
+        User user = userRepo.save(buyer);
+        Product lamp = productRepo.save(product("Lámpara", "12.50"));
+        Product chair = productRepo.save(product("Silla", "40.00"));
+        Order first = orderRepo.save(order(user));
+        Order second = orderRepo.save(order(user));
+        // Esquema anterior: una fila por producto, sin cantidad ni precio
+        jdbc.execute("CREATE TABLE order_products (order_id INT NOT NULL, product_id BIGINT NOT NULL)");
+        jdbc.update("INSERT INTO order_products VALUES (?, ?)", first.getId(), lamp.getId());
+        jdbc.update("INSERT INTO order_products VALUES (?, ?)", first.getId(), chair.getId());
+        jdbc.update("INSERT INTO order_products VALUES (?, ?)", second.getId(), chair.getId());
+        // Producto ya borrado: no queda nombre ni precio que migrar
+        jdbc.update("INSERT INTO order_products VALUES (?, ?)", second.getId(), 999_999L);
+
+        migration.migrate();
+
+        List<Order> orders = orderRepo.findWithItemsByUserId(user.getId());
+        assertThat(orders).hasSize(2);
+        assertThat(orders.get(0).getItems()).containsExactlyInAnyOrder(
+            new OrderItem(lamp.getId(), "Lámpara", 1, new BigDecimal("12.50")),
+            new OrderItem(chair.getId(), "Silla", 1, new BigDecimal("40.00")));
+        assertThat(orders.get(1).getItems()).containsExactly(
+            new OrderItem(chair.getId(), "Silla", 1, new BigDecimal("40.00")));
+        assertThat(legacyTableCount()).isZero();
+
+        // Segundo arranque: la tabla ya no existe y no se duplica nada
+        migration.migrate();
+
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM order_items", Integer.class)).isEqualTo(3);
+    }
+
+    private int legacyTableCount() {
+        return jdbc.queryForObject(
+            "SELECT COUNT(*) FROM information_schema.tables WHERE LOWER(table_name) = 'order_products'", Integer.class);
+    }
+
+    private static Product product(String name, String price) {
+        Product product = new Product();
+        product.setName(name);
+        product.setPrice(new BigDecimal(price));
+        product.setStock(10);
+        return product;
+    }
+
+    private static Order order(User user) {
+        Order order = new Order();
+        order.setUser(user);
+        order.setCreatedAt(LocalDateTime.now());
+        return order;
+    }
+}
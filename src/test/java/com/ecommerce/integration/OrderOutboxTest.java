@@ -0,0 +1,155 @@
+package com.ecommerce.integration;
+
+import com.ecommerce.dto.OrderItemRequest;
+import com.ecommerce.dto.OrderRequestDto;
+import com.ecommerce.dto.OrderResponseDto;
+import com.ecommerce.exception.InsufficientStockException;
+import com.ecommerce.kafka.KafkaProducer;
+import com.ecommerce.kafka.OutboxRelay;
+import com.ecommerce.model.OutboxEvent;
+import com.ecommerce.model.Product;
+import com.ecommerce.model.User;
+import com.ecommerce.repository.OutboxEventRepository;
+import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.repository.UserRepository;
+import com.ecommerce.service.OrderService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.when;
+
+/**
+ * The order and its event commit or roll back together, and the relay publishes the outbox in
+ * aggregate order against a real database (the broker is a mock).
+ */
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:orderoutbox;DB_CLOSE_DELAY=-1",
+    // Con el productor activo se escribe el outbox y existe el relay; el sondeo se hace a mano
+    "spring.kafka.producer.enabled=true",
+    "outbox.poll-interval-ms=3600000",
+    "spring.jpa.show-sql=false",
+    "logging.level.com.ecommerce=WARN"
+})
+@ActiveProfiles("ci")
+class OrderOutboxTest {
+
+    @MockBean
+    private KafkaProducer kafkaProducer;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OutboxRelay relay;
+
+    @Autowired
+    private OutboxEventRepository outboxRepo;
+
+    @Autowired
+    private ProductRepository productRepo;
+
+    @Autowired
+    private UserRepository userRepo;
+
+    @BeforeEach
+    void setUp() {
+        outboxRepo.deleteAll();
+        when(kafkaProducer.send(anyString(), anyString(), anyString())).thenReturn(CompletableFuture.completedFuture(null));
+    }
+
+    @Test
+    void shouldWriteTheEventOnlyWhenTheOrderCommits() {
+        User buyer = new User();
+        buyer.setUsername("outbox-buyer");
+        buyer.setEmail("buyer@outbox.test");
+        buyer.setPassword("x");
+        User user = userRepo.save(buyer);
+        Product product = new Product();
+        product.setName("Mesa");
+        product.setPrice(new BigDecimal("10.00"));
+        product.setStock(1);
+        Long productId = productRepo.save(product).getId();
+
+        OrderResponseDto order = orderService.createOrder(user, request(productId));
+        assertThatThrownBy(() -> orderService.createOrder(user, request(productId)))
+            .isInstanceOf(InsufficientStockException.class);
+
+        assertThat(outboxRepo.findAll()).singleElement().satisfies(event -> {
+            assertThat(event.getAggregateId()).isEqualTo(order.getId());
+            assertThat(event.getTopic()).isEqualTo(KafkaProducer.ORDER_CREATED_TOPIC);
+            assertThat(event.getPayload()).contains("\"orderId\":" + order.getId());
+        });
+        // Escribir la orden no envía nada: eso lo hace el relay
+        Mockito.verify(kafkaProducer, never()).send(any(), any(), any());
+    }
+
+    @Test
+    void shouldPublishTheEventsOfEachAggregateInOrder() {
+        OutboxEvent firstOfOne = outboxRepo.save(event(1L));
+        OutboxEvent backedOff = event(2L);
+        backedOff.setNextAttemptAt(Instant.now().plusSeconds(3600));
+        outboxRepo.save(backedOff);
+        OutboxEvent secondOfOne = outboxRepo.save(event(1L));
+        OutboxEvent afterBackedOff = outboxRepo.save(event(2L));
+        OutboxEvent onlyOfThree = outboxRepo.save(event(3L));
+
+        // Primera pasada: el más antiguo de cada agregado; el 2 espera a su evento con backoff
+        relay.drain();
+        relay.drain();
+
+        InOrder sends = Mockito.inOrder(kafkaProducer);
+        sends.verify(kafkaProducer).send(eq(KafkaProducer.ORDER_CREATED_TOPIC), eq("1"), eq(firstOfOne.getPayload()));
+        sends.verify(kafkaProducer).send(eq(KafkaProducer.ORDER_CREATED_TOPIC), eq("3"), any());
+        sends.verify(kafkaProducer).send(eq(KafkaProducer.ORDER_CREATED_TOPIC), eq("1"), eq(secondOfOne.getPayload()));
+        Mockito.verify(kafkaProducer, never()).send(any(), eq("2"), any());
+        assertThat(outboxRepo.findAll()).filteredOn(event -> event.getSentAt() != null)
+            .extracting(OutboxEvent::getId)
+            .containsExactlyInAnyOrder(firstOfOne.getId(), secondOfOne.getId(), onlyOfThree.getId());
+        assertThat(outboxRepo.findById(afterBackedOff.getId()).orElseThrow().getSentAt()).isNull();
+    }
+
+    @Test
+    void shouldPurgeOnlyEventsSentBeforeTheRetention() {
+        OutboxEvent old = event(1L);
+        old.setSentAt(Instant.now().minusSeconds(25 * 3600));
+        old = outboxRepo.save(old);
+        OutboxEvent recent = event(2L);
+        recent.setSentAt(Instant.now());
+        recent = outboxRepo.save(recent);
+        OutboxEvent pending = outboxRepo.save(event(3L));
+
+        relay.purgeSent();
+
+        assertThat(outboxRepo.findAll()).extracting(OutboxEvent::getId)
+            .containsExactlyInAnyOrder(recent.getId(), pending.getId())
+            .doesNotContain(old.getId());
+    }
+
+    private static OrderRequestDto request(Long productId) {
+        OrderRequestDto dto = new OrderRequestDto();
+        dto.setItems(List.of(new OrderItemRequest(productId, 1)));
+        return dto;
+    }
+
+    private static OutboxEvent event(Long orderId) {
+        return new OutboxEvent("order", orderId, KafkaProducer.ORDER_CREATED_TOPIC,
+            "{\"orderId\":" + orderId + ",\"n\":" + System.nanoTime() + "}", Instant.now().minusSeconds(1));
+    }
+}
@@ -0,0 +1,181 @@
+package com.ecommerce.integration;
+
+import com.ecommerce.dto.ExportFormat;
+import com.ecommerce.dto.OrderFilter;
+import com.ecommerce.dto.OrderPage;
+import com.ecommerce.dto.OrderResponseDto;
+import com.ecommerce.model.Order;
+import com.ecommerce.model.OrderItem;
+import com.ecommerce.model.Role;
+import com.ecommerce.model.User;
+import com.ecommerce.repository.OrderRepository;
+import com.ecommerce.repository.RoleRepository;
+import com.ecommerce.repository.UserRepository;
+import com.ecommerce.service.OrderExportService;
+import com.ecommerce.service.OrderService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Order reads must cost the same number of SQL statements whatever the number of orders, lines
+ * and users: Hibernate statistics count the statements prepared by each service call.
+ */
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:orderreads;DB_CLOSE_DELAY=-1",
+    "spring.jpa.properties.hibernate.generate_statistics=true",
+    "spring.jpa.show-sql=false",
+    "logging.level.com.ecommerce=WARN",
+    "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"
+})
+@ActiveProfiles("ci")
+class OrderReadQueryCountTest {
+
+    private static final int USERS = 4;
+    private static final int ORDERS_PER_USER = 6;
+    private static final int ITEMS_PER_ORDER = 3;
+    private static final LocalDateTime FIRST_DAY = LocalDateTime.of(2026, 3, 1, 12, 0);
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderExportService orderExportService;
+
+    @Autowired
+    private OrderRepository orderRepo;
+
+    @Autowired
+    private UserRepository userRepo;
+
+    @Autowired
+    private RoleRepository roleRepo;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final List<User> users = new ArrayList<>();
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        orderRepo.deleteAll();
+        Role role = new Role();
+        role.setName("ORDER_READER_" + System.nanoTime());
+        role = roleRepo.save(role);
+        for (int u = 0; u < USERS; u++) {
+            User user = new User();
+            user.setUsername("reader" + u);
+            user.setEmail("reader" + u + "-" + System.nanoTime() + "@orders.test");
+            user.setPassword("x");
+            user.setRole(role);
+            user = userRepo.save(user);
+            users.add(user);
+            for (int o = 0; o < ORDERS_PER_USER; o++) {
+                Order order = new Order();
+                order.setUser(user);
+                // Un día por orden; estados alternos para los filtros
+                order.setCreatedAt(FIRST_DAY.plusDays(o));
+                order.setStatus(o % 2 == 0 ? "PENDING" : "SHIPPED");
+                order.setTotal(30.0);
+                for (int i = 0; i < ITEMS_PER_ORDER; i++) {
+                    order.getItems().add(new OrderItem((long) i + 1, "Producto " + i, 1, BigDecimal.TEN));
+                }
+                orderRepo.save(order);
+            }
+        }
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void shouldReadEveryPageOfAllOrdersWithTwoStatements() {
+        List<OrderResponseDto> orders = new ArrayList<>();
+        String cursor = null;
+        do {
+            String after = cursor;
+            // Las órdenes de la página y, en una segunda consulta, las líneas de todas ellas
+            OrderPage page = countingStatements(2, () -> orderService.listOrders(OrderFilter.all(null, null, null), after, 5));
+            orders.addAll(page.items());
+            cursor = page.nextCursor();
+        } while (cursor != null);
+
+        assertThat(orders).hasSize(USERS * ORDERS_PER_USER);
+        assertThat(orders).extracting(OrderResponseDto::getId).isSortedAccordingTo(Comparator.reverseOrder());
+        assertThat(orders).allSatisfy(order -> assertThat(order.getItems()).hasSize(ITEMS_PER_ORDER));
+    }
+
+    @Test
+    void shouldReadTheOrdersOfAUserWithOneStatement() {
+        User user = users.get(2);
+
+        List<OrderResponseDto> own = countingStatements(1, () -> orderService.getUserOrders(user));
+        OrderPage byId = countingStatements(2, () -> orderService.listOrders(OrderFilter.ofUser(user.getId(), null, null, null), null, 100));
+
+        assertThat(own).hasSize(ORDERS_PER_USER).allSatisfy(order -> {
+            assertThat(order.getUserId()).isEqualTo(user.getId());
+            assertThat(order.getItems()).hasSize(ITEMS_PER_ORDER);
+        });
+        assertThat(byId.items()).containsExactlyInAnyOrderElementsOf(own);
+        assertThat(byId.nextCursor()).isNull();
+    }
+
+    @Test
+    void shouldFilterByStatusAndCreationRange() {
+        User user = users.get(1);
+        // Días 1 a 3 (to exclusivo): solo la orden del día 2 está PENDING
+        OrderFilter filter = OrderFilter.ofUser(user.getId(), "PENDING", FIRST_DAY.plusDays(1), FIRST_DAY.plusDays(4));
+
+        OrderPage page = orderService.listOrders(filter, null, null);
+
+        assertThat(page.items()).hasSize(1).allSatisfy(order -> {
+            assertThat(order.getStatus()).isEqualTo("PENDING");
+            assertThat(order.getCreatedAt()).isEqualTo(FIRST_DAY.plusDays(2));
+        });
+    }
+
+    @Test
+    void shouldExportEveryMatchingOrderWithOneStatement() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long exported = countingStatements(1, () -> export(OrderFilter.all("SHIPPED", null, null), out));
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(exported).isEqualTo(USERS * ORDERS_PER_USER / 2);
+        assertThat(lines).hasSize(USERS * ORDERS_PER_USER / 2)
+            .allSatisfy(line -> assertThat(line).contains("\"status\":\"SHIPPED\""));
+    }
+
+    private long export(OrderFilter filter, ByteArrayOutputStream out) {
+        try {
+            return orderExportService.export(filter, ExportFormat.NDJSON, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private <T> T countingStatements(int expected, Supplier<T> read) {
+        statistics.clear();
+        T result = read.get();
+        // Sin consultas de usuarios, roles ni líneas por cada orden
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(expected);
+        return result;
+    }
+}
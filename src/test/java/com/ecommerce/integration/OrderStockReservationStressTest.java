@@ -0,0 +1,119 @@
+package com.ecommerce.integration;
+
+import com.ecommerce.dto.OrderRequestDto;
+import com.ecommerce.exception.InsufficientStockException;
+import com.ecommerce.model.Product;
+import com.ecommerce.model.User;
+import com.ecommerce.repository.OrderRepository;
+import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.repository.UserRepository;
+import com.ecommerce.service.OrderService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Many buyers competing for the last units of one product: the conditional UPDATE must never
+ * sell more than the stock, and orders that list the same products in opposite orders (whose rows
+ * are locked in ascending id order before the update) must not
+ * deadlock. Prints the orders per second reached under that contention.
+ */
+@SpringBootTest(properties = {
+    // Base propia; LOCK_TIMEOUT por encima de la espera en cola de las filas más disputadas
+    "spring.datasource.url=jdbc:h2:mem:stockreservation;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000",
+    "spring.jpa.show-sql=false",
+    "logging.level.com.ecommerce=WARN"
+})
+@ActiveProfiles("ci")
+class OrderStockReservationStressTest {
+
+    private static final int THREADS = 16;
+    private static final int ATTEMPTS = 400;
+    private static final int SCARCE_STOCK = 100;
+    private static final int PLENTIFUL_STOCK = 1_000_000;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ProductRepository productRepo;
+
+    @Autowired
+    private OrderRepository orderRepo;
+
+    @Autowired
+    private UserRepository userRepo;
+
+    @Test
+    void shouldNeverOversellUnderContention() throws Exception {
+        User buyer = new User();
+        buyer.setUsername("buyer");
+        buyer.setEmail("buyer@stress.test");
+        buyer.setPassword("x");
+        User user = userRepo.save(buyer);
+        Long scarce = productRepo.save(product("Última unidad", SCARCE_STOCK)).getId();
+        Long plentiful = productRepo.save(product("Siempre hay", PLENTIFUL_STOCK)).getId();
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>(ATTEMPTS);
+        for (int i = 0; i < ATTEMPTS; i++) {
+            // La mitad pide los productos en orden inverso (y dos unidades del abundante)
+            List<Long> productIds = i % 2 == 0 ? List.of(scarce, plentiful) : List.of(plentiful, scarce, plentiful);
+            results.add(pool.submit(() -> {
+                start.await();
+                OrderRequestDto dto = new OrderRequestDto();
+                dto.setProductIds(productIds);
+                try {
+                    orderService.createOrder(user, dto);
+                    return productIds.size() - 1;
+                } catch (InsufficientStockException e) {
+                    return 0;
+                }
+            }));
+        }
+
+        long began = System.nanoTime();
+        start.countDown();
+        int sold = 0;
+        int plentifulSold = 0;
+        for (Future<Integer> result : results) {
+            // Cualquier otra excepción (interbloqueo, timeout de bloqueo) hace fallar el test aquí
+            int units = result.get(60, TimeUnit.SECONDS);
+            if (units > 0) {
+                sold++;
+                plentifulSold += units;
+            }
+        }
+        double seconds = (System.nanoTime() - began) / 1e9;
+        pool.shutdown();
+
+        System.out.printf("%n%d checkouts from %d threads in %.2f s: %.0f orders/s (%d placed, %d rejected for stock)%n",
+            ATTEMPTS, THREADS, seconds, ATTEMPTS / seconds, sold, ATTEMPTS - sold);
+
+        assertThat(sold).isEqualTo(SCARCE_STOCK);
+        assertThat(productRepo.findById(scarce).orElseThrow().getStock()).isZero();
+        assertThat(productRepo.findById(plentiful).orElseThrow().getStock()).isEqualTo(PLENTIFUL_STOCK - plentifulSold);
+        assertThat(orderRepo.findWithItemsByUserId(user.getId())).hasSize(SCARCE_STOCK);
+    }
+
+    private static Product product(String name, int stock) {
+        Product product = new Product();
+        product.setName(name);
+        product.setPrice(new BigDecimal("10.00"));
+        product.setStock(stock);
+        return product;
+    }
+}
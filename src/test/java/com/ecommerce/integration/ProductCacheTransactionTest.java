@@ -0,0 +1,98 @@
+package com.ecommerce.integration;
+
+import com.ecommerce.kafka.KafkaProducer;
+import com.ecommerce.model.Product;
+import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.search.ProductSearchIndex;
+import com.ecommerce.service.ProductCache;
+import com.ecommerce.service.ProductService;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+
+/**
+ * The cache, the Kafka invalidation and the search index only see a product change once its
+ * transaction commits: a rolled-back update leaves all of them as they were.
+ */
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:productcachetx;DB_CLOSE_DELAY=-1",
+    // Con el productor activo ProductCache publica invalidaciones (el broker es un mock)
+    "spring.kafka.producer.enabled=true",
+    "outbox.poll-interval-ms=3600000",
+    "spring.jpa.show-sql=false",
+    "logging.level.com.ecommerce=WARN"
+})
+@ActiveProfiles("ci")
+class ProductCacheTransactionTest {
+
+    @MockBean
+    private KafkaProducer kafkaProducer;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductCache productCache;
+
+    @Autowired
+    private ProductSearchIndex searchIndex;
+
+    @Autowired
+    private ProductRepository productRepo;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void shouldLeaveTheCacheUntouchedWhenTheUpdateRollsBack() {
+        Long id = productRepo.save(product("Lámpara", "10.00")).getId();
+        assertThat(productCache.findById(id).orElseThrow().getPrice()).isEqualByComparingTo("10.00");
+
+        transactionTemplate.executeWithoutResult(status -> {
+            productService.updateProduct(id, product("Farol", "99.00"));
+            // Dentro de la transacción la caché todavía sirve el valor confirmado
+            assertThat(productCache.findById(id).orElseThrow().getPrice()).isEqualByComparingTo("10.00");
+            status.setRollbackOnly();
+        });
+
+        Product cached = productCache.findById(id).orElseThrow();
+        assertThat(cached.getName()).isEqualTo("Lámpara");
+        assertThat(cached.getPrice()).isEqualByComparingTo("10.00");
+        assertThat(productRepo.findById(id).orElseThrow().getPrice()).isEqualByComparingTo("10.00");
+        assertThat(searchIndex.search("farol", 10)).doesNotContain(id);
+        Mockito.verify(kafkaProducer, never()).publishProductInvalidated(any());
+    }
+
+    @Test
+    void shouldApplyTheUpdateOnceItCommits() {
+        Long id = productRepo.save(product("Silla", "20.00")).getId();
+        productCache.findById(id);
+
+        productService.updateProduct(id, product("Taburete", "25.00"));
+
+        Product cached = productCache.findById(id).orElseThrow();
+        assertThat(cached.getName()).isEqualTo("Taburete");
+        assertThat(cached.getPrice()).isEqualByComparingTo("25.00");
+        assertThat(searchIndex.search("taburete", 10)).contains(id);
+        Mockito.verify(kafkaProducer).publishProductInvalidated(
+            Mockito.argThat(event -> event.getProductId().equals(id)));
+    }
+
+    private static Product product(String name, String price) {
+        Product product = new Product();
+        product.setName(name);
+        product.setPrice(new BigDecimal(price));
+        product.setStock(5);
+        return product;
+    }
+}
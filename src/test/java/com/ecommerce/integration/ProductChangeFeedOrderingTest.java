@@ -0,0 +1,124 @@
+package com.ecommerce.integration;
+
+import com.ecommerce.config.ProductChangeBackfill;
+import com.ecommerce.dto.ProductChanges;
+import com.ecommerce.model.Product;
+import com.ecommerce.service.ProductChangeFeed;
+import com.ecommerce.service.ProductService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The product change feed against a real database: products without history are added at
+ * startup, and a change that commits late is never skipped by a client that synced meanwhile.
+ */
+@SpringBootTest(properties = {
+    // LOCK_TIMEOUT: el segundo escritor espera el turno mientras el primero sigue sin confirmar
+    "spring.datasource.url=jdbc:h2:mem:productchangefeed;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000",
+    "spring.jpa.show-sql=false",
+    "logging.level.com.ecommerce=WARN"
+})
+@ActiveProfiles("ci")
+class ProductChangeFeedOrderingTest {
+
+    @Autowired
+    private ProductChangeFeed feed;
+
+    @Autowired
+    private ProductChangeBackfill backfill;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void shouldAddProductsWithoutHistoryToTheFeed() {
+        // Cargados por SQL: no pasan por ProductService y no dejan fila en product_change
+        jdbc.update("INSERT INTO product (id, name, price, stock, version) VALUES (9001, 'Antiguo', 5.00, 1, 0)");
+        jdbc.update("INSERT INTO product (id, name, price, stock, version) VALUES (9002, 'Antiguo 2', 5.00, 1, 0)");
+
+        backfill.backfill();
+        backfill.backfill();
+
+        assertThat(updatedIds(feed.changesSince(null, 1000))).contains(9001L, 9002L);
+        assertThat(jdbc.queryForObject(
+            "SELECT COUNT(*) FROM product_change WHERE product_id IN (9001, 9002)", Integer.class)).isEqualTo(2);
+    }
+
+    @Test
+    void shouldNotMoveATokenPastAChangeThatHasNotCommittedYet() throws Exception {
+        String token = feed.changesSince(null, 1000).token();
+        CountDownLatch firstRecorded = new CountDownLatch(1);
+        CountDownLatch releaseFirst = new CountDownLatch(1);
+
+        // El primero toma su seq y se queda parado antes de confirmar
+        CompletableFuture<Long> first = CompletableFuture.supplyAsync(() -> transactionTemplate.execute(status -> {
+            Long id = productService.createProduct(product("Primero")).getId();
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    firstRecorded.countDown();
+                    await(releaseFirst);
+                }
+            });
+            return id;
+        }));
+        assertThat(firstRecorded.await(10, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<Long> second = CompletableFuture.supplyAsync(
+            () -> productService.createProduct(product("Segundo")).getId());
+
+        // El segundo no puede confirmar con un seq mayor mientras el primero siga en vuelo
+        Thread.sleep(300);
+        assertThat(second).isNotDone();
+        ProductChanges meanwhile = feed.changesSince(token, 1000);
+        assertThat(meanwhile.updated()).isEmpty();
+
+        releaseFirst.countDown();
+        Long firstId = first.get(10, TimeUnit.SECONDS);
+        Long secondId = second.get(10, TimeUnit.SECONDS);
+
+        assertThat(updatedIds(feed.changesSince(meanwhile.token(), 1000))).containsExactly(firstId, secondId);
+    }
+
+    private static List<Long> updatedIds(ProductChanges changes) {
+        List<Long> ids = new ArrayList<>();
+        changes.updated().forEach(product -> ids.add(product.getId()));
+        return ids;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Product product(String name) {
+        Product product = new Product();
+        product.setName(name);
+        product.setPrice(new BigDecimal("10.00"));
+        product.setStock(1);
+        return product;
+    }
+}
@@ -0,0 +1,69 @@
+package com.ecommerce.integration;
+
+import com.ecommerce.dto.ProductPage;
+import com.ecommerce.dto.ProductSummary;
+import com.ecommerce.model.Product;
+import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.service.ProductService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Walks the keyset pages of /api/products over products with a null name or price, against a
+ * real database: every product comes out exactly once, the ones without a key last and by id,
+ * even when a page boundary falls on one of them.
+ */
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:productnullkeys;DB_CLOSE_DELAY=-1",
+    "spring.jpa.show-sql=false",
+    "logging.level.com.ecommerce=WARN"
+})
+@ActiveProfiles("ci")
+class ProductPaginationNullKeyTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepo;
+
+    @Test
+    void shouldVisitEveryProductOnceWhenSortKeysAreNull() {
+        Long cheap = productRepo.save(product("Taza", "2.00")).getId();
+        Long noPrice = productRepo.save(product("Plato", null)).getId();
+        Long dear = productRepo.save(product("Jarra", "8.00")).getId();
+        Long noName = productRepo.save(product(null, "5.00")).getId();
+        Long neither = productRepo.save(product(null, null)).getId();
+
+        // Páginas de 2: la segunda frontera cae sobre un producto sin precio
+        assertThat(walk("price")).containsExactly(cheap, noName, dear, noPrice, neither);
+        assertThat(walk("name")).containsExactly(dear, noPrice, cheap, noName, neither);
+    }
+
+    private List<Long> walk(String sort) {
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        do {
+            ProductPage page = productService.listProducts(cursor, 2, sort);
+            page.items().stream().map(ProductSummary::id).forEach(ids::add);
+            cursor = page.nextCursor();
+        } while (cursor != null);
+        return ids;
+    }
+
+    private static Product product(String name, String price) {
+        Product product = new Product();
+        product.setName(name);
+        product.setPrice(price != null ? new BigDecimal(price) : null);
+        product.setStock(1);
+        return product;
+    }
+}
@@ -0,0 +1,72 @@
+package com.ecommerce.integration;
+
+import com.ecommerce.config.ProductSequenceMigration;
+import com.ecommerce.model.Product;
+import com.ecommerce.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A database whose products predate product_seq: ddl-auto leaves the sequence at 1 (or it is
+ * missing), and the startup migration moves it past the existing ids so new inserts do not collide.
+ */
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:productsequencemigration;DB_CLOSE_DELAY=-1",
+    "spring.jpa.show-sql=false",
+    "logging.level.com.ecommerce=WARN"
+})
+@ActiveProfiles("ci")
+class ProductSequenceMigrationTest {
+
+    @Autowired
+    private ProductSequenceMigration migration;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private ProductRepository productRepo;
+
+    @Test
+    void shouldMoveTheSequencePastExistingIdsAndCreateItWhenMissing() {
+        // Filas creadas antes de la secuencia (SERIAL), y la secuencia recién creada por ddl-auto
+        jdbc.update("INSERT INTO product (id, name, price, stock, version) VALUES (1000, 'Antiguo', 5.00, 1, 0)");
+        jdbc.update("INSERT INTO product (id, name, price, stock, version) VALUES (1001, 'Antiguo 2', 5.00, 1, 0)");
+        jdbc.execute("ALTER SEQUENCE product_seq RESTART WITH 1");
+
+        migration.migrate();
+
+        Product saved = productRepo.save(product("Nuevo"));
+        assertThat(saved.getId()).isGreaterThan(1001L);
+        assertThat(productRepo.count()).isEqualTo(3);
+
+        // Sin secuencia (ddl-auto desactivado): se crea ya por delante de los ids
+        jdbc.update("INSERT INTO product (id, name, price, stock, version) VALUES (5000, 'Importado', 5.00, 1, 0)");
+        jdbc.execute("DROP SEQUENCE product_seq");
+
+        migration.migrate();
+
+        assertThat(jdbc.queryForObject("SELECT NEXT VALUE FOR product_seq", Long.class))
+            .isGreaterThanOrEqualTo(5000L + Product.ID_ALLOCATION_SIZE);
+
+        // Un segundo arranque con la secuencia ya adelantada no la mueve hacia atrás
+        long before = jdbc.queryForObject("SELECT NEXT VALUE FOR product_seq", Long.class);
+        migration.migrate();
+        assertThat(jdbc.queryForObject("SELECT NEXT VALUE FOR product_seq", Long.class)).isGreaterThan(before);
+    }
+
+    private static Product product(String name) {
+        Product product = new Product();
+        product.setName(name);
+        product.setPrice(new BigDecimal("10.00"));
+        product.setStock(1);
+        return product;
+    }
+}
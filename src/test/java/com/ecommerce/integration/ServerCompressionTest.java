@@ -0,0 +1,106 @@
+package com.ecommerce.integration;
+
+import com.ecommerce.model.Product;
+import com.ecommerce.model.User;
+import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.boot.web.embedded.tomcat.TomcatWebServer;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the embedded container the application ships with (Tomcat) on a random port: responses
+ * over {@code server.compression.min-response-size} are gzipped for clients that accept it, and
+ * the ETag of a compressed response still answers a conditional GET with 304.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "spring.datasource.url=jdbc:h2:mem:servercompression;DB_CLOSE_DELAY=-1",
+    "spring.jpa.show-sql=false",
+    "logging.level.com.ecommerce=WARN"
+})
+@ActiveProfiles("ci")
+class ServerCompressionTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ServletWebServerApplicationContext context;
+
+    @Autowired
+    private ProductRepository productRepo;
+
+    @Autowired
+    private UserRepository userRepo;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    // HttpClient no descomprime: se ve la respuesta tal como la envía el contenedor
+    private final HttpClient http = HttpClient.newHttpClient();
+
+    @Test
+    void shouldGzipLargeResponsesOnTheShippedContainer() throws Exception {
+        assertThat(context.getWebServer()).isInstanceOf(TomcatWebServer.class);
+        User user = new User();
+        user.setUsername("gzip");
+        user.setEmail("gzip@compression.test");
+        user.setPassword(passwordEncoder.encode("secret"));
+        userRepo.save(user);
+        for (int i = 0; i < 40; i++) {
+            Product product = new Product();
+            product.setName("Producto comprimible " + i);
+            product.setPrice(new BigDecimal("19.99"));
+            product.setStock(5);
+            productRepo.save(product);
+        }
+
+        HttpResponse<byte[]> compressed = get("gzip", null);
+
+        assertThat(compressed.statusCode()).isEqualTo(200);
+        assertThat(compressed.headers().firstValue("Content-Encoding")).hasValue("gzip");
+        assertThat(gunzip(compressed.body())).contains("Producto comprimible 39");
+
+        String eTag = compressed.headers().firstValue("ETag").orElseThrow();
+        assertThat(get("gzip", eTag).statusCode()).isEqualTo(304);
+
+        HttpResponse<byte[]> plain = get("identity", null);
+        assertThat(plain.headers().firstValue("Content-Encoding")).isEmpty();
+        assertThat(new String(plain.body(), StandardCharsets.UTF_8)).contains("Producto comprimible 39");
+    }
+
+    private HttpResponse<byte[]> get(String acceptEncoding, String ifNoneMatch) throws Exception {
+        String credentials = Base64.getEncoder().encodeToString("gzip@compression.test:secret".getBytes(StandardCharsets.UTF_8));
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/products?limit=40"))
+            .header("Authorization", "Basic " + credentials)
+            .header("Accept-Encoding", acceptEncoding);
+        if (ifNoneMatch != null) {
+            request.header("If-None-Match", ifNoneMatch);
+        }
+        return http.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private static String gunzip(byte[] body) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.ecommerce.integration;
+
+import com.ecommerce.model.Product;
+import com.ecommerce.model.User;
+import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.repository.UserRepository;
+import com.ecommerce.service.ProductService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * reserveStock joins the caller's transaction: the reserved products come back with the new
+ * stock, and everything else the caller had loaded stays managed.
+ */
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:stockreservationtx;DB_CLOSE_DELAY=-1",
+    "spring.jpa.show-sql=false",
+    "logging.level.com.ecommerce=WARN"
+})
+@ActiveProfiles("ci")
+class StockReservationTransactionTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepo;
+
+    @Autowired
+    private UserRepository userRepo;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void shouldKeepTheCallersEntitiesManagedAndReturnTheNewStock() {
+        User buyer = new User();
+        buyer.setUsername("antes");
+        buyer.setEmail("buyer@reserve.test");
+        buyer.setPassword("x");
+        Long userId = userRepo.save(buyer).getId();
+        Long productId = productRepo.save(product(5)).getId();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            User user = userRepo.findById(userId).orElseThrow();
+            Product before = productRepo.findById(productId).orElseThrow();
+
+            List<Product> reserved = productService.reserveStock(new TreeMap<>(Map.of(productId, 2)));
+
+            assertThat(reserved).singleElement().extracting(Product::getStock).isEqualTo(3);
+            assertThat(entityManager.contains(user)).isTrue();
+            assertThat(entityManager.contains(before)).isFalse();
+            // Sigue gestionado: el cambio se guarda al confirmar sin llamar a save
+            user.setUsername("después");
+        });
+
+        assertThat(userRepo.findById(userId).orElseThrow().getUsername()).isEqualTo("después");
+        assertThat(productRepo.findById(productId).orElseThrow().getStock()).isEqualTo(3);
+    }
+
+    private static Product product(int stock) {
+        Product product = new Product();
+        product.setName("Banco");
+        product.setPrice(new BigDecimal("30.00"));
+        product.setStock(stock);
+        return product;
+    }
+}
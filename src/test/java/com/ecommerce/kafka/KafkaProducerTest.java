@@ -91,4 +91,24 @@ class KafkaProducerTest {
 
         verify(kafkaTemplate).send("order.created", "null");
     }
+
+    @Test
+    void shouldPublishProductInvalidationKeyedByProductId() throws JsonProcessingException {
+        ProductInvalidationEvent invalidation = new ProductInvalidationEvent();
+        invalidation.setProductId(42L);
+        invalidation.setOrigin("replica-a");
+        when(objectMapper.writeValueAsString(invalidation)).thenReturn("{\"productId\":42}");
+
+        kafkaProducer.publishProductInvalidated(invalidation);
+
+        verify(kafkaTemplate).send("product.invalidated", "42", "{\"productId\":42}");
+    }
+
+    @Test
+    void shouldSendOutboxPayloadsAsTheyAreWithTheirKey() {
+        kafkaProducer.send("order.created", "7", "{\"orderId\":7}");
+
+        verify(kafkaTemplate).send("order.created", "7", "{\"orderId\":7}");
+        verifyNoInteractions(objectMapper);
+    }
 }
@@ -0,0 +1,49 @@
+package com.ecommerce.kafka;
+
+import com.ecommerce.service.ProductCache;
+import com.ecommerce.service.ProductService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ProductInvalidationListenerTest {
+
+    private ProductCache productCache;
+    private ProductService productService;
+    private ProductInvalidationListener listener;
+
+    @BeforeEach
+    void setUp() {
+        productCache = Mockito.mock(ProductCache.class);
+        productService = Mockito.mock(ProductService.class);
+        when(productCache.instanceId()).thenReturn("self");
+        listener = new ProductInvalidationListener(new ObjectMapper(), productCache, productService);
+    }
+
+    @Test
+    void shouldReloadProductsChangedOnOtherReplicas() {
+        listener.handleProductInvalidated("{\"productId\":7,\"origin\":\"other\",\"timestamp\":1}");
+
+        verify(productService).applyRemoteChange(7L);
+    }
+
+    @Test
+    void shouldIgnoreOwnInvalidations() {
+        listener.handleProductInvalidated("{\"productId\":7,\"origin\":\"self\",\"timestamp\":1}");
+
+        verify(productService, never()).applyRemoteChange(any());
+    }
+
+    @Test
+    void shouldSurviveMalformedMessages() {
+        assertThatCode(() -> listener.handleProductInvalidated("not json")).doesNotThrowAnyException();
+        verify(productService, never()).applyRemoteChange(any());
+    }
+}
@@ -0,0 +1,134 @@
+package com.ecommerce.search;
+
+import com.ecommerce.model.Product;
+import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.service.ProductChangedEvent;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ProductSearchIndexTest {
+
+    private ProductRepository productRepo;
+    private EntityManager entityManager;
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        productRepo = Mockito.mock(ProductRepository.class);
+        entityManager = Mockito.mock(EntityManager.class);
+        index = new ProductSearchIndex(productRepo, entityManager);
+    }
+
+    @Test
+    void shouldMatchIgnoringCaseAndAccents() {
+        index.put(product(1L, "Canapé de ROBLE", "Cama con canapé abatible"));
+
+        assertThat(index.search("canape", 10)).containsExactly(1L);
+        assertThat(index.search("CANAPÉ roble", 10)).containsExactly(1L);
+        assertThat(index.search("abatíble", 10)).containsExactly(1L);
+    }
+
+    @Test
+    void shouldMatchFragmentsAndTwoLetterPrefixes() {
+        index.put(product(1L, "Mesa extensible", null));
+        index.put(product(2L, "Sobremesa", null));
+
+        assertThat(index.search("tensib", 10)).containsExactly(1L);
+        assertThat(index.search("mes", 10)).containsExactly(1L, 2L);
+        assertThat(index.search("me", 10)).containsExactly(1L);
+        assertThat(index.search("x", 10)).isEmpty();
+    }
+
+    @Test
+    void shouldRequireEveryTermAndRankNameAboveDescription() {
+        index.put(product(1L, "Silla", "Silla de madera para mesa de comedor"));
+        index.put(product(2L, "Mesa de comedor", "Madera de roble"));
+        index.put(product(3L, "Mesa de cocina", "Blanca"));
+
+        assertThat(index.search("mesa comedor", 10)).containsExactly(2L, 1L);
+        assertThat(index.search("mesa", 10)).containsExactly(2L, 3L, 1L);
+        assertThat(index.search("mesa roble cocina", 10)).isEmpty();
+    }
+
+    @Test
+    void shouldRankWholeTokenAboveFragmentAndHonourLimit() {
+        index.put(product(1L, "Sobremesa", null));
+        index.put(product(2L, "Mesa", null));
+        index.put(product(3L, "Mesa", "mesa"));
+
+        assertThat(index.search("mesa", 10)).containsExactly(3L, 2L, 1L);
+        assertThat(index.search("mesa", 2)).containsExactly(3L, 2L);
+        assertThat(index.search("mesa", 0)).isEmpty();
+        assertThat(index.search("  ,; ", 10)).isEmpty();
+    }
+
+    @Test
+    void shouldReplaceAndRemoveProductsIncrementally() {
+        index.put(product(1L, "Lámpara", null));
+        index.put(product(2L, "Alfombra", null));
+
+        index.onProductChanged(ProductChangedEvent.saved(product(1L, "Flexo", null)));
+        assertThat(index.search("lampara", 10)).isEmpty();
+        assertThat(index.search("flexo", 10)).containsExactly(1L);
+
+        index.onProductChanged(ProductChangedEvent.deleted(2L));
+        assertThat(index.search("alfombra", 10)).isEmpty();
+        assertThat(index.size()).isEqualTo(1);
+
+        // El hueco del producto borrado se reutiliza
+        index.put(product(3L, "Alfombra", null));
+        assertThat(index.search("alfombra", 10)).containsExactly(3L);
+        assertThat(index.search("alf", 10)).containsExactly(3L);
+    }
+
+    @Test
+    void shouldReindexOnlyTheTokensThatChange() {
+        index.put(product(1L, "Mesa roble", "Para comedor"));
+        index.put(product(2L, "Silla comedor", "Roble macizo"));
+        assertThat(index.search("roble", 10)).containsExactly(1L, 2L);
+
+        // roble pasa del nombre a la descripción y comedor al revés; mesa sigue igual
+        index.put(product(1L, "Mesa comedor", "Roble"));
+        assertThat(index.search("comedor", 10)).containsExactly(1L, 2L);
+        assertThat(index.search("roble", 10)).containsExactly(1L, 2L);
+        assertThat(index.search("mes", 10)).containsExactly(1L);
+        assertThat(index.search("para", 10)).isEmpty();
+
+        index.put(product(2L, "Silla comedor", "Haya"));
+        assertThat(index.search("robl", 10)).containsExactly(1L);
+        assertThat(index.search("haya", 10)).containsExactly(2L);
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldLoadCatalogAndDetachEachProduct() {
+        Product mesa = product(1L, "Mesa", null);
+        Product silla = product(2L, "Silla", null);
+        index.put(product(9L, "Obsoleto", null));
+        when(productRepo.streamAllByOrderById()).thenReturn(Stream.of(mesa, silla));
+
+        index.load();
+
+        assertThat(index.size()).isEqualTo(2);
+        assertThat(index.search("obsoleto", 10)).isEmpty();
+        assertThat(index.search("silla", 10)).containsExactly(2L);
+        verify(entityManager).detach(mesa);
+        verify(entityManager).detach(silla);
+    }
+
+    private static Product product(Long id, String name, String description) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName(name);
+        product.setDescription(description);
+        return product;
+    }
+}
@@ -0,0 +1,86 @@
+package com.ecommerce.search;
+
+import com.ecommerce.dto.ProductSuggestion;
+import com.ecommerce.model.Product;
+import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.service.ProductChangedEvent;
+import jakarta.persistence.EntityManager;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Suggestion lookups over one million generated product names, for prefixes from one letter
+ * (hundreds of thousands of matches) to a nearly complete name, with a thousand pending changes
+ * in the overlay. Setup prints the table footprint and the retained heap of the whole suggester.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ProductSuggesterBenchmark {
+
+    private static final String[] NOUNS = {"mesa", "silla", "sofa", "lampara", "estanteria", "alfombra",
+        "cojin", "espejo", "armario", "cama", "escritorio", "taburete", "perchero", "comoda", "vitrina"};
+    private static final String[] ADJECTIVES = {"roble", "nogal", "blanco", "negro", "industrial", "nordica",
+        "vintage", "plegable", "extensible", "tapizado", "lacado", "rustico", "moderno", "infantil"};
+
+    @Param({"m", "mes", "mesa rob", "mesa roble 12"})
+    public String prefix;
+
+    private ProductSuggester suggester;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        // Generados al vuelo, como los leería el cursor: la medida de heap solo incluye el suggester
+        ProductRepository repo = Mockito.mock(ProductRepository.class);
+        Mockito.when(repo.streamAllByOrderById()).thenReturn(IntStream.range(0, 1_000_000)
+            .mapToObj(i -> product(i + 1L, NOUNS[random.nextInt(NOUNS.length)] + " "
+                + ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " " + random.nextInt(100_000), random.nextInt(500))));
+
+        long before = usedHeapAfterGc();
+        suggester = new ProductSuggester(repo, Mockito.mock(EntityManager.class, Mockito.withSettings().stubOnly()), 10, 50);
+        suggester.load();
+        for (int i = 0; i < 1000; i++) {
+            suggester.onProductChanged(ProductChangedEvent.saved(
+                product(random.nextInt(1_000_000) + 1L, "mesa roble " + i, random.nextInt(500))));
+        }
+        System.out.printf("%nsuggester retained heap: %d MB%n", (usedHeapAfterGc() - before) / (1024 * 1024));
+    }
+
+    @Benchmark
+    public List<ProductSuggestion> suggest() {
+        return suggester.suggest(prefix, 10);
+    }
+
+    private static long usedHeapAfterGc() {
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private static Product product(Long id, String name, int stock) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName(name);
+        product.setStock(stock);
+        return product;
+    }
+}
@@ -0,0 +1,101 @@
+package com.ecommerce.search;
+
+import com.ecommerce.dto.ProductSuggestion;
+import com.ecommerce.model.Product;
+import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.service.ProductChangedEvent;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ProductSuggesterTest {
+
+    private ProductRepository productRepo;
+    private EntityManager entityManager;
+    private ProductSuggester suggester;
+
+    @BeforeEach
+    void setUp() {
+        productRepo = Mockito.mock(ProductRepository.class);
+        entityManager = Mockito.mock(EntityManager.class);
+        suggester = new ProductSuggester(productRepo, entityManager, 3, 5);
+    }
+
+    @Test
+    void shouldSuggestByPrefixWithMostStockFirst() {
+        Product mesa = product(1L, "Mesa de roble", 5);
+        load(mesa, product(2L, "Mesita de noche", 40), product(3L, "Mesa plegable", 5),
+            product(4L, "Silla", 100), product(5L, "Mesón", 1));
+
+        assertThat(ids(suggester.suggest("mes", null))).containsExactly(2L, 1L, 3L);
+        assertThat(ids(suggester.suggest("MESA ", 10))).containsExactly(1L, 3L);
+        assertThat(ids(suggester.suggest("mesa de r", 10))).containsExactly(1L);
+        assertThat(ids(suggester.suggest("meso", 10))).containsExactly(5L);
+        assertThat(suggester.suggest("x", 10)).isEmpty();
+        assertThat(suggester.suggest(" ", 10)).isEmpty();
+        assertThat(suggester.suggest("m", 10)).hasSize(4);
+        verify(entityManager).detach(mesa);
+    }
+
+    @Test
+    void shouldApplyChangesBeforeAndAfterCompaction() {
+        load(product(1L, "Lámpara", 1), product(2L, "Lamparita", 2), product(3L, "Alfombra", 9));
+
+        suggester.onProductChanged(ProductChangedEvent.saved(product(1L, "Lámpara de pie", 50)));
+        suggester.onProductChanged(ProductChangedEvent.deleted(2L));
+        suggester.onProductChanged(ProductChangedEvent.saved(product(4L, "Lamas", 3)));
+        List<ProductSuggestion> pending = suggester.suggest("lam", 10);
+
+        suggester.compact();
+
+        assertThat(pending).containsExactly(
+            new ProductSuggestion(1L, "Lámpara de pie"), new ProductSuggestion(4L, "Lamas"));
+        assertThat(suggester.suggest("lam", 10)).isEqualTo(pending);
+        assertThat(ids(suggester.suggest("a", 10))).containsExactly(3L);
+
+        suggester.onProductChanged(ProductChangedEvent.saved(product(3L, "Tapiz", 9)));
+        assertThat(suggester.suggest("alf", 10)).isEmpty();
+        suggester.compact();
+        assertThat(ids(suggester.suggest("tap", 10))).containsExactly(3L);
+    }
+
+    @Test
+    void shouldReturnTopRowsOfLargeRangesInWeightOrder() {
+        Product[] products = new Product[2000];
+        for (int i = 0; i < products.length; i++) {
+            products[i] = product((long) i + 1, "Producto " + i, (i * 7919) % 1000);
+        }
+        load(products);
+
+        List<ProductSuggestion> top = suggester.suggest("producto", 5);
+
+        // Peso 999 para i = 321 y 1321, 998 para 642 y 1642, 997 para 963 y 1963; a igual peso, clave menor
+        assertThat(top).extracting(ProductSuggestion::name)
+            .containsExactly("Producto 1321", "Producto 321", "Producto 1642", "Producto 642", "Producto 1963");
+    }
+
+    private void load(Product... products) {
+        when(productRepo.streamAllByOrderById()).thenReturn(Stream.of(products));
+        suggester.load();
+    }
+
+    private static List<Long> ids(List<ProductSuggestion> suggestions) {
+        return suggestions.stream().map(ProductSuggestion::id).toList();
+    }
+
+    private static Product product(Long id, String name, int stock) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName(name);
+        product.setStock(stock);
+        return product;
+    }
+}
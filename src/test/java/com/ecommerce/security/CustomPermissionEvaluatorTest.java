@@ -8,11 +8,11 @@ import com.ecommerce.repository.RoleRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.core.Authentication;
 
+import java.util.List;
 import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -30,7 +30,6 @@ class CustomPermissionEvaluatorTest {
     @Mock
     private Authentication authentication;
 
-    @InjectMocks
     private CustomPermissionEvaluator evaluator;
 
     private User testUser;
@@ -50,6 +49,15 @@ class CustomPermissionEvaluatorTest {
         role.setName("ADMIN");
         role.setPermissions(Set.of(perm1, perm2));
 
+        Role guest = new Role();
+        guest.setId(2L);
+        guest.setName("GUEST");
+        guest.setPermissions(Set.of());
+
+        PermissionIndex permissionIndex = new PermissionIndex();
+        permissionIndex.rebuild(List.of(perm1, perm2), List.of(role, guest));
+        evaluator = new CustomPermissionEvaluator(permissionIndex);
+
         testUser = new User();
         testUser.setId(1L);
         testUser.setEmail("admin@example.com");
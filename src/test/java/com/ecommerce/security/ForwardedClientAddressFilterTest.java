@@ -0,0 +1,43 @@
+package com.ecommerce.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ForwardedClientAddressFilterTest {
+
+    private final ForwardedClientAddressFilter filter =
+        new ForwardedClientAddressFilter(List.of("10.0.0.0/8", "192.168.1.10", "fd00::/8"));
+
+    @Test
+    void shouldTakeTheFirstUntrustedHopFromTheRight() {
+        assertThat(filter.clientAddress("10.0.0.5", "203.0.113.7")).isEqualTo("203.0.113.7");
+        assertThat(filter.clientAddress("10.0.0.5", "198.51.100.1, 203.0.113.7, 192.168.1.10")).isEqualTo("203.0.113.7");
+        assertThat(filter.clientAddress("fd00::1", "2001:db8::7")).isEqualTo("2001:db8::7");
+    }
+
+    @Test
+    void shouldIgnoreTheHeaderFromUntrustedPeers() {
+        assertThat(filter.clientAddress("203.0.113.7", "10.0.0.1")).isEqualTo("203.0.113.7");
+        assertThat(filter.clientAddress("192.168.1.11", "198.51.100.1")).isEqualTo("192.168.1.11");
+    }
+
+    @Test
+    void shouldStopAtValuesThatAreNotAddresses() {
+        // Nada que no sea un literal IP llega a InetAddress (sin resoluciones DNS)
+        assertThat(filter.clientAddress("10.0.0.5", "evil.example.com, 10.0.0.9")).isEqualTo("10.0.0.9");
+        assertThat(filter.clientAddress("10.0.0.5", "unknown")).isEqualTo("10.0.0.5");
+        assertThat(filter.clientAddress("10.0.0.5", null)).isEqualTo("10.0.0.5");
+    }
+
+    @Test
+    void shouldRejectInvalidTrustedProxies() {
+        assertThatThrownBy(() -> new ForwardedClientAddressFilter(List.of("proxy.internal")))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new ForwardedClientAddressFilter(List.of("10.0.0.0/40")))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
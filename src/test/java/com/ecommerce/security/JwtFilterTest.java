@@ -1,7 +1,11 @@
 package com.ecommerce.security;
 
+import com.ecommerce.model.Permission;
+import com.ecommerce.model.Role;
 import com.ecommerce.model.User;
+import com.ecommerce.repository.RoleRepository;
 import com.ecommerce.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -15,7 +19,10 @@ import org.mockito.quality.Strictness;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 
+import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
@@ -28,6 +35,9 @@ class JwtFilterTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private RoleRepository roleRepository;
+
     @Mock
     private HttpServletRequest request;
 
@@ -38,10 +48,15 @@ class JwtFilterTest {
     private FilterChain filterChain;
 
     private JwtFilter jwtFilter;
+    private RoleEpochs roleEpochs;
+    private UserSecurityStamps userStamps;
 
     @BeforeEach
     void setUp() {
-        jwtFilter = new JwtFilter(userRepository);
+        roleEpochs = new RoleEpochs(roleRepository, event -> { });
+        userStamps = new UserSecurityStamps(userRepository);
+        userStamps.refresh();
+        jwtFilter = new JwtFilter(userRepository, new VerifiedTokenCache(false, 0, new SimpleMeterRegistry()), roleEpochs, userStamps, false);
         SecurityContextHolder.clearContext();
     }
 
@@ -81,7 +96,7 @@ class JwtFilterTest {
     void shouldHaveConstructorWithDependencies() {
         UserRepository mockRepo = mock(UserRepository.class);
         JwtUtil mockJwtUtil = mock(JwtUtil.class);
-        JwtFilter filter = new JwtFilter(mockRepo);
+        JwtFilter filter = new JwtFilter(mockRepo, mock(VerifiedTokenCache.class), mock(RoleEpochs.class), mock(UserSecurityStamps.class), false);
         assertThat(filter).isNotNull();
     }
 
@@ -96,4 +111,192 @@ class JwtFilterTest {
         verify(request, never()).getHeader("Authorization");
         assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
     }
+
+    @Test
+    void shouldNotBypassJwtValidationForMetricsEndpoint() throws Exception {
+        when(request.getRequestURI()).thenReturn("/actuator/metrics");
+
+        jwtFilter.doFilterInternal(request, response, filterChain);
+
+        verify(filterChain).doFilter(request, response);
+        // metrics is protected by READ_STATISTICS, so the bearer token must still be read
+        verify(request).getHeader("Authorization");
+    }
+
+    @Test
+    void shouldAuthenticateWithValidToken() throws Exception {
+        Role role = new Role();
+        role.setName("USER");
+        role.setPermissions(new HashSet<>());
+        User user = new User();
+        user.setEmail("test@example.com");
+        user.setRole(role);
+
+        when(request.getRequestURI()).thenReturn("/api/orders");
+        when(request.getHeader("Authorization")).thenReturn("Bearer " + JwtUtil.generateToken(user));
+        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(user));
+
+        jwtFilter.doFilterInternal(request, response, filterChain);
+
+        verify(filterChain).doFilter(request, response);
+        verify(userRepository, times(1)).findByEmail("test@example.com");
+        assertThat(SecurityContextHolder.getContext().getAuthentication().getPrincipal()).isSameAs(user);
+    }
+
+    @Test
+    void shouldNotAuthenticateWhenRoleChanged() throws Exception {
+        Role tokenRole = new Role();
+        tokenRole.setName("ADMIN");
+        tokenRole.setPermissions(new HashSet<>());
+        User tokenUser = new User();
+        tokenUser.setEmail("test@example.com");
+        tokenUser.setRole(tokenRole);
+
+        Role currentRole = new Role();
+        currentRole.setName("USER");
+        currentRole.setPermissions(new HashSet<>());
+        User currentUser = new User();
+        currentUser.setEmail("test@example.com");
+        currentUser.setRole(currentRole);
+
+        when(request.getRequestURI()).thenReturn("/api/orders");
+        when(request.getHeader("Authorization")).thenReturn("Bearer " + JwtUtil.generateToken(tokenUser));
+        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(currentUser));
+
+        jwtFilter.doFilterInternal(request, response, filterChain);
+
+        verify(filterChain).doFilter(request, response);
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+    }
+
+    @Test
+    void shouldServeRepeatedTokenFromCache() throws Exception {
+        VerifiedTokenCache cache = new VerifiedTokenCache(true, 100, new SimpleMeterRegistry());
+        JwtFilter cachingFilter = new JwtFilter(userRepository, cache, roleEpochs, userStamps, false);
+
+        Role role = new Role();
+        role.setName("USER");
+        role.setPermissions(new HashSet<>());
+        User user = new User();
+        user.setEmail("test@example.com");
+        user.setRole(role);
+
+        when(request.getRequestURI()).thenReturn("/api/orders");
+        when(request.getHeader("Authorization")).thenReturn("Bearer " + JwtUtil.generateToken(user));
+        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(user));
+
+        cachingFilter.doFilterInternal(request, response, filterChain);
+        SecurityContextHolder.clearContext();
+        cachingFilter.doFilterInternal(request, response, filterChain);
+
+        assertThat(cache.stats().missCount()).isEqualTo(1);
+        assertThat(cache.stats().hitCount()).isEqualTo(1);
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNotNull();
+    }
+
+    @Test
+    void shouldBuildPrincipalFromClaimsWithoutDatabaseInStatelessMode() throws Exception {
+        when(roleRepository.findAllEpochs()).thenReturn(List.of(epochView("USER", 2L)));
+        roleEpochs.refresh();
+        JwtFilter statelessFilter = new JwtFilter(userRepository, new VerifiedTokenCache(false, 0, new SimpleMeterRegistry()), roleEpochs, userStamps, true);
+
+        User user = userWithRole(7L, "USER", 2L, "CREATE_ORDERS");
+        when(request.getRequestURI()).thenReturn("/api/orders");
+        when(request.getHeader("Authorization")).thenReturn("Bearer " + JwtUtil.generateToken(user));
+
+        statelessFilter.doFilterInternal(request, response, filterChain);
+
+        verify(userRepository, never()).findByEmail(any());
+        User principal = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        assertThat(principal.getId()).isEqualTo(7L);
+        assertThat(principal.getEmail()).isEqualTo("test@example.com");
+        assertThat(SecurityContextHolder.getContext().getAuthentication().getAuthorities())
+            .extracting("authority").containsExactly("CREATE_ORDERS");
+    }
+
+    @Test
+    void shouldFallBackToDatabaseWhenRoleEpochIsStale() throws Exception {
+        when(roleRepository.findAllEpochs()).thenReturn(List.of(epochView("USER", 3L)));
+        roleEpochs.refresh();
+        JwtFilter statelessFilter = new JwtFilter(userRepository, new VerifiedTokenCache(false, 0, new SimpleMeterRegistry()), roleEpochs, userStamps, true);
+
+        User tokenUser = userWithRole(7L, "USER", 2L, "CREATE_ORDERS");
+        User currentUser = userWithRole(7L, "USER", 3L);
+        when(request.getRequestURI()).thenReturn("/api/orders");
+        when(request.getHeader("Authorization")).thenReturn("Bearer " + JwtUtil.generateToken(tokenUser));
+        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(currentUser));
+
+        statelessFilter.doFilterInternal(request, response, filterChain);
+
+        verify(userRepository).findByEmail("test@example.com");
+        assertThat(SecurityContextHolder.getContext().getAuthentication().getPrincipal()).isSameAs(currentUser);
+        assertThat(SecurityContextHolder.getContext().getAuthentication().getAuthorities()).isEmpty();
+    }
+
+    @Test
+    void shouldFallBackToDatabaseWhenUserWasGivenAnotherRole() throws Exception {
+        when(roleRepository.findAllEpochs()).thenReturn(List.of(epochView("USER", 0L), epochView("ADMIN", 0L)));
+        roleEpochs.refresh();
+        JwtFilter statelessFilter = new JwtFilter(userRepository, new VerifiedTokenCache(false, 0, new SimpleMeterRegistry()), roleEpochs, userStamps, true);
+
+        // Token emitido como ADMIN; después el usuario pasa a USER (el sello sube, las épocas de rol no)
+        User tokenUser = userWithRole(7L, "ADMIN", 0L, "READ_USERS");
+        String token = JwtUtil.generateToken(tokenUser);
+        User currentUser = userWithRole(7L, "USER", 0L);
+        currentUser.rotateSecurityStamp();
+        when(userRepository.findSecurityStampsChangedSince(any())).thenReturn(List.of(stampView(7L, 1L)));
+        userStamps.refresh();
+        when(request.getRequestURI()).thenReturn("/api/orders");
+        when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
+        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(currentUser));
+
+        statelessFilter.doFilterInternal(request, response, filterChain);
+
+        verify(userRepository).findByEmail("test@example.com");
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+
+        // Los tokens de otros usuarios del mismo rol siguen sin consultar la base de datos
+        SecurityContextHolder.clearContext();
+        User otherUser = userWithRole(8L, "ADMIN", 0L, "READ_USERS");
+        otherUser.setEmail("other@example.com");
+        when(request.getHeader("Authorization")).thenReturn("Bearer " + JwtUtil.generateToken(otherUser));
+
+        statelessFilter.doFilterInternal(request, response, filterChain);
+
+        verify(userRepository, never()).findByEmail("other@example.com");
+        assertThat(SecurityContextHolder.getContext().getAuthentication().getAuthorities())
+            .extracting("authority").containsExactly("READ_USERS");
+    }
+
+    private static User userWithRole(Long id, String roleName, long epoch, String... permissionNames) {
+        Set<Permission> permissions = new HashSet<>();
+        for (String name : permissionNames) {
+            Permission permission = new Permission();
+            permission.setName(name);
+            permissions.add(permission);
+        }
+        Role role = new Role();
+        role.setName(roleName);
+        role.setEpoch(epoch);
+        role.setPermissions(permissions);
+        User user = new User();
+        user.setId(id);
+        user.setEmail("test@example.com");
+        user.setRole(role);
+        return user;
+    }
+
+    private static UserRepository.SecurityStampView stampView(Long id, Long stamp) {
+        return new UserRepository.SecurityStampView() {
+            @Override public Long getId() { return id; }
+            @Override public Long getStamp() { return stamp; }
+        };
+    }
+
+    private static RoleRepository.RoleEpochView epochView(String name, Long epoch) {
+        return new RoleRepository.RoleEpochView() {
+            @Override public String getName() { return name; }
+            @Override public Long getEpoch() { return epoch; }
+        };
+    }
 }
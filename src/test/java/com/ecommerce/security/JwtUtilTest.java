@@ -5,6 +5,7 @@ import com.ecommerce.model.Role;
 import com.ecommerce.model.User;
 import org.junit.jupiter.api.Test;
 
+import java.time.Instant;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -134,6 +135,28 @@ class JwtUtilTest {
         assertThat(isValid).isTrue();
     }
 
+    @Test
+    void shouldGiveEveryRefreshTokenItsOwnId() {
+        User user = new User();
+        user.setEmail("test@example.com");
+
+        RefreshTokenClaims first = JwtUtil.parseRefreshToken(JwtUtil.generateRefreshToken(user)).orElseThrow();
+        RefreshTokenClaims second = JwtUtil.parseRefreshToken(JwtUtil.generateRefreshToken(user)).orElseThrow();
+
+        assertThat(first.subject()).isEqualTo("test@example.com");
+        assertThat(first.tokenId()).isNotBlank().isNotEqualTo(second.tokenId());
+        assertThat(first.expiresAt()).isAfter(Instant.now());
+    }
+
+    @Test
+    void shouldNotParseAccessTokenAsRefreshToken() {
+        User user = new User();
+        user.setEmail("test@example.com");
+
+        assertThat(JwtUtil.parseRefreshToken(JwtUtil.generateToken(user))).isEmpty();
+        assertThat(JwtUtil.parseRefreshToken("invalid.refresh.token")).isEmpty();
+    }
+
     @Test
     void shouldValidateInvalidRefreshToken() {
         boolean isValid = JwtUtil.validateRefreshToken("invalid.refresh.token");
@@ -147,4 +170,55 @@ class JwtUtilTest {
 
         assertThat(expiration).isEqualTo(86400000L);
     }
+
+    @Test
+    void shouldParseTokenClaimsInSinglePass() {
+        Permission perm = new Permission();
+        perm.setName("READ_PRODUCTS");
+
+        Role role = new Role();
+        role.setName("USER");
+        role.setEpoch(3L);
+        role.setPermissions(Set.of(perm));
+
+        User user = new User();
+        user.setId(5L);
+        user.setEmail("test@example.com");
+        user.setRole(role);
+
+        String token = JwtUtil.generateToken(user);
+        TokenClaims claims = JwtUtil.parseToken(token).orElseThrow();
+
+        assertThat(claims.subject()).isEqualTo("test@example.com");
+        assertThat(claims.userId()).isEqualTo(5L);
+        assertThat(claims.role()).isEqualTo("USER");
+        assertThat(claims.roleEpoch()).isEqualTo(3L);
+        assertThat(claims.authorities()).containsExactly("READ_PRODUCTS");
+        assertThat(claims.expiresAt()).isAfter(Instant.now());
+    }
+
+    @Test
+    void shouldReturnEmptyClaimsForInvalidToken() {
+        assertThat(JwtUtil.parseToken("invalid.token.here")).isEmpty();
+    }
+
+    @Test
+    void shouldNotAcceptRefreshTokenAsAccessToken() {
+        User user = new User();
+        user.setEmail("test@example.com");
+
+        String refreshToken = JwtUtil.generateRefreshToken(user);
+
+        assertThat(JwtUtil.parseToken(refreshToken)).isEmpty();
+    }
+
+    @Test
+    void shouldNotAcceptAccessTokenAsRefreshToken() {
+        User user = new User();
+        user.setEmail("test@example.com");
+
+        String accessToken = JwtUtil.generateToken(user);
+
+        assertThat(JwtUtil.validateRefreshToken(accessToken)).isFalse();
+    }
 }
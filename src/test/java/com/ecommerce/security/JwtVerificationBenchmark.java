@@ -0,0 +1,60 @@
+package com.ecommerce.security;
+
+import com.ecommerce.model.Permission;
+import com.ecommerce.model.Role;
+import com.ecommerce.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the per-request cost of the old three-call verification path used by
+ * {@link JwtFilter} (validate + extract subject + extract role) with {@link JwtUtil#parseToken}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtVerificationBenchmark {
+
+    private String token;
+
+    @Setup
+    public void setUp() {
+        Permission perm = new Permission();
+        perm.setName("READ_PRODUCTS");
+        Role role = new Role();
+        role.setName("USER");
+        role.setPermissions(Set.of(perm));
+        User user = new User();
+        user.setEmail("bench@example.com");
+        user.setRole(role);
+        token = JwtUtil.generateToken(user);
+    }
+
+    @Benchmark
+    public void threeParses(Blackhole bh) {
+        if (JwtUtil.validateToken(token)) {
+            bh.consume(JwtUtil.extractEmail(token));
+            bh.consume(JwtUtil.extractRole(token));
+        }
+    }
+
+    @Benchmark
+    public void singleParse(Blackhole bh) {
+        bh.consume(JwtUtil.parseToken(token));
+    }
+}
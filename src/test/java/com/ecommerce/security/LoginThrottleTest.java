@@ -0,0 +1,100 @@
+package com.ecommerce.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LoginThrottleTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void shouldLimitAttemptsPerEmailIgnoringCase() {
+        LoginThrottle throttle = throttle(3, 3, 100, 100);
+
+        assertThat(throttle.tryAcquire("user@example.com", "10.0.0.1")).isTrue();
+        assertThat(throttle.tryAcquire("USER@example.com", "10.0.0.2")).isTrue();
+        assertThat(throttle.tryAcquire(" user@example.com", "10.0.0.3")).isTrue();
+        assertThat(throttle.tryAcquire("user@example.com", "10.0.0.4")).isFalse();
+        assertThat(throttle.tryAcquire("other@example.com", "10.0.0.4")).isTrue();
+        assertThat(meterRegistry.get("auth.login.throttled").tag("key", "email").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void shouldLimitAttemptsPerAddressAcrossAccounts() {
+        LoginThrottle throttle = throttle(100, 100, 2, 2);
+
+        assertThat(throttle.tryAcquire("a@example.com", "10.0.0.1")).isTrue();
+        assertThat(throttle.tryAcquire("b@example.com", "10.0.0.1")).isTrue();
+        assertThat(throttle.tryAcquire("c@example.com", "10.0.0.1")).isFalse();
+        assertThat(throttle.tryAcquire("c@example.com", "10.0.0.2")).isTrue();
+        assertThat(meterRegistry.get("auth.login.throttled").tag("key", "ip").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void shouldRefillOverTime() {
+        // 6 por minuto = un intento cada 10 s
+        LoginThrottle throttle = throttle(1, 6, 100, 100);
+
+        assertThat(throttle.tryAcquire("user@example.com", "10.0.0.1")).isTrue();
+        assertThat(throttle.tryAcquire("user@example.com", "10.0.0.1")).isFalse();
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(5));
+        assertThat(throttle.tryAcquire("user@example.com", "10.0.0.1")).isFalse();
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(5));
+        assertThat(throttle.tryAcquire("user@example.com", "10.0.0.1")).isTrue();
+        assertThat(throttle.getRetryAfterSeconds()).isEqualTo(10);
+    }
+
+    @Test
+    void shouldAllowEverythingWhenDisabled() {
+        LoginThrottle throttle = new LoginThrottle(false, 16, 1, 1, 1, 1, meterRegistry, clock::get);
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(throttle.tryAcquire("user@example.com", "10.0.0.1")).isTrue();
+        }
+    }
+
+    @Test
+    void shouldNeverGrantMoreThanCapacityUnderContention() throws Exception {
+        LoginThrottle throttle = throttle(20, 1, 1_000_000, 1);
+        int threads = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger granted = new AtomicInteger();
+        try {
+            for (int t = 0; t < threads; t++) {
+                pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < 1_000; i++) {
+                        if (throttle.tryAcquire("victim@example.com", "10.0.0." + (i % 200))) {
+                            granted.incrementAndGet();
+                        }
+                    }
+                    return null;
+                });
+            }
+            start.countDown();
+        } finally {
+            pool.shutdown();
+            assertThat(pool.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+        }
+
+        // El reloj está parado: exactamente la capacidad del bucket por email
+        assertThat(granted.get()).isEqualTo(20);
+    }
+
+    private LoginThrottle throttle(int emailCapacity, int emailRefill, int ipCapacity, int ipRefill) {
+        return new LoginThrottle(true, 1024, emailCapacity, emailRefill, ipCapacity, ipRefill, meterRegistry, clock::get);
+    }
+}
@@ -0,0 +1,48 @@
+package com.ecommerce.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PasswordHashPolicyTest {
+
+    @Test
+    void shouldWritePrefixedHashesWithConfiguredCost() {
+        PasswordEncoder encoder = new PasswordHashPolicy(5, 250, 4, 16).createEncoder();
+
+        String hash = encoder.encode("secret");
+
+        assertThat(hash).startsWith("{bcrypt}$2a$05$");
+        assertThat(encoder.matches("secret", hash)).isTrue();
+        assertThat(encoder.upgradeEncoding(hash)).isFalse();
+    }
+
+    @Test
+    void shouldVerifyAndUpgradeLegacyUnprefixedHashes() {
+        PasswordEncoder encoder = PasswordHashPolicy.createEncoder(5);
+        String legacy = new BCryptPasswordEncoder(4).encode("secret");
+
+        assertThat(encoder.matches("secret", legacy)).isTrue();
+        assertThat(encoder.upgradeEncoding(legacy)).isTrue();
+    }
+
+    @Test
+    void shouldUpgradePrefixedHashesWithLowerCost() {
+        String weak = PasswordHashPolicy.createEncoder(4).encode("secret");
+
+        PasswordEncoder encoder = PasswordHashPolicy.createEncoder(5);
+
+        assertThat(encoder.matches("secret", weak)).isTrue();
+        assertThat(encoder.upgradeEncoding(weak)).isTrue();
+    }
+
+    @Test
+    void calibrationShouldStayWithinBounds() {
+        // Objetivo 0 ms: ningún coste lo cumple, se queda en el mínimo
+        assertThat(new PasswordHashPolicy(0, 0, 4, 6).calibrate()).isEqualTo(4);
+        // Objetivo enorme: todos lo cumplen, se queda en el máximo
+        assertThat(new PasswordHashPolicy(0, 60_000, 4, 6).calibrate()).isEqualTo(6);
+    }
+}
@@ -0,0 +1,36 @@
+package com.ecommerce.security;
+
+import com.ecommerce.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+class PasswordHashVersionReporterTest {
+
+    @Test
+    void shouldPublishUsersPerHashVersion() {
+        UserRepository userRepo = Mockito.mock(UserRepository.class);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        when(userRepo.countByHashVersion()).thenReturn(List.of(row("$2a$10$", 7L), row("{bcrypt}$2a$12$", 3L)));
+
+        PasswordHashVersionReporter reporter = new PasswordHashVersionReporter(userRepo, meterRegistry);
+        reporter.refresh();
+
+        assertThat(reporter.distribution()).isEqualTo(Map.of("$2a$10$", 7L, "{bcrypt}$2a$12$", 3L));
+        assertThat(meterRegistry.get("auth.password.hash.versions").tag("version", "$2a$10$").gauge().value())
+            .isEqualTo(7.0);
+    }
+
+    private static UserRepository.HashVersionCount row(String version, long users) {
+        return new UserRepository.HashVersionCount() {
+            @Override public String getVersion() { return version; }
+            @Override public Long getUsers() { return users; }
+        };
+    }
+}
@@ -0,0 +1,119 @@
+package com.ecommerce.security;
+
+import com.ecommerce.config.GlobalExceptionHandler;
+import com.ecommerce.controller.AuthController;
+import com.ecommerce.dto.UserLoginDto;
+import com.ecommerce.exception.AuthCapacityExceededException;
+import com.ecommerce.model.User;
+import com.ecommerce.repository.RevokedRefreshTokenRepository;
+import com.ecommerce.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class PasswordHashingExecutorTest {
+
+    private PasswordEncoder encoder;
+    private SimpleMeterRegistry meterRegistry;
+    private PasswordHashingExecutor hashing;
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() {
+        encoder = Mockito.mock(PasswordEncoder.class);
+        meterRegistry = new SimpleMeterRegistry();
+        hashing = new PasswordHashingExecutor(encoder, 1, 1, 3, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        hashing.shutdown();
+    }
+
+    @Test
+    void shouldRunEncoderOffTheCallingThreadAndRecordLatency() {
+        when(encoder.encode("secret")).thenAnswer(inv -> Thread.currentThread().getName());
+        when(encoder.matches("secret", "hash")).thenReturn(true);
+
+        assertThat(hashing.encode("secret")).startsWith("password-hashing-");
+        assertThat(hashing.matches("secret", "hash")).isTrue();
+        assertThat(meterRegistry.get("auth.hashing.duration").tag("operation", "encode").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("auth.hashing.duration").tag("operation", "matches").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldRejectImmediatelyWhenPoolAndQueueAreFull() throws Exception {
+        saturate();
+
+        assertThatThrownBy(() -> hashing.matches("secret", "hash"))
+            .isInstanceOf(AuthCapacityExceededException.class)
+            .extracting(e -> ((AuthCapacityExceededException) e).getRetryAfterSeconds())
+            .isEqualTo(3L);
+        assertThat(meterRegistry.get("auth.hashing.rejected").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("auth.hashing.queue.depth").gauge().value()).isEqualTo(1.0);
+    }
+
+    @Test
+    void loginShouldAnswer503WithRetryAfterWhenSaturated() throws Exception {
+        UserRepository userRepo = Mockito.mock(UserRepository.class);
+        User user = new User();
+        user.setEmail("test@example.com");
+        user.setPassword("hash");
+        when(userRepo.findByEmail("test@example.com")).thenReturn(Optional.of(user));
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new AuthController(userRepo, hashing,
+                new LoginThrottle(false, 16, 1, 1, 1, 1, new SimpleMeterRegistry()),
+                new RefreshTokenStore(Mockito.mock(RevokedRefreshTokenRepository.class), new SimpleMeterRegistry())))
+            .setControllerAdvice(new GlobalExceptionHandler())
+            .build();
+        saturate();
+
+        UserLoginDto dto = new UserLoginDto();
+        dto.setEmail("test@example.com");
+        dto.setPassword("secret");
+
+        mockMvc.perform(post("/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(new ObjectMapper().writeValueAsString(dto)))
+            .andExpect(status().isServiceUnavailable())
+            .andExpect(header().string(HttpHeaders.RETRY_AFTER, "3"));
+    }
+
+    /** Ocupa el único hilo y el único hueco de la cola con hashes bloqueados. */
+    private void saturate() throws InterruptedException {
+        CountDownLatch running = new CountDownLatch(1);
+        when(encoder.encode(any())).thenAnswer(inv -> {
+            running.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return "hash";
+        });
+        CompletableFuture.runAsync(() -> hashing.encode("a"));
+        assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture.runAsync(() -> hashing.encode("b"));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.get("auth.hashing.queue.depth").gauge().value() < 1 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+}
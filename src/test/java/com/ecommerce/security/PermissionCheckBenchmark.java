@@ -0,0 +1,70 @@
+package com.ecommerce.security;
+
+import com.ecommerce.model.Permission;
+import com.ecommerce.model.Role;
+import com.ecommerce.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the previous authority check (stream {@link User#getAuthorities()} and compare strings)
+ * with the bit test done through {@link PermissionIndex}, for a role holding 12 permissions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PermissionCheckBenchmark {
+
+    private User user;
+    private PermissionIndex index;
+    private String permission;
+
+    @Setup
+    public void setUp() {
+        List<Permission> permissions = new ArrayList<>();
+        for (long i = 1; i <= 12; i++) {
+            Permission perm = new Permission();
+            perm.setId(i);
+            perm.setName("PERMISSION_" + i);
+            permissions.add(perm);
+        }
+        Role role = new Role();
+        role.setName("ADMIN");
+        role.setPermissions(new HashSet<>(permissions));
+        user = new User();
+        user.setEmail("bench@example.com");
+        user.setRole(role);
+
+        index = new PermissionIndex();
+        index.rebuild(permissions, List.of(role));
+        // Construido en tiempo de ejecución para que no sea la misma instancia interned del literal
+        permission = new String("PERMISSION_12");
+    }
+
+    @Benchmark
+    public boolean authorityStream() {
+        return user.getAuthorities().stream()
+            .anyMatch(a -> a.getAuthority().equals(permission));
+    }
+
+    @Benchmark
+    public boolean roleMask() {
+        return index.userHas(user, permission);
+    }
+}
@@ -0,0 +1,118 @@
+package com.ecommerce.security;
+
+import com.ecommerce.model.Permission;
+import com.ecommerce.model.Role;
+import com.ecommerce.model.User;
+import org.aopalliance.intercept.MethodInvocation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.security.access.expression.ExpressionUtils;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+class PermissionIndexTest {
+
+    private PermissionIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new PermissionIndex();
+    }
+
+    @Test
+    void shouldAnswerFromRoleMasks() {
+        Permission read = permission(1L, "READ_USERS");
+        Permission write = permission(2L, "WRITE_USERS");
+        index.rebuild(List.of(read, write), List.of(role("ADMIN", read, write), role("USER", read)));
+
+        assertThat(index.roleHas("ADMIN", "WRITE_USERS")).isTrue();
+        assertThat(index.roleHas("USER", "READ_USERS")).isTrue();
+        assertThat(index.roleHas("USER", "WRITE_USERS")).isFalse();
+        assertThat(index.roleHas("USER", "UNKNOWN")).isFalse();
+        assertThat(index.roleHas("GHOST", "READ_USERS")).isFalse();
+        assertThat(index.roleHas(null, "READ_USERS")).isFalse();
+    }
+
+    @Test
+    void shouldSpanMultipleWordsWhenThereAreManyPermissions() {
+        List<Permission> permissions = new ArrayList<>();
+        for (long i = 1; i <= 130; i++) {
+            permissions.add(permission(i, "PERM_" + i));
+        }
+        Permission last = permissions.get(129);
+        index.rebuild(permissions, List.of(role("ADMIN", last)));
+
+        assertThat(index.idOf("PERM_130")).isEqualTo(129);
+        assertThat(index.roleHas("ADMIN", "PERM_130")).isTrue();
+        assertThat(index.roleHas("ADMIN", "PERM_66")).isFalse();
+    }
+
+    @Test
+    void authorizationManagerShouldUseMaskForApplicationUsers() {
+        Permission read = permission(1L, "READ_USERS");
+        Role admin = role("ADMIN", read);
+        index.rebuild(List.of(read), List.of(admin));
+        User user = new User();
+        user.setRole(admin);
+
+        var manager = PermissionAuthorizationManager.hasPermission(index, "READ_USERS");
+        var authentication = new UsernamePasswordAuthenticationToken(user, null, List.of());
+
+        // Sin authorities en el token: la decisión sale de la máscara del rol
+        assertThat(manager.check(() -> authentication, null).isGranted()).isTrue();
+        assertThat(PermissionAuthorizationManager.hasPermission(index, "WRITE_USERS")
+            .check(() -> authentication, null).isGranted()).isFalse();
+    }
+
+    @Test
+    void authorizationManagerShouldFallBackToAuthoritiesForOtherPrincipals() {
+        var manager = PermissionAuthorizationManager.hasPermission(index, "READ_USERS");
+
+        assertThat(manager.check(() -> new TestingAuthenticationToken("test", null, "READ_USERS"), null).isGranted()).isTrue();
+        assertThat(manager.check(() -> new TestingAuthenticationToken("test", null, "OTHER"), null).isGranted()).isFalse();
+    }
+
+    @Test
+    void expressionHandlerShouldResolveHasAuthorityThroughMask() throws Exception {
+        Permission read = permission(1L, "READ_USERS");
+        Role admin = role("ADMIN", read);
+        index.rebuild(List.of(read), List.of(admin));
+        User user = new User();
+        user.setRole(admin);
+        var authentication = new UsernamePasswordAuthenticationToken(user, null, List.of());
+
+        PermissionExpressionHandler handler = new PermissionExpressionHandler(index);
+        MethodInvocation invocation = Mockito.mock(MethodInvocation.class);
+        when(invocation.getThis()).thenReturn(this);
+        when(invocation.getMethod()).thenReturn(Object.class.getMethod("toString"));
+        var context = handler.createEvaluationContext(() -> authentication, invocation);
+        var parser = handler.getExpressionParser();
+
+        assertThat(ExpressionUtils.evaluateAsBoolean(parser.parseExpression("hasAuthority('READ_USERS')"), context)).isTrue();
+        assertThat(ExpressionUtils.evaluateAsBoolean(parser.parseExpression("hasAnyAuthority('WRITE_USERS', 'READ_USERS')"), context)).isTrue();
+        assertThat(ExpressionUtils.evaluateAsBoolean(parser.parseExpression("hasAuthority('WRITE_USERS')"), context)).isFalse();
+    }
+
+    private static Permission permission(Long id, String name) {
+        Permission permission = new Permission();
+        permission.setId(id);
+        permission.setName(name);
+        return permission;
+    }
+
+    private static Role role(String name, Permission... permissions) {
+        Role role = new Role();
+        role.setName(name);
+        role.setPermissions(new HashSet<>(Set.of(permissions)));
+        return role;
+    }
+}
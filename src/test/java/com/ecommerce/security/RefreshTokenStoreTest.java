@@ -0,0 +1,92 @@
+package com.ecommerce.security;
+
+import com.ecommerce.dto.RevokedTokenId;
+import com.ecommerce.model.RevokedRefreshToken;
+import com.ecommerce.repository.RevokedRefreshTokenRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RefreshTokenStoreTest {
+
+    private RevokedRefreshTokenRepository repository;
+    private RefreshTokenStore store;
+
+    @BeforeEach
+    void setUp() {
+        repository = Mockito.mock(RevokedRefreshTokenRepository.class);
+        store = new RefreshTokenStore(repository, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void shouldConsumeTokenOnlyOnce() {
+        RefreshTokenClaims claims = claims(Duration.ofDays(7));
+
+        assertThat(store.consume(claims)).isTrue();
+        assertThat(store.isRevoked(claims)).isTrue();
+        assertThat(store.consume(claims)).isFalse();
+        // La segunda vez se rechaza en memoria, sin volver a la base de datos
+        verify(repository, times(1)).save(any(RevokedRefreshToken.class));
+    }
+
+    @Test
+    void shouldRejectTokenAlreadyConsumedOnAnotherReplica() {
+        RefreshTokenClaims claims = claims(Duration.ofDays(7));
+        when(repository.save(any(RevokedRefreshToken.class))).thenThrow(new DataIntegrityViolationException("duplicate"));
+
+        assertThat(store.consume(claims)).isFalse();
+        assertThat(store.isRevoked(claims)).isTrue();
+    }
+
+    @Test
+    void shouldReloadPersistedIdsAtStartup() {
+        RefreshTokenClaims claims = claims(Duration.ofDays(2));
+        AtomicBoolean closed = new AtomicBoolean();
+        when(repository.streamIdsExpiringAfter(any())).thenReturn(
+            Stream.of(new RevokedTokenId(claims.tokenId(), claims.expiresAt())).onClose(() -> closed.set(true)));
+
+        store.load();
+
+        // El cursor se cierra al terminar la carga
+        assertThat(closed).isTrue();
+        assertThat(store.isRevoked(claims)).isTrue();
+        assertThat(store.consume(claims)).isFalse();
+    }
+
+    @Test
+    void shouldRevokeOnLogout() {
+        RefreshTokenClaims claims = claims(Duration.ofDays(7));
+
+        store.revoke(claims);
+        store.revoke(claims);
+
+        assertThat(store.consume(claims)).isFalse();
+    }
+
+    @Test
+    void shouldEvictExpiredIdsFromMemoryAndDatabase() {
+        store.consume(claims(Duration.ofHours(-3)));
+
+        store.evictExpired();
+
+        verify(repository).deleteExpired(any(Instant.class));
+    }
+
+    private static RefreshTokenClaims claims(Duration ttl) {
+        return new RefreshTokenClaims("user@example.com", UUID.randomUUID().toString(), Instant.now().plus(ttl));
+    }
+}
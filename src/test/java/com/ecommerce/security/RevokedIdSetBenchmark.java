@@ -0,0 +1,59 @@
+package com.ecommerce.security;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookup cost on the refresh path with one million revoked ids spread over a week of expiry
+ * buckets, for a hit and for a miss.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RevokedIdSetBenchmark {
+
+    private RevokedIdSet set;
+    private String revokedId;
+    private Instant revokedExpiry;
+    private String unknownId;
+
+    @Setup
+    public void setUp() {
+        set = new RevokedIdSet();
+        Instant now = Instant.now();
+        long weekSeconds = Duration.ofDays(7).toSeconds();
+        for (int i = 0; i < 1_000_000; i++) {
+            set.add(UUID.randomUUID().toString(), now.plusSeconds(i % weekSeconds));
+        }
+        revokedId = UUID.randomUUID().toString();
+        revokedExpiry = now.plus(Duration.ofDays(3));
+        set.add(revokedId, revokedExpiry);
+        unknownId = UUID.randomUUID().toString();
+    }
+
+    @Benchmark
+    public boolean revokedHit() {
+        return set.contains(revokedId, revokedExpiry);
+    }
+
+    @Benchmark
+    public boolean unknownMiss() {
+        return set.contains(unknownId, revokedExpiry);
+    }
+}
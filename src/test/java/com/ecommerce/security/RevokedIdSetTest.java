@@ -0,0 +1,59 @@
+package com.ecommerce.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RevokedIdSetTest {
+
+    private final RevokedIdSet set = new RevokedIdSet();
+    private final Instant now = Instant.parse("2024-06-01T10:15:00Z");
+
+    @Test
+    void shouldTrackUuidAndOpaqueIds() {
+        String uuid = UUID.randomUUID().toString();
+        Instant expiry = now.plus(Duration.ofDays(7));
+
+        assertThat(set.add(uuid, expiry)).isTrue();
+        assertThat(set.add(uuid, expiry)).isFalse();
+        assertThat(set.add("legacy-0011223344556677", expiry)).isTrue();
+
+        assertThat(set.contains(uuid, expiry)).isTrue();
+        assertThat(set.contains("legacy-0011223344556677", expiry)).isTrue();
+        assertThat(set.contains(UUID.randomUUID().toString(), expiry)).isFalse();
+        assertThat(set.size()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldGrowBucketsWithoutLosingIds() {
+        Instant expiry = now.plus(Duration.ofHours(5));
+        String[] ids = new String[10_000];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = UUID.randomUUID().toString();
+            set.add(ids[i], expiry);
+        }
+
+        for (String id : ids) {
+            assertThat(set.contains(id, expiry)).isTrue();
+        }
+        assertThat(set.size()).isEqualTo(ids.length);
+    }
+
+    @Test
+    void shouldDropOnlyExpiredBuckets() {
+        String expired = UUID.randomUUID().toString();
+        String live = UUID.randomUUID().toString();
+        set.add(expired, now.minus(Duration.ofHours(2)));
+        set.add(live, now.plus(Duration.ofHours(2)));
+
+        set.evictExpired(now);
+
+        assertThat(set.contains(expired, now.minus(Duration.ofHours(2)))).isFalse();
+        assertThat(set.contains(live, now.plus(Duration.ofHours(2)))).isTrue();
+        assertThat(set.size()).isEqualTo(1);
+    }
+}
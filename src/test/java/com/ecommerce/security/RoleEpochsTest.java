@@ -0,0 +1,71 @@
+package com.ecommerce.security;
+
+import com.ecommerce.repository.RoleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+class RoleEpochsTest {
+
+    private RoleRepository roleRepo;
+    private RoleEpochs roleEpochs;
+    private final List<Object> events = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        roleRepo = Mockito.mock(RoleRepository.class);
+        roleEpochs = new RoleEpochs(roleRepo, events::add);
+    }
+
+    @Test
+    void shouldNotTrustAnyEpochBeforeFirstLoad() {
+        assertThat(roleEpochs.isCurrent("USER", 0L)).isFalse();
+    }
+
+    @Test
+    void shouldMatchEpochsLoadedFromDatabase() {
+        when(roleRepo.findAllEpochs()).thenReturn(List.of(view("USER", null), view("ADMIN", 4L)));
+
+        roleEpochs.refresh();
+
+        assertThat(roleEpochs.isCurrent("USER", 0L)).isTrue();
+        assertThat(roleEpochs.isCurrent("ADMIN", 4L)).isTrue();
+        assertThat(roleEpochs.isCurrent("ADMIN", 3L)).isFalse();
+    }
+
+    @Test
+    void shouldApplyLocalUpdatesImmediately() {
+        when(roleRepo.findAllEpochs()).thenReturn(List.of(view("ADMIN", 4L)));
+        roleEpochs.refresh();
+
+        roleEpochs.update("ADMIN", 5L);
+
+        assertThat(roleEpochs.isCurrent("ADMIN", 4L)).isFalse();
+        assertThat(roleEpochs.isCurrent("ADMIN", 5L)).isTrue();
+    }
+
+    @Test
+    void shouldAnnounceEpochChangesSeenOnRefresh() {
+        when(roleRepo.findAllEpochs()).thenReturn(List.of(view("ADMIN", 4L), view("USER", 0L)));
+        roleEpochs.refresh();
+        assertThat(events).isEmpty();
+
+        when(roleRepo.findAllEpochs()).thenReturn(List.of(view("ADMIN", 5L), view("USER", 0L)));
+        roleEpochs.refresh();
+
+        assertThat(events).containsExactly(new RolePermissionsChangedEvent("ADMIN", 5L));
+    }
+
+    private static RoleRepository.RoleEpochView view(String name, Long epoch) {
+        return new RoleRepository.RoleEpochView() {
+            @Override public String getName() { return name; }
+            @Override public Long getEpoch() { return epoch; }
+        };
+    }
+}
@@ -0,0 +1,120 @@
+package com.ecommerce.security;
+
+import com.ecommerce.model.Permission;
+import com.ecommerce.model.Role;
+import com.ecommerce.model.User;
+import com.ecommerce.repository.PermissionRepository;
+import com.ecommerce.repository.RoleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+class RoleRegistryTest {
+
+    private RoleRepository roleRepo;
+    private PermissionRepository permRepo;
+    private PermissionIndex permissionIndex;
+    private RoleRegistry registry;
+
+    private Permission read;
+    private Permission write;
+    private Role admin;
+
+    @BeforeEach
+    void setUp() {
+        roleRepo = Mockito.mock(RoleRepository.class);
+        permRepo = Mockito.mock(PermissionRepository.class);
+        permissionIndex = new PermissionIndex();
+        registry = new RoleRegistry(roleRepo, permRepo, permissionIndex);
+
+        read = permission(1L, "READ_USERS");
+        write = permission(2L, "WRITE_USERS");
+        admin = new Role();
+        admin.setName("ADMIN");
+        admin.setEpoch(3L);
+        admin.setPermissions(new HashSet<>(Set.of(read)));
+
+        when(roleRepo.findAllWithPermissions()).thenReturn(List.of(admin));
+        when(permRepo.findAll()).thenReturn(List.of(read, write));
+    }
+
+    @Test
+    void shouldServeRolesFromSnapshot() {
+        registry.refresh();
+
+        RoleRegistry.RoleEntry entry = registry.find("ADMIN").orElseThrow();
+        assertThat(entry.epoch()).isEqualTo(3L);
+        assertThat(entry.permissions()).containsExactly("READ_USERS");
+        assertThat(names(registry.authoritiesOf("ADMIN"))).containsExactly("READ_USERS");
+        assertThat(registry.authoritiesOf("GHOST")).isNull();
+        assertThat(registry.find(null)).isEmpty();
+    }
+
+    @Test
+    void shouldSwapSnapshotAndPermissionIndexOnRefresh() {
+        registry.refresh();
+        List<GrantedAuthority> before = registry.authoritiesOf("ADMIN");
+
+        admin.getPermissions().add(write);
+        registry.refresh();
+
+        assertThat(names(before)).containsExactly("READ_USERS");
+        assertThat(names(registry.authoritiesOf("ADMIN"))).containsExactlyInAnyOrder("READ_USERS", "WRITE_USERS");
+        assertThat(permissionIndex.roleHas("ADMIN", "WRITE_USERS")).isTrue();
+    }
+
+    @Test
+    void listenerShouldAttachAuthoritiesWithoutTouchingPermissions() {
+        registry.refresh();
+
+        Role loaded = new Role();
+        loaded.setName("ADMIN");
+        // Simula la colección lazy sin inicializar: no debe consultarse
+        loaded.setPermissions(null);
+        new RoleAuthoritiesListener(provider(registry)).attachAuthorities(loaded);
+
+        User user = new User();
+        user.setRole(loaded);
+
+        assertThat(names(user.getAuthorities())).containsExactly("READ_USERS");
+    }
+
+    @Test
+    void userShouldFallBackToPermissionsWhenRoleIsNotRegistered() {
+        Role detached = new Role();
+        detached.setName("CUSTOM");
+        detached.setPermissions(Set.of(write));
+        User user = new User();
+        user.setRole(detached);
+
+        assertThat(names(user.getAuthorities())).containsExactly("WRITE_USERS");
+    }
+
+    private static List<String> names(Collection<? extends GrantedAuthority> authorities) {
+        return authorities.stream().map(GrantedAuthority::getAuthority).toList();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ObjectProvider<RoleRegistry> provider(RoleRegistry registry) {
+        ObjectProvider<RoleRegistry> provider = Mockito.mock(ObjectProvider.class);
+        when(provider.getIfAvailable()).thenReturn(registry);
+        return provider;
+    }
+
+    private static Permission permission(Long id, String name) {
+        Permission permission = new Permission();
+        permission.setId(id);
+        permission.setName(name);
+        return permission;
+    }
+}
@@ -0,0 +1,75 @@
+package com.ecommerce.security;
+
+import com.ecommerce.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+class UserSecurityStampsTest {
+
+    private UserRepository userRepo;
+    private UserSecurityStamps userStamps;
+
+    @BeforeEach
+    void setUp() {
+        userRepo = Mockito.mock(UserRepository.class);
+        userStamps = new UserSecurityStamps(userRepo);
+    }
+
+    @Test
+    void shouldNotTrustAnyStampBeforeFirstLoad() {
+        assertThat(userStamps.isCurrent(1L, 0L)).isFalse();
+    }
+
+    @Test
+    void shouldTrustUsersWithoutRecentChangesAndMatchTheOthers() {
+        when(userRepo.findSecurityStampsChangedSince(any())).thenReturn(List.of(view(2L, 3L)));
+
+        userStamps.refresh();
+
+        assertThat(userStamps.isCurrent(1L, 0L)).isTrue();
+        assertThat(userStamps.isCurrent(2L, 3L)).isTrue();
+        assertThat(userStamps.isCurrent(2L, 2L)).isFalse();
+        assertThat(userStamps.isCurrent(null, 0L)).isFalse();
+    }
+
+    @Test
+    void shouldApplyLocalUpdatesImmediatelyAndKeepThemAcrossRefresh() {
+        when(userRepo.findSecurityStampsChangedSince(any())).thenReturn(List.of());
+        userStamps.refresh();
+
+        userStamps.update(1L, 1L);
+
+        assertThat(userStamps.isCurrent(1L, 0L)).isFalse();
+        assertThat(userStamps.isCurrent(1L, 1L)).isTrue();
+
+        // Una lectura que empezó antes del cambio no lo deshace
+        userStamps.refresh();
+        assertThat(userStamps.isCurrent(1L, 0L)).isFalse();
+    }
+
+    @Test
+    void shouldKeepLastKnownStampsWhenRefreshFails() {
+        when(userRepo.findSecurityStampsChangedSince(any())).thenReturn(List.of(view(2L, 3L)));
+        userStamps.refresh();
+
+        when(userRepo.findSecurityStampsChangedSince(any())).thenThrow(new IllegalStateException("db down"));
+        userStamps.refresh();
+
+        assertThat(userStamps.isCurrent(2L, 3L)).isTrue();
+        assertThat(userStamps.isCurrent(2L, 2L)).isFalse();
+    }
+
+    private static UserRepository.SecurityStampView view(Long id, Long stamp) {
+        return new UserRepository.SecurityStampView() {
+            @Override public Long getId() { return id; }
+            @Override public Long getStamp() { return stamp; }
+        };
+    }
+}
@@ -0,0 +1,68 @@
+package com.ecommerce.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VerifiedTokenCacheTest {
+
+    private static TokenClaims claimsExpiringIn(long seconds) {
+        return new TokenClaims("test@example.com", 1L, "USER", 0L, 0L, List.of("READ_PRODUCTS"), Instant.now().plusSeconds(seconds));
+    }
+
+    @Test
+    void shouldReturnCachedClaimsWhenEnabled() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(true, 100, new SimpleMeterRegistry());
+        TokenClaims claims = claimsExpiringIn(60);
+
+        cache.put("token", claims);
+
+        assertThat(cache.get("token")).isEqualTo(claims);
+        assertThat(cache.get("other-token")).isNull();
+        assertThat(cache.stats().hitCount()).isEqualTo(1);
+        assertThat(cache.stats().missCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldNeverCacheWhenDisabled() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(false, 100, new SimpleMeterRegistry());
+
+        cache.put("token", claimsExpiringIn(60));
+
+        assertThat(cache.isEnabled()).isFalse();
+        assertThat(cache.get("token")).isNull();
+    }
+
+    @Test
+    void shouldNotCacheExpiredClaims() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(true, 100, new SimpleMeterRegistry());
+
+        cache.put("token", claimsExpiringIn(-1));
+
+        assertThat(cache.get("token")).isNull();
+    }
+
+    @Test
+    void shouldDropEntryOnceTokenExpires() throws InterruptedException {
+        VerifiedTokenCache cache = new VerifiedTokenCache(true, 100, new SimpleMeterRegistry());
+        TokenClaims claims = new TokenClaims("test@example.com", 1L, "USER", 0L, 0L, List.of(), Instant.now().plusMillis(50));
+
+        cache.put("token", claims);
+        Thread.sleep(100);
+
+        assertThat(cache.get("token")).isNull();
+    }
+
+    @Test
+    void shouldPublishCacheMetrics() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        new VerifiedTokenCache(true, 100, registry);
+
+        assertThat(registry.find("cache.gets").tag("cache", "jwt.verified").meters()).isNotEmpty();
+        assertThat(registry.find("cache.evictions").tag("cache", "jwt.verified").meters()).isNotEmpty();
+    }
+}
@@ -0,0 +1,137 @@
+package com.ecommerce.service;
+
+import com.ecommerce.kafka.OrderCreatedEvent;
+import com.ecommerce.model.OutboxEvent;
+import com.ecommerce.repository.OutboxEventRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class EventOutboxTest {
+
+    private static final Instant NOW = Instant.parse("2026-05-01T12:00:00Z");
+
+    private OutboxEventRepository outboxRepo;
+    private EventOutbox outbox;
+    private final List<String> published = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        outboxRepo = Mockito.mock(OutboxEventRepository.class);
+        outbox = outbox(true, 2);
+    }
+
+    @Test
+    void shouldStoreTheEventAsJsonKeyedByItsAggregate() {
+        OrderCreatedEvent event = new OrderCreatedEvent();
+        event.setOrderId(7L);
+        event.setTotal(12.5);
+
+        outbox.append("order", 7L, "order.created", event);
+
+        ArgumentCaptor<OutboxEvent> saved = ArgumentCaptor.forClass(OutboxEvent.class);
+        verify(outboxRepo).save(saved.capture());
+        assertThat(saved.getValue().getAggregateId()).isEqualTo(7L);
+        assertThat(saved.getValue().getTopic()).isEqualTo("order.created");
+        assertThat(saved.getValue().getPayload()).contains("\"orderId\":7", "\"total\":12.5");
+        assertThat(saved.getValue().getNextAttemptAt()).isEqualTo(NOW);
+        assertThat(saved.getValue().getSentAt()).isNull();
+    }
+
+    @Test
+    void shouldNotStoreEventsWhenKafkaIsDisabled() {
+        outbox(false, 2).append("order", 7L, "order.created", new OrderCreatedEvent());
+
+        Mockito.verifyNoInteractions(outboxRepo);
+    }
+
+    @Test
+    void shouldMarkTheSentEventsAndAskForMoreWhenTheBatchWasFull() {
+        OutboxEvent first = pending(1L, 10L);
+        OutboxEvent second = pending(2L, 11L);
+        when(outboxRepo.lockNextToSend(NOW, 2)).thenReturn(List.of(first, second));
+
+        boolean more = outbox.relayBatch(this::acknowledge);
+
+        assertThat(more).isTrue();
+        assertThat(published).containsExactly("order.created/10", "order.created/11");
+        assertThat(first.getSentAt()).isEqualTo(NOW);
+        assertThat(second.getSentAt()).isEqualTo(NOW);
+    }
+
+    @Test
+    void shouldRetryFailedSendsWithExponentialBackoff() {
+        OutboxEvent failing = pending(1L, 10L);
+        failing.setAttempts(3);
+        OutboxEvent rejected = pending(2L, 11L);
+        OutboxEvent sent = pending(3L, 12L);
+        when(outboxRepo.lockNextToSend(NOW, 3)).thenReturn(List.of(failing, rejected, sent));
+
+        boolean more = outbox(true, 3).relayBatch((topic, key, payload) -> switch (key) {
+            case "10" -> CompletableFuture.failedFuture(new IllegalStateException("broker down"));
+            case "11" -> throw new IllegalStateException("buffer full");
+            default -> acknowledge(topic, key, payload);
+        });
+
+        assertThat(more).isFalse();
+        // 1 s, 2 s, 4 s, 8 s...
+        assertThat(failing.getAttempts()).isEqualTo(4);
+        assertThat(failing.getNextAttemptAt()).isEqualTo(NOW.plusSeconds(8));
+        assertThat(failing.getLastError()).isEqualTo("broker down");
+        assertThat(failing.getSentAt()).isNull();
+        assertThat(rejected.getAttempts()).isEqualTo(1);
+        assertThat(rejected.getNextAttemptAt()).isEqualTo(NOW.plusSeconds(1));
+        assertThat(sent.getSentAt()).isEqualTo(NOW);
+    }
+
+    @Test
+    void shouldCapTheBackoffAndTreatUnacknowledgedSendsAsFailed() {
+        OutboxEvent event = pending(1L, 10L);
+        event.setAttempts(30);
+        when(outboxRepo.lockNextToSend(NOW, 2)).thenReturn(List.of(event));
+
+        outbox.relayBatch((topic, key, payload) -> new CompletableFuture<>());
+
+        assertThat(event.getNextAttemptAt()).isEqualTo(NOW.plus(Duration.ofMinutes(5)));
+        assertThat(event.getLastError()).contains("No acknowledgement");
+    }
+
+    @Test
+    void shouldPurgeEventsSentBeforeTheRetention() {
+        when(outboxRepo.deleteSentBefore(any())).thenReturn(3);
+
+        assertThat(outbox.purgeSent()).isEqualTo(3);
+        verify(outboxRepo).deleteSentBefore(NOW.minus(Duration.ofHours(24)));
+    }
+
+    private EventOutbox outbox(boolean enabled, int batchSize) {
+        return new EventOutbox(outboxRepo, new ObjectMapper(), enabled, batchSize, Duration.ofMillis(50),
+            Duration.ofSeconds(1), Duration.ofMinutes(5), Duration.ofHours(24), Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    private CompletableFuture<?> acknowledge(String topic, String key, String payload) {
+        published.add(topic + "/" + key);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    private static OutboxEvent pending(Long id, Long orderId) {
+        OutboxEvent event = new OutboxEvent("order", orderId, "order.created", "{}", NOW.minusSeconds(1));
+        event.setId(id);
+        return event;
+    }
+}
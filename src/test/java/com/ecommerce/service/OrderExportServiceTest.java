@@ -0,0 +1,116 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.ExportFormat;
+import com.ecommerce.dto.OrderFilter;
+import com.ecommerce.dto.OrderLineRow;
+import com.ecommerce.repository.OrderRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+class OrderExportServiceTest {
+
+    private static final LocalDateTime CREATED = LocalDateTime.of(2026, 3, 1, 12, 30);
+    private static final OrderFilter FILTER = OrderFilter.all(null, null, null);
+
+    private final OrderRepository orderRepo = Mockito.mock(OrderRepository.class);
+    private final OrderExportService exportService =
+        new OrderExportService(orderRepo, new ObjectMapper().registerModule(new JavaTimeModule()));
+
+    @Test
+    void shouldGroupTheLinesOfEachOrderIntoOneJsonObject() throws Exception {
+        when(orderRepo.streamLines(FILTER)).thenReturn(Stream.of(
+            line(9L, 1L, "Mesa", 2, "10.00"),
+            line(9L, 2L, "Silla", 1, "5.50"),
+            new OrderLineRow(4L, 3L, CREATED, "SHIPPED", 0.0, null, null, null, null)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long orders = exportService.export(FILTER, ExportFormat.NDJSON, out);
+
+        assertThat(orders).isEqualTo(2);
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(new ObjectMapper().readTree(lines[0]).get("items")).hasSize(2);
+        assertThat(lines[0]).startsWith("{\"id\":9,\"userId\":3,")
+            .contains("{\"productId\":2,\"productName\":\"Silla\",\"quantity\":1,\"unitPrice\":5.50}");
+        // Una orden sin líneas sale con la lista vacía
+        assertThat(lines[1]).startsWith("{\"id\":4,").contains("\"items\":[]");
+    }
+
+    @Test
+    void shouldWriteOneCsvRowPerLineQuotingOnlyWhenNeeded() throws Exception {
+        when(orderRepo.streamLines(FILTER)).thenReturn(Stream.of(
+            line(9L, 1L, "Sofá \"Nube\", gris", 2, "10.00"),
+            line(9L, 2L, "Silla", 1, "5.50")));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long orders = exportService.export(FILTER, ExportFormat.CSV, out);
+
+        assertThat(orders).isEqualTo(1);
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo(OrderExportService.CSV_HEADER
+            + "9,3,2026-03-01T12:30,PENDING,25.5,1,\"Sofá \"\"Nube\"\", gris\",2,10.00\n"
+            + "9,3,2026-03-01T12:30,PENDING,25.5,2,Silla,1,5.50\n");
+    }
+
+    @Test
+    void shouldCloseTheCursorWhenDone() throws Exception {
+        AtomicBoolean closed = new AtomicBoolean();
+        when(orderRepo.streamLines(FILTER))
+            .thenReturn(Stream.of(line(1L, 1L, "Mesa", 1, "1.00")).onClose(() -> closed.set(true)));
+
+        exportService.export(FILTER, ExportFormat.NDJSON, OutputStream.nullOutputStream());
+
+        assertThat(closed).isTrue();
+    }
+
+    @Test
+    void shouldKeepHeapFlatWhileExportingMillionsOfLines() throws Exception {
+        long total = 2_000_000;
+        long sampleEvery = 250_000;
+        List<Long> usedAfterGc = Collections.synchronizedList(new ArrayList<>());
+        // Tres líneas por orden
+        when(orderRepo.streamLines(FILTER)).thenReturn(LongStream.rangeClosed(1, total)
+            .mapToObj(n -> {
+                if (n % sampleEvery == 0) {
+                    usedAfterGc.add(usedHeapAfterGc());
+                }
+                return line(n / 3, n, "Producto " + n, 1, "9.99");
+            }));
+
+        long orders = exportService.export(FILTER, ExportFormat.NDJSON, OutputStream.nullOutputStream());
+
+        assertThat(orders).isEqualTo(total / 3 + 1);
+        assertThat(usedAfterGc).hasSize((int) (total / sampleEvery));
+        long growth = Collections.max(usedAfterGc) - usedAfterGc.get(0);
+        // Solo la orden en curso vive en memoria: el heap no crece con el número de filas
+        assertThat(growth).isLessThan(16L * 1024 * 1024);
+    }
+
+    private static long usedHeapAfterGc() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        System.gc();
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    private static OrderLineRow line(long orderId, long productId, String name, int quantity, String unitPrice) {
+        return new OrderLineRow(orderId, 3L, CREATED, "PENDING", 25.5, productId, name, quantity, new BigDecimal(unitPrice));
+    }
+}
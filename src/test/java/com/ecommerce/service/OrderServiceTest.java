@@ -1,14 +1,23 @@
 package com.ecommerce.service;
 
+import com.ecommerce.dto.OrderCursor;
+import com.ecommerce.dto.OrderFilter;
+import com.ecommerce.dto.OrderItemDto;
+import com.ecommerce.dto.OrderItemRequest;
+import com.ecommerce.dto.OrderPage;
 import com.ecommerce.dto.OrderRequestDto;
 import com.ecommerce.dto.OrderResponseDto;
+import com.ecommerce.exception.InsufficientStockException;
+import com.ecommerce.exception.InvalidCursorException;
+import com.ecommerce.exception.InvalidOrderException;
+import com.ecommerce.exception.ResourceNotFoundException;
 import com.ecommerce.kafka.KafkaProducer;
 import com.ecommerce.kafka.OrderCreatedEvent;
 import com.ecommerce.model.Order;
+import com.ecommerce.model.OrderItem;
 import com.ecommerce.model.Product;
 import com.ecommerce.model.User;
 import com.ecommerce.repository.OrderRepository;
-import com.ecommerce.repository.ProductRepository;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -20,11 +29,15 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -34,16 +47,16 @@ class OrderServiceTest {
     private OrderRepository orderRepo;
 
     @Mock
-    private ProductRepository productRepo;
+    private ProductService productService;
 
     @Mock
-    private KafkaProducer kafkaProducer;
+    private EventOutbox outbox;
 
     private OrderService orderService;
 
     @org.junit.jupiter.api.BeforeEach
     void setUp() {
-        orderService = new OrderService(orderRepo, productRepo, Optional.of(kafkaProducer));
+        orderService = new OrderService(orderRepo, productService, outbox, 2, 3);
     }
 
     @Test
@@ -56,7 +69,7 @@ class OrderServiceTest {
         product.setStock(10);
         product.setPrice(new java.math.BigDecimal("100.00"));
 
-        when(productRepo.findAllById(List.of(10L))).thenReturn(List.of(product));
+        when(productService.reserveStock(new TreeMap<>(Map.of(10L, 1)))).thenReturn(List.of(product));
         when(orderRepo.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         OrderRequestDto dto = new OrderRequestDto();
@@ -65,11 +78,11 @@ class OrderServiceTest {
         OrderResponseDto response = orderService.createOrder(user, dto);
 
         assertThat(response.getUserId()).isEqualTo(user.getId());
-        assertThat(response.getProducts()).hasSize(1);
-        assertThat(response.getProducts().get(0).getId()).isEqualTo(product.getId());
+        assertThat(response.getItems()).hasSize(1);
+        assertThat(response.getItems().get(0).productId()).isEqualTo(product.getId());
         assertThat(response.getCreatedAt()).isBeforeOrEqualTo(LocalDateTime.now());
 
-        verify(productRepo).findAllById(List.of(10L));
+        verify(productService).reserveStock(new TreeMap<>(Map.of(10L, 1)));
         verify(orderRepo).save(any(Order.class));
     }
 
@@ -78,12 +91,8 @@ class OrderServiceTest {
         User user = new User();
         user.setId(1L);
 
-        Product product = new Product();
-        product.setId(10L);
-        product.setStock(10);
-        product.setPrice(new BigDecimal("100.00"));
-
-        when(productRepo.findAllById(List.of(10L, 20L))).thenReturn(List.of(product));
+        when(productService.reserveStock(new TreeMap<>(Map.of(10L, 1, 20L, 1))))
+            .thenThrow(new ResourceNotFoundException("Some products not found"));
 
         OrderRequestDto dto = new OrderRequestDto();
         dto.setProductIds(Arrays.asList(10L, 20L));
@@ -98,20 +107,16 @@ class OrderServiceTest {
         User user = new User();
         user.setId(1L);
 
-        Product product = new Product();
-        product.setId(10L);
-        product.setName("Test Product");
-        product.setStock(0);
-        product.setPrice(new BigDecimal("100.00"));
-
-        when(productRepo.findAllById(List.of(10L))).thenReturn(List.of(product));
+        when(productService.reserveStock(new TreeMap<>(Map.of(10L, 1))))
+            .thenThrow(new InsufficientStockException("Not enough stock for the requested quantities"));
 
         OrderRequestDto dto = new OrderRequestDto();
         dto.setProductIds(List.of(10L));
 
         assertThatThrownBy(() -> orderService.createOrder(user, dto))
-            .isInstanceOf(RuntimeException.class)
-            .hasMessageContaining("is out of stock");
+            .isInstanceOf(InsufficientStockException.class);
+        verify(orderRepo, never()).save(any(Order.class));
+        verifyNoInteractions(outbox);
     }
 
     @Test
@@ -129,7 +134,7 @@ class OrderServiceTest {
         product2.setStock(5);
         product2.setPrice(new BigDecimal("50.00"));
 
-        when(productRepo.findAllById(Arrays.asList(1L, 2L))).thenReturn(Arrays.asList(product1, product2));
+        when(productService.reserveStock(new TreeMap<>(Map.of(1L, 1, 2L, 1)))).thenReturn(Arrays.asList(product1, product2));
         when(orderRepo.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         OrderRequestDto dto = new OrderRequestDto();
@@ -141,7 +146,98 @@ class OrderServiceTest {
     }
 
     @Test
-    void shouldSendEventToKafka() {
+    void shouldReserveRepeatedIdsAsUnitsInIdOrder() {
+        User user = new User();
+        user.setId(1L);
+
+        Product product1 = new Product();
+        product1.setId(1L);
+        product1.setPrice(new BigDecimal("100.00"));
+
+        Product product2 = new Product();
+        product2.setId(2L);
+        product2.setPrice(new BigDecimal("50.00"));
+
+        when(productService.reserveStock(any())).thenReturn(Arrays.asList(product1, product2));
+        when(orderRepo.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        OrderRequestDto dto = new OrderRequestDto();
+        dto.setProductIds(Arrays.asList(2L, 1L, 2L, 2L));
+
+        OrderResponseDto response = orderService.createOrder(user, dto);
+
+        ArgumentCaptor<SortedMap<Long, Integer>> quantities = ArgumentCaptor.forClass(SortedMap.class);
+        verify(productService).reserveStock(quantities.capture());
+        assertThat(quantities.getValue()).containsExactly(entry(1L, 1), entry(2L, 3));
+        assertThat(response.getTotal()).isEqualTo(250.00);
+    }
+
+    @Test
+    void shouldSnapshotNameAndPriceIntoOneItemPerProduct() {
+        User user = new User();
+        user.setId(1L);
+
+        Product product1 = new Product();
+        product1.setId(1L);
+        product1.setName("Mesa");
+        product1.setPrice(new BigDecimal("19.99"));
+
+        Product product2 = new Product();
+        product2.setId(2L);
+        product2.setName("Silla");
+        product2.setPrice(new BigDecimal("0.10"));
+
+        when(productService.reserveStock(new TreeMap<>(Map.of(1L, 10, 2L, 3)))).thenReturn(Arrays.asList(product1, product2));
+        when(orderRepo.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        OrderRequestDto dto = new OrderRequestDto();
+        dto.setItems(List.of(new OrderItemRequest(2L, 2), new OrderItemRequest(1L, 10)));
+        dto.setProductIds(List.of(2L));
+
+        OrderResponseDto response = orderService.createOrder(user, dto);
+
+        ArgumentCaptor<Order> saved = ArgumentCaptor.forClass(Order.class);
+        verify(orderRepo).save(saved.capture());
+        assertThat(saved.getValue().getItems()).containsExactly(
+            new OrderItem(1L, "Mesa", 10, new BigDecimal("19.99")),
+            new OrderItem(2L, "Silla", 3, new BigDecimal("0.10")));
+        assertThat(response.getItems()).containsExactly(
+            new OrderItemDto(1L, "Mesa", 10, new BigDecimal("19.99")),
+            new OrderItemDto(2L, "Silla", 3, new BigDecimal("0.10")));
+        assertThat(response.getTotal()).isEqualTo(200.20);
+    }
+
+    @Test
+    void shouldRejectEmptyOrdersAndNonPositiveQuantities() {
+        User user = new User();
+        user.setId(1L);
+
+        OrderRequestDto empty = new OrderRequestDto();
+        empty.setItems(List.of());
+        OrderRequestDto zero = new OrderRequestDto();
+        zero.setItems(List.of(new OrderItemRequest(1L, 0)));
+
+        assertThatThrownBy(() -> orderService.createOrder(user, empty)).isInstanceOf(InvalidOrderException.class);
+        assertThatThrownBy(() -> orderService.createOrder(user, zero)).isInstanceOf(InvalidOrderException.class);
+        verifyNoInteractions(productService, orderRepo);
+    }
+
+    @Test
+    void shouldRejectRepeatedItemsWhoseQuantityOverflows() {
+        User user = new User();
+        user.setId(1L);
+
+        OrderRequestDto overflow = new OrderRequestDto();
+        overflow.setItems(List.of(new OrderItemRequest(1L, Integer.MAX_VALUE), new OrderItemRequest(1L, 1)));
+
+        assertThatThrownBy(() -> orderService.createOrder(user, overflow))
+            .isInstanceOf(InvalidOrderException.class)
+            .hasMessageContaining("too large");
+        verifyNoInteractions(productService, orderRepo);
+    }
+
+    @Test
+    void shouldWriteTheOrderCreatedEventToTheOutbox() {
         User user = new User();
         user.setId(1L);
 
@@ -150,7 +246,7 @@ class OrderServiceTest {
         product.setStock(10);
         product.setPrice(new BigDecimal("100.00"));
 
-        when(productRepo.findAllById(List.of(10L))).thenReturn(List.of(product));
+        when(productService.reserveStock(new TreeMap<>(Map.of(10L, 1)))).thenReturn(List.of(product));
         when(orderRepo.save(any(Order.class))).thenAnswer(invocation -> {
             Order order = invocation.getArgument(0);
             order.setId(100L);
@@ -163,7 +259,7 @@ class OrderServiceTest {
         orderService.createOrder(user, dto);
 
         ArgumentCaptor<OrderCreatedEvent> eventCaptor = ArgumentCaptor.forClass(OrderCreatedEvent.class);
-        verify(kafkaProducer).publishOrderCreated(eventCaptor.capture());
+        verify(outbox).append(eq("order"), eq(100L), eq(KafkaProducer.ORDER_CREATED_TOPIC), eventCaptor.capture());
 
         OrderCreatedEvent capturedEvent = eventCaptor.getValue();
         assertThat(capturedEvent.getOrderId()).isEqualTo(100L);
@@ -176,44 +272,59 @@ class OrderServiceTest {
         User user = new User();
         user.setId(1L);
 
-        Product product = new Product();
-        product.setId(1L);
+        OrderItem item = new OrderItem(1L, "Mesa", 2, new BigDecimal("60.00"));
 
         Order order = new Order();
         order.setId(1L);
         order.setUser(user);
-        order.setProducts(List.of(product));
+        order.setItems(List.of(item));
 
-        when(orderRepo.findByUserId(1L)).thenReturn(List.of(order));
+        when(orderRepo.findWithItemsByUserId(1L)).thenReturn(List.of(order));
 
         List<OrderResponseDto> orders = orderService.getUserOrders(user);
 
         assertThat(orders).hasSize(1);
         assertThat(orders.get(0).getUserId()).isEqualTo(1L);
+        assertThat(orders.get(0).getItems()).containsExactly(new OrderItemDto(1L, "Mesa", 2, new BigDecimal("60.00")));
     }
 
     @Test
-    void shouldReturnAllOrders() {
+    void shouldAskForOneExtraOrderAndLoadTheLinesOfThePageOnly() {
         User user = new User();
         user.setId(1L);
+        OrderFilter filter = OrderFilter.all("PENDING", null, null);
+        when(orderRepo.findPage(filter, null, 4)).thenReturn(List.of(order(9L, user), order(7L, user), order(4L, user), order(2L, user)));
 
-        Product product = new Product();
-        product.setId(1L);
+        OrderPage page = orderService.listOrders(filter, null, 500);
+
+        assertThat(page.items()).extracting(OrderResponseDto::getId).containsExactly(9L, 7L, 4L);
+        assertThat(OrderCursor.decode(page.nextCursor()).id()).isEqualTo(4L);
+        verify(orderRepo).fetchItems(List.of(9L, 7L, 4L));
+    }
 
-        Order order1 = new Order();
-        order1.setId(1L);
-        order1.setUser(user);
-        order1.setProducts(List.of(product));
-        Order order2 = new Order();
-        order2.setId(2L);
-        order2.setUser(user);
-        order2.setProducts(List.of(product));
+    @Test
+    void shouldContinueBeforeTheIdInTheCursor() {
+        User user = new User();
+        user.setId(1L);
+        OrderFilter filter = OrderFilter.ofUser(1L, null, null, null);
+        when(orderRepo.findPage(filter, 4L, 3)).thenReturn(List.of(order(2L, user)));
 
-        when(orderRepo.findAll()).thenReturn(Arrays.asList(order1, order2));
+        OrderPage page = orderService.listOrders(filter, new OrderCursor(4L).encode(), null);
 
-        List<OrderResponseDto> orders = orderService.getAllOrders();
+        assertThat(page.items()).extracting(OrderResponseDto::getId).containsExactly(2L);
+        assertThat(page.items().get(0).getItems()).containsExactly(new OrderItemDto(1L, "Mesa", 2, new BigDecimal("60.00")));
+        assertThat(page.nextCursor()).isNull();
+    }
 
-        assertThat(orders).hasSize(2);
+    @Test
+    void shouldNotLoadLinesOfAnEmptyPageAndRejectTamperedCursors() {
+        OrderFilter filter = OrderFilter.all(null, null, null);
+        when(orderRepo.findPage(filter, null, 3)).thenReturn(List.of());
+
+        assertThat(orderService.listOrders(filter, "", null).items()).isEmpty();
+        verify(orderRepo, never()).fetchItems(any());
+        assertThatThrownBy(() -> orderService.listOrders(filter, "%%%", null))
+            .isInstanceOf(InvalidCursorException.class);
     }
 
     @Test
@@ -221,14 +332,13 @@ class OrderServiceTest {
         User user = new User();
         user.setId(1L);
 
-        Product product = new Product();
-        product.setId(1L);
+        OrderItem item = new OrderItem(1L, "Mesa", 2, new BigDecimal("60.00"));
 
         Order order = new Order();
         order.setId(1L);
         order.setStatus("PENDING");
         order.setUser(user);
-        order.setProducts(List.of(product));
+        order.setItems(List.of(item));
 
         when(orderRepo.findById(1L)).thenReturn(java.util.Optional.of(order));
         when(orderRepo.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
@@ -247,23 +357,11 @@ class OrderServiceTest {
             .hasMessageContaining("Order not found");
     }
 
-    @Test
-    void shouldReturnOrdersByUserId() {
-        User user = new User();
-        user.setId(1L);
-
-        Product product = new Product();
-        product.setId(1L);
-
+    private static Order order(Long id, User user) {
         Order order = new Order();
-        order.setId(1L);
+        order.setId(id);
         order.setUser(user);
-        order.setProducts(List.of(product));
-
-        when(orderRepo.findByUserId(1L)).thenReturn(List.of(order));
-
-        List<OrderResponseDto> orders = orderService.getOrdersByUserId(1L);
-
-        assertThat(orders).hasSize(1);
+        order.setItems(List.of(new OrderItem(1L, "Mesa", 2, new BigDecimal("60.00"))));
+        return order;
     }
 }
@@ -0,0 +1,141 @@
+package com.ecommerce.service;
+
+import com.ecommerce.kafka.KafkaProducer;
+import com.ecommerce.kafka.ProductInvalidationEvent;
+import com.ecommerce.model.Product;
+import com.ecommerce.repository.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ProductCacheTest {
+
+    private ProductRepository productRepo;
+    private KafkaProducer kafkaProducer;
+    private SimpleMeterRegistry meterRegistry;
+    private ProductCache cache;
+
+    @BeforeEach
+    void setUp() {
+        productRepo = Mockito.mock(ProductRepository.class);
+        kafkaProducer = Mockito.mock(KafkaProducer.class);
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new ProductCache(productRepo, Optional.of(kafkaProducer), true, 100, 300, meterRegistry);
+    }
+
+    @Test
+    void shouldLoadOnceAndCountHits() {
+        when(productRepo.findWithDescriptionById(1L)).thenReturn(Optional.of(product(1L, "10.00")));
+
+        cache.findById(1L);
+        cache.findById(1L);
+        cache.findById(1L);
+
+        verify(productRepo, times(1)).findWithDescriptionById(1L);
+        assertThat(cache.stats().hitCount()).isEqualTo(2);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "products").tag("result", "hit").functionCounter().count())
+            .isEqualTo(2);
+        assertThat(meterRegistry.get("cache.hit.ratio").tag("cache", "products").gauge().value())
+            .isCloseTo(2.0 / 3, org.assertj.core.data.Offset.offset(1e-9));
+    }
+
+    @Test
+    void shouldQueryOnlyMissesAndKeepRequestOrder() {
+        when(productRepo.findWithDescriptionById(2L)).thenReturn(Optional.of(product(2L, "20.00")));
+        cache.findById(2L);
+        when(productRepo.findAllWithDescriptionByIdIn(List.of(3L, 1L, 9L))).thenReturn(List.of(product(1L, "10.00"), product(3L, "30.00")));
+
+        List<Product> products = cache.findAllById(List.of(3L, 2L, 1L, 3L, 9L));
+
+        assertThat(products).extracting(Product::getId).containsExactly(3L, 2L, 1L);
+        assertThat(cache.findAllById(List.of(1L, 3L))).extracting(Product::getId).containsExactly(1L, 3L);
+        verify(productRepo, times(1)).findAllWithDescriptionByIdIn(any());
+    }
+
+    @Test
+    void shouldNeverHandOutTheCachedInstance() {
+        when(productRepo.findWithDescriptionById(1L)).thenReturn(Optional.of(product(1L, "10.00")));
+        cache.findById(1L);
+
+        cache.findById(1L).orElseThrow().setPrice(BigDecimal.ZERO);
+
+        assertThat(cache.findById(1L).orElseThrow().getPrice()).isEqualByComparingTo("10.00");
+    }
+
+    @Test
+    void shouldKeepEveryFieldThroughTheCache() {
+        Product product = product(1L, "10.00");
+        product.setSku("SKU-1");
+        product.setDescription("Descripción");
+        product.setVersion(4L);
+        when(productRepo.findWithDescriptionById(1L)).thenReturn(Optional.of(product));
+        cache.findById(1L);
+
+        Product cached = cache.findById(1L).orElseThrow();
+
+        assertThat(cached).usingRecursiveComparison().ignoringFieldsMatchingRegexes("\\$\\$_hibernate_.*").isEqualTo(product);
+        assertThat(cached.getSku()).isEqualTo("SKU-1");
+    }
+
+    @Test
+    void shouldWriteThroughLocalChangesAndPublishInvalidations() {
+        cache.onProductChanged(ProductChangedEvent.saved(product(1L, "12.00")));
+        assertThat(cache.findById(1L).orElseThrow().getPrice()).isEqualByComparingTo("12.00");
+        verify(productRepo, never()).findWithDescriptionById(1L);
+
+        cache.onProductChanged(ProductChangedEvent.deleted(1L));
+        when(productRepo.findWithDescriptionById(1L)).thenReturn(Optional.empty());
+        assertThat(cache.findById(1L)).isEmpty();
+
+        ArgumentCaptor<ProductInvalidationEvent> published = ArgumentCaptor.forClass(ProductInvalidationEvent.class);
+        verify(kafkaProducer, times(2)).publishProductInvalidated(published.capture());
+        assertThat(published.getAllValues()).allSatisfy(event -> {
+            assertThat(event.getProductId()).isEqualTo(1L);
+            assertThat(event.getOrigin()).isEqualTo(cache.instanceId());
+        });
+    }
+
+    @Test
+    void shouldApplyRemoteChangesWithoutPublishingAgain() {
+        cache.onProductChanged(ProductChangedEvent.remote(1L, product(1L, "15.00")));
+        cache.onProductChanged(ProductChangedEvent.remote(2L, null));
+
+        assertThat(cache.findById(1L).orElseThrow().getPrice()).isEqualByComparingTo("15.00");
+        verify(kafkaProducer, never()).publishProductInvalidated(any());
+        assertThat(meterRegistry.get("catalog.product.cache.remote.invalidations").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldPassThroughWhenDisabled() {
+        ProductCache disabled = new ProductCache(productRepo, Optional.empty(), false, 100, 300, new SimpleMeterRegistry());
+        when(productRepo.findWithDescriptionById(1L)).thenReturn(Optional.of(product(1L, "10.00")));
+
+        disabled.findById(1L);
+        disabled.findById(1L);
+        disabled.onProductChanged(ProductChangedEvent.saved(product(1L, "11.00")));
+
+        verify(productRepo, times(2)).findWithDescriptionById(1L);
+    }
+
+    private static Product product(Long id, String price) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName("Producto " + id);
+        product.setPrice(new BigDecimal(price));
+        product.setStock(3);
+        return product;
+    }
+}
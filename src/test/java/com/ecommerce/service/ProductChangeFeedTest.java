@@ -0,0 +1,185 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.ProductChangeToken;
+import com.ecommerce.dto.ProductChanges;
+import com.ecommerce.exception.ChangeTokenExpiredException;
+import com.ecommerce.exception.InvalidCursorException;
+import com.ecommerce.model.Product;
+import com.ecommerce.model.ProductChange;
+import com.ecommerce.model.ProductChangeLock;
+import com.ecommerce.repository.ProductChangeLockRepository;
+import com.ecommerce.repository.ProductChangeRepository;
+import com.ecommerce.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mockito;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ProductChangeFeedTest {
+
+    private static final Instant NOW = Instant.parse("2024-05-01T12:00:00Z");
+    private static final Duration RETENTION = Duration.ofDays(30);
+    private static final Duration CLOCK_SKEW = Duration.ofSeconds(2);
+
+    private ProductChangeRepository changeRepo;
+    private ProductChangeLockRepository lockRepo;
+    private ProductRepository productRepo;
+    private ProductChangeFeed feed;
+    @SuppressWarnings("unchecked")
+    private final ArgumentCaptor<List<ProductChange>> saved = ArgumentCaptor.forClass(List.class);
+
+    @BeforeEach
+    void setUp() {
+        changeRepo = Mockito.mock(ProductChangeRepository.class);
+        lockRepo = Mockito.mock(ProductChangeLockRepository.class);
+        productRepo = Mockito.mock(ProductRepository.class);
+        when(lockRepo.lockFeed()).thenReturn(Optional.of(new ProductChangeLock()));
+        feed = new ProductChangeFeed(changeRepo, lockRepo, productRepo, 2, 3, RETENTION, CLOCK_SKEW,
+            Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    @Test
+    void shouldReplaceTheProductRowOnEveryLocalChange() {
+        feed.onProductChanged(ProductChangedEvent.deleted(7L));
+
+        // El turno se toma antes de borrar la fila anterior y de pedir el seq nuevo
+        InOrder order = Mockito.inOrder(changeRepo, lockRepo);
+        order.verify(changeRepo).flush();
+        order.verify(lockRepo).lockFeed();
+        order.verify(changeRepo).deleteByProductIdIn(Set.of(7L));
+        order.verify(changeRepo).saveAll(saved.capture());
+        assertThat(saved.getValue()).singleElement().satisfies(change -> {
+            assertThat(change.getProductId()).isEqualTo(7L);
+            assertThat(change.isDeleted()).isTrue();
+            assertThat(change.getChangedAt()).isEqualTo(NOW);
+        });
+    }
+
+    @Test
+    void shouldWriteTheChangesOfATransactionTogetherBeforeCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            feed.onProductChanged(ProductChangedEvent.saved(product(1L)));
+            feed.onProductChanged(ProductChangedEvent.saved(product(2L)));
+            feed.onProductChanged(ProductChangedEvent.deleted(1L));
+            Mockito.verifyNoInteractions(changeRepo, lockRepo);
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(sync -> sync.beforeCommit(false));
+            TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        verify(changeRepo).deleteByProductIdIn(Set.of(1L, 2L));
+        verify(changeRepo).saveAll(saved.capture());
+        // El producto 1 va detrás: su última escritura es el borrado
+        assertThat(saved.getValue()).extracting(ProductChange::getProductId, ProductChange::isDeleted)
+            .containsExactly(tuple(2L, false), tuple(1L, true));
+        assertThat(TransactionSynchronizationManager.getResource(feed)).isNull();
+    }
+
+    @Test
+    void shouldNotRecordChangesReplayedFromOtherReplicas() {
+        feed.onProductChanged(ProductChangedEvent.remote(7L, product(7L)));
+
+        Mockito.verifyNoInteractions(changeRepo, lockRepo);
+    }
+
+    @Test
+    void shouldSplitUpdatesAndTombstonesAndContinueAfterTheLastSeq() {
+        when(changeRepo.findAfter(0, 3)).thenReturn(List.of(
+            change(4, 2L, false, NOW.minusSeconds(60)),
+            change(5, 9L, true, NOW.minusSeconds(50)),
+            change(6, 3L, false, NOW.minusSeconds(40))));
+        when(productRepo.findAllWithDescriptionByIdIn(List.of(2L))).thenReturn(List.of(product(2L)));
+
+        ProductChanges changes = feed.changesSince(null, null);
+
+        assertThat(changes.updated()).extracting(Product::getId).containsExactly(2L);
+        assertThat(changes.deleted()).containsExactly(9L);
+        assertThat(changes.hasMore()).isTrue();
+        ProductChangeToken token = ProductChangeToken.decode(changes.token());
+        assertThat(token.seq()).isEqualTo(5);
+        // Las lápidas pendientes empiezan en el primer cambio no devuelto (menos el desfase de reloj)
+        assertThat(token.since()).isEqualTo(NOW.minusSeconds(40).minus(CLOCK_SKEW));
+    }
+
+    @Test
+    void shouldReturnChangesAsSoonAsTheyAreCommitted() {
+        String since = new ProductChangeToken(10, NOW.minusSeconds(3600)).encode();
+        when(changeRepo.findAfter(10, 4)).thenReturn(List.of(
+            change(11, 2L, false, NOW.minusSeconds(10)),
+            change(12, 3L, false, NOW.minusMillis(1))));
+        when(productRepo.findAllWithDescriptionByIdIn(List.of(2L, 3L))).thenReturn(List.of(product(2L), product(3L)));
+
+        ProductChanges changes = feed.changesSince(since, 5);
+
+        assertThat(changes.updated()).extracting(Product::getId).containsExactly(2L, 3L);
+        assertThat(changes.hasMore()).isFalse();
+        ProductChangeToken token = ProductChangeToken.decode(changes.token());
+        assertThat(token.seq()).isEqualTo(12);
+        assertThat(token.since()).isEqualTo(NOW.minus(CLOCK_SKEW));
+    }
+
+    @Test
+    void shouldKeepTheTokenPositionWhenNothingChanged() {
+        String since = new ProductChangeToken(10, NOW.minusSeconds(3600)).encode();
+        when(changeRepo.findAfter(10, 3)).thenReturn(List.of());
+
+        ProductChanges changes = feed.changesSince(since, null);
+
+        assertThat(changes.updated()).isEmpty();
+        assertThat(changes.deleted()).isEmpty();
+        assertThat(ProductChangeToken.decode(changes.token()).seq()).isEqualTo(10);
+        verify(productRepo, never()).findAllWithDescriptionByIdIn(any());
+    }
+
+    @Test
+    void shouldRejectTokensOlderThanTheTombstoneRetention() {
+        String stale = new ProductChangeToken(10, NOW.minus(RETENTION).minusSeconds(1)).encode();
+
+        assertThatThrownBy(() -> feed.changesSince(stale, null)).isInstanceOf(ChangeTokenExpiredException.class);
+        assertThatThrownBy(() -> feed.changesSince("no-es-un-token", null)).isInstanceOf(InvalidCursorException.class);
+        Mockito.verifyNoInteractions(changeRepo);
+    }
+
+    @Test
+    void shouldPurgeOnlyTombstonesNoLiveTokenCanStillNeed() {
+        feed.purgeTombstones();
+
+        verify(changeRepo).deleteTombstonesBefore(NOW.minus(RETENTION));
+    }
+
+    private static ProductChange change(long seq, Long productId, boolean deleted, Instant changedAt) {
+        ProductChange change = new ProductChange(productId, deleted, changedAt);
+        change.setSeq(seq);
+        return change;
+    }
+
+    private static Product product(Long id) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName("Producto " + id);
+        return product;
+    }
+}
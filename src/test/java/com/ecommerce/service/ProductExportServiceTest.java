@@ -0,0 +1,148 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.ExportFormat;
+import com.ecommerce.dto.ProductImportReport;
+import com.ecommerce.model.Product;
+import com.ecommerce.repository.ProductRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ProductExportServiceTest {
+
+    private final ProductRepository productRepo = Mockito.mock(ProductRepository.class);
+    private final EntityManager entityManager = Mockito.mock(EntityManager.class);
+    private final ProductExportService exportService =
+        new ProductExportService(productRepo, entityManager, new ObjectMapper());
+
+    @Test
+    void shouldWriteOneJsonObjectPerLineAndDetachEachProduct() throws Exception {
+        Product mesa = product(1L, "Mesa", "Roble \"macizo\"");
+        Product silla = product(2L, "Silla", null);
+        when(productRepo.streamAllByOrderById()).thenReturn(Stream.of(mesa, silla));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = exportService.export(ExportFormat.NDJSON, out);
+
+        assertThat(rows).isEqualTo(2);
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo(
+            "{\"id\":1,\"sku\":null,\"name\":\"Mesa\",\"description\":\"Roble \\\"macizo\\\"\",\"price\":9.99,\"stock\":5}\n"
+                + "{\"id\":2,\"sku\":null,\"name\":\"Silla\",\"description\":null,\"price\":9.99,\"stock\":5}\n");
+        verify(entityManager).detach(mesa);
+        verify(entityManager).detach(silla);
+    }
+
+    @Test
+    void shouldQuoteCsvFieldsOnlyWhenNeeded() throws Exception {
+        Product sofa = product(7L, "Sofá \"Nube\"", "Tres plazas,\ngris");
+        sofa.setSku("SOF-7");
+        when(productRepo.streamAllByOrderById()).thenReturn(Stream.of(sofa));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exportService.export(ExportFormat.CSV, out);
+
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo(
+            "id,sku,name,description,price,stock\n7,SOF-7,\"Sofá \"\"Nube\"\"\",\"Tres plazas,\ngris\",9.99,5\n");
+    }
+
+    @Test
+    void shouldExportCsvThatImportsBackAsIs() throws Exception {
+        Product mesa = product(1L, "Mesa, roble", "Maciza");
+        mesa.setSku("MES-1");
+        Product silla = product(2L, "Silla", null);
+        silla.setSku("SIL-2");
+        when(productRepo.streamAllByOrderById()).thenReturn(Stream.of(mesa, silla));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.export(ExportFormat.CSV, out);
+        ProductService productService = Mockito.mock(ProductService.class);
+        List<Product> imported = new ArrayList<>();
+        when(productService.upsertBySku(any())).thenAnswer(invocation -> {
+            imported.addAll(invocation.getArgument(0));
+            return 0;
+        });
+
+        ProductImportReport report = new ProductImportService(productService, new ObjectMapper(), 500, 10)
+            .importProducts(ExportFormat.CSV, new ByteArrayInputStream(out.toByteArray()));
+
+        assertThat(report.failed()).isZero();
+        assertThat(imported).extracting(Product::getSku, Product::getName, Product::getDescription)
+            .containsExactly(
+                tuple("MES-1", "Mesa, roble", "Maciza"),
+                tuple("SIL-2", "Silla", null));
+    }
+
+    @Test
+    void shouldCloseTheCursorWhenDone() throws Exception {
+        AtomicBoolean closed = new AtomicBoolean();
+        when(productRepo.streamAllByOrderById())
+            .thenReturn(Stream.of(product(1L, "Mesa", null)).onClose(() -> closed.set(true)));
+
+        exportService.export(ExportFormat.CSV, OutputStream.nullOutputStream());
+
+        assertThat(closed).isTrue();
+    }
+
+    @Test
+    void shouldKeepHeapFlatWhileExportingMillionsOfRows() throws Exception {
+        long total = 2_000_000;
+        long sampleEvery = 250_000;
+        // Proxy sin estado: un mock de Mockito registraría cada detach() y falsearía la medida
+        EntityManager em = (EntityManager) Proxy.newProxyInstance(getClass().getClassLoader(),
+            new Class<?>[] {EntityManager.class}, (proxy, method, args) -> null);
+        ProductExportService service = new ProductExportService(productRepo, em, new ObjectMapper());
+        List<Long> usedAfterGc = Collections.synchronizedList(new ArrayList<>());
+        when(productRepo.streamAllByOrderById()).thenReturn(LongStream.rangeClosed(1, total)
+            .mapToObj(id -> {
+                if (id % sampleEvery == 0) {
+                    usedAfterGc.add(usedHeapAfterGc());
+                }
+                return product(id, "Producto " + id, "Descripción del producto " + id);
+            }));
+
+        long rows = service.export(ExportFormat.NDJSON, OutputStream.nullOutputStream());
+
+        assertThat(rows).isEqualTo(total);
+        assertThat(usedAfterGc).hasSize((int) (total / sampleEvery));
+        long growth = Collections.max(usedAfterGc) - usedAfterGc.get(0);
+        // Materializar 2M productos ocuparía cientos de MB; en streaming el heap no crece
+        assertThat(growth).isLessThan(16L * 1024 * 1024);
+    }
+
+    private static long usedHeapAfterGc() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        System.gc();
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    private static Product product(Long id, String name, String description) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName(name);
+        product.setDescription(description);
+        product.setPrice(new BigDecimal("9.99"));
+        product.setStock(5);
+        return product;
+    }
+}
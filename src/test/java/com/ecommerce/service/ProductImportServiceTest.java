@@ -0,0 +1,149 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.ExportFormat;
+import com.ecommerce.dto.ProductImportReport;
+import com.ecommerce.dto.ProductImportReport.RowError;
+import com.ecommerce.model.Product;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+class ProductImportServiceTest {
+
+    private ProductService productService;
+    private final List<List<String>> batches = new ArrayList<>();
+    private ProductImportService importService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        productService = Mockito.mock(ProductService.class);
+        // Simula que los sku que empiezan por "new" no existían
+        when(productService.upsertBySku(any())).thenAnswer(invocation -> {
+            Collection<Product> products = invocation.getArgument(0);
+            batches.add(products.stream().map(Product::getSku).toList());
+            return (int) products.stream().filter(p -> p.getSku().startsWith("new")).count();
+        });
+        importService = new ProductImportService(productService, new ObjectMapper(), 2, 10);
+    }
+
+    @Test
+    void shouldUpsertValidJsonLinesInBatchesAndReportTheRest() throws IOException {
+        ProductImportReport report = importNdjson("""
+            {"sku":"new-1","name":"Mesa","price":120.5,"stock":3}
+            {"sku":"old-2","name":"Silla","price":40,"stock":10}
+
+            {"sku":"new-3","name":"Sofá","price":-1}
+            {"sku":"new-4","name":"Lámpara","price":15
+            {"name":"Sin sku","price":5}
+            {"sku":"new-5","name":"Estante","price":60,"stock":1}
+            """);
+
+        assertThat(batches).containsExactly(List.of("new-1", "old-2"), List.of("new-5"));
+        assertThat(report.rows()).isEqualTo(6);
+        assertThat(report.created()).isEqualTo(2);
+        assertThat(report.updated()).isEqualTo(1);
+        assertThat(report.failed()).isEqualTo(3);
+        assertThat(report.errors()).extracting(RowError::row, RowError::sku)
+            .containsExactly(tuple(3L, "new-3"), tuple(4L, null), tuple(5L, null));
+        assertThat(report.errors().get(1).message()).startsWith("Invalid JSON");
+        assertThat(report.errorsTruncated()).isFalse();
+    }
+
+    @Test
+    void shouldReadCsvColumnsByNameWithQuotedFieldsAcrossLines() throws IOException {
+        ProductImportReport report = importCsv("""
+            id,sku,name,description,price,stock
+            1,new-1,"Mesa, roble","Tablero ""macizo""
+            de 2 m",120.50,3
+            2,new-2,Silla,,abc,1
+            3,new-3,Sofá,Tres plazas,300
+            4,new-4,Banco,,25.00,
+            """);
+
+        assertThat(report.rows()).isEqualTo(4);
+        assertThat(report.created()).isEqualTo(2);
+        assertThat(report.errors()).extracting(RowError::row).containsExactly(2L, 3L);
+        assertThat(batches).containsExactly(List.of("new-1", "new-4"));
+    }
+
+    @Test
+    void shouldParseQuotedCsvFields() throws IOException {
+        BufferedReader reader = new BufferedReader(new StringReader("a,\"b,\"\"c\"\"\r\nd\",\r\nnext\n"));
+
+        assertThat(ProductImportService.readCsvRecord(reader)).containsExactly("a", "b,\"c\"\r\nd", "");
+        assertThat(ProductImportService.readCsvRecord(reader)).containsExactly("next");
+        assertThat(ProductImportService.readCsvRecord(reader)).isNull();
+    }
+
+    @Test
+    void shouldRejectCsvWithoutRequiredColumns() throws IOException {
+        ProductImportReport report = importCsv("sku,name\nnew-1,Mesa\n");
+
+        assertThat(report.rows()).isZero();
+        assertThat(report.errors()).singleElement().satisfies(error -> assertThat(error.message()).contains("price"));
+        Mockito.verifyNoInteractions(productService);
+    }
+
+    @Test
+    void shouldReportEveryRowOfARejectedBatchAndGoOn() throws IOException {
+        Mockito.doThrow(new DataIntegrityViolationException("dup", new IllegalStateException("duplicate key")))
+            .doReturn(1)
+            .when(productService).upsertBySku(any());
+
+        ProductImportReport report = importNdjson("""
+            {"sku":"new-1","name":"Mesa","price":1}
+            {"sku":"new-2","name":"Silla","price":1}
+            {"sku":"new-3","name":"Sofá","price":1}
+            """);
+
+        assertThat(report.failed()).isEqualTo(2);
+        assertThat(report.created()).isEqualTo(1);
+        assertThat(report.errors()).extracting(RowError::sku).containsExactly("new-1", "new-2");
+        assertThat(report.errors().get(0).message()).contains("duplicate key");
+    }
+
+    @Test
+    void shouldMergeRepeatedSkusOfABatchAndCapTheErrorList() throws IOException {
+        StringBuilder body = new StringBuilder("{\"sku\":\"new-1\",\"name\":\"A\",\"price\":1}\n")
+            .append("{\"sku\":\"new-1\",\"name\":\"B\",\"price\":2}\n");
+        for (int i = 0; i < 15; i++) {
+            body.append("{\"sku\":\"\",\"name\":\"X\",\"price\":1}\n");
+        }
+
+        ProductImportReport report = importNdjson(body.toString());
+
+        assertThat(batches).containsExactly(List.of("new-1"));
+        assertThat(report.failed()).isEqualTo(15);
+        assertThat(report.errors()).hasSize(10);
+        assertThat(report.errorsTruncated()).isTrue();
+    }
+
+    private ProductImportReport importNdjson(String body) throws IOException {
+        return importService.importProducts(ExportFormat.NDJSON, stream(body));
+    }
+
+    private ProductImportReport importCsv(String body) throws IOException {
+        return importService.importProducts(ExportFormat.CSV, stream(body));
+    }
+
+    private static ByteArrayInputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,270 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.ProductCursor;
+import com.ecommerce.dto.ProductPage;
+import com.ecommerce.dto.ProductSummary;
+import com.ecommerce.exception.InsufficientStockException;
+import com.ecommerce.exception.InvalidCursorException;
+import com.ecommerce.exception.ResourceNotFoundException;
+import com.ecommerce.model.Product;
+import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.search.ProductSearchIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.Mockito;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ProductServiceTest {
+
+    private ProductRepository productRepo;
+    private ProductSearchIndex searchIndex;
+    private ProductCache productCache;
+    private final List<Object> events = new ArrayList<>();
+    private ProductService productService;
+
+    @BeforeEach
+    void setUp() {
+        productRepo = Mockito.mock(ProductRepository.class);
+        searchIndex = Mockito.mock(ProductSearchIndex.class);
+        productCache = new ProductCache(productRepo, Optional.empty(), true, 100, 60, new SimpleMeterRegistry());
+        productService = new ProductService(productRepo, productCache, searchIndex, events::add, 2, 3, 20, 100);
+    }
+
+    @Test
+    void shouldAskForOneExtraRowAndCapPageSize() {
+        when(productRepo.findFirstPageByName(4)).thenReturn(List.of());
+
+        productService.listProducts(null, 500, "name");
+
+        verify(productRepo).findFirstPageByName(4);
+    }
+
+    @Test
+    void shouldEncodeLastRowOfPageInCursor() {
+        when(productRepo.findFirstPageByPrice(3))
+            .thenReturn(List.of(summary(5L, "Mesa", "10.00"), summary(9L, "Silla", "12.50"), summary(2L, "Sofá", "99")));
+
+        ProductPage page = productService.listProducts(null, null, "price");
+
+        assertThat(page.items()).extracting(ProductSummary::id).containsExactly(5L, 9L);
+        ProductCursor cursor = ProductCursor.decode(page.nextCursor());
+        assertThat(cursor.sort()).isEqualTo(ProductCursor.Sort.PRICE);
+        assertThat(cursor.price()).isEqualByComparingTo("12.50");
+        assertThat(cursor.id()).isEqualTo(9L);
+    }
+
+    @Test
+    void shouldContinueWithTheSortStoredInTheCursor() {
+        String cursor = new ProductCursor(ProductCursor.Sort.NAME, "Silla", 9L).encode();
+        when(productRepo.findPageAfterName("Silla", 9L, 3))
+            .thenReturn(List.of(summary(2L, "Sofá", "99")));
+
+        ProductPage page = productService.listProducts(cursor, null, "id");
+
+        assertThat(page.items()).extracting(ProductSummary::id).containsExactly(2L);
+        assertThat(page.nextCursor()).isNull();
+    }
+
+    @Test
+    void shouldEndAPageOnAProductWithoutPriceAndContinueWithTheOthersWithoutPrice() {
+        when(productRepo.findFirstPageByPrice(3))
+            .thenReturn(List.of(summary(5L, "Mesa", "10.00"), summary(7L, "Sin precio", null), summary(8L, "Otro", null)));
+
+        ProductPage first = productService.listProducts(null, null, "price");
+
+        ProductCursor cursor = ProductCursor.decode(first.nextCursor());
+        assertThat(cursor.key()).isNull();
+        assertThat(cursor.price()).isNull();
+        assertThat(cursor.id()).isEqualTo(7L);
+
+        when(productRepo.findPageWithoutPriceAfter(7L, 3)).thenReturn(List.of(summary(8L, "Otro", null)));
+
+        ProductPage second = productService.listProducts(first.nextCursor(), null, null);
+
+        assertThat(second.items()).extracting(ProductSummary::id).containsExactly(8L);
+        assertThat(second.nextCursor()).isNull();
+    }
+
+    @Test
+    void shouldFillAPageWithProductsWithoutNameOnceTheNamedOnesRunOut() {
+        String cursor = new ProductCursor(ProductCursor.Sort.NAME, "Silla", 9L).encode();
+        when(productRepo.findPageAfterName("Silla", 9L, 3)).thenReturn(List.of(summary(2L, "Sofá", "99")));
+        when(productRepo.findPageWithoutNameAfter(0L, 2))
+            .thenReturn(List.of(summary(4L, null, "1"), summary(6L, null, "2")));
+
+        ProductPage page = productService.listProducts(cursor, 2, null);
+
+        assertThat(page.items()).extracting(ProductSummary::id).containsExactly(2L, 4L);
+        assertThat(ProductCursor.decode(page.nextCursor())).isEqualTo(new ProductCursor(ProductCursor.Sort.NAME, null, 4L));
+    }
+
+    @Test
+    void shouldRejectTamperedCursorsAndUnknownSorts() {
+        String badPrice = new ProductCursor(ProductCursor.Sort.PRICE, "abc", 1L).encode();
+
+        assertThatThrownBy(() -> productService.listProducts(badPrice, null, "id"))
+            .isInstanceOf(InvalidCursorException.class);
+        assertThatThrownBy(() -> productService.listProducts("%%%", null, "id"))
+            .isInstanceOf(InvalidCursorException.class);
+        assertThatThrownBy(() -> productService.listProducts(null, null, "stock; drop table"))
+            .isInstanceOf(InvalidCursorException.class);
+    }
+
+    @Test
+    void shouldHydrateSearchHitsInRankingOrder() {
+        when(searchIndex.search("mesa", 100)).thenReturn(List.of(3L, 1L, 8L));
+        // 8 borrado entre el índice y la carga: se omite
+        when(productRepo.findAllWithDescriptionByIdIn(List.of(3L, 1L, 8L)))
+            .thenReturn(List.of(product(1L, "Mesa", "10"), product(3L, "Mesa alta", "20")));
+
+        List<ProductSummary> results = productService.searchProducts("mesa", 500);
+
+        assertThat(results).extracting(ProductSummary::id).containsExactly(3L, 1L);
+    }
+
+    @Test
+    void shouldNotQueryDatabaseWithoutSearchHits() {
+        when(searchIndex.search("nada", 20)).thenReturn(List.of());
+
+        assertThat(productService.searchProducts("nada", null)).isEmpty();
+        Mockito.verifyNoInteractions(productRepo);
+    }
+
+    @Test
+    void shouldServeRepeatedReadsFromCache() {
+        when(productRepo.findWithDescriptionById(4L)).thenReturn(Optional.of(product(4L, "Mesa", "10")));
+
+        productService.getProduct(4L);
+        productService.getProduct(4L);
+
+        verify(productRepo, Mockito.times(1)).findWithDescriptionById(4L);
+    }
+
+    @Test
+    void shouldReplayRemoteChangesAsRemoteEvents() {
+        Product current = product(4L, "Mesa", "12");
+        when(productRepo.findWithDescriptionById(4L)).thenReturn(Optional.of(current));
+        when(productRepo.findWithDescriptionById(5L)).thenReturn(Optional.empty());
+
+        productService.applyRemoteChange(4L);
+        productService.applyRemoteChange(5L);
+
+        assertThat(events).containsExactly(ProductChangedEvent.remote(4L, current), ProductChangedEvent.remote(5L, null));
+    }
+
+    @Test
+    void shouldPublishLocalChanges() {
+        Product saved = product(6L, "Sofá", "300");
+        when(productRepo.save(saved)).thenReturn(saved);
+        when(productRepo.existsById(6L)).thenReturn(true);
+
+        productService.createProduct(saved);
+        productService.deleteProduct(6L);
+
+        assertThat(events).containsExactly(ProductChangedEvent.saved(saved), ProductChangedEvent.deleted(6L));
+    }
+
+    @Test
+    void shouldApplyUpdatesOnTheStoredRowKeepingItsVersion() {
+        Product stored = product(8L, "Silla", "40");
+        stored.setVersion(5);
+        when(productRepo.findById(8L)).thenReturn(Optional.of(stored));
+        when(productRepo.saveAndFlush(stored)).thenReturn(stored);
+        Product body = product(null, "Silla alta", "45");
+        body.setVersion(0);
+
+        assertThat(productService.updateProduct(8L, body)).contains(stored);
+
+        assertThat(stored.getName()).isEqualTo("Silla alta");
+        assertThat(stored.getPrice()).isEqualByComparingTo("45");
+        assertThat(stored.getVersion()).isEqualTo(5);
+    }
+
+    @Test
+    void shouldNotUpdateMissingProducts() {
+        when(productRepo.findById(9L)).thenReturn(Optional.empty());
+
+        assertThat(productService.updateProduct(9L, product(null, "X", "1"))).isEmpty();
+        assertThat(events).isEmpty();
+    }
+
+    @Test
+    void shouldUpsertBySkuAndPublishEveryProductAfterFlushing() {
+        Product stored = product(8L, "Silla", "40");
+        stored.setSku("S-8");
+        when(productRepo.findBySkuIn(List.of("S-8", "S-9"))).thenReturn(List.of(stored));
+        Product update = product(null, "Silla alta", "45");
+        update.setSku("S-8");
+        Product fresh = product(null, "Mesa", "120");
+        fresh.setSku("S-9");
+        when(productRepo.save(fresh)).thenAnswer(invocation -> {
+            fresh.setId(9L);
+            return fresh;
+        });
+
+        int created = productService.upsertBySku(List.of(update, fresh));
+
+        assertThat(created).isEqualTo(1);
+        assertThat(stored.getName()).isEqualTo("Silla alta");
+        assertThat(stored.getPrice()).isEqualByComparingTo("45");
+        Mockito.verify(productRepo, Mockito.never()).save(update);
+        InOrder order = Mockito.inOrder(productRepo);
+        order.verify(productRepo).flush();
+        assertThat(events).containsExactly(ProductChangedEvent.saved(stored), ProductChangedEvent.saved(fresh));
+    }
+
+    @Test
+    void shouldReserveStockAndPublishTheReservedProductsInIdOrder() {
+        SortedMap<Long, Integer> quantities = new TreeMap<>(Map.of(7L, 2, 3L, 1));
+        Product seven = product(7L, "Mesa", "120");
+        Product three = product(3L, "Silla", "40");
+        when(productRepo.reserveStock(quantities)).thenReturn(2);
+        when(productRepo.findAllWithDescriptionByIdIn(quantities.keySet())).thenReturn(List.of(seven, three));
+
+        List<Product> reserved = productService.reserveStock(quantities);
+
+        assertThat(reserved).containsExactly(three, seven);
+        assertThat(events).containsExactly(ProductChangedEvent.saved(three), ProductChangedEvent.saved(seven));
+    }
+
+    @Test
+    void shouldRejectReservationsOfMissingOrShortProducts() {
+        SortedMap<Long, Integer> quantities = new TreeMap<>(Map.of(3L, 1, 7L, 5));
+        when(productRepo.reserveStock(quantities)).thenReturn(1);
+        when(productRepo.findAllWithDescriptionByIdIn(quantities.keySet()))
+            .thenReturn(List.of(product(3L, "Silla", "40")))
+            .thenReturn(List.of(product(3L, "Silla", "40"), product(7L, "Mesa", "120")));
+
+        assertThatThrownBy(() -> productService.reserveStock(quantities))
+            .isInstanceOf(ResourceNotFoundException.class);
+        assertThatThrownBy(() -> productService.reserveStock(quantities))
+            .isInstanceOf(InsufficientStockException.class);
+        assertThat(events).isEmpty();
+    }
+
+    private static Product product(Long id, String name, String price) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName(name);
+        product.setPrice(new BigDecimal(price));
+        return product;
+    }
+
+    private static ProductSummary summary(Long id, String name, String price) {
+        return new ProductSummary(id, null, name, price != null ? new BigDecimal(price) : null, 0, 0);
+    }
+}